@@ -0,0 +1,73 @@
+package com.swnih.benchmark;
+
+import com.swnih.service.EncryptionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of decrypting a stored OAuth access token.
+ * Compares the original ECB behaviour (key derivation and Cipher.getInstance per call),
+ * EncryptionService's legacy read path and its GCM envelope format (String and byte APIs).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class EncryptionBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-32-chars-ok";
+    private static final String ACCESS_TOKEN =
+            "ya29.a0AfB_byC-benchmark-access-token-with-a-realistic-length-of-about-two-hundred-characters-" +
+            "xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx";
+
+    private EncryptionService encryptionService;
+    private String legacyText;
+    private String encryptedText;
+    private byte[] encryptedBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        encryptionService = new EncryptionService(new SimpleMeterRegistry());
+        Field field = EncryptionService.class.getDeclaredField("secretKeyString");
+        field.setAccessible(true);
+        field.set(encryptionService, SECRET);
+
+        Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "AES"));
+        legacyText = Base64.getEncoder().encodeToString(cipher.doFinal(ACCESS_TOKEN.getBytes(StandardCharsets.UTF_8)));
+
+        encryptedText = encryptionService.encrypt(ACCESS_TOKEN);
+        encryptedBytes = encryptionService.encrypt(ACCESS_TOKEN.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public String decryptUncached() throws Exception {
+        SecretKeySpec key = new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "AES");
+        Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        cipher.init(Cipher.DECRYPT_MODE, key);
+        return new String(cipher.doFinal(Base64.getDecoder().decode(legacyText)), StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String decryptLegacy() {
+        return encryptionService.decrypt(legacyText);
+    }
+
+    @Benchmark
+    public String decryptString() {
+        return encryptionService.decrypt(encryptedText);
+    }
+
+    @Benchmark
+    public byte[] decryptBytes() {
+        return encryptionService.decrypt(encryptedBytes);
+    }
+}
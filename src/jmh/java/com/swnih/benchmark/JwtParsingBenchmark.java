@@ -0,0 +1,78 @@
+package com.swnih.benchmark;
+
+import com.swnih.service.JwtTokenService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT authentication.
+ * Compares the previous behaviour (key and parser rebuilt on every call, token parsed
+ * once per claim) with a single parse through JwtTokenService's cached parser.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class JwtParsingBenchmark {
+
+    private static final String SECRET = "benchmark-jwt-secret-key-should-be-at-least-256-bits-long";
+
+    private JwtTokenService jwtTokenService;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        jwtTokenService = new JwtTokenService(new SimpleMeterRegistry());
+        setField(jwtTokenService, "jwtSecret", SECRET);
+        setField(jwtTokenService, "jwtExpirationMs", 3600000L);
+        jwtTokenService.init();
+        token = jwtTokenService.generateToken(42L, "bench@example.com", "bench");
+    }
+
+    /**
+     * Filter path before caching: validate, then extract user ID and email,
+     * each building a new key and parser.
+     */
+    @Benchmark
+    public Object rebuildAndParsePerClaim() {
+        parseWithNewParser(token);
+        Long userId = parseWithNewParser(token).get("userId", Long.class);
+        String email = parseWithNewParser(token).getSubject();
+        return userId + email;
+    }
+
+    /**
+     * Filter path now: one verified parse with the shared parser.
+     */
+    @Benchmark
+    public Object parseOnce() {
+        Claims claims = jwtTokenService.parseToken(token).orElseThrow();
+        Long userId = JwtTokenService.getUserId(claims);
+        String email = claims.getSubject();
+        return userId + email;
+    }
+
+    private static Claims parseWithNewParser(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,101 @@
+package com.swnih.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.swnih.dto.MessageListResponse;
+import com.swnih.dto.MessageSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building and serializing a Gmail fetch response of 50 messages.
+ * Compares the previous per-message HashMaps wrapped in Map.of with record DTOs, written
+ * through a plain ObjectMapper and through a pre-resolved writer with Blackbird.
+ * Run with "-prof gc" to see bytes allocated per response (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class MessageSerializationBenchmark {
+
+    private static final int MESSAGES = 50;
+
+    private ObjectMapper plainMapper;
+    private ObjectWriter blackbirdWriter;
+    private LocalDateTime timestamp;
+
+    @Setup
+    public void setUp() {
+        plainMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ObjectMapper blackbirdMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new BlackbirdModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        blackbirdWriter = blackbirdMapper.writerFor(MessageListResponse.class);
+        timestamp = LocalDateTime.of(2024, 5, 1, 9, 30);
+    }
+
+    /**
+     * Previous response: a HashMap per message inside a Map.of envelope.
+     */
+    @Benchmark
+    public byte[] hashMaps() throws Exception {
+        List<Map<String, Object>> messages = new ArrayList<>(MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            Map<String, Object> message = new HashMap<>();
+            message.put("id", "18f2a6c0d4e5b" + i);
+            message.put("sender", "sender" + i + "@example.com");
+            message.put("subject", "Weekly team meeting reminder " + i);
+            message.put("body", "Don't forget about our weekly standup meeting tomorrow at 10 AM...");
+            message.put("priority", "MEDIUM");
+            message.put("timestamp", timestamp);
+            message.put("source", "GMAIL");
+            messages.add(message);
+        }
+        return plainMapper.writeValueAsBytes(Map.of(
+            "success", true,
+            "message", "Messages fetched successfully",
+            "messages", messages,
+            "count", messages.size()
+        ));
+    }
+
+    /**
+     * Record DTOs through the same plain ObjectMapper.
+     */
+    @Benchmark
+    public byte[] records() throws Exception {
+        return plainMapper.writeValueAsBytes(buildResponse());
+    }
+
+    /**
+     * Record DTOs through a pre-resolved writer with Blackbird, as the application now serves them.
+     */
+    @Benchmark
+    public byte[] recordsBlackbird() throws Exception {
+        return blackbirdWriter.writeValueAsBytes(buildResponse());
+    }
+
+    private MessageListResponse buildResponse() {
+        List<MessageSummary> messages = new ArrayList<>(MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            messages.add(MessageSummary.fetched("18f2a6c0d4e5b" + i, "sender" + i + "@example.com",
+                    "Weekly team meeting reminder " + i,
+                    "Don't forget about our weekly standup meeting tomorrow at 10 AM...", "MEDIUM", timestamp));
+        }
+        return MessageListResponse.of(messages);
+    }
+}
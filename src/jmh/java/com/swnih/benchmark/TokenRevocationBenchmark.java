@@ -0,0 +1,52 @@
+package com.swnih.benchmark;
+
+import com.swnih.security.BloomFilter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the per-request revocation check done by TokenRevocationService:
+ * a Bloom filter probe for a token that is not revoked (the common case) and
+ * the filter-plus-map path for a revoked one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class TokenRevocationBenchmark {
+
+    @Param({"1000", "100000"})
+    private int revokedCount;
+
+    private BloomFilter filter;
+    private ConcurrentHashMap<String, Long> revoked;
+    private String activeJti;
+    private String revokedJti;
+
+    @Setup
+    public void setUp() {
+        filter = new BloomFilter(Math.max(100000, revokedCount), 0.01);
+        revoked = new ConcurrentHashMap<>();
+        for (int i = 0; i < revokedCount; i++) {
+            String jti = UUID.randomUUID().toString();
+            revoked.put(jti, Long.MAX_VALUE);
+            filter.put(jti);
+            revokedJti = jti;
+        }
+        activeJti = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public boolean activeToken() {
+        return filter.mightContain(activeJti) && revoked.containsKey(activeJti);
+    }
+
+    @Benchmark
+    public boolean revokedToken() {
+        return filter.mightContain(revokedJti) && revoked.containsKey(revokedJti);
+    }
+}
@@ -2,6 +2,7 @@ package com.swnih.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -49,12 +50,14 @@ public class DatabaseConfig {
     /**
      * Configure HikariCP DataSource with connection pooling settings.
      * Pool size is configured between 5-20 connections as per requirements.
+     * Pool usage and connection wait times are published as hikaricp.* metrics.
      * 
+     * @param meterRegistry registry for the pool metrics
      * @return configured HikariDataSource
      */
     @Bean
     @Primary
-    public DataSource dataSource() {
+    public DataSource dataSource(MeterRegistry meterRegistry) {
         HikariConfig config = new HikariConfig();
         
         // Use H2 in-memory database for easy setup
@@ -70,6 +73,8 @@ public class DatabaseConfig {
         config.setConnectionTimeout(connectionTimeout); // 20 seconds connection timeout
         config.setMaxLifetime(maxLifetime);           // 20 minutes max lifetime
         config.setPoolName(poolName);
+        // Set before the pool starts; metrics cannot be attached to a running pool
+        config.setMetricRegistry(meterRegistry);
         
         // Performance and reliability settings
         config.setLeakDetectionThreshold(60000);      // 1 minute leak detection
@@ -0,0 +1,20 @@
+package com.swnih.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson customization for API responses.
+ * Registers Blackbird, which replaces reflective getter and constructor calls in serializers
+ * and deserializers with generated lambdas; Spring Boot adds every Module bean to its ObjectMapper.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,41 @@
+package com.swnih.config;
+
+import com.swnih.repository.OAuthStateRepository;
+import com.swnih.service.DatabaseOAuthStateStore;
+import com.swnih.service.InMemoryOAuthStateStore;
+import com.swnih.service.OAuthStateStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the OAuth state store.
+ * "memory" keeps states on the instance that issued them (single node);
+ * "database" stores them in oauth_states so callbacks can be handled by any instance.
+ */
+@Configuration
+public class OAuthStateStoreConfig {
+
+    @Value("${gmail.oauth.state-store:memory}")
+    private String storeType;
+
+    @Value("${gmail.oauth.state-ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${gmail.oauth.state-tick-ms:10000}")
+    private long tickMillis;
+
+    @Value("${gmail.oauth.state-max-size:10000}")
+    private int maxSize;
+
+    @Bean
+    public OAuthStateStore oauthStateStore(OAuthStateRepository oauthStateRepository) {
+        if ("database".equalsIgnoreCase(storeType)) {
+            return new DatabaseOAuthStateStore(oauthStateRepository, ttlSeconds);
+        }
+        if (!"memory".equalsIgnoreCase(storeType)) {
+            throw new IllegalArgumentException("Unknown gmail.oauth.state-store: " + storeType);
+        }
+        return new InMemoryOAuthStateStore(ttlSeconds, tickMillis, maxSize);
+    }
+}
@@ -0,0 +1,13 @@
+package com.swnih.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling configuration for background maintenance jobs
+ * (message retention and other periodic housekeeping).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,10 +2,14 @@ package com.swnih.config;
 
 import com.swnih.security.JwtAuthenticationEntryPoint;
 import com.swnih.security.JwtAuthenticationFilter;
+import com.swnih.security.PasswordHashCalibrator;
+import com.swnih.security.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -22,7 +26,7 @@ import java.util.List;
 
 /**
  * Security configuration for the SWNIH application.
- * Configures JWT authentication, CORS policies, and password encoding.
+ * Configures JWT authentication, rate limiting, CORS policies, and password encoding.
  */
 @Configuration
 @EnableWebSecurity
@@ -40,14 +44,46 @@ public class SecurityConfig {
     @Value("${cors.allow-credentials}")
     private boolean allowCredentials;
 
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    // -1 when actuator shares the application port
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
+    private final RateLimitFilter rateLimitFilter;
 
     @Autowired
     public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
-                         JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint) {
+                         JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
+                         RateLimitFilter rateLimitFilter) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
+        this.rateLimitFilter = rateLimitFilter;
+    }
+
+    /**
+     * Open the actuator endpoints on the management port, which only the metrics scraper
+     * and health probes can reach. Requests on the application port use the chain below.
+     * 
+     * @param http HttpSecurity configuration
+     * @return SecurityFilterChain for the management port
+     * @throws Exception if configuration fails
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain managementFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher(request -> managementPort > 0 && managementPort != serverPort
+                    && request.getLocalPort() == managementPort)
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(session ->
+                session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .authorizeHttpRequests(authz -> authz.anyRequest().permitAll());
+
+        return http.build();
     }
 
     /**
@@ -72,12 +108,16 @@ public class SecurityConfig {
             
             // Configure authorization rules
             .authorizeHttpRequests(authz -> authz
+                // Async dispatches continue a request that was already authorized (event streams)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // Allow public access to authentication pages and static resources
                 .requestMatchers("/", "/login", "/register", "/dashboard", "/test", "/debug.html", "/index-fixed.html").permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/gmail/oauth/callback").permitAll()
-                .requestMatchers("/css/**", "/js/**", "/images/**", "/favicon.ico").permitAll()
+                .requestMatchers("/css/**", "/js/**", "/assets/**", "/images/**", "/favicon.ico").permitAll()
                 .requestMatchers("/h2-console/**").permitAll() // Allow H2 console access
+                .requestMatchers("/actuator/health").permitAll() // Liveness and readiness probes
                 
                 // Protect API endpoints (but not the dashboard page itself)
                 .requestMatchers("/api/gmail/**").authenticated()
@@ -91,6 +131,9 @@ public class SecurityConfig {
             
             // Configure JWT authentication
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            
+            // Rate limit API requests per IP and, once authenticated, per user
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
             .exceptionHandling(exceptions -> 
                 exceptions.authenticationEntryPoint(jwtAuthenticationEntryPoint)
             );
@@ -141,11 +184,12 @@ public class SecurityConfig {
     /**
      * Configure password encoder with bcrypt (12+ rounds as per requirements).
      * 
-     * @return BCrypt password encoder with strength 12
+     * @param calibrator picks the strength for this machine's latency budget
+     * @return BCrypt password encoder with the calibrated strength
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        // Use BCrypt with strength 12 (Requirements 6.3)
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(PasswordHashCalibrator calibrator) {
+        // Use BCrypt with calibrated strength, never below min-strength (Requirements 6.3)
+        return new BCryptPasswordEncoder(calibrator.getStrength());
     }
 }
\ No newline at end of file
@@ -1,15 +1,19 @@
 package com.swnih.controller;
 
 import com.swnih.dto.AuthenticationResponse;
+import com.swnih.dto.RefreshTokenRequest;
 import com.swnih.dto.UserLoginRequest;
 import com.swnih.dto.UserRegistrationRequest;
 import com.swnih.entity.User;
 import com.swnih.exception.AuthenticationException;
+import com.swnih.exception.TooManyAttemptsException;
 import com.swnih.exception.UserAlreadyExistsException;
 import com.swnih.service.AuthenticationService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -66,6 +70,9 @@ public class AuthController {
                         "error", "USER_ALREADY_EXISTS",
                         "message", e.getMessage()
                     ));
+        } catch (TooManyAttemptsException e) {
+            logger.warn("Registration rejected by admission control: {}", e.getMessage());
+            return tooManyAttempts(e);
         } catch (IllegalArgumentException e) {
             logger.warn("Registration failed - invalid input: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -87,16 +94,19 @@ public class AuthController {
 
     /**
      * Authenticate user and generate JWT token.
+     * Failed attempts are throttled per account and per client IP; behind a trusted proxy the
+     * client IP is taken from X-Forwarded-For (server.forward-headers-strategy).
      * 
      * @param loginRequest user login credentials
+     * @param request HTTP request, used for per-IP throttling
      * @return authentication response with JWT token
      */
     @PostMapping("/login")
-    public ResponseEntity<?> loginUser(@Valid @RequestBody UserLoginRequest loginRequest) {
+    public ResponseEntity<?> loginUser(@Valid @RequestBody UserLoginRequest loginRequest, HttpServletRequest request) {
         try {
             logger.info("Attempting to authenticate user with email: {}", loginRequest.getEmail());
 
-            AuthenticationResponse authResponse = authenticationService.authenticateUser(loginRequest);
+            AuthenticationResponse authResponse = authenticationService.authenticateUser(loginRequest, request.getRemoteAddr());
 
             logger.info("Successfully authenticated user: {}", authResponse.getUsername());
 
@@ -105,11 +115,16 @@ public class AuthController {
                 "message", "Login successful",
                 "token", authResponse.getToken(),
                 "tokenType", authResponse.getTokenType(),
+                "expiresIn", authResponse.getExpiresIn(),
+                "refreshToken", authResponse.getRefreshToken(),
                 "userId", authResponse.getUserId(),
                 "username", authResponse.getUsername(),
                 "email", authResponse.getEmail()
             ));
 
+        } catch (TooManyAttemptsException e) {
+            logger.warn("Login rejected by admission control: {}", e.getMessage());
+            return tooManyAttempts(e);
         } catch (AuthenticationException e) {
             logger.warn("Authentication failed: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -129,6 +144,124 @@ public class AuthController {
         }
     }
 
+    /**
+     * Exchange a refresh token for a new JWT and refresh token.
+     * No password verification is done, so this is cheap enough to call on every JWT expiry.
+     * 
+     * @param refreshRequest the current refresh token
+     * @return new JWT and replacement refresh token
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshRequest) {
+        try {
+            AuthenticationResponse authResponse = authenticationService.refreshSession(refreshRequest.getRefreshToken());
+
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Token refreshed",
+                "token", authResponse.getToken(),
+                "tokenType", authResponse.getTokenType(),
+                "expiresIn", authResponse.getExpiresIn(),
+                "refreshToken", authResponse.getRefreshToken(),
+                "userId", authResponse.getUserId(),
+                "username", authResponse.getUsername(),
+                "email", authResponse.getEmail()
+            ));
+
+        } catch (AuthenticationException e) {
+            logger.warn("Token refresh failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of(
+                        "success", false,
+                        "error", "INVALID_REFRESH_TOKEN",
+                        "message", e.getMessage()
+                    ));
+        } catch (Exception e) {
+            logger.error("Unexpected error during token refresh", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                        "success", false,
+                        "error", "INTERNAL_ERROR",
+                        "message", "An unexpected error occurred during token refresh"
+                    ));
+        }
+    }
+
+    /**
+     * Log out by revoking the session's refresh token and current JWT.
+     * 
+     * @param refreshRequest the session's refresh token
+     * @param authHeader optional Authorization header with the JWT to revoke
+     * @return logout result
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@Valid @RequestBody RefreshTokenRequest refreshRequest,
+                                    @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        try {
+            String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+            authenticationService.logout(refreshRequest.getRefreshToken(), accessToken);
+
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Logged out successfully"
+            ));
+
+        } catch (Exception e) {
+            logger.error("Unexpected error during logout", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                        "success", false,
+                        "error", "INTERNAL_ERROR",
+                        "message", "An unexpected error occurred during logout"
+                    ));
+        }
+    }
+
+    /**
+     * Log out of every session of the current user: no refresh token of theirs can be used
+     * again, and the JWT in the Authorization header is revoked.
+     * 
+     * @param authHeader Authorization header containing JWT token
+     * @return logout result
+     */
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAllSessions(@RequestHeader("Authorization") String authHeader) {
+        try {
+            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(Map.of(
+                            "success", false,
+                            "error", "INVALID_TOKEN_FORMAT",
+                            "message", "Authorization header must contain Bearer token"
+                        ));
+            }
+
+            authenticationService.logoutAllSessions(authHeader.substring(7));
+
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Logged out of all sessions"
+            ));
+
+        } catch (AuthenticationException e) {
+            logger.warn("Logout of all sessions failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of(
+                        "success", false,
+                        "error", "INVALID_TOKEN",
+                        "message", e.getMessage()
+                    ));
+        } catch (Exception e) {
+            logger.error("Unexpected error during logout of all sessions", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                        "success", false,
+                        "error", "INTERNAL_ERROR",
+                        "message", "An unexpected error occurred during logout"
+                    ));
+        }
+    }
+
     /**
      * Validate JWT token and return user information.
      * 
@@ -226,4 +359,20 @@ public class AuthController {
                     ));
         }
     }
+
+    /**
+     * Build a 429 response with a Retry-After header.
+     * 
+     * @param e the admission control rejection
+     * @return too many requests response
+     */
+    private ResponseEntity<?> tooManyAttempts(TooManyAttemptsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of(
+                    "success", false,
+                    "error", "TOO_MANY_ATTEMPTS",
+                    "message", e.getMessage()
+                ));
+    }
 }
\ No newline at end of file
@@ -1,24 +1,46 @@
 package com.swnih.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.swnih.dto.MessageListResponse;
+import com.swnih.dto.MessageSummary;
 import com.swnih.dto.OAuthAuthorizationRequest;
 import com.swnih.dto.OAuthCallbackRequest;
 import com.swnih.dto.OAuthTokenResponse;
 import com.swnih.entity.User;
+import com.swnih.security.JwtUserPrincipal;
 import com.swnih.exception.OAuthException;
 import com.swnih.service.GmailIntegrationService;
 import com.swnih.service.AuthenticationService;
+import com.swnih.service.GoogleApiResilience;
+import com.swnih.service.MessageService;
+import com.swnih.service.ReactiveGmailClient;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.view.RedirectView;
-
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * REST controller for Gmail OAuth integration endpoints.
@@ -30,14 +52,36 @@ import java.util.Optional;
 public class GmailController {
 
     private static final Logger logger = LoggerFactory.getLogger(GmailController.class);
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
 
     private final GmailIntegrationService gmailIntegrationService;
     private final AuthenticationService authenticationService;
+    private final MessageService messageService;
+    private final ObjectMapper objectMapper;
+    // Serializer for streamed messages resolved once instead of per line
+    private final ObjectWriter messageWriter;
+
+    @Value("${gmail.reactive.enabled:true}")
+    private boolean reactiveEnabled;
+
+    @Value("${gmail.api.max-messages:50}")
+    private int maxMessages;
+
+    @Value("${gmail.deadline.default-ms:20000}")
+    private long defaultDeadlineMillis;
+
+    @Value("${gmail.deadline.max-ms:60000}")
+    private long maxDeadlineMillis;
 
     public GmailController(GmailIntegrationService gmailIntegrationService,
-                          AuthenticationService authenticationService) {
+                          AuthenticationService authenticationService,
+                          MessageService messageService,
+                          ObjectMapper objectMapper) {
         this.gmailIntegrationService = gmailIntegrationService;
         this.authenticationService = authenticationService;
+        this.messageService = messageService;
+        this.objectMapper = objectMapper;
+        this.messageWriter = objectMapper.writerFor(MessageSummary.class);
     }
 
     /**
@@ -52,7 +96,7 @@ public class GmailController {
 
             // Get current authenticated user
             User currentUser = getCurrentUser();
-            logger.info("Current user: {}", currentUser.getUsername());
+            logger.info("Current user: {}", currentUser.getId());
             
             // Check if already connected
             if (gmailIntegrationService.hasValidAuthorization(currentUser)) {
@@ -63,33 +107,26 @@ public class GmailController {
                 ));
             }
             
-            // Build proper OAuth URL directly
-            String clientId = "549183291633-613jveqvl64qh55fta2ttl0uft94bggg.apps.googleusercontent.com";
-            String redirectUri = "http://localhost:8080/api/gmail/oauth/callback";
-            String scope = "https://www.googleapis.com/auth/gmail.readonly";
-            String state = java.util.UUID.randomUUID().toString();
-            
-            // Store state for this user (simple approach)
-            // In production, you'd use a more robust state management
-            
-            String authUrl = "https://accounts.google.com/o/oauth2/auth" +
-                "?client_id=" + clientId +
-                "&redirect_uri=" + java.net.URLEncoder.encode(redirectUri, "UTF-8") +
-                "&scope=" + java.net.URLEncoder.encode(scope, "UTF-8") +
-                "&response_type=code" +
-                "&access_type=offline" +
-                "&approval_prompt=force" +
-                "&state=" + state;
+            // Build the OAuth URL; the state is stored for this user and checked on callback
+            OAuthAuthorizationRequest authRequest = gmailIntegrationService.initiateOAuthFlow(currentUser);
             
             logger.info("Generated OAuth URL successfully");
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Gmail OAuth is configured and ready!",
-                "authorizationUrl", authUrl,
-                "state", state
+                "authorizationUrl", authRequest.getAuthorizationUrl(),
+                "state", authRequest.getState()
             ));
 
+        } catch (OAuthException e) {
+            logger.error("OAuth error initiating Gmail connection", e);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of(
+                        "success", false,
+                        "error", e.getErrorCode(),
+                        "message", e.getMessage()
+                    ));
         } catch (Exception e) {
             logger.error("Error in Gmail connect endpoint", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -230,7 +267,7 @@ public class GmailController {
 
             // Get current authenticated user
             User currentUser = getCurrentUser();
-            logger.info("Exchanging code for user: {}", currentUser.getUsername());
+            logger.info("Exchanging code for user: {}", currentUser.getId());
 
             // Create callback request
             OAuthCallbackRequest callbackRequest = new OAuthCallbackRequest();
@@ -276,7 +313,7 @@ public class GmailController {
             logger.info("Authentication principal: {}", authentication != null ? authentication.getPrincipal() : "null");
             logger.info("Is authenticated: {}", authentication != null ? authentication.isAuthenticated() : "false");
             
-            User currentUser = getCurrentUser();
+            User currentUser = authenticationService.getUserById(getCurrentUser().getId());
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Authentication working",
@@ -404,11 +441,15 @@ public class GmailController {
 
     /**
      * Fetch messages from Gmail for the current user.
+     * While Gmail is failing or overloaded the stored messages are returned instead,
+     * marked with the X-Gmail-Fallback header. The fetch stops after X-Request-Timeout-Ms
+     * (capped by gmail.deadline.max-ms) and returns the messages processed so far.
      * 
+     * @param timeoutMillis time the client is willing to wait
      * @return list of processed messages with priority classification
      */
     @GetMapping("/messages")
-    public ResponseEntity<?> fetchGmailMessages() {
+    public ResponseEntity<?> fetchGmailMessages(@RequestHeader(value = "X-Request-Timeout-Ms", required = false) Long timeoutMillis) {
         try {
             User currentUser = getCurrentUser();
             
@@ -425,18 +466,20 @@ public class GmailController {
             }
             
             // Fetch and process messages
-            var messages = gmailIntegrationService.fetchAndProcessMessages(currentUser);
+            var messages = gmailIntegrationService.fetchAndProcessMessages(currentUser, requestBudget(timeoutMillis));
             
             logger.info("Successfully fetched {} messages for user: {}", messages.size(), currentUser.getId());
             
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "message", "Messages fetched successfully",
-                "messages", messages,
-                "count", messages.size()
-            ));
+            return ResponseEntity.ok(MessageListResponse.of(messages));
 
         } catch (OAuthException e) {
+            if (GoogleApiResilience.isUnavailable(e)) {
+                logger.warn("Serving stored messages, Gmail fetch rejected: {}", e.getMessage());
+                return ResponseEntity.ok()
+                        .header("X-Gmail-Fallback", "stored")
+                        .body(MessageListResponse.stored(
+                                messageService.findStoredGmailMessages(getCurrentUser(), maxMessages)));
+            }
             logger.error("OAuth error during message fetching", e);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of(
@@ -455,6 +498,144 @@ public class GmailController {
         }
     }
 
+    /**
+     * Stream messages from Gmail for the current user as newline-delimited JSON.
+     * Selected with "Accept: application/x-ndjson". Each message is written and flushed as soon
+     * as it is classified, followed by a final {"done":true,"count":n} line, or an
+     * {"error":...} line if the fetch fails part way. If Gmail is failing or overloaded before
+     * any message was sent, the stored messages are sent instead and the done line says "stale".
+     * With gmail.reactive.enabled the messages come from the non-blocking Gmail client and no
+     * request thread waits on Gmail; the done line then carries the Gmail history ID, which the
+     * client can pass back as historyId to fetch only messages added since. The fetch stops
+     * after X-Request-Timeout-Ms (capped by gmail.deadline.max-ms); on the reactive path the
+     * done line then says "partial" and has no history ID, since later messages were not fetched.
+     * Otherwise writes block while the client is slow to read, which holds back the next Gmail request.
+     * 
+     * @param historyId history ID from a previous fetch, only used on the reactive path
+     * @param timeoutMillis time the client is willing to wait
+     * @param response the response, for the streaming headers
+     * @return streamed messages with priority classification, or a JSON error response
+     */
+    // Declared as Object: MVC picks the streaming return value handlers by the returned type,
+    // and does not recognise a Flux or StreamingResponseBody inside ResponseEntity<?>
+    @GetMapping(value = "/messages", produces = APPLICATION_NDJSON_VALUE)
+    public Object streamGmailMessages(@RequestParam(required = false) String historyId,
+                                      @RequestHeader(value = "X-Request-Timeout-Ms", required = false) Long timeoutMillis,
+                                      HttpServletResponse response) {
+        try {
+            User currentUser = getCurrentUser();
+
+            if (!gmailIntegrationService.hasValidAuthorization(currentUser)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(Map.of(
+                            "success", false,
+                            "error", "GMAIL_NOT_CONNECTED",
+                            "message", "Gmail is not connected. Please connect Gmail first."
+                        ));
+            }
+
+            logger.info("Streaming Gmail messages for user: {}", currentUser.getId());
+
+            response.setContentType(APPLICATION_NDJSON_VALUE);
+            response.setHeader("X-Accel-Buffering", "no");
+            if (reactiveEnabled) {
+                return streamReactive(currentUser, historyId, requestBudget(timeoutMillis));
+            }
+
+            Duration budget = requestBudget(timeoutMillis);
+            StreamingResponseBody body = out -> {
+                AtomicInteger written = new AtomicInteger();
+                try {
+                    int count = gmailIntegrationService.streamAndProcessMessages(currentUser, budget, message -> {
+                        try {
+                            out.write(messageWriter.writeValueAsBytes(message));
+                            out.write('\n');
+                            out.flush();
+                            written.incrementAndGet();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    writeLine(out, Map.of("done", true, "count", count));
+                } catch (UncheckedIOException e) {
+                    logger.debug("Client closed Gmail message stream for user: {}", currentUser.getId());
+                } catch (OAuthException e) {
+                    // Stored messages after fresh ones would repeat them, so fall back only before the first
+                    if (GoogleApiResilience.isUnavailable(e) && written.get() == 0) {
+                        logger.warn("Streaming stored messages, Gmail fetch rejected: {}", e.getMessage());
+                        List<MessageSummary> stored = messageService.findStoredGmailMessages(currentUser, maxMessages);
+                        for (MessageSummary message : stored) {
+                            out.write(messageWriter.writeValueAsBytes(message));
+                            out.write('\n');
+                        }
+                        writeLine(out, Map.of("done", true, "count", stored.size(), "stale", true));
+                        return;
+                    }
+                    logger.error("OAuth error during message streaming", e);
+                    writeLine(out, Map.of("error", e.getErrorCode(), "message", e.getMessage()));
+                }
+            };
+
+            return body;
+
+        } catch (Exception e) {
+            logger.error("Unexpected error during message streaming", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of(
+                        "success", false,
+                        "error", "INTERNAL_ERROR",
+                        "message", "Failed to fetch messages"
+                    ));
+        }
+    }
+
+    private Duration requestBudget(Long timeoutMillis) {
+        if (timeoutMillis == null || timeoutMillis <= 0) {
+            return Duration.ofMillis(defaultDeadlineMillis);
+        }
+        return Duration.ofMillis(Math.min(timeoutMillis, maxDeadlineMillis));
+    }
+
+    private Flux<Object> streamReactive(User user, String historyId, Duration budget) {
+        AtomicInteger count = new AtomicInteger();
+        return gmailIntegrationService.streamMessagesReactive(user, historyId, budget)
+                .doOnNext(message -> count.incrementAndGet())
+                .<Object>map(message -> message)
+                .concatWith(Mono.fromSupplier(() -> {
+                    Map<String, Object> done = new LinkedHashMap<>();
+                    done.put("done", true);
+                    done.put("count", count.get());
+                    String latestHistoryId = gmailIntegrationService.getLatestHistoryId(user);
+                    if (latestHistoryId != null) {
+                        done.put("historyId", latestHistoryId);
+                    }
+                    return done;
+                }))
+                .onErrorResume(OAuthException.class, e -> {
+                    if (ReactiveGmailClient.DEADLINE_EXCEEDED.equals(e.getErrorCode())) {
+                        logger.warn("Gmail fetch for user {} ran out of time after {} messages", user.getId(), count.get());
+                        return Mono.just(Map.of("done", true, "count", count.get(), "partial", true));
+                    }
+                    if (GoogleApiResilience.isUnavailable(e) && count.get() == 0) {
+                        logger.warn("Streaming stored messages, Gmail fetch rejected: {}", e.getMessage());
+                        return Mono.fromCallable(() -> messageService.findStoredGmailMessages(user, maxMessages))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .flatMapMany(stored -> Flux.<Object>fromIterable(stored)
+                                        .concatWith(Mono.just(Map.of("done", true, "count", stored.size(), "stale", true))));
+                    }
+                    logger.error("OAuth error during message streaming", e);
+                    return Mono.just(Map.of("error", e.getErrorCode(), "message", e.getMessage()));
+                });
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+        out.flush();
+    }
+
     /**
      * Get the current authenticated user.
      * 
@@ -474,6 +655,11 @@ public class GmailController {
             throw new RuntimeException("No authenticated user found");
         }
 
+        // JWT-authenticated requests carry the user ID; a lazy reference avoids the user query
+        if (authentication.getPrincipal() instanceof JwtUserPrincipal principal) {
+            return authenticationService.getUserReference(principal.getUserId());
+        }
+
         String email = authentication.getName();
         logger.debug("Looking for user with email: {}", email);
         
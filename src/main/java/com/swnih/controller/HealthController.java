@@ -1,6 +1,10 @@
 package com.swnih.controller;
 
 import com.swnih.config.DatabaseConfig;
+import com.swnih.service.GoogleApiHttpTransport;
+import com.swnih.service.GoogleApiResilience;
+import com.swnih.service.MessageFetchCoalescer;
+import com.swnih.service.ReactiveGmailClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -28,6 +32,18 @@ public class HealthController {
     @Autowired
     private DatabaseConfig databaseConfig;
 
+    @Autowired
+    private GoogleApiHttpTransport googleApiHttpTransport;
+
+    @Autowired
+    private MessageFetchCoalescer messageFetchCoalescer;
+
+    @Autowired
+    private GoogleApiResilience googleApiResilience;
+
+    @Autowired
+    private ReactiveGmailClient reactiveGmailClient;
+
     /**
      * Basic health check endpoint.
      * 
@@ -80,6 +96,27 @@ public class HealthController {
         }
     }
 
+    /**
+     * Google API transport statistics.
+     * Reports request counts, HTTP/2 usage, connection slot usage and latency,
+     * how many fetches joined one already running instead of calling Gmail, and the state
+     * of the circuit breakers and concurrency limit. Reports DEGRADED while the Gmail breaker is open.
+     * 
+     * @return transport statistics
+     */
+    @GetMapping("/google-api")
+    public ResponseEntity<Map<String, Object>> googleApiHealth() {
+        Map<String, Object> transportHealth = new HashMap<>();
+        transportHealth.put("status", googleApiResilience.isGmailAvailable() ? "UP" : "DEGRADED");
+        transportHealth.put("transport", googleApiHttpTransport.getStats());
+        transportHealth.put("coalescedFetches", messageFetchCoalescer.getCoalescedCount());
+        transportHealth.put("resilience", googleApiResilience.getStats());
+        transportHealth.put("hedging", reactiveGmailClient.getHedgingStats());
+        transportHealth.put("timestamp", LocalDateTime.now());
+        
+        return ResponseEntity.ok(transportHealth);
+    }
+
     /**
      * Detailed system information endpoint.
      * 
@@ -0,0 +1,331 @@
+package com.swnih.controller;
+
+import com.swnih.entity.ArchivedMessage;
+import com.swnih.entity.Message;
+import com.swnih.entity.User;
+import com.swnih.security.JwtUserPrincipal;
+import com.swnih.service.AuthenticationService;
+import com.swnih.service.MessageEventBroadcaster;
+import com.swnih.service.MessageRetentionService;
+import com.swnih.service.MessageService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * REST controller for stored messages.
+ * Serves message details, including the full body which is only loaded here,
+ * archive search, per-user retention settings, delta sync, and the live event stream for the dashboard.
+ */
+@RestController
+@RequestMapping("/api/messages")
+@CrossOrigin(origins = "${cors.allowed-origins}")
+public class MessageController {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageController.class);
+
+    private final MessageService messageService;
+    private final MessageRetentionService messageRetentionService;
+    private final AuthenticationService authenticationService;
+    private final MessageEventBroadcaster messageEventBroadcaster;
+
+    public MessageController(MessageService messageService,
+                             MessageRetentionService messageRetentionService,
+                             AuthenticationService authenticationService,
+                             MessageEventBroadcaster messageEventBroadcaster) {
+        this.messageService = messageService;
+        this.messageRetentionService = messageRetentionService;
+        this.authenticationService = authenticationService;
+        this.messageEventBroadcaster = messageEventBroadcaster;
+    }
+
+    /**
+     * Stream newly stored messages to the dashboard as Server-Sent Events.
+     * Clients reconnecting with Last-Event-ID receive the events they missed, or a "resync"
+     * event when those are no longer available.
+     *
+     * @param lastEventId ID of the last event the client received, sent on reconnect
+     * @param response the response, for the streaming headers
+     * @return the event stream, or a JSON error response
+     */
+    // Declared as Object: MVC only recognises an SseEmitter inside ResponseEntity by the declared type
+    @GetMapping("/stream")
+    public Object streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                               HttpServletResponse response) {
+        try {
+            User currentUser = getCurrentUser();
+            SseEmitter emitter = messageEventBroadcaster.subscribe(currentUser.getId(), lastEventId);
+
+            response.setHeader("X-Accel-Buffering", "no");
+            return emitter;
+
+        } catch (Exception e) {
+            logger.error("Unexpected error opening event stream", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                        "success", false,
+                        "error", "INTERNAL_ERROR",
+                        "message", "Failed to open event stream"
+                    ));
+        }
+    }
+
+    /**
+     * Get the changes to the current user's messages since a cursor.
+     * Inserted and updated messages are returned with their current summary, deleted ones by ID only.
+     * A response with "reset" set means the cursor could not be served and the client should reload
+     * its list, then continue from the returned cursor.
+     * Changes are served once they are change-log.settle-ms old, so the cursor never moves past a
+     * change still being committed; a change whose transaction takes longer than that can be missed.
+     *
+     * @param since cursor from the previous response, 0 or omitted to get the current cursor
+     * @param limit maximum number of changes to read (max 1000)
+     * @return the changes and the next cursor
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(@RequestParam(defaultValue = "0") long since,
+                                        @RequestParam(defaultValue = "500") int limit) {
+        try {
+            User currentUser = getCurrentUser();
+            MessageService.ChangeSet changeSet = messageService.findChanges(
+                    currentUser, since, Math.min(Math.max(limit, 1), 1000));
+
+            List<Map<String, Object>> changes = changeSet.getChanges().stream()
+                    .map(this::toChangeSummary)
+                    .toList();
+
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "reset", changeSet.isReset(),
+                "cursor", changeSet.getCursor(),
+                "hasMore", changeSet.isHasMore(),
+                "changes", changes
+            ));
+
+        } catch (Exception e) {
+            logger.error("Unexpected error reading message changes", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                        "success", false,
+                        "error", "INTERNAL_ERROR",
+                        "message", "Failed to read message changes"
+                    ));
+        }
+    }
+
+    /**
+     * Get a stored message with its full body.
+     *
+     * @param id the message ID
+     * @return message details
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getMessage(@PathVariable Long id) {
+        try {
+            User currentUser = getCurrentUser();
+
+            Optional<Message> messageOptional = messageService.findMessage(currentUser, id);
+            if (messageOptional.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of(
+                            "success", false,
+                            "error", "MESSAGE_NOT_FOUND",
+                            "message", "Message not found"
+                        ));
+            }
+
+            Message message = messageOptional.get();
+            Map<String, Object> details = new HashMap<>();
+            details.put("id", message.getId());
+            details.put("externalId", message.getExternalId());
+            details.put("sender", message.getSender());
+            details.put("subject", message.getSubject());
+            details.put("body", messageService.loadBody(message.getId()).orElse(""));
+            details.put("priority", message.getPriority().name());
+            details.put("mlConfidence", message.getMlConfidence());
+            details.put("source", message.getSource());
+            details.put("timestamp", message.getTimestamp());
+
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", details
+            ));
+
+        } catch (Exception e) {
+            logger.error("Unexpected error loading message {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                        "success", false,
+                        "error", "INTERNAL_ERROR",
+                        "message", "Failed to load message"
+                    ));
+        }
+    }
+
+    /**
+     * Search archived messages (messages past the retention period).
+     *
+     * @param q optional search term over subject and snippet
+     * @param page page number
+     * @param size page size (max 100)
+     * @return page of archived messages
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<?> searchArchive(@RequestParam(required = false) String q,
+                                           @RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(defaultValue = "20") int size) {
+        try {
+            User currentUser = getCurrentUser();
+            Page<ArchivedMessage> results = messageService.searchArchive(
+                    currentUser, q, PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100)));
+
+            List<Map<String, Object>> messages = results.getContent().stream()
+                    .map(this::toArchiveSummary)
+                    .toList();
+
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "messages", messages,
+                "page", results.getNumber(),
+                "totalElements", results.getTotalElements()
+            ));
+
+        } catch (Exception e) {
+            logger.error("Unexpected error searching archive", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                        "success", false,
+                        "error", "INTERNAL_ERROR",
+                        "message", "Failed to search archived messages"
+                    ));
+        }
+    }
+
+    /**
+     * Get the current user's retention period.
+     *
+     * @return effective retention in days
+     */
+    @GetMapping("/retention")
+    public ResponseEntity<?> getRetention() {
+        try {
+            Integer retentionDays = messageRetentionService.findRetentionDays(getCurrentUser().getId());
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "retentionDays", messageRetentionService.resolveRetentionDays(retentionDays),
+                "custom", retentionDays != null
+            ));
+        } catch (Exception e) {
+            logger.error("Unexpected error reading retention settings", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                        "success", false,
+                        "error", "INTERNAL_ERROR",
+                        "message", "Failed to read retention settings"
+                    ));
+        }
+    }
+
+    /**
+     * Update the current user's retention period.
+     *
+     * @param request containing "retentionDays" (null resets to the default)
+     * @return effective retention in days
+     */
+    @PutMapping("/retention")
+    public ResponseEntity<?> updateRetention(@RequestBody Map<String, Integer> request) {
+        try {
+            User currentUser = getCurrentUser();
+            int effectiveDays = messageRetentionService.updateRetentionDays(currentUser.getId(), request.get("retentionDays"));
+
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Retention updated",
+                "retentionDays", effectiveDays
+            ));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of(
+                        "success", false,
+                        "error", "INVALID_INPUT",
+                        "message", e.getMessage()
+                    ));
+        } catch (Exception e) {
+            logger.error("Unexpected error updating retention settings", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                        "success", false,
+                        "error", "INTERNAL_ERROR",
+                        "message", "Failed to update retention settings"
+                    ));
+        }
+    }
+
+    private Map<String, Object> toChangeSummary(MessageService.Change change) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("cursor", change.getSequence());
+        summary.put("type", change.getType());
+        summary.put("id", change.getMessageId());
+        Message message = change.getMessage();
+        if (message != null) {
+            summary.put("externalId", message.getExternalId());
+            summary.put("sender", message.getSender());
+            summary.put("subject", message.getSubject());
+            summary.put("body", message.getSnippet());
+            summary.put("priority", message.getPriority().name());
+            summary.put("timestamp", message.getTimestamp());
+            summary.put("source", message.getSource());
+        }
+        return summary;
+    }
+
+    private Map<String, Object> toArchiveSummary(ArchivedMessage message) {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("id", message.getId());
+        summary.put("externalId", message.getExternalId());
+        summary.put("sender", message.getSender());
+        summary.put("subject", message.getSubject());
+        summary.put("snippet", message.getSnippet());
+        summary.put("priority", message.getPriority().name());
+        summary.put("timestamp", message.getTimestamp());
+        summary.put("archived", true);
+        return summary;
+    }
+
+    /**
+     * Get the current authenticated user.
+     *
+     * @return current user
+     * @throws RuntimeException if no user is authenticated
+     */
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || "anonymousUser".equals(authentication.getName())) {
+            throw new RuntimeException("No authenticated user found");
+        }
+
+        // JWT-authenticated requests carry the user ID; a lazy reference avoids the user query
+        if (authentication.getPrincipal() instanceof JwtUserPrincipal principal) {
+            return authenticationService.getUserReference(principal.getUserId());
+        }
+
+        String email = authentication.getName();
+        return authenticationService.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("Authenticated user not found in database: " + email));
+    }
+}
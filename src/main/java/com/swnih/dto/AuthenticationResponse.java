@@ -2,7 +2,7 @@ package com.swnih.dto;
 
 /**
  * DTO for authentication responses.
- * Contains JWT token and user information.
+ * Contains the short-lived JWT, the refresh token used to renew it, and user information.
  */
 public class AuthenticationResponse {
 
@@ -11,6 +11,8 @@ public class AuthenticationResponse {
     private Long userId;
     private String username;
     private String email;
+    private String refreshToken;
+    private long expiresIn;
 
     // Constructors
     public AuthenticationResponse() {}
@@ -22,6 +24,13 @@ public class AuthenticationResponse {
         this.email = email;
     }
 
+    public AuthenticationResponse(String token, Long userId, String username, String email,
+                                  String refreshToken, long expiresIn) {
+        this(token, userId, username, email);
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
     // Getters and Setters
     public String getToken() {
         return token;
@@ -63,6 +72,22 @@ public class AuthenticationResponse {
         this.email = email;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+
     @Override
     public String toString() {
         return "AuthenticationResponse{" +
@@ -70,7 +95,9 @@ public class AuthenticationResponse {
                 ", userId=" + userId +
                 ", username='" + username + '\'' +
                 ", email='" + email + '\'' +
+                ", expiresIn=" + expiresIn +
                 ", token='[PROTECTED]'" +
+                ", refreshToken='[PROTECTED]'" +
                 '}';
     }
 }
\ No newline at end of file
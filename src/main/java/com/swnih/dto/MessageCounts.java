@@ -0,0 +1,32 @@
+package com.swnih.dto;
+
+import com.swnih.entity.PriorityLevel;
+
+/**
+ * DTO for message counts per priority, or changes to them.
+ *
+ * @param high HIGH priority messages
+ * @param medium MEDIUM priority messages
+ * @param low LOW priority messages
+ * @param total all messages
+ */
+public record MessageCounts(int high, int medium, int low, int total) {
+
+    private static final MessageCounts ADDED_HIGH = new MessageCounts(1, 0, 0, 1);
+    private static final MessageCounts ADDED_MEDIUM = new MessageCounts(0, 1, 0, 1);
+    private static final MessageCounts ADDED_LOW = new MessageCounts(0, 0, 1, 1);
+
+    /**
+     * Change caused by adding one message.
+     *
+     * @param priority priority of the added message
+     * @return the count delta, shared between calls
+     */
+    public static MessageCounts added(PriorityLevel priority) {
+        return switch (priority) {
+            case HIGH -> ADDED_HIGH;
+            case MEDIUM -> ADDED_MEDIUM;
+            case LOW -> ADDED_LOW;
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.swnih.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the response of a Gmail message fetch.
+ *
+ * @param success always true, errors use the common error body
+ * @param message status message
+ * @param messages the classified messages
+ * @param count number of messages
+ */
+public record MessageListResponse(boolean success, String message, List<MessageSummary> messages, int count) {
+
+    public static MessageListResponse of(List<MessageSummary> messages) {
+        return new MessageListResponse(true, "Messages fetched successfully", messages, messages.size());
+    }
+
+    /**
+     * Stored messages served while Gmail cannot be reached.
+     */
+    public static MessageListResponse stored(List<MessageSummary> messages) {
+        return new MessageListResponse(true, "Gmail is temporarily unavailable, showing stored messages",
+                messages, messages.size());
+    }
+}
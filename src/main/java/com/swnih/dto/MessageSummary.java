@@ -0,0 +1,43 @@
+package com.swnih.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a classified message as listed on the dashboard.
+ * Used for Gmail fetch results and for pushed message events; externalId and countDelta
+ * are only set on pushed events, where id is the stored message ID.
+ *
+ * @param id stored message ID, or the Gmail message ID for fetch results
+ * @param externalId Gmail message ID of a stored message, null for fetch results
+ * @param sender the cleaned sender address
+ * @param subject the message subject
+ * @param body preview of the message body
+ * @param priority the classified priority (HIGH, MEDIUM or LOW)
+ * @param timestamp the message timestamp
+ * @param source the message source (e.g., GMAIL)
+ * @param countDelta change to the dashboard counters, null for fetch results
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"id", "externalId", "sender", "subject", "body", "priority", "timestamp", "source", "countDelta"})
+public record MessageSummary(
+        String id,
+        String externalId,
+        String sender,
+        String subject,
+        String body,
+        String priority,
+        LocalDateTime timestamp,
+        String source,
+        MessageCounts countDelta) {
+
+    /**
+     * Summary of a message fetched from Gmail.
+     */
+    public static MessageSummary fetched(String gmailId, String sender, String subject, String body,
+                                         String priority, LocalDateTime timestamp) {
+        return new MessageSummary(gmailId, null, sender, subject, body, priority, timestamp, "GMAIL", null);
+    }
+}
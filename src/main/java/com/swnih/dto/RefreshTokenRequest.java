@@ -0,0 +1,33 @@
+package com.swnih.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * DTO for session refresh and logout requests containing a refresh token.
+ */
+public class RefreshTokenRequest {
+
+    @NotBlank(message = "Refresh token is required")
+    private String refreshToken;
+
+    // Constructors
+    public RefreshTokenRequest() {}
+
+    public RefreshTokenRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    // Getters and Setters
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    @Override
+    public String toString() {
+        return "RefreshTokenRequest{refreshToken='[PROTECTED]'}";
+    }
+}
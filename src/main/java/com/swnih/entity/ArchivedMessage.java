@@ -0,0 +1,162 @@
+package com.swnih.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Archived message entity for messages older than the owner's retention period.
+ * Rows are moved here in bulk by MessageRetentionService and never updated afterwards.
+ * The table carries only the indexes archive search needs. archiveMonth records the
+ * message month (yyyyMM) of each row.
+ */
+@Entity
+@Table(name = "messages_archive", indexes = {
+    @Index(name = "idx_archive_user_timestamp", columnList = "user_id, timestamp")
+})
+public class ArchivedMessage {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "external_id", length = 64)
+    private String externalId;
+
+    @Column(name = "content_hash", length = 32, nullable = false)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private String sender;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String subject;
+
+    @Column(length = 255)
+    private String snippet;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PriorityLevel priority;
+
+    @Column(length = 50)
+    private String source;
+
+    @Column(name = "ml_confidence", precision = 3, scale = 2)
+    private BigDecimal mlConfidence;
+
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
+
+    @Column(name = "archive_month", nullable = false)
+    private int archiveMonth;
+
+    @Column(name = "body_codec")
+    private Byte bodyCodec;
+
+    @Column(name = "body_original_length")
+    private Integer bodyOriginalLength;
+
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "body_compressed", length = 16777215)
+    private byte[] bodyCompressed;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // Constructors
+    public ArchivedMessage() {}
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getExternalId() {
+        return externalId;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public String getSender() {
+        return sender;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public PriorityLevel getPriority() {
+        return priority;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public BigDecimal getMlConfidence() {
+        return mlConfidence;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public int getArchiveMonth() {
+        return archiveMonth;
+    }
+
+    public Byte getBodyCodec() {
+        return bodyCodec;
+    }
+
+    public Integer getBodyOriginalLength() {
+        return bodyOriginalLength;
+    }
+
+    public byte[] getBodyCompressed() {
+        return bodyCompressed;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ArchivedMessage)) return false;
+        ArchivedMessage that = (ArchivedMessage) o;
+        return id != null && id.equals(that.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedMessage{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", priority=" + priority +
+                ", timestamp=" + timestamp +
+                ", archiveMonth=" + archiveMonth +
+                '}';
+    }
+}
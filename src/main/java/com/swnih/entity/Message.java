@@ -9,11 +9,23 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
 
 /**
  * Message entity representing processed email messages with priority classification.
  * Stores message content, sender information, and ML classification results.
+ *
+ * Deduplication uses two narrow unique keys instead of a constraint over the TEXT subject:
+ * the Gmail message ID when the source provides one, and a 128-bit content hash of
+ * sender, subject and timestamp as a fallback for sources without stable IDs.
+ *
+ * The full body lives in {@link MessageBody} so listing and filtering scans only touch
+ * narrow rows; a short snippet is kept inline for previews.
  */
 @Entity
 @Table(name = "messages", 
@@ -25,11 +37,14 @@ import java.time.LocalDateTime;
         @Index(name = "idx_timestamp", columnList = "timestamp")
     },
     uniqueConstraints = {
-        @UniqueConstraint(name = "unique_message", columnNames = {"user_id", "sender", "subject", "timestamp"})
+        @UniqueConstraint(name = "uk_user_external_id", columnNames = {"user_id", "external_id"}),
+        @UniqueConstraint(name = "uk_user_content_hash", columnNames = {"user_id", "content_hash"})
     }
 )
 public class Message {
 
+    private static final DateTimeFormatter HASH_TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -39,6 +54,12 @@ public class Message {
     @NotNull(message = "User is required")
     private User user;
 
+    @Column(name = "external_id", length = 64)
+    private String externalId;
+
+    @Column(name = "content_hash", length = 32, nullable = false)
+    private String contentHash;
+
     @Column(nullable = false)
     @NotBlank(message = "Sender is required")
     private String sender;
@@ -47,9 +68,8 @@ public class Message {
     @NotBlank(message = "Subject is required")
     private String subject;
 
-    @Column(columnDefinition = "TEXT", nullable = false)
-    @NotBlank(message = "Body is required")
-    private String body;
+    @Column(length = 255)
+    private String snippet;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -79,12 +99,12 @@ public class Message {
     // Constructors
     public Message() {}
 
-    public Message(User user, String sender, String subject, String body, 
+    public Message(User user, String sender, String subject, String snippet,
                    PriorityLevel priority, LocalDateTime timestamp) {
         this.user = user;
         this.sender = sender;
         this.subject = subject;
-        this.body = body;
+        this.snippet = snippet;
         this.priority = priority;
         this.timestamp = timestamp;
     }
@@ -106,6 +126,22 @@ public class Message {
         this.user = user;
     }
 
+    public String getExternalId() {
+        return externalId;
+    }
+
+    public void setExternalId(String externalId) {
+        this.externalId = externalId;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public String getSender() {
         return sender;
     }
@@ -122,12 +158,12 @@ public class Message {
         this.subject = subject;
     }
 
-    public String getBody() {
-        return body;
+    public String getSnippet() {
+        return snippet;
     }
 
-    public void setBody(String body) {
-        this.body = body;
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
     }
 
     public PriorityLevel getPriority() {
@@ -178,11 +214,37 @@ public class Message {
         this.updatedAt = updatedAt;
     }
 
-    // Helper methods
-    public String getFullContent() {
-        return subject + " " + body;
+    // Lifecycle callbacks
+    @PrePersist
+    @PreUpdate
+    protected void ensureContentHash() {
+        if (sender != null && subject != null && timestamp != null) {
+            contentHash = computeContentHash(sender, subject, timestamp);
+        }
+    }
+
+    /**
+     * Compute the deduplication hash for a message: the first 128 bits of
+     * SHA-256 over sender, subject and second-precision timestamp, hex encoded.
+     * Must stay in sync with the backfill in V2__Message_dedup_keys.sql.
+     *
+     * @param sender the message sender
+     * @param subject the message subject
+     * @param timestamp the message timestamp
+     * @return 32-character lowercase hex hash
+     */
+    public static String computeContentHash(String sender, String subject, LocalDateTime timestamp) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String canonical = sender + "\n" + subject + "\n" + HASH_TIMESTAMP_FORMAT.format(timestamp);
+            byte[] hash = digest.digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
+    // Helper methods
     public boolean isHighPriority() {
         return priority == PriorityLevel.HIGH;
     }
@@ -212,6 +274,7 @@ public class Message {
     public String toString() {
         return "Message{" +
                 "id=" + id +
+                ", externalId='" + externalId + '\'' +
                 ", sender='" + sender + '\'' +
                 ", subject='" + subject + '\'' +
                 ", priority=" + priority +
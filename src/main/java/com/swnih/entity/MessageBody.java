@@ -0,0 +1,104 @@
+package com.swnih.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Message body entity, stored apart from the message row.
+ * Keeps the hot messages table narrow for listing and filtering; the body is
+ * compressed (see MessageBodyCodec) and only read when a message is opened.
+ */
+@Entity
+@Table(name = "message_bodies")
+public class MessageBody {
+
+    @Id
+    @Column(name = "message_id")
+    private Long messageId;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "message_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Message message;
+
+    @Column(nullable = false)
+    private byte codec;
+
+    @Column(name = "original_length", nullable = false)
+    private int originalLength;
+
+    @Lob
+    @Column(name = "body_compressed", nullable = false, length = 16777215)
+    private byte[] bodyCompressed;
+
+    // Constructors
+    public MessageBody() {}
+
+    public MessageBody(Long messageId, byte codec, int originalLength, byte[] bodyCompressed) {
+        this.messageId = messageId;
+        this.codec = codec;
+        this.originalLength = originalLength;
+        this.bodyCompressed = bodyCompressed;
+    }
+
+    // Getters and Setters
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(Long messageId) {
+        this.messageId = messageId;
+    }
+
+    public Message getMessage() {
+        return message;
+    }
+
+    public byte getCodec() {
+        return codec;
+    }
+
+    public void setCodec(byte codec) {
+        this.codec = codec;
+    }
+
+    public int getOriginalLength() {
+        return originalLength;
+    }
+
+    public void setOriginalLength(int originalLength) {
+        this.originalLength = originalLength;
+    }
+
+    public byte[] getBodyCompressed() {
+        return bodyCompressed;
+    }
+
+    public void setBodyCompressed(byte[] bodyCompressed) {
+        this.bodyCompressed = bodyCompressed;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MessageBody)) return false;
+        MessageBody that = (MessageBody) o;
+        return messageId != null && messageId.equals(that.getMessageId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "MessageBody{" +
+                "messageId=" + messageId +
+                ", codec=" + codec +
+                ", originalLength=" + originalLength +
+                ", storedLength=" + (bodyCompressed != null ? bodyCompressed.length : 0) +
+                '}';
+    }
+}
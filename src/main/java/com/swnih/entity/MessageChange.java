@@ -0,0 +1,86 @@
+package com.swnih.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the per-user message change log.
+ * The auto-increment ID is the change sequence clients use as their sync cursor; a change only
+ * references the message, the current row is read when the change is served. Entries are purged
+ * after change-log.retention-days.
+ */
+@Entity
+@Table(name = "message_changes", indexes = {
+    @Index(name = "idx_message_changes_user_id", columnList = "user_id, id"),
+    @Index(name = "idx_message_changes_changed_at", columnList = "changed_at")
+})
+public class MessageChange {
+
+    public static final String INSERT = "INSERT";
+    public static final String UPDATE = "UPDATE";
+    public static final String DELETE = "DELETE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "message_id", nullable = false)
+    private Long messageId;
+
+    @Column(name = "change_type", nullable = false, length = 10)
+    private String changeType;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    // Constructors
+    public MessageChange() {}
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getMessageId() {
+        return messageId;
+    }
+
+    public String getChangeType() {
+        return changeType;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MessageChange)) return false;
+        MessageChange that = (MessageChange) o;
+        return id != null && id.equals(that.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "MessageChange{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", messageId=" + messageId +
+                ", changeType='" + changeType + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,69 @@
+package com.swnih.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pending OAuth authorization request, keyed by the state parameter sent to the provider.
+ * Rows are deleted when the callback consumes them or purged after expires_at.
+ */
+@Entity
+@Table(name = "oauth_states", indexes = {
+    @Index(name = "idx_oauth_states_expires_at", columnList = "expires_at")
+})
+public class OAuthState {
+
+    @Id
+    @Column(length = 64)
+    private String state;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Constructors
+    public OAuthState() {}
+
+    public OAuthState(String state, Long userId, LocalDateTime expiresAt) {
+        this.state = state;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters
+    public String getState() {
+        return state;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OAuthState)) return false;
+        OAuthState that = (OAuthState) o;
+        return state != null && state.equals(that.getState());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "OAuthState{" +
+                "userId=" + userId +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -48,6 +48,10 @@ public class OAuthToken {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // Constructors
     public OAuthToken() {}
 
@@ -115,6 +119,10 @@ public class OAuthToken {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     // Helper methods
     public boolean isExpired() {
         return LocalDateTime.now().isAfter(expiresAt);
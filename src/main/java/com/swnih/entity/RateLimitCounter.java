@@ -0,0 +1,62 @@
+package com.swnih.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Request count of one rate limit slot in one minute window, shared by all application instances.
+ * The key combines scope, slot and window; rows are only needed for the current window and are
+ * purged shortly after it ends.
+ */
+@Entity
+@Table(name = "rate_limit_counters", indexes = {
+    @Index(name = "idx_rate_limit_window_start", columnList = "window_start")
+})
+public class RateLimitCounter {
+
+    @Id
+    @Column(name = "bucket_key", length = 40)
+    private String bucketKey;
+
+    @Column(name = "window_start", nullable = false)
+    private long windowStart;
+
+    @Column(name = "request_count", nullable = false)
+    private long requestCount;
+
+    // Constructors
+    public RateLimitCounter() {}
+
+    // Getters
+    public String getBucketKey() {
+        return bucketKey;
+    }
+
+    public long getWindowStart() {
+        return windowStart;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RateLimitCounter)) return false;
+        RateLimitCounter that = (RateLimitCounter) o;
+        return bucketKey != null && bucketKey.equals(that.getBucketKey());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitCounter{" +
+                "bucketKey='" + bucketKey + '\'' +
+                ", requestCount=" + requestCount +
+                '}';
+    }
+}
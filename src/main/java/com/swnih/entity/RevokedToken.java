@@ -0,0 +1,79 @@
+package com.swnih.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Revoked JWT, identified by its jti claim.
+ * Rows are only needed until the token would have expired anyway and are purged after expires_at.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+    @Index(name = "idx_revoked_expires_at", columnList = "expires_at"),
+    @Index(name = "idx_revoked_at", columnList = "revoked_at")
+})
+public class RevokedToken {
+
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    // Constructors
+    public RevokedToken() {}
+
+    public RevokedToken(String jti, Long userId, LocalDateTime expiresAt, LocalDateTime revokedAt) {
+        this.jti = jti;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+        this.revokedAt = revokedAt;
+    }
+
+    // Getters
+    public String getJti() {
+        return jti;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RevokedToken)) return false;
+        RevokedToken that = (RevokedToken) o;
+        return jti != null && jti.equals(that.getJti());
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "RevokedToken{" +
+                "jti='" + jti + '\'' +
+                ", userId=" + userId +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -41,6 +41,9 @@ public class User {
     @NotBlank(message = "Password hash is required")
     private String passwordHash;
 
+    @Column(name = "retention_days")
+    private Integer retentionDays;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -98,6 +101,14 @@ public class User {
         this.passwordHash = passwordHash;
     }
 
+    public Integer getRetentionDays() {
+        return retentionDays;
+    }
+
+    public void setRetentionDays(Integer retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,19 @@
+package com.swnih.exception;
+
+/**
+ * Exception thrown when an authentication request is rejected by admission control,
+ * either because of too many failed attempts or because password hashing is saturated.
+ */
+public class TooManyAttemptsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyAttemptsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
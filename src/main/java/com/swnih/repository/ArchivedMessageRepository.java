@@ -0,0 +1,65 @@
+package com.swnih.repository;
+
+import com.swnih.entity.ArchivedMessage;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for ArchivedMessage entity operations.
+ * Provides the bulk copy used by retention and search over archived messages.
+ */
+@Repository
+public interface ArchivedMessageRepository extends JpaRepository<ArchivedMessage, Long> {
+
+    /**
+     * Copy messages and their bodies into the archive in one statement.
+     * @param ids IDs of the messages to archive
+     * @return number of archived rows
+     */
+    @Modifying
+    @Query(value = "INSERT INTO messages_archive " +
+                   "(id, user_id, external_id, content_hash, sender, subject, snippet, priority, source, ml_confidence, " +
+                   "timestamp, archive_month, body_codec, body_original_length, body_compressed, archived_at) " +
+                   "SELECT m.id, m.user_id, m.external_id, m.content_hash, m.sender, m.subject, m.snippet, m.priority, " +
+                   "m.source, m.ml_confidence, m.timestamp, YEAR(m.timestamp) * 100 + MONTH(m.timestamp), " +
+                   "b.codec, b.original_length, b.body_compressed, CURRENT_TIMESTAMP " +
+                   "FROM messages m LEFT JOIN message_bodies b ON b.message_id = m.id " +
+                   "WHERE m.id IN (:ids)",
+           nativeQuery = true)
+    int archiveMessages(@Param("ids") List<Long> ids);
+
+    /**
+     * Search archived messages by subject or snippet.
+     * @param userId the user to search archived messages for
+     * @param searchTerm the term to search for
+     * @param pageable pagination information
+     * @return page of matching archived messages, newest first
+     */
+    @Query("SELECT a FROM ArchivedMessage a WHERE a.userId = :userId AND " +
+           "(LOWER(a.subject) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(a.snippet) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
+           "ORDER BY a.timestamp DESC")
+    Page<ArchivedMessage> searchByContent(@Param("userId") Long userId, @Param("searchTerm") String searchTerm, Pageable pageable);
+
+    /**
+     * Find archived messages for a user, newest first.
+     * @param userId the user to find archived messages for
+     * @param pageable pagination information
+     * @return page of archived messages
+     */
+    Page<ArchivedMessage> findByUserIdOrderByTimestampDesc(Long userId, Pageable pageable);
+
+    /**
+     * Count archived messages for a user.
+     * @param userId the user to count archived messages for
+     * @return number of archived messages
+     */
+    long countByUserId(Long userId);
+}
@@ -0,0 +1,30 @@
+package com.swnih.repository;
+
+import com.swnih.entity.MessageBody;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for MessageBody entity operations.
+ * Bodies are keyed by message ID and only loaded on message detail access.
+ */
+@Repository
+public interface MessageBodyRepository extends JpaRepository<MessageBody, Long> {
+
+    /**
+     * Insert a compressed body for a freshly ingested message.
+     * Written natively to avoid the select-before-insert of merging an entity with an assigned ID.
+     * @return number of inserted rows
+     */
+    @Modifying
+    @Query(value = "INSERT INTO message_bodies (message_id, codec, original_length, body_compressed) " +
+                   "VALUES (:messageId, :codec, :originalLength, :bodyCompressed)",
+           nativeQuery = true)
+    int insertBody(@Param("messageId") Long messageId,
+                   @Param("codec") byte codec,
+                   @Param("originalLength") int originalLength,
+                   @Param("bodyCompressed") byte[] bodyCompressed);
+}
@@ -0,0 +1,102 @@
+package com.swnih.repository;
+
+import com.swnih.entity.MessageChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for MessageChange entity operations.
+ * Records message inserts and deletes in the change log and serves delta sync reads.
+ */
+@Repository
+public interface MessageChangeRepository extends JpaRepository<MessageChange, Long> {
+
+    /**
+     * Record a change of one message.
+     * @param userId the user owning the message
+     * @param messageId the changed message
+     * @param changeType INSERT, UPDATE or DELETE
+     * @return number of inserted rows
+     */
+    @Modifying
+    @Query(value = "INSERT INTO message_changes (user_id, message_id, change_type, changed_at) " +
+                   "VALUES (:userId, :messageId, :changeType, CURRENT_TIMESTAMP)",
+           nativeQuery = true)
+    int recordChange(@Param("userId") Long userId, @Param("messageId") Long messageId, @Param("changeType") String changeType);
+
+    /**
+     * Record the deletion of a batch of messages, read from the rows about to be deleted.
+     * @param ids IDs of the messages being deleted
+     * @return number of inserted rows
+     */
+    @Modifying
+    @Query(value = "INSERT INTO message_changes (user_id, message_id, change_type, changed_at) " +
+                   "SELECT m.user_id, m.id, 'DELETE', CURRENT_TIMESTAMP FROM messages m WHERE m.id IN (:ids)",
+           nativeQuery = true)
+    int recordDeletes(@Param("ids") List<Long> ids);
+
+    /**
+     * Find a user's changes in a cursor range, oldest first. Served by idx_message_changes_user_id.
+     * @param userId the user owning the messages
+     * @param after changes with an ID above this are returned
+     * @param upTo changes with an ID above this are not returned yet
+     * @param pageable page size
+     * @return rows of [id, messageId, changeType]
+     */
+    @Query("SELECT c.id, c.messageId, c.changeType FROM MessageChange c " +
+           "WHERE c.userId = :userId AND c.id > :after AND c.id <= :upTo ORDER BY c.id ASC")
+    List<Object[]> findChangesAfter(@Param("userId") Long userId, @Param("after") long after,
+                                    @Param("upTo") long upTo, Pageable pageable);
+
+    /**
+     * Find the IDs of the latest changes recorded before a time, newest first.
+     * Served by idx_message_changes_changed_at, which also holds the ID.
+     * @param before changes recorded at or after this are skipped
+     * @param pageable page size, usually 1
+     * @return list of change IDs
+     */
+    @Query("SELECT c.id FROM MessageChange c WHERE c.changedAt < :before ORDER BY c.changedAt DESC, c.id DESC")
+    List<Long> findLatestIdsChangedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    /**
+     * Highest change ID, the current end of the log.
+     * @return the latest change ID, or null if the log is empty
+     */
+    @Query("SELECT MAX(c.id) FROM MessageChange c")
+    Long findMaxId();
+
+    /**
+     * Lowest change ID still in the log; older cursors may have missed purged changes.
+     * @return the oldest change ID, or null if the log is empty
+     */
+    @Query("SELECT MIN(c.id) FROM MessageChange c")
+    Long findMinId();
+
+    /**
+     * Find IDs of old changes to purge, oldest first, always leaving out the newest entry so
+     * the log never becomes empty and {@link #findMinId()} keeps marking where the purged
+     * range ends.
+     * @param cutoff changes recorded before this are returned
+     * @param maxId the latest change ID when the purge started, kept
+     * @param pageable batch size
+     * @return list of change IDs
+     */
+    @Query("SELECT c.id FROM MessageChange c WHERE c.changedAt < :cutoff AND c.id < :maxId ORDER BY c.id ASC")
+    List<Long> findIdsChangedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("maxId") long maxId, Pageable pageable);
+
+    /**
+     * Bulk delete changes by ID.
+     * @param ids IDs of the changes to delete
+     * @return number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM MessageChange c WHERE c.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+}
@@ -6,11 +6,13 @@ import com.swnih.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,7 +21,7 @@ import java.util.Optional;
  * Provides CRUD operations and custom queries for message management and filtering.
  */
 @Repository
-public interface MessageRepository extends JpaRepository<Message, Long> {
+public interface MessageRepository extends JpaRepository<Message, Long>, MessageRepositoryCustom {
 
     /**
      * Find all messages for a specific user, ordered by timestamp descending.
@@ -49,15 +51,16 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     Page<Message> findByUserAndSenderContainingIgnoreCase(@Param("user") User user, @Param("sender") String sender, Pageable pageable);
 
     /**
-     * Search messages by content (subject or body) using full-text search.
+     * Search messages by content (subject or snippet).
+     * Full bodies are stored compressed in message_bodies and are not searched.
      * @param user the user to search messages for
-     * @param searchTerm the term to search for in subject or body
+     * @param searchTerm the term to search for in subject or snippet
      * @param pageable pagination information
      * @return page of messages matching the search criteria
      */
     @Query("SELECT m FROM Message m WHERE m.user = :user AND " +
            "(LOWER(m.subject) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(m.body) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
+           "LOWER(m.snippet) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
            "ORDER BY m.timestamp DESC")
     Page<Message> searchByContent(@Param("user") User user, @Param("searchTerm") String searchTerm, Pageable pageable);
 
@@ -71,21 +74,47 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     Page<Message> findByUserAndPriorityInOrderByTimestampDesc(User user, List<PriorityLevel> priorities, Pageable pageable);
 
     /**
-     * Check for duplicate messages (same sender, subject, and timestamp within threshold).
+     * Find a message by its source message ID (e.g., Gmail message ID).
+     * Served by the (user_id, external_id) unique index as a point lookup.
+     * @param user the user owning the message
+     * @param externalId the source message ID
+     * @return Optional containing the message if found
+     */
+    Optional<Message> findByUserAndExternalId(User user, String externalId);
+
+    /**
+     * Check whether a message with the given source message ID is already stored.
+     * @param user the user owning the message
+     * @param externalId the source message ID
+     * @return true if the message exists
+     */
+    boolean existsByUserAndExternalId(User user, String externalId);
+
+    /**
+     * Check for a duplicate message by content hash (see {@link Message#computeContentHash}).
+     * Served by the (user_id, content_hash) unique index as a point lookup.
      * @param user the user to check for
-     * @param sender the sender of the message
-     * @param subject the subject of the message
-     * @param timestampStart start of time window for duplicate detection
-     * @param timestampEnd end of time window for duplicate detection
+     * @param contentHash hash of sender, subject and timestamp
      * @return Optional containing existing message if duplicate found
      */
-    @Query("SELECT m FROM Message m WHERE m.user = :user AND m.sender = :sender AND m.subject = :subject " +
-           "AND m.timestamp BETWEEN :timestampStart AND :timestampEnd")
-    Optional<Message> findDuplicateMessage(@Param("user") User user, 
-                                         @Param("sender") String sender, 
-                                         @Param("subject") String subject,
-                                         @Param("timestampStart") LocalDateTime timestampStart,
-                                         @Param("timestampEnd") LocalDateTime timestampEnd);
+    Optional<Message> findByUserAndContentHash(User user, String contentHash);
+
+    /**
+     * Find a message by ID scoped to its owner.
+     * @param id the message ID
+     * @param user the user owning the message
+     * @return Optional containing the message if found
+     */
+    Optional<Message> findByIdAndUser(Long id, User user);
+
+    /**
+     * Find a user's messages by ID, used to serve the rows referenced by change log entries.
+     * @param userId the user owning the messages
+     * @param ids the message IDs
+     * @return the messages that still exist
+     */
+    @Query("SELECT m FROM Message m WHERE m.user.id = :userId AND m.id IN :ids")
+    List<Message> findByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
 
     /**
      * Count messages by priority level for a user.
@@ -134,6 +163,26 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
      */
     long deleteByUser(User user);
 
+    /**
+     * Find IDs of a user's messages older than a cutoff, oldest first.
+     * Served by idx_user_timestamp; used to pick bounded retention batches.
+     * @param userId the user owning the messages
+     * @param cutoff messages with a timestamp before this are returned
+     * @param pageable batch size
+     * @return list of message IDs
+     */
+    @Query("SELECT m.id FROM Message m WHERE m.user.id = :userId AND m.timestamp < :cutoff ORDER BY m.timestamp ASC")
+    List<Long> findIdsOlderThan(@Param("userId") Long userId, @Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Bulk delete messages by ID. Bodies are removed by the message_bodies foreign key cascade.
+     * @param ids IDs of the messages to delete
+     * @return number of deleted messages
+     */
+    @Modifying
+    @Query("DELETE FROM Message m WHERE m.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+
     /**
      * Find messages by source (e.g., GMAIL).
      * @param user the user to find messages for
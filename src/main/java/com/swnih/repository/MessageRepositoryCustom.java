@@ -0,0 +1,22 @@
+package com.swnih.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Message operations that need plain JDBC, such as reading the generated key of a native insert.
+ * Implemented by {@link MessageRepositoryCustomImpl} and exposed through {@link MessageRepository}.
+ */
+public interface MessageRepositoryCustom {
+
+    /**
+     * Insert a message unless it collides with an existing row on either dedup key.
+     * Uses INSERT ... ON DUPLICATE KEY UPDATE id = id, which turns only a duplicate key into
+     * a no-op; unlike INSERT IGNORE it still fails on truncation, NULL or foreign key errors.
+     * @return the generated message ID, or empty if the message was a duplicate
+     */
+    Optional<Long> insertIfAbsent(Long userId, String externalId, String contentHash, String sender,
+                                  String subject, String snippet, String priority, String source,
+                                  BigDecimal mlConfidence, LocalDateTime timestamp);
+}
@@ -0,0 +1,54 @@
+package com.swnih.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * JDBC implementation of {@link MessageRepositoryCustom}.
+ * Runs on the connection of the surrounding JPA transaction.
+ */
+class MessageRepositoryCustomImpl implements MessageRepositoryCustom {
+
+    private static final String INSERT_IF_ABSENT = "INSERT INTO messages " +
+            "(user_id, external_id, content_hash, sender, subject, snippet, priority, source, ml_confidence, timestamp, created_at, updated_at) " +
+            "VALUES (:userId, :externalId, :contentHash, :sender, :subject, :snippet, :priority, :source, :mlConfidence, :timestamp, " +
+            "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+            "ON DUPLICATE KEY UPDATE id = id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    MessageRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<Long> insertIfAbsent(Long userId, String externalId, String contentHash, String sender,
+                                         String subject, String snippet, String priority, String source,
+                                         BigDecimal mlConfidence, LocalDateTime timestamp) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("externalId", externalId)
+                .addValue("contentHash", contentHash)
+                .addValue("sender", sender)
+                .addValue("subject", subject)
+                .addValue("snippet", snippet)
+                .addValue("priority", priority)
+                .addValue("source", source)
+                .addValue("mlConfidence", mlConfidence)
+                .addValue("timestamp", timestamp);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.update(INSERT_IF_ABSENT, params, keyHolder, new String[] {"id"});
+
+        // A duplicate leaves LAST_INSERT_ID unset, so no key is returned, whatever the
+        // driver reports as the row count for the no-op update
+        Number key = keyHolder.getKeyList().isEmpty() ? null : keyHolder.getKey();
+        return Optional.ofNullable(key).map(Number::longValue);
+    }
+}
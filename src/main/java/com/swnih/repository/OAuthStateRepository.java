@@ -0,0 +1,41 @@
+package com.swnih.repository;
+
+import com.swnih.entity.OAuthState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for OAuthState entity operations.
+ * Provides the one-time delete and purge used by the database OAuth state store.
+ */
+@Repository
+public interface OAuthStateRepository extends JpaRepository<OAuthState, String> {
+
+    /**
+     * Delete a state if it has not expired.
+     * Only one caller can delete a given row, which makes consumption one-time across nodes.
+     * @param state the state parameter
+     * @param now states expiring before this are not deleted
+     * @return 1 if the state was consumed, 0 otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OAuthState s WHERE s.state = :state AND s.expiresAt > :now")
+    int deleteValid(@Param("state") String state, @Param("now") LocalDateTime now);
+
+    /**
+     * Delete expired states.
+     * @param cutoff states expiring before this are deleted
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OAuthState s WHERE s.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
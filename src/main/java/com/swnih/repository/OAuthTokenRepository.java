@@ -2,6 +2,7 @@ package com.swnih.repository;
 
 import com.swnih.entity.OAuthToken;
 import com.swnih.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -34,13 +35,23 @@ public interface OAuthTokenRepository extends JpaRepository<OAuthToken, Long> {
     List<OAuthToken> findByUserOrderByCreatedAtDesc(User user);
 
     /**
-     * Find valid (non-expired) OAuth token for a user.
+     * Find the most recent valid (non-expired) OAuth token for a user.
      * @param user the user to find token for
      * @param now current timestamp to check expiration
-     * @return Optional containing valid token if found
+     * @return Optional containing the most recent valid token if found
      */
-    @Query("SELECT t FROM OAuthToken t WHERE t.user = :user AND t.expiresAt > :now ORDER BY t.createdAt DESC")
-    Optional<OAuthToken> findValidTokenByUser(@Param("user") User user, @Param("now") LocalDateTime now);
+    default Optional<OAuthToken> findValidTokenByUser(User user, LocalDateTime now) {
+        // A user who reconnected Gmail can have several unexpired tokens
+        return findFirstByUserAndExpiresAtAfterOrderByCreatedAtDesc(user, now);
+    }
+
+    /**
+     * Find the most recent token of a user expiring after a given time.
+     * @param user the user to find token for
+     * @param time the time the token must still be valid at
+     * @return Optional containing the token if found
+     */
+    Optional<OAuthToken> findFirstByUserAndExpiresAtAfterOrderByCreatedAtDesc(User user, LocalDateTime time);
 
     /**
      * Find tokens that are expiring soon (within specified minutes).
@@ -105,7 +116,57 @@ public interface OAuthTokenRepository extends JpaRepository<OAuthToken, Long> {
      * @param newExpirationTime the new expiration time
      * @return number of updated records
      */
-    @Modifying
-    @Query("UPDATE OAuthToken t SET t.expiresAt = :newExpirationTime, t.updatedAt = CURRENT_TIMESTAMP WHERE t.id = :tokenId")
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OAuthToken t SET t.expiresAt = :newExpirationTime, t.updatedAt = CURRENT_TIMESTAMP, " +
+           "t.version = t.version + 1 WHERE t.id = :tokenId")
     int updateTokenExpiration(@Param("tokenId") Long tokenId, @Param("newExpirationTime") LocalDateTime newExpirationTime);
+
+    /**
+     * Store the values of a refreshed access token.
+     * The version is not checked, so a concurrent re-encryption cannot fail the refresh;
+     * it is bumped so the re-encryption skips the row instead of writing the old values back.
+     * @param tokenId the ID of the token to update
+     * @param accessTokenEncrypted the new encrypted access token
+     * @param refreshTokenEncrypted the new encrypted refresh token, or null to keep the current one
+     * @param expiresAt the new expiration time
+     * @return 1 if updated, 0 if the token was deleted concurrently
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OAuthToken t SET t.accessTokenEncrypted = :accessTokenEncrypted, " +
+           "t.refreshTokenEncrypted = COALESCE(:refreshTokenEncrypted, t.refreshTokenEncrypted), " +
+           "t.expiresAt = :expiresAt, t.updatedAt = CURRENT_TIMESTAMP, t.version = t.version + 1 " +
+           "WHERE t.id = :tokenId")
+    int updateRefreshedValues(@Param("tokenId") Long tokenId,
+                              @Param("accessTokenEncrypted") String accessTokenEncrypted,
+                              @Param("refreshTokenEncrypted") String refreshTokenEncrypted,
+                              @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Find encrypted token values after an ID, in ID order, for keyset-paginated re-encryption.
+     * @param afterId only rows with a larger ID are returned
+     * @param pageable page size (page number is always 0)
+     * @return rows of [id, accessTokenEncrypted, refreshTokenEncrypted, version]
+     */
+    @Query("SELECT t.id, t.accessTokenEncrypted, t.refreshTokenEncrypted, t.version FROM OAuthToken t " +
+           "WHERE t.id > :afterId ORDER BY t.id")
+    List<Object[]> findEncryptedValuesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Replace the encrypted values of a token if it has not been updated since it was read.
+     * updatedAt is left unchanged since the decrypted values are the same; the version is
+     * bumped so a concurrent entity save of the old values fails instead of overwriting.
+     * @param tokenId the ID of the token to update
+     * @param expectedVersion the version read together with the old values
+     * @param accessTokenEncrypted the re-encrypted access token
+     * @param refreshTokenEncrypted the re-encrypted refresh token
+     * @return 1 if updated, 0 if the token changed or was deleted concurrently
+     */
+    @Modifying
+    @Query("UPDATE OAuthToken t SET t.accessTokenEncrypted = :accessTokenEncrypted, " +
+           "t.refreshTokenEncrypted = :refreshTokenEncrypted, t.version = t.version + 1 " +
+           "WHERE t.id = :tokenId AND t.version = :expectedVersion")
+    int updateEncryptedValues(@Param("tokenId") Long tokenId,
+                              @Param("expectedVersion") Long expectedVersion,
+                              @Param("accessTokenEncrypted") String accessTokenEncrypted,
+                              @Param("refreshTokenEncrypted") String refreshTokenEncrypted);
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.swnih.repository;
+
+import com.swnih.entity.RateLimitCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for RateLimitCounter entity operations.
+ * Provides the upsert and reads used to share rate limits between instances.
+ */
+@Repository
+public interface RateLimitCounterRepository extends JpaRepository<RateLimitCounter, String> {
+
+    /**
+     * Add requests to a window counter, creating it if needed.
+     * @param bucketKey scope, slot and window of the counter
+     * @param windowStart window start in epoch milliseconds
+     * @param delta number of requests to add
+     * @return number of affected rows
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO rate_limit_counters (bucket_key, window_start, request_count) " +
+                   "VALUES (:bucketKey, :windowStart, :delta) " +
+                   "ON DUPLICATE KEY UPDATE request_count = request_count + :delta",
+           nativeQuery = true)
+    int addRequests(@Param("bucketKey") String bucketKey, @Param("windowStart") long windowStart, @Param("delta") long delta);
+
+    /**
+     * Read the counts of a set of window counters.
+     * @param bucketKeys the counters to read
+     * @return rows of [bucketKey, requestCount]
+     */
+    @Query("SELECT c.bucketKey, c.requestCount FROM RateLimitCounter c WHERE c.bucketKey IN :bucketKeys")
+    List<Object[]> findCounts(@Param("bucketKeys") Collection<String> bucketKeys);
+
+    /**
+     * Delete counters of ended windows.
+     * @param cutoff windows starting before this (epoch milliseconds) are deleted
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RateLimitCounter c WHERE c.windowStart < :cutoff")
+    int deleteWindowsBefore(@Param("cutoff") long cutoff);
+}
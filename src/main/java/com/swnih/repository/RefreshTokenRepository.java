@@ -0,0 +1,67 @@
+package com.swnih.repository;
+
+import com.swnih.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for RefreshToken entity operations.
+ * Provides lookup by token hash and the atomic updates used for rotation and revocation.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Find a refresh token by its hash, fetching the owning user.
+     * @param tokenHash SHA-256 hex of the opaque token
+     * @return Optional containing the token if found
+     */
+    @Query("SELECT t FROM RefreshToken t JOIN FETCH t.user WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Mark a token as used if it has not been used or revoked yet.
+     * Exactly one concurrent refresh can win this update.
+     * @param id the token ID
+     * @param now the time of use
+     * @return 1 if the token was claimed, 0 if it was already used or revoked
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.usedAt = :now WHERE t.id = :id AND t.usedAt IS NULL AND t.revokedAt IS NULL")
+    int markUsed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Revoke every token in a family.
+     * @param familyId the family to revoke
+     * @param now the revocation time
+     * @return number of revoked tokens
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.familyId = :familyId AND t.revokedAt IS NULL")
+    int revokeFamily(@Param("familyId") String familyId, @Param("now") LocalDateTime now);
+
+    /**
+     * Revoke every token of a user.
+     * @param userId the user whose tokens are revoked
+     * @param now the revocation time
+     * @return number of revoked tokens
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.user.id = :userId AND t.revokedAt IS NULL")
+    int revokeAllForUser(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    /**
+     * Delete tokens that expired before the given time.
+     * @param cutoff tokens expiring before this are deleted
+     * @return number of deleted tokens
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
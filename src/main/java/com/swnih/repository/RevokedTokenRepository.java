@@ -0,0 +1,39 @@
+package com.swnih.repository;
+
+import com.swnih.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for RevokedToken entity operations.
+ * Provides the loads used to build and sync the in-memory revocation filter.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * Find revocations recorded after a point in time that have not expired yet.
+     * @param since only revocations after this time are returned
+     * @param now tokens expiring before this are skipped
+     * @return list of revoked tokens
+     */
+    @Query("SELECT r FROM RevokedToken r WHERE r.revokedAt > :since AND r.expiresAt > :now")
+    List<RevokedToken> findRevokedSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    /**
+     * Delete revocations whose tokens have expired.
+     * @param cutoff revocations for tokens expiring before this are deleted
+     * @return number of deleted rows
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,9 +2,11 @@ package com.swnih.repository;
 
 import com.swnih.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -68,6 +70,30 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT COUNT(u) FROM User u")
     long countTotalUsers();
 
+    /**
+     * Page through user IDs and retention settings by ascending ID (keyset pagination).
+     * @param afterId only users with a greater ID are returned
+     * @param pageable page size
+     * @return list of [id, retentionDays] pairs
+     */
+    @Query("SELECT u.id, u.retentionDays FROM User u WHERE u.id > :afterId ORDER BY u.id ASC")
+    java.util.List<Object[]> findRetentionSettingsAfter(@Param("afterId") Long afterId, org.springframework.data.domain.Pageable pageable);
+
+    /**
+     * Replace a user's password hash if it still equals the expected value.
+     * Used to upgrade hashes on login without overwriting a concurrent password change.
+     * @param userId the user to update
+     * @param expectedHash the hash that was verified
+     * @param newHash the replacement hash
+     * @return number of updated rows, 0 if the hash changed in the meantime
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :newHash, u.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE u.id = :userId AND u.passwordHash = :expectedHash")
+    int updatePasswordHash(@Param("userId") Long userId, @Param("expectedHash") String expectedHash,
+                           @Param("newHash") String newHash);
+
     /**
      * Find users created after a specific date (for analytics).
      * @param date the date to search from
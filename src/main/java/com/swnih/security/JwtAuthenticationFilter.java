@@ -1,6 +1,8 @@
 package com.swnih.security;
 
 import com.swnih.service.JwtTokenService;
+import com.swnih.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,19 +12,22 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Optional;
 
 /**
  * JWT Authentication Filter for processing JWT tokens in HTTP requests.
  * This filter extracts JWT tokens from the Authorization header, validates them,
  * and sets up the Spring Security context for authenticated requests.
+ * The principal is built from the token's userId claim and {@link UserStateCache},
+ * so a typical request does not query the users table. Revoked tokens are rejected
+ * through {@link TokenRevocationService}'s in-memory filter.
  * 
  * Requirements: 1.2, 1.5, 7.7
  */
@@ -34,12 +39,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final String BEARER_PREFIX = "Bearer ";
 
     private final JwtTokenService jwtTokenService;
-    private final UserDetailsService userDetailsService;
+    private final UserStateCache userStateCache;
+    private final TokenRevocationService tokenRevocationService;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtTokenService jwtTokenService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenService jwtTokenService, UserStateCache userStateCache,
+                                   TokenRevocationService tokenRevocationService) {
         this.jwtTokenService = jwtTokenService;
-        this.userDetailsService = userDetailsService;
+        this.userStateCache = userStateCache;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
@@ -59,19 +67,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = extractJwtFromRequest(request);
             
-            if (jwt != null && jwtTokenService.validateToken(jwt)) {
-                String userEmail = jwtTokenService.getEmailFromToken(jwt);
-                
-                // Load user details and create authentication token
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
-                // Set authentication in security context
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            Optional<Claims> claims = jwt != null ? jwtTokenService.parseToken(jwt) : Optional.empty();
+            
+            if (claims.isPresent() && tokenRevocationService.isRevoked(claims.get().getId())) {
+                logger.debug("Rejected revoked token {}", claims.get().getId());
+            } else if (claims.isPresent()) {
+                Long userId = JwtTokenService.getUserId(claims.get());
+                String userEmail = claims.get().getSubject();
                 
-                logger.debug("Successfully authenticated user: {}", userEmail);
+                // Resolve user state from cache; rejects deleted users and tokens issued for an old email
+                Optional<UserStateCache.UserSnapshot> snapshot = userStateCache.get(userId);
+                if (snapshot.isEmpty() || !snapshot.get().getEmail().equals(userEmail)) {
+                    logger.debug("Token user no longer valid: {}", userEmail);
+                } else {
+                    JwtUserPrincipal principal = JwtUserPrincipal.from(snapshot.get());
+                    UsernamePasswordAuthenticationToken authentication = 
+                        new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    
+                    // Set authentication in security context
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    
+                    logger.debug("Successfully authenticated user: {}", userEmail);
+                }
             }
         } catch (Exception ex) {
             logger.warn("Cannot set user authentication: {}", ex.getMessage());
@@ -0,0 +1,56 @@
+package com.swnih.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.io.Serializable;
+
+/**
+ * Authenticated principal built from JWT claims and cached user state.
+ * {@link #getName()} returns the email so existing {@code authentication.getName()} callers keep working.
+ *
+ * Requirements: 1.2, 1.5
+ */
+public class JwtUserPrincipal implements AuthenticatedPrincipal, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long userId;
+    private final String email;
+    private final String username;
+
+    public JwtUserPrincipal(Long userId, String email, String username) {
+        this.userId = userId;
+        this.email = email;
+        this.username = username;
+    }
+
+    public static JwtUserPrincipal from(UserStateCache.UserSnapshot snapshot) {
+        return new JwtUserPrincipal(snapshot.getId(), snapshot.getEmail(), snapshot.getUsername());
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return "JwtUserPrincipal{" +
+                "userId=" + userId +
+                ", email='" + email + '\'' +
+                ", username='" + username + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,166 @@
+package com.swnih.security;
+
+import com.swnih.exception.TooManyAttemptsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-account and per-IP throttling of failed login attempts.
+ * Each key counts failures in a fixed window; once the limit is reached further attempts are
+ * rejected before any password hashing is done, until the window ends. A successful login
+ * clears the account counter but not the IP counter, so one valid account cannot be used to
+ * reset an IP that is guessing passwords for others.
+ *
+ * At most max-keys counters are kept. When the map is full, ended windows are dropped first,
+ * then counters still below their limit, so spraying new emails or IPs cannot grow the map
+ * without bound nor push out the counters that are currently throttling someone.
+ *
+ * Requirements: 6.3
+ */
+@Component
+public class LoginAttemptThrottler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAttemptThrottler.class);
+    private static final String ACCOUNT_PREFIX = "account:";
+    private static final String IP_PREFIX = "ip:";
+
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    @Value("${security.login-throttle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.login-throttle.max-account-failures:5}")
+    private int maxAccountFailures;
+
+    @Value("${security.login-throttle.max-ip-failures:20}")
+    private int maxIpFailures;
+
+    @Value("${security.login-throttle.window-seconds:900}")
+    private long windowSeconds;
+
+    @Value("${security.login-throttle.max-keys:100000}")
+    private int maxKeys;
+
+    private static final class Window {
+        private final long startNanos;
+        private final int failures;
+
+        private Window(long startNanos, int failures) {
+            this.startNanos = startNanos;
+            this.failures = failures;
+        }
+    }
+
+    /**
+     * Reject the attempt if the account or the client IP is currently throttled.
+     * 
+     * @param email the account email
+     * @param clientIp the client IP address, may be null
+     * @throws TooManyAttemptsException if too many failures were recorded in the current window
+     */
+    public void checkAllowed(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        check(accountKey(email), maxAccountFailures, now);
+        if (clientIp != null) {
+            check(IP_PREFIX + clientIp, maxIpFailures, now);
+        }
+    }
+
+    /**
+     * Record a failed login attempt for the account and the client IP.
+     * 
+     * @param email the account email
+     * @param clientIp the client IP address, may be null
+     */
+    public void recordFailure(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        increment(accountKey(email), now);
+        if (clientIp != null) {
+            increment(IP_PREFIX + clientIp, now);
+        }
+    }
+
+    /**
+     * Clear the failure count for an account after a successful login.
+     * 
+     * @param email the account email
+     */
+    public void recordSuccess(String email) {
+        windows.remove(accountKey(email));
+    }
+
+    /**
+     * Drop windows that have ended so the map only holds keys with recent failures.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        windows.entrySet().removeIf(entry -> isExpired(entry.getValue(), now));
+    }
+
+    private void check(String key, int maxFailures, long now) {
+        Window window = windows.get(key);
+        if (window != null && !isExpired(window, now) && window.failures >= maxFailures) {
+            long remainingNanos = window.startNanos + windowNanos() - now;
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remainingNanos));
+            logger.warn("Login throttled for {} ({} failures), retry after {}s", key, window.failures, retryAfter);
+            throw new TooManyAttemptsException("Too many failed login attempts, please try again later", retryAfter);
+        }
+    }
+
+    private void increment(String key, long now) {
+        if (windows.size() >= maxKeys && !windows.containsKey(key) && !makeRoom(now)) {
+            logger.warn("Login throttle is tracking {} keys, not counting failure for {}", windows.size(), key);
+            return;
+        }
+        windows.compute(key, (k, window) -> window == null || isExpired(window, now)
+            ? new Window(now, 1)
+            : new Window(window.startNanos, window.failures + 1));
+    }
+
+    /**
+     * Free space for a new key: drop ended windows, then those below their limit.
+     *
+     * @return true if the map has room again
+     */
+    private synchronized boolean makeRoom(long now) {
+        if (windows.size() < maxKeys) {
+            return true;
+        }
+        purgeExpired();
+        if (windows.size() >= maxKeys) {
+            windows.entrySet().removeIf(entry -> entry.getValue().failures < maxFailures(entry.getKey()));
+            logger.warn("Login throttle reached {} keys, dropped counters below their limit", maxKeys);
+        }
+        return windows.size() < maxKeys;
+    }
+
+    private int maxFailures(String key) {
+        return key.startsWith(IP_PREFIX) ? maxIpFailures : maxAccountFailures;
+    }
+
+    private boolean isExpired(Window window, long now) {
+        return now - window.startNanos >= windowNanos();
+    }
+
+    private long windowNanos() {
+        return TimeUnit.SECONDS.toNanos(windowSeconds);
+    }
+
+    private static String accountKey(String email) {
+        return ACCOUNT_PREFIX + (email != null ? email.trim().toLowerCase(Locale.ROOT) : "");
+    }
+}
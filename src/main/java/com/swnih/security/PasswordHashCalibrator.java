@@ -0,0 +1,127 @@
+package com.swnih.security;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chooses the BCrypt work factor for the current machine at startup.
+ * The cost of one hash is measured at min-strength; since each extra round doubles the work,
+ * the highest strength whose estimated time fits within target-ms is selected, clamped to
+ * [min-strength, max-strength]. A fixed strength can be configured to skip calibration.
+ * Stored hashes with a lower strength are rehashed on the next successful login; stronger
+ * ones are kept, so a slower calibration on one instance does not get undone by another.
+ *
+ * Requirements: 6.3
+ */
+@Component
+public class PasswordHashCalibrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashCalibrator.class);
+    private static final String CALIBRATION_PASSWORD = "calibration-Password-123";
+    private static final int SAMPLES = 3;
+    private static final int MIN_BCRYPT_STRENGTH = 4;
+    private static final int MAX_BCRYPT_STRENGTH = 31;
+
+    @Value("${security.password-hashing.strength:0}")
+    private int fixedStrength;
+
+    @Value("${security.password-hashing.target-ms:250}")
+    private long targetMs;
+
+    @Value("${security.password-hashing.min-strength:12}")
+    private int minStrength;
+
+    @Value("${security.password-hashing.max-strength:16}")
+    private int maxStrength;
+
+    private int strength;
+
+    /**
+     * Pick the work factor, either the configured fixed strength or a calibrated one.
+     */
+    @PostConstruct
+    public void calibrate() {
+        if (fixedStrength > 0) {
+            if (fixedStrength < MIN_BCRYPT_STRENGTH || fixedStrength > MAX_BCRYPT_STRENGTH) {
+                throw new IllegalArgumentException("security.password-hashing.strength must be between "
+                        + MIN_BCRYPT_STRENGTH + " and " + MAX_BCRYPT_STRENGTH + ", got " + fixedStrength);
+            }
+            strength = fixedStrength;
+            logger.info("Using configured BCrypt strength {}", strength);
+            return;
+        }
+
+        long baseNanos = measure(minStrength);
+        long targetNanos = targetMs * 1_000_000L;
+
+        int selected = minStrength;
+        long estimate = baseNanos;
+        while (selected < maxStrength && estimate * 2 <= targetNanos) {
+            estimate *= 2;
+            selected++;
+        }
+
+        strength = selected;
+        logger.info("Calibrated BCrypt strength {} (~{}ms per hash, target {}ms, strength {} took {}ms)",
+                   strength, estimate / 1_000_000L, targetMs, minStrength, baseNanos / 1_000_000L);
+    }
+
+    /**
+     * Get the work factor new hashes are created with.
+     * 
+     * @return BCrypt strength (log2 rounds)
+     */
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Check whether a stored hash should be replaced by one with the current strength.
+     * 
+     * @param encodedPassword the stored BCrypt hash
+     * @return true if the hash uses a lower strength
+     */
+    public boolean needsRehash(String encodedPassword) {
+        int stored = extractStrength(encodedPassword);
+        return stored > 0 && stored < strength;
+    }
+
+    /**
+     * Read the work factor from a BCrypt hash such as {@code $2a$12$...}.
+     * 
+     * @param encodedPassword the BCrypt hash
+     * @return the strength, or -1 if the hash is not a BCrypt hash
+     */
+    public static int extractStrength(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7
+                || encodedPassword.charAt(0) != '$' || encodedPassword.charAt(3) != '$'
+                || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Measure one hash at the given strength, taking the fastest of a few runs after a warm-up.
+     */
+    private long measure(int strengthToMeasure) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strengthToMeasure);
+        encoder.encode(CALIBRATION_PASSWORD);
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
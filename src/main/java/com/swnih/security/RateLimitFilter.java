@@ -0,0 +1,75 @@
+package com.swnih.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter enforcing rate-limit.requests-per-minute on API requests.
+ * Runs after {@link JwtAuthenticationFilter}: every API request is charged to the client IP,
+ * and authenticated requests also to the user. The client IP is the remote address, which
+ * server.forward-headers-strategy resolves from X-Forwarded-For behind a trusted proxy. Requests over either limit get 429 with
+ * Retry-After before reaching a controller.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+    private static final byte[] RATE_LIMITED_BODY =
+            "{\"success\":false,\"error\":\"RATE_LIMITED\",\"message\":\"Too many requests, please slow down\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimiter rateLimiter;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long waitNanos = rateLimiter.tryAcquireIp(request.getRemoteAddr());
+
+        if (waitNanos == 0) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof JwtUserPrincipal principal) {
+                waitNanos = rateLimiter.tryAcquireUser(principal.getUserId());
+            }
+        }
+
+        if (waitNanos > 0) {
+            logger.debug("Rate limited request to {} from {}", request.getRequestURI(), request.getRemoteAddr());
+            response.setStatus(429);
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L))));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(RATE_LIMITED_BODY.length);
+            response.getOutputStream().write(RATE_LIMITED_BODY);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,175 @@
+package com.swnih.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-user and per-IP request rate limiter.
+ * Each scope is a fixed table of token buckets indexed by a hash of the client key, stored as one
+ * long per slot and updated with a single CAS (GCRA: the slot holds the time at which the bucket
+ * will be full again). A check is O(1), lock-free and allocates nothing, and the memory used does
+ * not grow with the number of clients. Clients whose keys share a slot share a bucket; the table
+ * is sized well above the number of active clients so this only rarely makes a limit stricter.
+ *
+ * When a shared backend is enabled, allowed requests are also counted per slot so
+ * {@link SharedRateLimitBackend} can publish them and block slots that are over the limit
+ * across all instances.
+ */
+@Component
+public class RateLimiter {
+
+    public static final int SCOPE_USER = 0;
+    public static final int SCOPE_IP = 1;
+
+    private final Scope[] scopes;
+    private final int slotBits;
+    private final long baseNanos = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+
+    private volatile boolean countingEnabled;
+
+    /**
+     * One bucket table with its rate parameters.
+     */
+    private static final class Scope {
+        private final long limitPerMinute;
+        private final long emissionIntervalNanos;
+        private final long toleranceNanos;
+        private final AtomicLongArray fullAt;
+        private final AtomicLongArray blockedUntilMillis;
+        private final AtomicIntegerArray pending;
+
+        private Scope(long limitPerMinute, long burst, int slots) {
+            this.limitPerMinute = limitPerMinute;
+            this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / limitPerMinute;
+            this.toleranceNanos = emissionIntervalNanos * burst;
+            this.fullAt = new AtomicLongArray(slots);
+            this.blockedUntilMillis = new AtomicLongArray(slots);
+            this.pending = new AtomicIntegerArray(slots);
+        }
+    }
+
+    public RateLimiter(@Value("${rate-limit.requests-per-minute:100}") long userRequestsPerMinute,
+                       @Value("${rate-limit.ip-requests-per-minute:300}") long ipRequestsPerMinute,
+                       @Value("${rate-limit.burst:0}") long burst,
+                       @Value("${rate-limit.table-size:65536}") int tableSize) {
+        if (userRequestsPerMinute <= 0 || ipRequestsPerMinute <= 0) {
+            throw new IllegalArgumentException("Rate limits must be positive");
+        }
+        this.slotBits = Math.max(4, 32 - Integer.numberOfLeadingZeros(Math.max(tableSize, 16) - 1));
+        int slots = 1 << slotBits;
+        this.scopes = new Scope[] {
+            new Scope(userRequestsPerMinute, burst > 0 ? burst : userRequestsPerMinute, slots),
+            new Scope(ipRequestsPerMinute, burst > 0 ? burst : ipRequestsPerMinute, slots)
+        };
+    }
+
+    /**
+     * Take one request from the user's bucket.
+     *
+     * @param userId the authenticated user ID
+     * @return 0 if allowed, otherwise nanoseconds until a request would be allowed
+     */
+    public long tryAcquireUser(long userId) {
+        return tryAcquire(SCOPE_USER, slot(userId));
+    }
+
+    /**
+     * Take one request from the client IP's bucket.
+     *
+     * @param clientIp the client IP address
+     * @return 0 if allowed, otherwise nanoseconds until a request would be allowed
+     */
+    public long tryAcquireIp(String clientIp) {
+        return tryAcquire(SCOPE_IP, slot(clientIp != null ? clientIp.hashCode() : 0));
+    }
+
+    private long tryAcquire(int scopeIndex, int slot) {
+        Scope scope = scopes[scopeIndex];
+
+        long blockedUntil = scope.blockedUntilMillis.get(slot);
+        if (blockedUntil != 0) {
+            long remainingMillis = blockedUntil - System.currentTimeMillis();
+            if (remainingMillis > 0) {
+                return TimeUnit.MILLISECONDS.toNanos(remainingMillis);
+            }
+        }
+
+        long now = System.nanoTime() - baseNanos;
+        while (true) {
+            long fullAt = scope.fullAt.get(slot);
+            long newFullAt = Math.max(fullAt, now) + scope.emissionIntervalNanos;
+            long excess = newFullAt - now - scope.toleranceNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (scope.fullAt.compareAndSet(slot, fullAt, newFullAt)) {
+                if (countingEnabled) {
+                    scope.pending.incrementAndGet(slot);
+                }
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Start counting allowed requests per slot for a shared backend.
+     */
+    public void enableCounting() {
+        countingEnabled = true;
+    }
+
+    /**
+     * Number of slots per scope.
+     *
+     * @return table size
+     */
+    public int getTableSize() {
+        return 1 << slotBits;
+    }
+
+    /**
+     * Requests per minute allowed for a scope.
+     *
+     * @param scopeIndex SCOPE_USER or SCOPE_IP
+     * @return the configured limit
+     */
+    public long getLimitPerMinute(int scopeIndex) {
+        return scopes[scopeIndex].limitPerMinute;
+    }
+
+    /**
+     * Take and reset the number of requests allowed in a slot since the last call.
+     *
+     * @param scopeIndex SCOPE_USER or SCOPE_IP
+     * @param slot the slot index
+     * @return allowed requests since the last drain
+     */
+    public int drainPending(int scopeIndex, int slot) {
+        AtomicIntegerArray pending = scopes[scopeIndex].pending;
+        return pending.get(slot) == 0 ? 0 : pending.getAndSet(slot, 0);
+    }
+
+    /**
+     * Reject all requests in a slot until the given time.
+     *
+     * @param scopeIndex SCOPE_USER or SCOPE_IP
+     * @param slot the slot index
+     * @param untilEpochMillis when the block ends
+     */
+    public void blockUntil(int scopeIndex, int slot, long untilEpochMillis) {
+        scopes[scopeIndex].blockedUntilMillis.accumulateAndGet(slot, untilEpochMillis, Math::max);
+    }
+
+    private int slot(long key) {
+        // SplitMix64 finalizer, top bits select the slot
+        long h = key + 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        h = h ^ (h >>> 31);
+        return (int) (h >>> (64 - slotBits));
+    }
+}
@@ -0,0 +1,114 @@
+package com.swnih.security;
+
+import com.swnih.repository.RateLimitCounterRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional database-backed sharing of rate limits between application instances.
+ * Every sync interval the requests each instance allowed per {@link RateLimiter} slot are added
+ * to a per-minute counter in rate_limit_counters; slots whose total across instances has reached
+ * the per-minute limit are blocked locally until the window ends. The request path never touches
+ * the database, and if the database is unavailable the local limits still apply.
+ */
+@Component
+public class SharedRateLimitBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedRateLimitBackend.class);
+    private static final long WINDOW_MILLIS = 60_000L;
+    private static final int READ_CHUNK_SIZE = 500;
+    private static final String[] SCOPE_PREFIXES = {"u:", "ip:"};
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitCounterRepository rateLimitCounterRepository;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean rateLimitEnabled;
+
+    @Value("${rate-limit.shared.enabled:false}")
+    private boolean enabled;
+
+    public SharedRateLimitBackend(RateLimiter rateLimiter, RateLimitCounterRepository rateLimitCounterRepository) {
+        this.rateLimiter = rateLimiter;
+        this.rateLimitCounterRepository = rateLimitCounterRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (rateLimitEnabled && enabled) {
+            rateLimiter.enableCounting();
+            logger.info("Sharing rate limits through the database");
+        }
+    }
+
+    /**
+     * Publish locally allowed requests and block slots that are over the limit on all instances.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.shared.sync-interval-ms:1000}")
+    public void sync() {
+        if (!rateLimitEnabled || !enabled) {
+            return;
+        }
+
+        long window = System.currentTimeMillis() / WINDOW_MILLIS;
+        long windowStart = window * WINDOW_MILLIS;
+        int tableSize = rateLimiter.getTableSize();
+        Map<String, Integer> touched = new HashMap<>();
+
+        try {
+            for (int scope = 0; scope < SCOPE_PREFIXES.length; scope++) {
+                for (int slot = 0; slot < tableSize; slot++) {
+                    int requests = rateLimiter.drainPending(scope, slot);
+                    if (requests > 0) {
+                        String bucketKey = SCOPE_PREFIXES[scope] + slot + ":" + window;
+                        rateLimitCounterRepository.addRequests(bucketKey, windowStart, requests);
+                        touched.put(bucketKey, scope * tableSize + slot);
+                    }
+                }
+            }
+
+            List<String> keys = new ArrayList<>(touched.keySet());
+            for (int i = 0; i < keys.size(); i += READ_CHUNK_SIZE) {
+                List<Object[]> counts = rateLimitCounterRepository.findCounts(
+                        keys.subList(i, Math.min(keys.size(), i + READ_CHUNK_SIZE)));
+                for (Object[] row : counts) {
+                    int index = touched.get((String) row[0]);
+                    int scope = index / tableSize;
+                    if ((Long) row[1] >= rateLimiter.getLimitPerMinute(scope)) {
+                        rateLimiter.blockUntil(scope, index % tableSize, windowStart + WINDOW_MILLIS);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // Counts drained in this pass are lost; local limits keep applying
+            logger.warn("Failed to sync shared rate limits: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Remove counters of windows that have ended.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.shared.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        if (!rateLimitEnabled || !enabled) {
+            return;
+        }
+        try {
+            int deleted = rateLimitCounterRepository.deleteWindowsBefore(System.currentTimeMillis() - 2 * WINDOW_MILLIS);
+            if (deleted > 0) {
+                logger.debug("Purged {} rate limit counters", deleted);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to purge rate limit counters: {}", e.getMessage());
+        }
+    }
+}
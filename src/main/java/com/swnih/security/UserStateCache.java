@@ -0,0 +1,140 @@
+package com.swnih.security;
+
+import com.swnih.entity.User;
+import com.swnih.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of the user state needed to authenticate a JWT.
+ * Lets JwtAuthenticationFilter build the principal without a user query on every request.
+ * Entries expire after a short TTL and are invalidated explicitly whenever a user row changes,
+ * so deleted users and changed emails are picked up promptly.
+ *
+ * Requirements: 1.2, 1.5
+ */
+@Component
+public class UserStateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserStateCache.class);
+
+    private final UserRepository userRepository;
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${security.user-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${security.user-cache.max-size:10000}")
+    private int maxSize;
+
+    public UserStateCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Immutable snapshot of the user fields used for authentication and request handling.
+     */
+    public static final class UserSnapshot {
+        private final Long id;
+        private final String email;
+        private final String username;
+        private final Integer retentionDays;
+
+        public UserSnapshot(Long id, String email, String username, Integer retentionDays) {
+            this.id = id;
+            this.email = email;
+            this.username = username;
+            this.retentionDays = retentionDays;
+        }
+
+        static UserSnapshot of(User user) {
+            return new UserSnapshot(user.getId(), user.getEmail(), user.getUsername(), user.getRetentionDays());
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public Integer getRetentionDays() {
+            return retentionDays;
+        }
+    }
+
+    private static final class Entry {
+        private final UserSnapshot snapshot;
+        private final long expiresAtNanos;
+
+        private Entry(UserSnapshot snapshot, long expiresAtNanos) {
+            this.snapshot = snapshot;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    /**
+     * Get the user state, loading it from the database on a miss or after expiry.
+     * Missing users are cached too, so a token for a deleted account does not query on every request.
+     *
+     * @param userId the user ID from the JWT
+     * @return the user snapshot, or empty if the user does not exist
+     */
+    public Optional<UserSnapshot> get(Long userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+
+        long now = System.nanoTime();
+        Entry entry = entries.get(userId);
+        if (entry != null && entry.expiresAtNanos - now > 0) {
+            return Optional.ofNullable(entry.snapshot);
+        }
+
+        UserSnapshot snapshot = userRepository.findById(userId).map(UserSnapshot::of).orElse(null);
+        if (entries.size() >= maxSize) {
+            evictExpired(now);
+        }
+        entries.put(userId, new Entry(snapshot, now + ttlSeconds * 1_000_000_000L));
+
+        logger.debug("Loaded user state for user: {} (found: {})", userId, snapshot != null);
+        return Optional.ofNullable(snapshot);
+    }
+
+    /**
+     * Drop the cached state for a user. Call after any change to the user row.
+     *
+     * @param userId the user ID
+     */
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            entries.remove(userId);
+        }
+    }
+
+    /**
+     * Drop all cached user state.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    private void evictExpired(long now) {
+        entries.entrySet().removeIf(e -> e.getValue().expiresAtNanos - now <= 0);
+        if (entries.size() >= maxSize) {
+            // Still full of live entries: start over rather than track recency
+            logger.debug("User state cache full ({} entries), clearing", entries.size());
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.swnih.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of decrypted Gmail access tokens by user.
+ * Lets repeated Gmail calls within a sync skip the token query and decryption.
+ * Entries expire after a short TTL and always before the token enters the refresh window
+ * (expiresAt minus expiry-margin-seconds), so a cached token is never used past the point
+ * where GmailIntegrationService would refresh it. Tokens are held as char arrays and
+ * overwritten when an entry is evicted, invalidated or the cache is shut down.
+ */
+@Component
+public class AccessTokenCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessTokenCache.class);
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${gmail.token-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${gmail.token-cache.expiry-margin-seconds:300}")
+    private long expiryMarginSeconds;
+
+    @Value("${gmail.token-cache.max-size:10000}")
+    private int maxSize;
+
+    private static final class Entry {
+        private final char[] token;
+        private final long expiresAtNanos;
+        private boolean wiped;
+
+        private Entry(char[] token, long expiresAtNanos) {
+            this.token = token;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        synchronized String value() {
+            return wiped ? null : new String(token);
+        }
+
+        synchronized void wipe() {
+            Arrays.fill(token, '\0');
+            wiped = true;
+        }
+    }
+
+    /**
+     * Get a cached access token.
+     *
+     * @param userId the user owning the token
+     * @return the decrypted access token, or null if not cached or expired
+     */
+    public String get(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtNanos - System.nanoTime() <= 0) {
+            remove(userId, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * Cache a decrypted access token until shortly before it expires.
+     * Tokens already inside the expiry margin are not cached.
+     *
+     * @param userId the user owning the token
+     * @param accessToken the decrypted access token
+     * @param tokenExpiresAt when the token expires
+     */
+    public void put(Long userId, String accessToken, LocalDateTime tokenExpiresAt) {
+        if (userId == null || accessToken == null || tokenExpiresAt == null || maxSize <= 0) {
+            return;
+        }
+
+        long remainingSeconds = Duration.between(LocalDateTime.now(), tokenExpiresAt).getSeconds() - expiryMarginSeconds;
+        long lifetimeSeconds = Math.min(ttlSeconds, remainingSeconds);
+        if (lifetimeSeconds <= 0) {
+            invalidate(userId);
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (entries.size() >= maxSize) {
+            evictExpired(now);
+        }
+        Entry previous = entries.put(userId, new Entry(accessToken.toCharArray(), now + lifetimeSeconds * 1_000_000_000L));
+        if (previous != null) {
+            previous.wipe();
+        }
+    }
+
+    /**
+     * Drop the cached token for a user. Call after the user's token is refreshed, replaced or revoked.
+     *
+     * @param userId the user ID
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        Entry entry = entries.remove(userId);
+        if (entry != null) {
+            entry.wipe();
+        }
+    }
+
+    /**
+     * Drop and overwrite all cached tokens.
+     */
+    @PreDestroy
+    public void clear() {
+        entries.forEach(this::remove);
+        logger.debug("Cleared access token cache");
+    }
+
+    /**
+     * Number of cached entries, including expired ones not yet evicted.
+     *
+     * @return entry count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private void remove(Long userId, Entry entry) {
+        if (entries.remove(userId, entry)) {
+            entry.wipe();
+        }
+    }
+
+    private void evictExpired(long now) {
+        entries.forEach((userId, entry) -> {
+            if (entry.expiresAtNanos - now <= 0) {
+                remove(userId, entry);
+            }
+        });
+        if (entries.size() >= maxSize) {
+            // Still full of live entries: start over rather than track recency
+            logger.debug("Access token cache full ({} entries), clearing", entries.size());
+            clear();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.swnih.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Concurrency limit for calls to one dependency that follows its observed latency (AIMD).
+ * The baseline is the lowest latency seen in the last rttWindowSamples calls. A call slower than
+ * baseline times latencyTolerance, or a failed call, shrinks the limit by backoffRatio; a call in
+ * time while the limit is at least half used grows it by 1/limit, about one per limit calls.
+ * Calls over the limit are rejected rather than queued, so when the dependency slows down
+ * requests are shed at once instead of piling up on threads and connections.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+    private final int rttWindowSamples;
+
+    private double limit;
+    private int inFlight;
+    private long baselineNanos;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private long rejectedCount;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double latencyTolerance, double backoffRatio, int rttWindowSamples) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limiter " + name + " needs 0 < min <= max");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+        this.rttWindowSamples = rttWindowSamples;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Take a slot for a call.
+     *
+     * @return true if the call may go ahead, false if the limit is reached
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            rejectedCount++;
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Release the slot of a finished call and adjust the limit.
+     *
+     * @param durationNanos how long the call took
+     * @param failed whether the call failed in a way that signals overload (timeout, 429, 5xx)
+     */
+    public synchronized void onComplete(long durationNanos, boolean failed) {
+        int usedSlots = inFlight;
+        inFlight--;
+
+        windowMinNanos = Math.min(windowMinNanos, durationNanos);
+        if (baselineNanos == 0 || ++windowSamples >= rttWindowSamples) {
+            // Restart from a recent minimum so a faster or slower dependency moves the baseline
+            baselineNanos = windowMinNanos;
+            windowMinNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+
+        double previous = limit;
+        if (failed || durationNanos > baselineNanos * latencyTolerance) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (usedSlots * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        if ((int) previous != (int) limit) {
+            logger.debug("Concurrency limit {} now {}", name, (int) limit);
+        }
+    }
+
+    /**
+     * Release the slot of a call abandoned before it finished, without a sample.
+     */
+    public synchronized void onCancel() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Current limit, usage and baseline latency.
+     *
+     * @return limiter statistics
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("limit", (int) limit);
+        stats.put("inFlight", inFlight);
+        stats.put("baselineLatencyMs", baselineNanos / 1_000_000.0);
+        stats.put("rejected", rejectedCount);
+        return stats;
+    }
+}
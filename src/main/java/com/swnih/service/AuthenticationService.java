@@ -5,13 +5,17 @@ import com.swnih.dto.UserLoginRequest;
 import com.swnih.dto.UserRegistrationRequest;
 import com.swnih.entity.User;
 import com.swnih.exception.AuthenticationException;
+import com.swnih.exception.TooManyAttemptsException;
 import com.swnih.exception.UserAlreadyExistsException;
 import com.swnih.repository.UserRepository;
+import com.swnih.security.LoginAttemptThrottler;
+import com.swnih.security.UserStateCache;
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
@@ -28,17 +32,29 @@ public class AuthenticationService {
     private static final Logger logger = LoggerFactory.getLogger(AuthenticationService.class);
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenService jwtTokenService;
+    private final LoginAttemptThrottler loginAttemptThrottler;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserStateCache userStateCache;
 
     @Autowired
     public AuthenticationService(
             UserRepository userRepository,
-            PasswordEncoder passwordEncoder,
-            JwtTokenService jwtTokenService) {
+            PasswordHashingService passwordHashingService,
+            JwtTokenService jwtTokenService,
+            LoginAttemptThrottler loginAttemptThrottler,
+            RefreshTokenService refreshTokenService,
+            TokenRevocationService tokenRevocationService,
+            UserStateCache userStateCache) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.jwtTokenService = jwtTokenService;
+        this.loginAttemptThrottler = loginAttemptThrottler;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userStateCache = userStateCache;
     }
 
     /**
@@ -48,7 +64,9 @@ public class AuthenticationService {
      * @return created user entity
      * @throws UserAlreadyExistsException if username or email already exists
      * @throws IllegalArgumentException if password validation fails
+     * @throws TooManyAttemptsException if password hashing is saturated
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User registerUser(UserRegistrationRequest registrationRequest) {
         logger.info("Attempting to register user with email: {}", registrationRequest.getEmail());
 
@@ -63,8 +81,8 @@ public class AuthenticationService {
         // Validate password requirements (additional validation beyond annotations)
         validatePasswordRequirements(registrationRequest.getPassword());
 
-        // Hash password with bcrypt (12+ rounds configured in SecurityConfig)
-        String hashedPassword = passwordEncoder.encode(registrationRequest.getPassword());
+        // Hash password with bcrypt (12+ rounds configured in SecurityConfig) on the bounded hashing executor
+        String hashedPassword = passwordHashingService.encode(registrationRequest.getPassword());
 
         // Create new user
         User user = new User(
@@ -75,6 +93,7 @@ public class AuthenticationService {
 
         // Save user to database
         User savedUser = userRepository.save(user);
+        userStateCache.invalidate(savedUser.getId());
         logger.info("Successfully registered user with ID: {} and email: {}", 
                    savedUser.getId(), savedUser.getEmail());
 
@@ -89,30 +108,136 @@ public class AuthenticationService {
      * @throws AuthenticationException if credentials are invalid
      */
     public AuthenticationResponse authenticateUser(UserLoginRequest loginRequest) {
+        return authenticateUser(loginRequest, null);
+    }
+
+    /**
+     * Authenticate user and generate JWT token, applying per-account and per-IP throttling.
+     * Runs without a transaction so no database connection is held while the password is hashed.
+     * 
+     * @param loginRequest user login credentials
+     * @param clientIp the client IP address, or null if unknown
+     * @return authentication response with JWT token
+     * @throws AuthenticationException if credentials are invalid
+     * @throws TooManyAttemptsException if the account or IP is throttled or hashing is saturated
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AuthenticationResponse authenticateUser(UserLoginRequest loginRequest, String clientIp) {
         logger.info("Attempting to authenticate user with email: {}", loginRequest.getEmail());
 
+        // Reject throttled accounts and IPs before doing any hashing work
+        loginAttemptThrottler.checkAllowed(loginRequest.getEmail(), clientIp);
+
         // Find user by email
         Optional<User> userOptional = userRepository.findByEmail(loginRequest.getEmail());
         if (userOptional.isEmpty()) {
             logger.warn("Authentication failed: User not found with email: {}", loginRequest.getEmail());
+            loginAttemptThrottler.recordFailure(loginRequest.getEmail(), clientIp);
             throw new AuthenticationException("Invalid email or password");
         }
 
         User user = userOptional.get();
 
         // Validate password
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPasswordHash())) {
+        if (!passwordHashingService.matches(loginRequest.getPassword(), user.getPasswordHash())) {
             logger.warn("Authentication failed: Invalid password for user: {}", loginRequest.getEmail());
+            loginAttemptThrottler.recordFailure(loginRequest.getEmail(), clientIp);
             throw new AuthenticationException("Invalid email or password");
         }
 
-        // Generate JWT token
+        loginAttemptThrottler.recordSuccess(loginRequest.getEmail());
+        rehashIfNeeded(user, loginRequest.getPassword());
+
+        // Generate JWT token and start a new refresh token family
         String token = jwtTokenService.generateToken(user.getId(), user.getEmail(), user.getUsername());
+        String refreshToken = refreshTokenService.issue(user);
 
         logger.info("Successfully authenticated user with ID: {} and email: {}", 
                    user.getId(), user.getEmail());
 
-        return new AuthenticationResponse(token, user.getId(), user.getUsername(), user.getEmail());
+        return new AuthenticationResponse(token, user.getId(), user.getUsername(), user.getEmail(),
+                                          refreshToken, jwtTokenService.getExpirationMs() / 1000);
+    }
+
+    /**
+     * Renew a session with a refresh token, without password verification.
+     * The presented refresh token is consumed and replaced.
+     * 
+     * @param refreshToken the current refresh token
+     * @return authentication response with a new JWT and refresh token
+     * @throws AuthenticationException if the refresh token is invalid, expired, or reused
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AuthenticationResponse refreshSession(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        User user = rotation.getUser();
+
+        String token = jwtTokenService.generateToken(user.getId(), user.getEmail(), user.getUsername());
+        logger.debug("Refreshed session for user {}", user.getId());
+
+        return new AuthenticationResponse(token, user.getId(), user.getUsername(), user.getEmail(),
+                                          rotation.getRefreshToken(), jwtTokenService.getExpirationMs() / 1000);
+    }
+
+    /**
+     * End a session by revoking its refresh token family and, if given, its current JWT.
+     * 
+     * @param refreshToken the session's refresh token
+     * @param accessToken the session's current JWT, or null
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void logout(String refreshToken, String accessToken) {
+        refreshTokenService.revoke(refreshToken);
+        if (accessToken != null) {
+            jwtTokenService.parseToken(accessToken).ifPresent(claims ->
+                tokenRevocationService.revoke(claims.getId(), JwtTokenService.getUserId(claims), claims.getExpiration()));
+        }
+    }
+
+    /**
+     * End every session of the token's user by revoking all their refresh tokens and the given JWT.
+     * JWTs of the other sessions stay valid until they expire, but can no longer be renewed.
+     * 
+     * @param accessToken the caller's current JWT
+     * @throws AuthenticationException if the token is invalid, expired or revoked
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void logoutAllSessions(String accessToken) {
+        Claims claims = jwtTokenService.parseToken(accessToken)
+                .orElseThrow(() -> new AuthenticationException("Invalid or expired token"));
+        if (tokenRevocationService.isRevoked(claims.getId())) {
+            throw new AuthenticationException("Token has been revoked");
+        }
+
+        Long userId = JwtTokenService.getUserId(claims);
+        refreshTokenService.revokeAllForUser(userId);
+        tokenRevocationService.revoke(claims.getId(), userId, claims.getExpiration());
+    }
+
+    /**
+     * Replace a verified password hash whose work factor differs from the current one.
+     * Best effort: the login succeeds even if the rehash is skipped or fails.
+     * 
+     * @param user the authenticated user
+     * @param rawPassword the verified raw password
+     */
+    private void rehashIfNeeded(User user, String rawPassword) {
+        String currentHash = user.getPasswordHash();
+        if (!passwordHashingService.needsRehash(currentHash)) {
+            return;
+        }
+        try {
+            String newHash = passwordHashingService.encode(rawPassword);
+            if (userRepository.updatePasswordHash(user.getId(), currentHash, newHash) > 0) {
+                user.setPasswordHash(newHash);
+                userStateCache.invalidate(user.getId());
+                logger.info("Rehashed password for user {} with the current work factor", user.getId());
+            }
+        } catch (TooManyAttemptsException e) {
+            logger.debug("Skipping password rehash for user {}: hashing saturated", user.getId());
+        } catch (Exception e) {
+            logger.warn("Password rehash failed for user {}: {}", user.getId(), e.getMessage());
+        }
     }
 
     /**
@@ -123,15 +248,15 @@ public class AuthenticationService {
      * @throws AuthenticationException if token is invalid or expired
      */
     public User validateToken(String token) {
-        if (!jwtTokenService.validateToken(token)) {
-            throw new AuthenticationException("Invalid or expired token");
-        }
+        // Signature and expiration are verified in one parse
+        Claims claims = jwtTokenService.parseToken(token)
+                .orElseThrow(() -> new AuthenticationException("Invalid or expired token"));
 
-        if (jwtTokenService.isTokenExpired(token)) {
-            throw new AuthenticationException("Token has expired");
+        if (tokenRevocationService.isRevoked(claims.getId())) {
+            throw new AuthenticationException("Token has been revoked");
         }
 
-        String email = jwtTokenService.getEmailFromToken(token);
+        String email = claims.getSubject();
         Optional<User> userOptional = userRepository.findByEmail(email);
         
         if (userOptional.isEmpty()) {
@@ -185,6 +310,18 @@ public class AuthenticationService {
                 .orElseThrow(() -> new AuthenticationException("User not found with ID: " + userId));
     }
 
+    /**
+     * Get a reference to a user by ID without loading the row.
+     * Only the ID can be read from it outside a transaction; pass it to services
+     * as a query parameter or association instead of a detached copy of the user.
+     * 
+     * @param userId user ID
+     * @return lazy user reference
+     */
+    public User getUserReference(Long userId) {
+        return userRepository.getReferenceById(userId);
+    }
+
     /**
      * Find user by username.
      * 
@@ -0,0 +1,226 @@
+package com.swnih.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker for one remote dependency.
+ * Outcomes are counted in a rolling window of one-second buckets. Once the window holds at least
+ * minimumCalls calls and either the failure rate or the slow call rate reaches its threshold,
+ * the breaker opens and rejects calls for openMillis. It then lets halfOpenProbes calls through:
+ * if all succeed in time it closes with an empty window, if any fails it opens again.
+ * Callers ask {@link #tryAcquire()} before a call and report its outcome with
+ * {@link #onSuccess(long)}, {@link #onFailure(long)} or {@link #onCancel()}.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+    private static final long BUCKET_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    // Rolling window, bucket i counts calls finished in second bucketEpoch[i]
+    private final long[] bucketEpoch;
+    private final int[] calls;
+    private final int[] failures;
+    private final int[] slowCalls;
+    private final long baseNanos = System.nanoTime();
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int probesInFlight;
+    private int probeSuccesses;
+    private long rejectedCount;
+    private long openedCount;
+
+    public CircuitBreaker(String name, double failureRateThreshold, double slowCallRateThreshold,
+                          long slowCallMillis, int minimumCalls, int windowSeconds,
+                          long openMillis, int halfOpenProbes) {
+        if (windowSeconds <= 0 || minimumCalls <= 0 || halfOpenProbes <= 0) {
+            throw new IllegalArgumentException("Circuit breaker " + name + " needs a positive window, minimum and probe count");
+        }
+        this.name = name;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.minimumCalls = minimumCalls;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.halfOpenProbes = halfOpenProbes;
+        this.bucketEpoch = new long[windowSeconds];
+        this.calls = new int[windowSeconds];
+        this.failures = new int[windowSeconds];
+        this.slowCalls = new int[windowSeconds];
+        Arrays.fill(bucketEpoch, -1);
+    }
+
+    /**
+     * Ask to make a call.
+     *
+     * @return true if the call may go ahead, false if the breaker is open
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        if (state == State.OPEN) {
+            if (now - openedAtNanos < openNanos) {
+                rejectedCount++;
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probeSuccesses = 0;
+            logger.info("Circuit breaker {} half-open, probing", name);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= halfOpenProbes) {
+                rejectedCount++;
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    /**
+     * Whether a call would currently be allowed, without taking a probe slot.
+     *
+     * @return false while the breaker is open and still waiting
+     */
+    public synchronized boolean isCallPermitted() {
+        return state != State.OPEN || System.nanoTime() - openedAtNanos >= openNanos;
+    }
+
+    public synchronized void onSuccess(long durationNanos) {
+        record(false, durationNanos);
+    }
+
+    public synchronized void onFailure(long durationNanos) {
+        record(true, durationNanos);
+    }
+
+    /**
+     * Report a call that was abandoned before it finished; it is not counted.
+     */
+    public synchronized void onCancel() {
+        if (state == State.HALF_OPEN && probesInFlight > 0) {
+            probesInFlight--;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Current state and window counts.
+     *
+     * @return breaker statistics
+     */
+    public synchronized Map<String, Object> getStats() {
+        int[] totals = windowTotals(epoch(System.nanoTime()));
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name());
+        stats.put("windowCalls", totals[0]);
+        stats.put("windowFailures", totals[1]);
+        stats.put("windowSlowCalls", totals[2]);
+        stats.put("rejected", rejectedCount);
+        stats.put("opened", openedCount);
+        return stats;
+    }
+
+    private void record(boolean failed, long durationNanos) {
+        long now = System.nanoTime();
+        boolean slow = durationNanos >= slowCallNanos;
+
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight > 0) {
+                probesInFlight--;
+            }
+            if (failed || slow) {
+                open(now, failed ? "probe failed" : "probe too slow");
+            } else if (++probeSuccesses >= halfOpenProbes) {
+                state = State.CLOSED;
+                Arrays.fill(calls, 0);
+                Arrays.fill(failures, 0);
+                Arrays.fill(slowCalls, 0);
+                logger.info("Circuit breaker {} closed", name);
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // A call started before the breaker opened
+            return;
+        }
+
+        long epoch = epoch(now);
+        int index = (int) (epoch % bucketEpoch.length);
+        if (bucketEpoch[index] != epoch) {
+            bucketEpoch[index] = epoch;
+            calls[index] = 0;
+            failures[index] = 0;
+            slowCalls[index] = 0;
+        }
+        calls[index]++;
+        if (failed) {
+            failures[index]++;
+        }
+        if (slow) {
+            slowCalls[index]++;
+        }
+
+        int[] totals = windowTotals(epoch);
+        int windowCalls = totals[0];
+        int windowFailures = totals[1];
+        int windowSlow = totals[2];
+        if (windowCalls < minimumCalls) {
+            return;
+        }
+        if ((double) windowFailures / windowCalls >= failureRateThreshold) {
+            open(now, windowFailures + "/" + windowCalls + " calls failed");
+        } else if ((double) windowSlow / windowCalls >= slowCallRateThreshold) {
+            open(now, windowSlow + "/" + windowCalls + " calls slow");
+        }
+    }
+
+    private void open(long now, String reason) {
+        state = State.OPEN;
+        openedAtNanos = now;
+        openedCount++;
+        logger.warn("Circuit breaker {} opened: {}", name, reason);
+    }
+
+    /**
+     * Calls, failures and slow calls in the buckets still inside the window.
+     */
+    private int[] windowTotals(long epoch) {
+        int[] totals = new int[3];
+        for (int i = 0; i < bucketEpoch.length; i++) {
+            if (epoch - bucketEpoch[i] < bucketEpoch.length) {
+                totals[0] += calls[i];
+                totals[1] += failures[i];
+                totals[2] += slowCalls[i];
+            }
+        }
+        return totals;
+    }
+
+    private long epoch(long now) {
+        return (now - baseNanos) / BUCKET_NANOS;
+    }
+}
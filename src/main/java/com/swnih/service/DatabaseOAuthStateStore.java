@@ -0,0 +1,56 @@
+package com.swnih.service;
+
+import com.swnih.entity.OAuthState;
+import com.swnih.repository.OAuthStateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * OAuth state store backed by the oauth_states table, for deployments with several instances.
+ * The callback may land on any instance; a state is consumed by deleting its row, so it can be
+ * used only once even if two instances receive the same callback.
+ */
+public class DatabaseOAuthStateStore implements OAuthStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseOAuthStateStore.class);
+
+    private final OAuthStateRepository oauthStateRepository;
+    private final long ttlSeconds;
+
+    public DatabaseOAuthStateStore(OAuthStateRepository oauthStateRepository, long ttlSeconds) {
+        this.oauthStateRepository = oauthStateRepository;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    @Override
+    public void save(String state, Long userId) {
+        oauthStateRepository.save(new OAuthState(state, userId, LocalDateTime.now().plusSeconds(ttlSeconds)));
+    }
+
+    @Override
+    public Optional<Long> consume(String state) {
+        if (state == null) {
+            return Optional.empty();
+        }
+        Optional<OAuthState> stored = oauthStateRepository.findById(state);
+        if (stored.isEmpty() || oauthStateRepository.deleteValid(state, LocalDateTime.now()) == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(stored.get().getUserId());
+    }
+
+    /**
+     * Remove states whose flows were never completed.
+     */
+    @Scheduled(fixedDelayString = "${gmail.oauth.state-purge-interval-ms:600000}")
+    public void purgeExpired() {
+        int deleted = oauthStateRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.debug("Purged {} expired OAuth states", deleted);
+        }
+    }
+}
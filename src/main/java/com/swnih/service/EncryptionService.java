@@ -1,77 +1,262 @@
 package com.swnih.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for encrypting and decrypting OAuth tokens using AES-256 encryption.
  * Implements secure token storage as required by the system specifications.
+ *
+ * Values are sealed with envelope encryption: each value gets a fresh AES-256 data key, the
+ * value is encrypted with AES-GCM under that key, and the data key is wrapped (also AES-GCM)
+ * by a master key identified by a key ID. Stored strings look like {@code v2:<base64>} with
+ * the binary layout
+ * <pre>
+ *   version(1) | keyIdLength(1) | keyId | wrappedKeyLength(2) | wrappedKey | nonce(12) | ciphertext+tag
+ * </pre>
+ * where wrappedKey is nonce(12) | encrypted data key+tag, and the version and key ID are bound
+ * to both ciphertexts as associated data. Rotating the master key only requires adding a new key
+ * and switching the active key ID; values under older keys stay readable and are rewritten by
+ * {@link TokenReEncryptionJob}. Values without a version prefix are the legacy AES/ECB format
+ * and are still decrypted with the legacy secret key.
  */
 @Service
 public class EncryptionService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EncryptionService.class);
+
     private static final String ALGORITHM = "AES";
-    private static final String TRANSFORMATION = "AES/ECB/PKCS5Padding";
+    private static final String LEGACY_TRANSFORMATION = "AES/ECB/PKCS5Padding";
+    private static final String GCM_TRANSFORMATION = "AES/GCM/NoPadding";
     private static final int KEY_LENGTH = 256;
+    private static final int KEY_BYTES = KEY_LENGTH / 8;
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final byte FORMAT_VERSION = 2;
+    private static final String VERSION_PREFIX = "v2:";
+    private static final String DERIVED_KEY_ID = "derived";
 
     @Value("${encryption.secret-key:your-encryption-secret-key-32-chars}")
     private String secretKeyString;
 
+    /** Master keys as comma-separated {@code id:base64Key} pairs. */
+    @Value("${encryption.master-keys:}")
+    private String masterKeysConfig;
+
+    @Value("${encryption.active-key-id:}")
+    private String activeKeyIdConfig;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private volatile SecretKey legacyKey;
+    private volatile Keyring keyring;
+
+    private final ThreadLocal<Cipher> legacyDecryptCipher = ThreadLocal.withInitial(() -> newLegacyCipher(Cipher.DECRYPT_MODE));
+    private final ThreadLocal<Cipher> gcmCipher = ThreadLocal.withInitial(EncryptionService::newGcmCipher);
+
+    private final Timer encryptTimer;
+    private final Timer decryptTimer;
+    private final Timer legacyDecryptTimer;
+
     /**
-     * Encrypt a plain text string using AES-256 encryption.
-     * 
+     * Master keys by ID and the ID used for new values.
+     */
+    private static final class Keyring {
+        private final Map<String, SecretKey> keys;
+        private final String activeKeyId;
+        private final byte[] activeKeyIdBytes;
+
+        private Keyring(Map<String, SecretKey> keys, String activeKeyId) {
+            this.keys = keys;
+            this.activeKeyId = activeKeyId;
+            this.activeKeyIdBytes = activeKeyId.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    public EncryptionService(MeterRegistry meterRegistry) {
+        this.encryptTimer = operationTimer(meterRegistry, "encrypt", "v2");
+        this.decryptTimer = operationTimer(meterRegistry, "decrypt", "v2");
+        this.legacyDecryptTimer = operationTimer(meterRegistry, "decrypt", "legacy");
+    }
+
+    private static Timer operationTimer(MeterRegistry meterRegistry, String operation, String format) {
+        return Timer.builder("encryption.operations")
+                .description("Token and message encryption")
+                .tag("operation", operation)
+                .tag("format", format)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Encrypt a plain text string using AES-256 envelope encryption.
+     *
      * @param plainText the text to encrypt
-     * @return Base64 encoded encrypted string
+     * @return versioned, Base64 encoded encrypted string
      * @throws RuntimeException if encryption fails
      */
     public String encrypt(String plainText) {
+        byte[] plainBytes;
         try {
-            SecretKey secretKey = getSecretKey();
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey);
-            
-            byte[] encryptedBytes = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(encryptedBytes);
-            
+            plainBytes = plainText.getBytes(StandardCharsets.UTF_8);
         } catch (Exception e) {
             throw new RuntimeException("Failed to encrypt data", e);
         }
+        return VERSION_PREFIX + Base64.getEncoder().encodeToString(encrypt(plainBytes));
     }
 
     /**
-     * Decrypt an encrypted string using AES-256 decryption.
-     * 
-     * @param encryptedText Base64 encoded encrypted string
+     * Decrypt an encrypted string produced by this service, in the current or legacy format.
+     *
+     * @param encryptedText versioned or legacy Base64 encoded encrypted string
      * @return decrypted plain text
      * @throws RuntimeException if decryption fails
      */
     public String decrypt(String encryptedText) {
         try {
-            SecretKey secretKey = getSecretKey();
-            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
-            cipher.init(Cipher.DECRYPT_MODE, secretKey);
-            
-            byte[] encryptedBytes = Base64.getDecoder().decode(encryptedText);
-            byte[] decryptedBytes = cipher.doFinal(encryptedBytes);
-            
-            return new String(decryptedBytes, StandardCharsets.UTF_8);
-            
+            if (encryptedText.startsWith(VERSION_PREFIX)) {
+                byte[] envelope = Base64.getDecoder().decode(encryptedText.substring(VERSION_PREFIX.length()));
+                return new String(decrypt(envelope), StandardCharsets.UTF_8);
+            }
+            byte[] legacyBytes = Base64.getDecoder().decode(encryptedText);
+            long start = System.nanoTime();
+            try {
+                return new String(legacyDecryptCipher.get().doFinal(legacyBytes), StandardCharsets.UTF_8);
+            } finally {
+                legacyDecryptTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
         } catch (Exception e) {
+            // Discard a legacy cipher that may have been left in an undefined state
+            legacyDecryptCipher.remove();
             throw new RuntimeException("Failed to decrypt data", e);
         }
     }
 
+    /**
+     * Encrypt raw bytes into a binary envelope under the active master key.
+     *
+     * @param plainBytes the bytes to encrypt
+     * @return envelope bytes
+     * @throws RuntimeException if encryption fails
+     */
+    public byte[] encrypt(byte[] plainBytes) {
+        long start = System.nanoTime();
+        byte[] dataKey = new byte[KEY_BYTES];
+        try {
+            Keyring ring = getKeyring();
+            byte[] header = header(ring.activeKeyIdBytes);
+
+            secureRandom.nextBytes(dataKey);
+            byte[] wrappedKey = seal(ring.keys.get(ring.activeKeyId), dataKey, header);
+            byte[] sealedData = seal(new SecretKeySpec(dataKey, ALGORITHM), plainBytes, header);
+
+            return ByteBuffer.allocate(header.length + 2 + wrappedKey.length + sealedData.length)
+                    .put(header)
+                    .putShort((short) wrappedKey.length)
+                    .put(wrappedKey)
+                    .put(sealedData)
+                    .array();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to encrypt data", e);
+        } finally {
+            Arrays.fill(dataKey, (byte) 0);
+            encryptTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Decrypt a binary envelope produced by {@link #encrypt(byte[])}.
+     *
+     * @param envelope the envelope bytes
+     * @return decrypted bytes
+     * @throws RuntimeException if decryption or authentication fails
+     */
+    public byte[] decrypt(byte[] envelope) {
+        long start = System.nanoTime();
+        byte[] dataKey = null;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(envelope);
+            byte version = buffer.get();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported encryption format version: " + version);
+            }
+            byte[] keyIdBytes = new byte[buffer.get() & 0xff];
+            buffer.get(keyIdBytes);
+            String keyId = new String(keyIdBytes, StandardCharsets.UTF_8);
+
+            SecretKey masterKey = getKeyring().keys.get(keyId);
+            if (masterKey == null) {
+                throw new IllegalStateException("Unknown master key ID: " + keyId);
+            }
+
+            byte[] header = Arrays.copyOf(envelope, buffer.position());
+            byte[] wrappedKey = new byte[buffer.getShort() & 0xffff];
+            buffer.get(wrappedKey);
+            byte[] sealedData = new byte[buffer.remaining()];
+            buffer.get(sealedData);
+
+            dataKey = open(masterKey, wrappedKey, header);
+            return open(new SecretKeySpec(dataKey, ALGORITHM), sealedData, header);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to decrypt data", e);
+        } finally {
+            if (dataKey != null) {
+                Arrays.fill(dataKey, (byte) 0);
+            }
+            decryptTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Check whether a stored value should be rewritten: legacy format or an inactive master key.
+     *
+     * @param encryptedText stored encrypted string
+     * @return true if the value is not in the current format under the active key
+     */
+    public boolean needsReEncryption(String encryptedText) {
+        if (encryptedText == null || !encryptedText.startsWith(VERSION_PREFIX)) {
+            return true;
+        }
+        try {
+            byte[] envelope = Base64.getDecoder().decode(encryptedText.substring(VERSION_PREFIX.length()));
+            String keyId = new String(envelope, 2, envelope[1] & 0xff, StandardCharsets.UTF_8);
+            return !getKeyring().activeKeyId.equals(keyId);
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    /**
+     * Get the ID of the master key used for new values.
+     *
+     * @return active master key ID
+     */
+    public String getActiveKeyId() {
+        return getKeyring().activeKeyId;
+    }
+
     /**
      * Generate a new AES-256 secret key.
-     * 
+     *
      * @return Base64 encoded secret key
      */
     public String generateSecretKey() {
@@ -79,27 +264,147 @@ public class EncryptionService {
             KeyGenerator keyGenerator = KeyGenerator.getInstance(ALGORITHM);
             keyGenerator.init(KEY_LENGTH, new SecureRandom());
             SecretKey secretKey = keyGenerator.generateKey();
-            
+
             return Base64.getEncoder().encodeToString(secretKey.getEncoded());
-            
+
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate secret key", e);
         }
     }
 
+    private byte[] header(byte[] keyIdBytes) {
+        byte[] header = new byte[2 + keyIdBytes.length];
+        header[0] = FORMAT_VERSION;
+        header[1] = (byte) keyIdBytes.length;
+        System.arraycopy(keyIdBytes, 0, header, 2, keyIdBytes.length);
+        return header;
+    }
+
+    /**
+     * AES-GCM encrypt with a fresh random nonce.
+     *
+     * @return nonce followed by ciphertext and tag
+     */
+    private byte[] seal(SecretKey key, byte[] plainBytes, byte[] associatedData) throws Exception {
+        byte[] nonce = new byte[NONCE_LENGTH];
+        secureRandom.nextBytes(nonce);
+
+        Cipher cipher = gcmCipher.get();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, nonce));
+        cipher.updateAAD(associatedData);
+
+        byte[] sealed = new byte[NONCE_LENGTH + cipher.getOutputSize(plainBytes.length)];
+        System.arraycopy(nonce, 0, sealed, 0, NONCE_LENGTH);
+        cipher.doFinal(plainBytes, 0, plainBytes.length, sealed, NONCE_LENGTH);
+        return sealed;
+    }
+
+    /**
+     * AES-GCM decrypt and authenticate a value produced by {@link #seal}.
+     */
+    private byte[] open(SecretKey key, byte[] sealed, byte[] associatedData) throws Exception {
+        Cipher cipher = gcmCipher.get();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, sealed, 0, NONCE_LENGTH));
+        cipher.updateAAD(associatedData);
+        return cipher.doFinal(sealed, NONCE_LENGTH, sealed.length - NONCE_LENGTH);
+    }
+
+    private static Cipher newGcmCipher() {
+        try {
+            return Cipher.getInstance(GCM_TRANSFORMATION);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to initialize cipher", e);
+        }
+    }
+
+    private Cipher newLegacyCipher(int mode) {
+        try {
+            Cipher cipher = Cipher.getInstance(LEGACY_TRANSFORMATION);
+            cipher.init(mode, getLegacyKey());
+            return cipher;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to initialize cipher", e);
+        }
+    }
+
     /**
-     * Get the secret key for encryption/decryption.
-     * 
+     * Get the master keyring, parsing the configuration on first use.
+     * Without configured master keys a single key is derived from the legacy secret key. That
+     * derived key stays in the keyring once master keys are configured, so values sealed before
+     * can still be decrypted until the re-encryption job has moved them to the active key.
+     *
+     * @return the keyring
+     */
+    private Keyring getKeyring() {
+        Keyring ring = keyring;
+        if (ring != null) {
+            return ring;
+        }
+
+        Map<String, SecretKey> keys = new LinkedHashMap<>();
+        if (masterKeysConfig != null && !masterKeysConfig.isBlank()) {
+            for (String entry : masterKeysConfig.split(",")) {
+                String[] parts = entry.trim().split(":", 2);
+                if (parts.length != 2 || parts[0].isBlank() || parts[0].length() > 255) {
+                    throw new IllegalArgumentException("Invalid master key entry, expected id:base64Key");
+                }
+                byte[] keyBytes = Base64.getDecoder().decode(parts[1].trim());
+                if (keyBytes.length != KEY_BYTES) {
+                    throw new IllegalArgumentException("Master key " + parts[0] + " must be " + KEY_BYTES + " bytes");
+                }
+                keys.put(parts[0].trim(), new SecretKeySpec(keyBytes, ALGORITHM));
+            }
+        } else {
+            logger.warn("No encryption.master-keys configured, deriving a master key from encryption.secret-key");
+        }
+        // Added last, so it is only the default active key when no master keys are configured
+        if (keys.isEmpty() || (secretKeyString != null && !secretKeyString.isBlank())) {
+            keys.putIfAbsent(DERIVED_KEY_ID, deriveMasterKey());
+        }
+
+        String activeKeyId = activeKeyIdConfig != null && !activeKeyIdConfig.isBlank()
+                ? activeKeyIdConfig.trim()
+                : keys.keySet().iterator().next();
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalArgumentException("Active key ID " + activeKeyId + " is not among the master keys");
+        }
+
+        ring = new Keyring(Collections.unmodifiableMap(keys), activeKeyId);
+        keyring = ring;
+        return ring;
+    }
+
+    private SecretKey deriveMasterKey() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update("swnih-master-key:".getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(digest.digest(normalizeKey(secretKeyString).getBytes(StandardCharsets.UTF_8)), ALGORITHM);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create secret key", e);
+        }
+    }
+
+    /**
+     * Get the legacy AES/ECB key, deriving it on first use.
+     *
      * @return SecretKey instance
      */
-    private SecretKey getSecretKey() {
+    private SecretKey getLegacyKey() {
+        SecretKey key = legacyKey;
+        if (key != null) {
+            return key;
+        }
         try {
             // Ensure the key is exactly 32 bytes for AES-256
             String normalizedKey = normalizeKey(secretKeyString);
             byte[] keyBytes = normalizedKey.getBytes(StandardCharsets.UTF_8);
-            
-            return new SecretKeySpec(keyBytes, ALGORITHM);
-            
+
+            key = new SecretKeySpec(keyBytes, ALGORITHM);
+            legacyKey = key;
+            return key;
+
         } catch (Exception e) {
             throw new RuntimeException("Failed to create secret key", e);
         }
@@ -107,7 +412,7 @@ public class EncryptionService {
 
     /**
      * Normalize the secret key to exactly 32 bytes for AES-256.
-     * 
+     *
      * @param key the input key string
      * @return normalized 32-byte key string
      */
@@ -115,7 +420,7 @@ public class EncryptionService {
         if (key == null || key.isEmpty()) {
             throw new IllegalArgumentException("Secret key cannot be null or empty");
         }
-        
+
         // If key is shorter than 32 bytes, pad with zeros
         if (key.length() < 32) {
             StringBuilder sb = new StringBuilder(key);
@@ -124,18 +429,18 @@ public class EncryptionService {
             }
             return sb.toString();
         }
-        
+
         // If key is longer than 32 bytes, truncate
         if (key.length() > 32) {
             return key.substring(0, 32);
         }
-        
+
         return key;
     }
 
     /**
      * Validate that the encryption service is properly configured.
-     * 
+     *
      * @return true if encryption service is working correctly
      */
     public boolean validateConfiguration() {
@@ -143,11 +448,11 @@ public class EncryptionService {
             String testData = "test-encryption-data";
             String encrypted = encrypt(testData);
             String decrypted = decrypt(encrypted);
-            
+
             return testData.equals(decrypted);
-            
+
         } catch (Exception e) {
             return false;
         }
     }
-}
\ No newline at end of file
+}
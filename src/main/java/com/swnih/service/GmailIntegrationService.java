@@ -9,35 +9,50 @@ import com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver;
 import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
 import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
 import com.google.api.client.googleapis.auth.oauth2.GoogleTokenResponse;
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.client.util.store.MemoryDataStoreFactory;
 import com.google.api.services.gmail.Gmail;
 import com.google.api.services.gmail.GmailScopes;
+import com.swnih.dto.MessageSummary;
 import com.swnih.dto.OAuthAuthorizationRequest;
 import com.swnih.dto.OAuthCallbackRequest;
 import com.swnih.dto.OAuthTokenResponse;
 import com.swnih.entity.OAuthToken;
+import com.swnih.entity.PriorityLevel;
 import com.swnih.entity.User;
 import com.swnih.exception.OAuthException;
 import com.swnih.exception.TokenRefreshException;
 import com.swnih.repository.OAuthTokenRepository;
-import com.swnih.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
 import java.io.IOException;
-import java.security.GeneralSecurityException;
+import java.math.BigInteger;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service for handling Gmail OAuth 2.0 integration.
@@ -50,14 +65,26 @@ public class GmailIntegrationService {
     private static final Logger logger = LoggerFactory.getLogger(GmailIntegrationService.class);
     private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
     private static final String APPLICATION_NAME = "Smart Web Notification Intelligence Hub";
-    
-    // Store state parameters temporarily (in production, use Redis or database)
-    private final ConcurrentHashMap<String, Long> stateToUserIdMap = new ConcurrentHashMap<>();
+    private static final int OVERLOAD_RETRIES = 3;
+    private static final Duration OVERLOAD_BACKOFF = Duration.ofMillis(50);
 
     private final OAuthTokenRepository oauthTokenRepository;
     private final EncryptionService encryptionService;
-    private final NetHttpTransport httpTransport;
-    private final UserRepository userRepository;
+    private final GoogleApiHttpTransport httpTransport;
+    private final MessageIngestionService messageIngestionService;
+    private final AccessTokenCache accessTokenCache;
+    private final OAuthStateStore oauthStateStore;
+    private final ReactiveGmailClient reactiveGmailClient;
+    private final MessageFetchCoalescer fetchCoalescer;
+    private final GoogleApiResilience resilience;
+    // Meters with every tag combination registered up front, so hot paths only record
+    private final Map<String, Timer> tokenRefreshTimers;
+    private final Map<String, Timer> classificationTimers;
+    private final DistributionSummary blockingSyncSize;
+    private final DistributionSummary reactiveFullSyncSize;
+    private final DistributionSummary reactiveIncrementalSyncSize;
+    // Highest Gmail history ID seen per user, the starting point for incremental syncs
+    private final ConcurrentHashMap<Long, BigInteger> latestHistoryIds = new ConcurrentHashMap<>();
 
     @Value("${spring.security.oauth2.client.registration.google.client-id}")
     private String clientId;
@@ -80,13 +107,57 @@ public class GmailIntegrationService {
     @Value("${gmail.api.rate-limit.backoff-multiplier:2}")
     private int backoffMultiplier;
 
+    @Value("${gmail.reactive.concurrency:8}")
+    private int reactiveConcurrency;
+
+    @Value("${gmail.deadline.default-ms:20000}")
+    private long defaultDeadlineMillis;
+
     public GmailIntegrationService(OAuthTokenRepository oauthTokenRepository, 
                                  EncryptionService encryptionService,
-                                 UserRepository userRepository) throws GeneralSecurityException, IOException {
+                                 MessageIngestionService messageIngestionService,
+                                 AccessTokenCache accessTokenCache,
+                                 OAuthStateStore oauthStateStore,
+                                 ReactiveGmailClient reactiveGmailClient,
+                                 GoogleApiHttpTransport httpTransport,
+                                 MessageFetchCoalescer fetchCoalescer,
+                                 GoogleApiResilience resilience,
+                                 MeterRegistry meterRegistry) {
         this.oauthTokenRepository = oauthTokenRepository;
         this.encryptionService = encryptionService;
-        this.userRepository = userRepository;
-        this.httpTransport = GoogleNetHttpTransport.newTrustedTransport();
+        this.messageIngestionService = messageIngestionService;
+        this.accessTokenCache = accessTokenCache;
+        this.oauthStateStore = oauthStateStore;
+        this.reactiveGmailClient = reactiveGmailClient;
+        this.httpTransport = httpTransport;
+        this.fetchCoalescer = fetchCoalescer;
+        this.resilience = resilience;
+        this.tokenRefreshTimers = new HashMap<>();
+        for (String outcome : List.of("success", "failure", "unavailable")) {
+            tokenRefreshTimers.put(outcome, Timer.builder("oauth.token.refresh")
+                    .description("Access token refreshes, including token decryption and storage")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+        this.classificationTimers = new HashMap<>();
+        for (String priority : List.of("HIGH", "MEDIUM", "LOW")) {
+            classificationTimers.put(priority, Timer.builder("message.classification")
+                    .description("Message priority classification")
+                    .tag("classifier", "keyword")
+                    .tag("priority", priority)
+                    .register(meterRegistry));
+        }
+        this.blockingSyncSize = syncSize(meterRegistry, "blocking", "full");
+        this.reactiveFullSyncSize = syncSize(meterRegistry, "reactive", "full");
+        this.reactiveIncrementalSyncSize = syncSize(meterRegistry, "reactive", "incremental");
+    }
+
+    private static DistributionSummary syncSize(MeterRegistry meterRegistry, String path, String mode) {
+        return DistributionSummary.builder("gmail.sync.messages")
+                .description("Messages fetched and classified per completed Gmail sync")
+                .tag("path", path)
+                .tag("mode", mode)
+                .register(meterRegistry);
     }
 
     /**
@@ -106,7 +177,7 @@ public class GmailIntegrationService {
 
             // Generate state parameter for CSRF protection
             String state = generateStateParameter();
-            stateToUserIdMap.put(state, user.getId());
+            oauthStateStore.save(state, user.getId());
 
             // Build authorization URL manually (simpler approach)
             String authorizationUrl = "https://accounts.google.com/o/oauth2/auth" +
@@ -128,7 +199,8 @@ public class GmailIntegrationService {
     }
 
     /**
-     * Handle OAuth callback for a specific user (bypassing state validation).
+     * Handle OAuth callback for the authenticated user.
+     * The state must have been issued to the same user by {@link #initiateOAuthFlow}.
      * 
      * @param callbackRequest the OAuth callback request
      * @param user the user to associate the tokens with
@@ -146,6 +218,13 @@ public class GmailIntegrationService {
                 return OAuthTokenResponse.failure("OAuth authorization failed: " + callbackRequest.getError());
             }
 
+            // The state is one-time and must belong to this user (CSRF protection)
+            Optional<Long> stateUserId = oauthStateStore.consume(callbackRequest.getState());
+            if (stateUserId.isEmpty() || !stateUserId.get().equals(user.getId()) || callbackRequest.getCode() == null) {
+                logger.warn("OAuth callback for user {} with unknown, expired or foreign state", user.getId());
+                return OAuthTokenResponse.failure("Invalid or expired authorization request");
+            }
+
             // Exchange authorization code for tokens
             GoogleTokenResponse tokenResponse = exchangeCodeForTokens(callbackRequest.getCode());
 
@@ -167,6 +246,7 @@ public class GmailIntegrationService {
 
     /**
      * Get valid access token for a user, refreshing if necessary.
+     * Served from AccessTokenCache while the cached token is outside the refresh window.
      * 
      * @param user the user to get token for
      * @return decrypted access token
@@ -174,6 +254,11 @@ public class GmailIntegrationService {
      */
     public String getValidAccessToken(User user) {
         try {
+            String cachedToken = accessTokenCache.get(user.getId());
+            if (cachedToken != null) {
+                return cachedToken;
+            }
+
             logger.debug("Getting valid access token for user: {}", user.getId());
 
             Optional<OAuthToken> tokenOpt = oauthTokenRepository.findValidTokenByUser(user, LocalDateTime.now());
@@ -191,7 +276,9 @@ public class GmailIntegrationService {
                 token = refreshAccessToken(token);
             }
 
-            return encryptionService.decrypt(token.getAccessTokenEncrypted());
+            String accessToken = encryptionService.decrypt(token.getAccessTokenEncrypted());
+            accessTokenCache.put(user.getId(), accessToken, token.getExpiresAt());
+            return accessToken;
 
         } catch (OAuthException e) {
             throw e;
@@ -207,10 +294,14 @@ public class GmailIntegrationService {
      * @param token the OAuth token to refresh
      * @return updated OAuth token with new access token
      * @throws TokenRefreshException if token refresh fails
+     * @throws OAuthException with TOKEN_ENDPOINT_UNAVAILABLE if the token endpoint is failing
      */
     public OAuthToken refreshAccessToken(OAuthToken token) {
+        long start = System.nanoTime();
+        String outcome = "failure";
         try {
             logger.info("Refreshing access token for user: {}", token.getUser().getId());
+            accessTokenCache.invalidate(token.getUser().getId());
 
             String refreshToken = encryptionService.decrypt(token.getRefreshTokenEncrypted());
 
@@ -224,31 +315,44 @@ public class GmailIntegrationService {
                     .build();
 
             // Refresh the token
-            GoogleTokenResponse tokenResponse = flow.newTokenRequest(refreshToken)
+            GoogleTokenResponse tokenResponse = resilience.callTokenEndpoint("refresh", () -> flow.newTokenRequest(refreshToken)
                     .setRedirectUri(redirectUri)
-                    .execute();
+                    .execute());
 
             // Update the stored token
             String newAccessToken = encryptionService.encrypt(tokenResponse.getAccessToken());
             LocalDateTime newExpiresAt = LocalDateTime.now().plusSeconds(tokenResponse.getExpiresInSeconds());
 
-            token.setAccessTokenEncrypted(newAccessToken);
-            token.setExpiresAt(newExpiresAt);
-
             // Update refresh token if provided (Google may rotate refresh tokens)
+            String newRefreshToken = null;
             if (tokenResponse.getRefreshToken() != null) {
-                String newRefreshToken = encryptionService.encrypt(tokenResponse.getRefreshToken());
-                token.setRefreshTokenEncrypted(newRefreshToken);
+                newRefreshToken = encryptionService.encrypt(tokenResponse.getRefreshToken());
             }
 
-            OAuthToken savedToken = oauthTokenRepository.save(token);
+            // Not an entity save: TokenReEncryptionJob may have bumped the version since the token was read
+            int updated = oauthTokenRepository.updateRefreshedValues(token.getId(), newAccessToken, newRefreshToken, newExpiresAt);
+            if (updated == 0) {
+                throw new OAuthException("Gmail authorization was removed during token refresh", "NO_VALID_TOKEN");
+            }
+            OAuthToken savedToken = oauthTokenRepository.findById(token.getId())
+                    .orElseThrow(() -> new OAuthException("Gmail authorization was removed during token refresh", "NO_VALID_TOKEN"));
             logger.info("Successfully refreshed access token for user: {}", token.getUser().getId());
 
+            outcome = "success";
             return savedToken;
 
+        } catch (OAuthException e) {
+            if (GoogleApiResilience.isUnavailable(e)) {
+                outcome = "unavailable";
+                logger.warn("Skipping token refresh for user {}: {}", token.getUser().getId(), e.getMessage());
+            }
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to refresh access token for user: {}", token.getUser().getId(), e);
             throw new TokenRefreshException("Failed to refresh access token", "TOKEN_REFRESH_FAILED", e);
+        } finally {
+            // The whole refresh; google.api.requests and encryption.operations show its parts
+            tokenRefreshTimers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -260,6 +364,17 @@ public class GmailIntegrationService {
      * @throws OAuthException if Gmail client creation fails
      */
     public Gmail createGmailClient(User user) {
+        return createGmailClient(user, 0);
+    }
+
+    /**
+     * Create a Gmail API client whose requests time out no later than a deadline.
+     * 
+     * @param user the user to create Gmail client for
+     * @param deadlineNanos System.nanoTime() by which every request must be answered, 0 for none
+     * @return configured Gmail API client
+     */
+    private Gmail createGmailClient(User user, long deadlineNanos) {
         try {
             String accessToken = getValidAccessToken(user);
 
@@ -273,10 +388,25 @@ public class GmailIntegrationService {
 
             credential.setAccessToken(accessToken);
 
-            return new Gmail.Builder(httpTransport, JSON_FACTORY, credential)
+            HttpRequestInitializer initializer = credential;
+            if (deadlineNanos != 0) {
+                initializer = request -> {
+                    credential.initialize(request);
+                    // The budget left, at least 1 ms since 0 means no timeout
+                    int remainingMillis = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                            TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime())));
+                    request.setConnectTimeout(Math.min(request.getConnectTimeout(), remainingMillis));
+                    request.setReadTimeout(Math.min(request.getReadTimeout(), remainingMillis));
+                };
+            }
+
+            return new Gmail.Builder(httpTransport, JSON_FACTORY, initializer)
                     .setApplicationName(APPLICATION_NAME)
                     .build();
 
+        } catch (OAuthException e) {
+            // No usable token, or the token endpoint is unavailable: keep the cause's code
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to create Gmail client for user: {}", user.getId(), e);
             throw new OAuthException("Failed to create Gmail client", "GMAIL_CLIENT_CREATION_FAILED", e);
@@ -308,6 +438,9 @@ public class GmailIntegrationService {
             logger.info("Revoking Gmail authorization for user: {}", user.getId());
 
             // Delete all OAuth tokens for the user
+            accessTokenCache.invalidate(user.getId());
+            latestHistoryIds.remove(user.getId());
+            fetchCoalescer.invalidate(user.getId());
             long deletedCount = oauthTokenRepository.deleteByUser(user);
             logger.info("Deleted {} OAuth tokens for user: {}", deletedCount, user.getId());
 
@@ -336,71 +469,295 @@ public class GmailIntegrationService {
 
     /**
      * Fetch and process messages from Gmail for a user.
+     * Runs outside a transaction so no connection is held across Gmail round trips;
+     * each classified message is stored through its own short insert-ignore.
+     * A call while the user's previous fetch is running, or just finished, gets that
+     * fetch's result instead of calling Gmail again.
+     * 
+     * @param user the user to fetch messages for
+     * @return list of processed messages with priority classification
+     * @throws OAuthException if message fetching fails
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<MessageSummary> fetchAndProcessMessages(User user) {
+        return fetchAndProcessMessages(user, Duration.ofMillis(defaultDeadlineMillis));
+    }
+
+    /**
+     * Fetch and process messages as {@link #fetchAndProcessMessages(User)} within a time budget.
+     * A call that joins a running fetch gets its result, within that fetch's budget.
      * 
      * @param user the user to fetch messages for
+     * @param budget time the caller is willing to wait; zero or negative for no deadline
      * @return list of processed messages with priority classification
      * @throws OAuthException if message fetching fails
      */
-    public java.util.List<java.util.Map<String, Object>> fetchAndProcessMessages(User user) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<MessageSummary> fetchAndProcessMessages(User user, Duration budget) {
+        return fetchCoalescer.fetch(user.getId(), () -> {
+            List<MessageSummary> processedMessages = new ArrayList<>();
+            streamAndProcessMessages(user, budget, processedMessages::add);
+            return processedMessages;
+        });
+    }
+
+    /**
+     * Fetch and process messages from Gmail for a user, handing each one to the consumer
+     * as soon as it is classified and stored.
+     * Only the current message is held in memory, and a consumer that blocks (a slow client
+     * on a streamed response) holds back the next Gmail request. An exception thrown by the
+     * consumer stops the fetch and is rethrown as is.
+     * 
+     * @param user the user to fetch messages for
+     * @param consumer receives each processed message
+     * @return number of messages passed to the consumer
+     * @throws OAuthException if message fetching fails
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int streamAndProcessMessages(User user, java.util.function.Consumer<MessageSummary> consumer) {
+        return streamAndProcessMessages(user, Duration.ofMillis(defaultDeadlineMillis), consumer);
+    }
+
+    /**
+     * Fetch and process messages as {@link #streamAndProcessMessages(User, java.util.function.Consumer)}
+     * within a time budget. Every Gmail request times out by the end of the budget, and no
+     * further message is fetched once it is spent.
+     * 
+     * @param user the user to fetch messages for
+     * @param budget time the caller is willing to wait; zero or negative for no deadline
+     * @param consumer receives each processed message
+     * @return number of messages passed to the consumer
+     * @throws OAuthException if message fetching fails
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int streamAndProcessMessages(User user, Duration budget, java.util.function.Consumer<MessageSummary> consumer) {
+        int processedCount = 0;
         try {
             logger.info("Fetching Gmail messages for user: {}", user.getId());
 
-            Gmail gmail = createGmailClient(user);
+            long deadlineNanos = budget.isNegative() || budget.isZero()
+                    ? 0 : System.nanoTime() + budget.toNanos();
+            Gmail gmail = createGmailClient(user, deadlineNanos);
             
             // List messages from inbox
-            com.google.api.services.gmail.model.ListMessagesResponse response = gmail.users().messages()
+            com.google.api.services.gmail.model.ListMessagesResponse response = resilience.callGmail("list", () -> gmail.users().messages()
                     .list("me")
                     .setMaxResults((long) maxMessages)
                     .setQ("in:inbox")
-                    .execute();
-
-            java.util.List<java.util.Map<String, Object>> processedMessages = new java.util.ArrayList<>();
+                    .execute());
 
             if (response.getMessages() != null) {
                 logger.info("Found {} messages in Gmail inbox for user: {}", response.getMessages().size(), user.getId());
 
                 for (com.google.api.services.gmail.model.Message message : response.getMessages()) {
+                    if (deadlineNanos != 0 && System.nanoTime() - deadlineNanos >= 0) {
+                        logger.warn("Gmail fetch deadline reached for user {} after {} messages", user.getId(), processedCount);
+                        break;
+                    }
+                    MessageSummary processedMessage;
                     try {
                         // Get full message details
-                        com.google.api.services.gmail.model.Message fullMessage = gmail.users().messages()
+                        com.google.api.services.gmail.model.Message fullMessage = resilience.callGmail("get", () -> gmail.users().messages()
                                 .get("me", message.getId())
-                                .execute();
+                                .execute());
 
                         // Process and classify the message
-                        java.util.Map<String, Object> processedMessage = processMessage(fullMessage);
-                        if (processedMessage != null) {
-                            processedMessages.add(processedMessage);
-                        }
-
-                        // Rate limiting - simple delay
-                        Thread.sleep(100); // 10 requests per second max
+                        processedMessage = processMessage(user, fullMessage);
 
+                    } catch (OAuthException e) {
+                        if (GoogleApiResilience.isUnavailable(e) && !GoogleApiResilience.isOverloaded(e)) {
+                            // Gmail is failing, further messages would be rejected too
+                            throw e;
+                        }
+                        logger.warn("Failed to process message {}: {}", message.getId(), e.getMessage());
+                        continue;
                     } catch (Exception e) {
                         logger.warn("Failed to process message {}: {}", message.getId(), e.getMessage());
                         // Continue with other messages
+                        continue;
+                    }
+
+                    if (processedMessage != null) {
+                        consumer.accept(processedMessage);
+                        processedCount++;
                     }
+
+                    // Rate limiting - simple delay
+                    Thread.sleep(100); // 10 requests per second max
                 }
             }
 
-            logger.info("Successfully processed {} messages for user: {}", processedMessages.size(), user.getId());
-            return processedMessages;
+            logger.info("Successfully processed {} messages for user: {}", processedCount, user.getId());
+            blockingSyncSize.record(processedCount);
+            return processedCount;
 
+        } catch (java.io.UncheckedIOException e) {
+            // The consumer failed (client gone), not Gmail
+            throw e;
         } catch (Exception e) {
+            if (GoogleApiResilience.isUnavailable(e)) {
+                logger.warn("Gmail fetch for user {} rejected: {}", user.getId(), e.getMessage());
+                throw (OAuthException) e;
+            }
             logger.error("Failed to fetch Gmail messages for user: {}", user.getId(), e);
             throw new OAuthException("Failed to fetch Gmail messages", "MESSAGE_FETCH_FAILED", e);
         }
     }
 
+    /**
+     * Fetch, classify and store messages through the non-blocking Gmail client.
+     * No thread waits on Gmail: the token lookup and each message's classification and insert
+     * run on the bounded elastic scheduler, everything else on the WebClient event loop. Up to
+     * gmail.reactive.concurrency messages, and never more than the current Gmail concurrency
+     * limit, are fetched at once and emitted in inbox order. With a
+     * start history ID only messages added since then are fetched, falling back to the full list
+     * when Gmail no longer has that history. Failures of single messages are logged and skipped,
+     * after a few short retries if the concurrency limit rejected them;
+     * a rejected token or rate limit ends the stream with an OAuthException. A request for the
+     * same start point while one is running, or just finished, joins that stream.
+     * 
+     * @param user the user to fetch messages for
+     * @param startHistoryId history ID from a previous sync, or null for the latest inbox messages
+     * @return processed messages with priority classification
+     */
+    public Flux<MessageSummary> streamMessagesReactive(User user, String startHistoryId) {
+        return streamMessagesReactive(user, startHistoryId, Duration.ofMillis(defaultDeadlineMillis));
+    }
+
+    /**
+     * Fetch messages as {@link #streamMessagesReactive(User, String)} within a time budget.
+     * Every Gmail call gets the time left of the budget; once it is spent the stream ends with
+     * an OAuthException coded DEADLINE_EXCEEDED after the messages fetched so far. A stream
+     * joined through coalescing keeps the budget of the request that started it.
+     * 
+     * @param user the user to fetch messages for
+     * @param startHistoryId history ID from a previous sync, or null for the latest inbox messages
+     * @param budget time allowed for the whole fetch, counted from subscription; zero for no limit
+     * @return processed messages with priority classification
+     */
+    public Flux<MessageSummary> streamMessagesReactive(User user, String startHistoryId, Duration budget) {
+        long budgetNanos = budget.toNanos();
+        if (budgetNanos <= 0) {
+            return fetchCoalescer.stream(user.getId(), startHistoryId, () -> fetchMessagesReactive(user, startHistoryId));
+        }
+        return fetchCoalescer.stream(user.getId(), startHistoryId, () -> fetchMessagesReactive(user, startHistoryId)
+                .contextWrite(context -> context.put(ReactiveGmailClient.DEADLINE_KEY, System.nanoTime() + budgetNanos)));
+    }
+
+    private Flux<MessageSummary> fetchMessagesReactive(User user, String startHistoryId) {
+        AtomicInteger count = new AtomicInteger();
+        DistributionSummary syncSize = startHistoryId == null || startHistoryId.isBlank()
+                ? reactiveFullSyncSize : reactiveIncrementalSyncSize;
+        return Mono.fromCallable(() -> getValidAccessToken(user))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(accessToken -> listMessageIdsReactive(user, accessToken, startHistoryId)
+                        .flatMapSequential(messageId -> reactiveGmailClient.getMessage(accessToken, messageId)
+                                // Other fetches may hold the free slots; wait briefly for one
+                                .retryWhen(Retry.backoff(OVERLOAD_RETRIES, OVERLOAD_BACKOFF)
+                                        .filter(GoogleApiResilience::isOverloaded)
+                                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                                .publishOn(Schedulers.boundedElastic())
+                                .mapNotNull(json -> processMessageJson(user, json))
+                                .onErrorResume(e -> !isFatalGmailError(e), e -> {
+                                    logger.warn("Failed to process message {}: {}", messageId, e.getMessage());
+                                    return Mono.empty();
+                                }), fanOut()))
+                .doOnNext(message -> count.incrementAndGet())
+                .doOnComplete(() -> syncSize.record(count.get()))
+                .doOnError(OAuthException.class, e -> {
+                    if (ReactiveGmailClient.TOKEN_REJECTED.equals(e.getErrorCode())) {
+                        accessTokenCache.invalidate(user.getId());
+                    }
+                });
+    }
+
+    /**
+     * Whether Gmail calls are currently let through by the circuit breaker.
+     * 
+     * @return false while Gmail is considered down and fetches would fail at once
+     */
+    public boolean isGmailAvailable() {
+        return resilience.isGmailAvailable();
+    }
+
+    /**
+     * Latest Gmail history ID seen for a user, to pass to the next incremental sync.
+     * 
+     * @param user the user
+     * @return the history ID, or null if no sync has run since startup
+     */
+    public String getLatestHistoryId(User user) {
+        BigInteger historyId = latestHistoryIds.get(user.getId());
+        return historyId != null ? historyId.toString() : null;
+    }
+
+    private Flux<String> listMessageIdsReactive(User user, String accessToken, String startHistoryId) {
+        Flux<String> fullList = Flux.defer(() -> reactiveGmailClient.listMessageIds(accessToken, "in:inbox", maxMessages));
+        if (startHistoryId == null || startHistoryId.isBlank()) {
+            return fullList;
+        }
+        return reactiveGmailClient.listHistory(accessToken, startHistoryId)
+                .flatMapMany(changes -> {
+                    recordHistoryId(user, changes.historyId());
+                    // History lists oldest first, the inbox newest first
+                    List<String> ids = new ArrayList<>(changes.messageIds());
+                    Collections.reverse(ids);
+                    return Flux.fromIterable(ids);
+                })
+                .onErrorResume(e -> e instanceof OAuthException oauth
+                                && ReactiveGmailClient.HISTORY_EXPIRED.equals(oauth.getErrorCode()),
+                        e -> {
+                            logger.info("Gmail history expired for user: {}, listing inbox", user.getId());
+                            return fullList;
+                        });
+    }
+
+    private MessageSummary processMessageJson(User user, String json) {
+        try {
+            com.google.api.services.gmail.model.Message message =
+                    JSON_FACTORY.fromString(json, com.google.api.services.gmail.model.Message.class);
+            if (message.getHistoryId() != null) {
+                recordHistoryId(user, message.getHistoryId().toString());
+            }
+            return processMessage(user, message);
+        } catch (IOException e) {
+            logger.warn("Failed to parse Gmail message for user {}: {}", user.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void recordHistoryId(User user, String historyId) {
+        if (historyId != null && !historyId.isBlank()) {
+            latestHistoryIds.merge(user.getId(), new BigInteger(historyId), BigInteger::max);
+        }
+    }
+
+    /**
+     * Messages fetched at once by one sync: never more than the Gmail concurrency limit allows,
+     * so a sync does not get its own requests rejected once the limit has shrunk.
+     */
+    private int fanOut() {
+        return Math.max(1, Math.min(reactiveConcurrency, resilience.getGmailConcurrencyLimit()));
+    }
+
+    private static boolean isFatalGmailError(Throwable e) {
+        // A get rejected by the concurrency limit only costs that message
+        return e instanceof OAuthException oauth
+                && (ReactiveGmailClient.TOKEN_REJECTED.equals(oauth.getErrorCode())
+                    || ReactiveGmailClient.RATE_LIMITED.equals(oauth.getErrorCode())
+                    || ReactiveGmailClient.DEADLINE_EXCEEDED.equals(oauth.getErrorCode())
+                    || GoogleApiResilience.isUnavailable(oauth) && !GoogleApiResilience.isOverloaded(oauth));
+    }
+
     /**
      * Process a Gmail message and classify its priority.
      * 
+     * @param user the user owning the message
      * @param message the Gmail message to process
-     * @return processed message map with priority classification
+     * @return processed message with priority classification
      */
-    private java.util.Map<String, Object> processMessage(com.google.api.services.gmail.model.Message message) {
+    private MessageSummary processMessage(User user, com.google.api.services.gmail.model.Message message) {
         try {
-            java.util.Map<String, Object> processedMessage = new java.util.HashMap<>();
-
             // Extract message headers
             String sender = "";
             String subject = "";
@@ -426,18 +783,20 @@ public class GmailIntegrationService {
             String body = extractMessageBody(message.getPayload());
 
             // Classify priority using keyword-based classification
+            long classifyStart = System.nanoTime();
             String priority = classifyMessagePriority(subject, body, sender);
+            classificationTimers.get(priority).record(System.nanoTime() - classifyStart, TimeUnit.NANOSECONDS);
 
-            // Build processed message
-            processedMessage.put("id", message.getId());
-            processedMessage.put("sender", cleanEmailAddress(sender));
-            processedMessage.put("subject", subject != null ? subject : "No Subject");
-            processedMessage.put("body", body != null ? body.substring(0, Math.min(body.length(), 200)) + "..." : "");
-            processedMessage.put("priority", priority);
-            processedMessage.put("timestamp", parseDate(date));
-            processedMessage.put("source", "GMAIL");
+            String cleanedSender = cleanEmailAddress(sender);
+            String normalizedSubject = subject != null && !subject.isEmpty() ? subject : "No Subject";
+            java.time.LocalDateTime timestamp = parseDate(date);
 
-            return processedMessage;
+            storeMessage(user, message.getId(), cleanedSender, normalizedSubject, body, priority, timestamp);
+
+            // Build processed message
+            return MessageSummary.fetched(message.getId(), cleanedSender, normalizedSubject,
+                    body != null ? body.substring(0, Math.min(body.length(), 200)) + "..." : "",
+                    priority, timestamp);
 
         } catch (Exception e) {
             logger.warn("Failed to process message: {}", e.getMessage());
@@ -445,6 +804,20 @@ public class GmailIntegrationService {
         }
     }
 
+    /**
+     * Persist a classified message; duplicates are skipped by the insert itself.
+     * Storage failures are logged and do not affect the fetched result.
+     */
+    private void storeMessage(User user, String gmailId, String sender, String subject, String body,
+                              String priority, java.time.LocalDateTime timestamp) {
+        try {
+            messageIngestionService.ingest(user, gmailId, sender, subject, body,
+                    PriorityLevel.fromString(priority), null, timestamp, "GMAIL");
+        } catch (Exception e) {
+            logger.warn("Failed to store message {} for user {}: {}", gmailId, user.getId(), e.getMessage());
+        }
+    }
+
     /**
      * Extract message body from Gmail message payload.
      * 
@@ -563,12 +936,14 @@ public class GmailIntegrationService {
                 .setAccessType("offline")
                 .build();
 
-        return flow.newTokenRequest(authorizationCode)
+        return resilience.callTokenEndpoint("exchange", () -> flow.newTokenRequest(authorizationCode)
                 .setRedirectUri(redirectUri)
-                .execute();
+                .execute());
     }
 
     private OAuthToken storeTokensForUser(User user, GoogleTokenResponse tokenResponse) {
+        accessTokenCache.invalidate(user.getId());
+
         // Encrypt tokens
         String encryptedAccessToken = encryptionService.encrypt(tokenResponse.getAccessToken());
         String encryptedRefreshToken = encryptionService.encrypt(tokenResponse.getRefreshToken());
@@ -580,12 +955,4 @@ public class GmailIntegrationService {
         OAuthToken oauthToken = new OAuthToken(user, encryptedAccessToken, encryptedRefreshToken, expiresAt);
         return oauthTokenRepository.save(oauthToken);
     }
-
-    private OAuthToken storeTokens(Long userId, GoogleTokenResponse tokenResponse) {
-        // Find user
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new OAuthException("User not found with ID: " + userId, "USER_NOT_FOUND"));
-
-        return storeTokensForUser(user, tokenResponse);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,323 @@
+package com.swnih.service;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Google API client transport backed by one shared JDK HttpClient.
+ * Unlike the default HttpURLConnection transport, connections to googleapis.com are kept alive
+ * and negotiated to HTTP/2, so concurrent Gmail and OAuth calls are multiplexed over a few
+ * TLS connections instead of paying a handshake each. At most max-concurrent-requests calls are
+ * in flight; further callers wait up to acquire-timeout-ms for a slot. Counters for requests,
+ * failures, protocol and latency are exposed through {@link #getStats()}, and the slot usage
+ * as google.http.* gauges.
+ *
+ * The JDK client's HTTP/1.1 connection pool is configured with JVM options, which it reads
+ * once for the whole process: -Djdk.httpclient.keepalive.timeout (idle seconds, default 1200)
+ * and -Djdk.httpclient.connectionPoolSize (default unbounded).
+ */
+@Component
+public class GoogleApiHttpTransport extends HttpTransport implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(GoogleApiHttpTransport.class);
+
+    // Set by the JDK client itself and rejected when added by the caller
+    private static final Set<String> RESTRICTED_HEADERS =
+            Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final HttpClient httpClient;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrentRequests;
+    private final long acquireTimeoutMillis;
+    private final long defaultReadTimeoutMillis;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong http2Count = new AtomicLong();
+    private final AtomicLong acquireTimeoutCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public GoogleApiHttpTransport(@Value("${gmail.http.max-concurrent-requests:64}") int maxConcurrentRequests,
+                                  @Value("${gmail.http.acquire-timeout-ms:5000}") long acquireTimeoutMillis,
+                                  @Value("${gmail.http.connect-timeout-ms:5000}") long connectTimeoutMillis,
+                                  @Value("${gmail.http.read-timeout-ms:15000}") long readTimeoutMillis,
+                                  @Value("${gmail.http.worker-threads:8}") int workerThreads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "google-http-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(executor)
+                .build();
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.defaultReadTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    public boolean supportsMethod(String method) {
+        return !"CONNECT".equalsIgnoreCase(method);
+    }
+
+    @Override
+    protected LowLevelHttpRequest buildRequest(String method, String url) {
+        return new JdkRequest(method, url);
+    }
+
+    /**
+     * Transport counters since startup.
+     *
+     * @return request, failure and latency statistics
+     */
+    public Map<String, Object> getStats() {
+        long requests = requestCount.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", requests);
+        stats.put("failures", failureCount.get());
+        stats.put("http2Responses", http2Count.get());
+        stats.put("inFlight", inFlight.get());
+        stats.put("maxConcurrentRequests", maxConcurrentRequests);
+        stats.put("waitingForSlot", permits.getQueueLength());
+        stats.put("acquireTimeouts", acquireTimeoutCount.get());
+        stats.put("averageLatencyMs", requests > 0 ? totalLatencyNanos.get() / requests / 1_000_000.0 : 0.0);
+        stats.put("maxLatencyMs", maxLatencyNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("google.http.in.flight", inFlight, AtomicInteger::get)
+                .description("Google API requests in flight")
+                .register(registry);
+        Gauge.builder("google.http.max.concurrent", () -> maxConcurrentRequests)
+                .description("Google API request slots")
+                .register(registry);
+        Gauge.builder("google.http.waiting", permits, Semaphore::getQueueLength)
+                .description("Google API requests waiting for a slot")
+                .register(registry);
+        FunctionCounter.builder("google.http.acquire.timeouts", acquireTimeoutCount, AtomicLong::get)
+                .description("Google API requests that gave up waiting for a slot")
+                .register(registry);
+    }
+
+    @Override
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void recordLatency(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        totalLatencyNanos.addAndGet(elapsed);
+        maxLatencyNanos.accumulateAndGet(elapsed, Math::max);
+    }
+
+    /**
+     * A single request; headers and body are buffered, then sent on execute.
+     */
+    private final class JdkRequest extends LowLevelHttpRequest {
+        private final String method;
+        private final String url;
+        private final List<String[]> headers = new ArrayList<>();
+        private long readTimeoutMillis = defaultReadTimeoutMillis;
+
+        private JdkRequest(String method, String url) {
+            this.method = method;
+            this.url = url;
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            headers.add(new String[] {name, value});
+        }
+
+        @Override
+        public void setTimeout(int connectTimeout, int readTimeout) {
+            // Connect timeout is fixed per client; 0 means no read timeout from the caller
+            if (readTimeout > 0) {
+                readTimeoutMillis = Math.min(readTimeout, defaultReadTimeoutMillis);
+            }
+        }
+
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofMillis(readTimeoutMillis));
+            for (String[] header : headers) {
+                if (!RESTRICTED_HEADERS.contains(header[0].toLowerCase(Locale.ROOT))) {
+                    builder.header(header[0], header[1]);
+                }
+            }
+            HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.noBody();
+            if (getStreamingContent() != null) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                getStreamingContent().writeTo(content);
+                body = HttpRequest.BodyPublishers.ofByteArray(content.toByteArray());
+                if (getContentType() != null) {
+                    builder.header("Content-Type", getContentType());
+                }
+                if (getContentEncoding() != null) {
+                    builder.header("Content-Encoding", getContentEncoding());
+                }
+            }
+            builder.method(method, body);
+
+            try {
+                if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    acquireTimeoutCount.incrementAndGet();
+                    throw new HttpTimeoutException("No Google API connection slot free within " + acquireTimeoutMillis + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for a Google API connection slot");
+            }
+
+            long start = System.nanoTime();
+            inFlight.incrementAndGet();
+            requestCount.incrementAndGet();
+            try {
+                HttpResponse<InputStream> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+                if (response.version() == HttpClient.Version.HTTP_2) {
+                    http2Count.incrementAndGet();
+                }
+                return new JdkResponse(response);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failureCount.incrementAndGet();
+                throw new InterruptedIOException("Interrupted calling " + method + " " + url);
+            } catch (IOException e) {
+                failureCount.incrementAndGet();
+                logger.debug("Google API request {} {} failed: {}", method, url, e.getMessage());
+                throw e;
+            } finally {
+                recordLatency(start);
+                inFlight.decrementAndGet();
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Response with headers flattened to name/value pairs as the Google client expects.
+     */
+    private static final class JdkResponse extends LowLevelHttpResponse {
+        private final HttpResponse<InputStream> response;
+        private final List<String> headerNames = new ArrayList<>();
+        private final List<String> headerValues = new ArrayList<>();
+
+        private JdkResponse(HttpResponse<InputStream> response) {
+            this.response = response;
+            response.headers().map().forEach((name, values) -> {
+                // HTTP/2 pseudo-headers such as ":status"
+                if (!name.startsWith(":")) {
+                    for (String value : values) {
+                        headerNames.add(name);
+                        headerValues.add(value);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public InputStream getContent() {
+            return response.body();
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return response.headers().firstValue("Content-Encoding").orElse(null);
+        }
+
+        @Override
+        public long getContentLength() {
+            return response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        }
+
+        @Override
+        public String getContentType() {
+            return response.headers().firstValue("Content-Type").orElse(null);
+        }
+
+        @Override
+        public String getStatusLine() {
+            return null;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String getReasonPhrase() {
+            return null;
+        }
+
+        @Override
+        public int getHeaderCount() {
+            return headerNames.size();
+        }
+
+        @Override
+        public String getHeaderName(int index) {
+            return headerNames.get(index);
+        }
+
+        @Override
+        public String getHeaderValue(int index) {
+            return headerValues.get(index);
+        }
+
+        @Override
+        public void disconnect() throws IOException {
+            response.body().close();
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.swnih.service;
+
+import com.google.api.client.http.HttpResponseException;
+import com.swnih.exception.OAuthException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Circuit breakers and load shedding for calls to Google.
+ * Gmail API calls pass a breaker and an adaptive concurrency limit; calls to the OAuth token
+ * endpoint pass their own breaker, so a Gmail outage does not block reconnecting and the other
+ * way round. A rejected call fails at once with an OAuthException whose code is
+ * {@link #GMAIL_UNAVAILABLE}, {@link #GMAIL_OVERLOADED} or {@link #TOKEN_ENDPOINT_UNAVAILABLE};
+ * callers can serve stored messages instead. Only timeouts, connection errors, 429 and 5xx
+ * responses count as failures: other client errors (a rejected token, expired history) say
+ * nothing about Google's health.
+ *
+ * Every call is timed as google.api.requests, tagged with the API, operation and response
+ * status; rejected calls are counted as google.api.rejected instead.
+ */
+@Component
+public class GoogleApiResilience {
+
+    public static final String GMAIL_UNAVAILABLE = "GMAIL_UNAVAILABLE";
+    public static final String GMAIL_OVERLOADED = "GMAIL_OVERLOADED";
+    public static final String TOKEN_ENDPOINT_UNAVAILABLE = "TOKEN_ENDPOINT_UNAVAILABLE";
+
+    private final CircuitBreaker gmailBreaker;
+    private final CircuitBreaker tokenBreaker;
+    private final AdaptiveConcurrencyLimiter gmailLimiter;
+    private final MeterRegistry meterRegistry;
+    // Meters by tag values; the status tag is open-ended, so each is registered on first use
+    private final ConcurrentHashMap<String, Timer> callTimers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+
+    /**
+     * A blocking call through the Google API client.
+     */
+    @FunctionalInterface
+    public interface GoogleCall<T> {
+        T execute() throws IOException;
+    }
+
+    public GoogleApiResilience(MeterRegistry meterRegistry,
+                               @Value("${resilience.failure-rate-threshold:0.5}") double failureRateThreshold,
+                               @Value("${resilience.slow-call-rate-threshold:0.8}") double slowCallRateThreshold,
+                               @Value("${resilience.minimum-calls:20}") int minimumCalls,
+                               @Value("${resilience.window-seconds:30}") int windowSeconds,
+                               @Value("${resilience.open-ms:30000}") long openMillis,
+                               @Value("${resilience.half-open-probes:3}") int halfOpenProbes,
+                               @Value("${resilience.gmail.slow-call-ms:5000}") long gmailSlowCallMillis,
+                               @Value("${resilience.token.slow-call-ms:3000}") long tokenSlowCallMillis,
+                               @Value("${resilience.gmail.limit.initial:20}") int initialLimit,
+                               @Value("${resilience.gmail.limit.min:2}") int minLimit,
+                               @Value("${resilience.gmail.limit.max:200}") int maxLimit,
+                               @Value("${resilience.gmail.limit.latency-tolerance:2.0}") double latencyTolerance) {
+        this.gmailBreaker = new CircuitBreaker("gmail-api", failureRateThreshold, slowCallRateThreshold,
+                gmailSlowCallMillis, minimumCalls, windowSeconds, openMillis, halfOpenProbes);
+        this.tokenBreaker = new CircuitBreaker("oauth-token", failureRateThreshold, slowCallRateThreshold,
+                tokenSlowCallMillis, Math.max(1, minimumCalls / 4), windowSeconds, openMillis, 1);
+        this.gmailLimiter = new AdaptiveConcurrencyLimiter("gmail-api", initialLimit, minLimit, maxLimit,
+                latencyTolerance, 0.9, 500);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Make a blocking Gmail API call.
+     *
+     * @param operation the API operation, used as metric tag (e.g., "list", "get")
+     * @param call the call
+     * @return the call's result
+     * @throws OAuthException with GMAIL_UNAVAILABLE or GMAIL_OVERLOADED if the call was rejected
+     * @throws IOException if the call failed
+     */
+    public <T> T callGmail(String operation, GoogleCall<T> call) throws IOException {
+        acquireGmail(operation);
+        long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            return call.execute();
+        } catch (IOException | RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            long duration = System.nanoTime() - start;
+            completeGmail(duration, error != null && isFailure(error));
+            recordCall("gmail", operation, duration, status(error));
+        }
+    }
+
+    /**
+     * Make a non-blocking Gmail API call; the slot is taken on subscription.
+     *
+     * @param operation the API operation, used as metric tag (e.g., "list", "get")
+     * @param call the call
+     * @return the call's result, or an OAuthException with GMAIL_UNAVAILABLE or GMAIL_OVERLOADED
+     */
+    public <T> Mono<T> callGmail(String operation, Mono<T> call) {
+        return Mono.defer(() -> {
+            try {
+                acquireGmail(operation);
+            } catch (OAuthException e) {
+                return Mono.error(e);
+            }
+            long start = System.nanoTime();
+            AtomicBoolean done = new AtomicBoolean();
+            return call
+                    .doOnSuccess(result -> {
+                        if (done.compareAndSet(false, true)) {
+                            long duration = System.nanoTime() - start;
+                            completeGmail(duration, false);
+                            recordCall("gmail", operation, duration, status(null));
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (done.compareAndSet(false, true)) {
+                            long duration = System.nanoTime() - start;
+                            completeGmail(duration, isFailure(e));
+                            recordCall("gmail", operation, duration, status(e));
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (done.compareAndSet(false, true)) {
+                            gmailBreaker.onCancel();
+                            gmailLimiter.onCancel();
+                            // Lost a hedge race or ran out of time
+                            recordCall("gmail", operation, System.nanoTime() - start, "CANCELLED");
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Make a call to the OAuth token endpoint.
+     *
+     * @param operation "exchange" or "refresh", used as metric tag
+     * @param call the call
+     * @return the call's result
+     * @throws OAuthException with TOKEN_ENDPOINT_UNAVAILABLE if the breaker is open
+     * @throws IOException if the call failed
+     */
+    public <T> T callTokenEndpoint(String operation, GoogleCall<T> call) throws IOException {
+        if (!tokenBreaker.tryAcquire()) {
+            recordRejected("oauth", operation, TOKEN_ENDPOINT_UNAVAILABLE);
+            throw new OAuthException("Google sign-in is temporarily unavailable", TOKEN_ENDPOINT_UNAVAILABLE);
+        }
+        long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            return call.execute();
+        } catch (IOException | RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            long duration = System.nanoTime() - start;
+            if (error != null && isFailure(error)) {
+                tokenBreaker.onFailure(duration);
+            } else {
+                tokenBreaker.onSuccess(duration);
+            }
+            recordCall("oauth", operation, duration, status(error));
+        }
+    }
+
+    /**
+     * Whether Gmail calls are currently let through; false while its breaker is open.
+     *
+     * @return true if a fetch is worth starting
+     */
+    public boolean isGmailAvailable() {
+        return gmailBreaker.isCallPermitted();
+    }
+
+    /**
+     * Whether an exception is a call rejected by a breaker or the limiter.
+     *
+     * @param e the exception
+     * @return true if Google was not called
+     */
+    public static boolean isUnavailable(Throwable e) {
+        if (!(e instanceof OAuthException oauth)) {
+            return false;
+        }
+        String code = oauth.getErrorCode();
+        return GMAIL_UNAVAILABLE.equals(code) || GMAIL_OVERLOADED.equals(code) || TOKEN_ENDPOINT_UNAVAILABLE.equals(code);
+    }
+
+    /**
+     * Whether an exception is a Gmail call rejected by the concurrency limit, which unlike an
+     * open breaker clears as soon as other calls finish.
+     *
+     * @param e the exception
+     * @return true if the limit was reached
+     */
+    public static boolean isOverloaded(Throwable e) {
+        return e instanceof OAuthException oauth && GMAIL_OVERLOADED.equals(oauth.getErrorCode());
+    }
+
+    /**
+     * Current Gmail concurrency limit, shared by all users.
+     *
+     * @return calls allowed in flight at once
+     */
+    public int getGmailConcurrencyLimit() {
+        return gmailLimiter.getLimit();
+    }
+
+    /**
+     * Breaker and limiter statistics.
+     *
+     * @return statistics per dependency
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("gmailBreaker", gmailBreaker.getStats());
+        stats.put("gmailLimiter", gmailLimiter.getStats());
+        stats.put("tokenBreaker", tokenBreaker.getStats());
+        return stats;
+    }
+
+    private void acquireGmail(String operation) {
+        if (!gmailBreaker.tryAcquire()) {
+            recordRejected("gmail", operation, GMAIL_UNAVAILABLE);
+            throw new OAuthException("Gmail is temporarily unavailable", GMAIL_UNAVAILABLE);
+        }
+        if (!gmailLimiter.tryAcquire()) {
+            gmailBreaker.onCancel();
+            recordRejected("gmail", operation, GMAIL_OVERLOADED);
+            throw new OAuthException("Too many Gmail requests in progress", GMAIL_OVERLOADED);
+        }
+    }
+
+    private void completeGmail(long durationNanos, boolean failed) {
+        if (failed) {
+            gmailBreaker.onFailure(durationNanos);
+        } else {
+            gmailBreaker.onSuccess(durationNanos);
+        }
+        gmailLimiter.onComplete(durationNanos, failed);
+    }
+
+    private void recordCall(String api, String operation, long durationNanos, String status) {
+        callTimers.computeIfAbsent(api + '|' + operation + '|' + status, key -> Timer.builder("google.api.requests")
+                        .description("Calls to Google APIs")
+                        .tag("api", api)
+                        .tag("operation", operation)
+                        .tag("status", status)
+                        .register(meterRegistry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordRejected(String api, String operation, String reason) {
+        rejectedCounters.computeIfAbsent(api + '|' + operation + '|' + reason, key -> Counter.builder("google.api.rejected")
+                        .description("Calls to Google APIs rejected by a circuit breaker or the concurrency limit")
+                        .tag("api", api)
+                        .tag("operation", operation)
+                        .tag("reason", reason)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * Response status of a finished call as metric tag: the HTTP status where known, else the
+     * class of failure.
+     */
+    private static String status(Throwable e) {
+        if (e == null) {
+            return "200";
+        }
+        if (e instanceof HttpResponseException response) {
+            return String.valueOf(response.getStatusCode());
+        }
+        if (e instanceof OAuthException oauth && oauth.getErrorCode() != null) {
+            // Mapped by ReactiveGmailClient from the response status
+            return switch (oauth.getErrorCode()) {
+                case ReactiveGmailClient.TOKEN_REJECTED -> "401";
+                case ReactiveGmailClient.HISTORY_EXPIRED -> "404";
+                case ReactiveGmailClient.RATE_LIMITED -> "429";
+                case ReactiveGmailClient.SERVER_ERROR -> "5xx";
+                case ReactiveGmailClient.API_ERROR -> "4xx";
+                default -> oauth.getErrorCode();
+            };
+        }
+        return e instanceof IOException || e.getCause() instanceof IOException ? "IO_ERROR" : "ERROR";
+    }
+
+    private static boolean isFailure(Throwable e) {
+        if (e instanceof HttpResponseException response) {
+            return response.getStatusCode() == 429 || response.getStatusCode() >= 500;
+        }
+        if (e instanceof OAuthException oauth) {
+            // Mapped by ReactiveGmailClient from the response status
+            return ReactiveGmailClient.SERVER_ERROR.equals(oauth.getErrorCode())
+                    || ReactiveGmailClient.RATE_LIMITED.equals(oauth.getErrorCode());
+        }
+        return true;
+    }
+}
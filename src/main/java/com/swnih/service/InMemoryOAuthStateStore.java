@@ -0,0 +1,139 @@
+package com.swnih.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-node OAuth state store kept in memory.
+ * Expiry uses a timing wheel: each state is also queued in the wheel slot of the tick it expires
+ * in, and every tick clears only that slot, so expiry costs time proportional to the states
+ * actually expiring. The store is bounded; when full, the slot that expires soonest is cleared
+ * early to make room.
+ */
+public class InMemoryOAuthStateStore implements OAuthStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryOAuthStateStore.class);
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String>[] wheel;
+    private final long ttlNanos;
+    private final long tickNanos;
+    private final int maxSize;
+    private final long startNanos = System.nanoTime();
+    private long lastTick;
+
+    private static final class Entry {
+        private final Long userId;
+        private final long expiresAtNanos;
+
+        private Entry(Long userId, long expiresAtNanos) {
+            this.userId = userId;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public InMemoryOAuthStateStore(long ttlSeconds, long tickMillis, int maxSize) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.maxSize = maxSize;
+        // One slot per tick of the TTL plus slack, so a slot never holds two generations
+        int slots = (int) (ttlNanos / tickNanos) + 2;
+        this.wheel = new ConcurrentLinkedQueue[slots];
+        for (int i = 0; i < slots; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    @Override
+    public void save(String state, Long userId) {
+        if (entries.size() >= maxSize) {
+            evictSoonest();
+        }
+        long expiresAt = System.nanoTime() + ttlNanos;
+        entries.put(state, new Entry(userId, expiresAt));
+        wheel[slotOf(expiresAt)].add(state);
+    }
+
+    @Override
+    public Optional<Long> consume(String state) {
+        if (state == null) {
+            return Optional.empty();
+        }
+        Entry entry = entries.remove(state);
+        if (entry == null || entry.expiresAtNanos - System.nanoTime() <= 0) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.userId);
+    }
+
+    /**
+     * Advance the wheel, removing states that expired in the slots passed since the last call.
+     */
+    @Scheduled(fixedDelayString = "${gmail.oauth.state-tick-ms:10000}")
+    public synchronized void expire() {
+        long now = System.nanoTime();
+        long currentTick = (now - startNanos) / tickNanos;
+        long firstTick = Math.max(lastTick, currentTick - wheel.length + 1);
+        int removed = 0;
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            removed += clearSlot((int) (tick % wheel.length), now);
+        }
+        lastTick = currentTick;
+        if (removed > 0) {
+            logger.debug("Expired {} OAuth states", removed);
+        }
+    }
+
+    /**
+     * Number of states currently held, including expired ones not yet cleared.
+     *
+     * @return entry count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Clear slots from the current one on until there is room. Synchronized with {@link #expire()},
+     * since clearSlot peeks and then polls and must be the only consumer of a slot's queue.
+     */
+    private synchronized void evictSoonest() {
+        long now = System.nanoTime();
+        int current = slotOf(now);
+        for (int i = 0; i < wheel.length && entries.size() >= maxSize; i++) {
+            clearSlot((current + i) % wheel.length, Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Remove the states queued in a slot that expire before the given time.
+     */
+    private int clearSlot(int slot, long before) {
+        int removed = 0;
+        ConcurrentLinkedQueue<String> queue = wheel[slot];
+        String state;
+        while ((state = queue.peek()) != null) {
+            Entry entry = entries.get(state);
+            if (entry != null && before != Long.MAX_VALUE && entry.expiresAtNanos - before > 0) {
+                // Belongs to a later pass over this slot
+                break;
+            }
+            queue.poll();
+            if (entry != null && entries.remove(state, entry)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private int slotOf(long nanos) {
+        return (int) (((nanos - startNanos) / tickNanos) % wheel.length);
+    }
+}
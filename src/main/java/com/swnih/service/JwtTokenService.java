@@ -2,6 +2,9 @@ package com.swnih.service;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,10 +13,16 @@ import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for JWT token generation and validation.
- * Implements JWT authentication with 24-hour token expiration.
+ * Implements JWT authentication with short-lived tokens renewed through refresh tokens.
+ * The signing key and parser are built once at startup and shared across requests;
+ * callers that need several claims should use {@link #parseToken(String)} so the
+ * token is verified only once.
  */
 @Service
 public class JwtTokenService {
@@ -26,6 +35,35 @@ public class JwtTokenService {
     @Value("${jwt.expiration}")
     private long jwtExpirationMs;
 
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    private final Timer validTokenTimer;
+    private final Timer invalidTokenTimer;
+
+    public JwtTokenService(MeterRegistry meterRegistry) {
+        this.validTokenTimer = Timer.builder("jwt.verification")
+                .description("JWT signature and expiry checks")
+                .tag("outcome", "valid")
+                .register(meterRegistry);
+        this.invalidTokenTimer = Timer.builder("jwt.verification")
+                .description("JWT signature and expiry checks")
+                .tag("outcome", "invalid")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Build the signing key and parser once.
+     * Both are immutable and thread-safe, so they are shared by all requests.
+     */
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     /**
      * Generate JWT token for authenticated user.
      * 
@@ -39,15 +77,46 @@ public class JwtTokenService {
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .claim("userId", userId)
                 .claim("username", username)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verify a JWT token and return its claims.
+     * Signature and expiration are checked in a single parse.
+     * 
+     * @param token JWT token
+     * @return claims if the token is valid, empty otherwise
+     */
+    public Optional<Claims> parseToken(String token) {
+        long start = System.nanoTime();
+        try {
+            Claims claims = getClaimsFromToken(token);
+            validTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            invalidTokenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.warn("Invalid JWT token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Extract user ID from parsed claims.
+     * 
+     * @param claims claims returned by {@link #parseToken(String)}
+     * @return user ID
+     */
+    public static Long getUserId(Claims claims) {
+        return claims.get("userId", Long.class);
+    }
+
     /**
      * Extract user email from JWT token.
      * 
@@ -66,8 +135,7 @@ public class JwtTokenService {
      * @return user ID
      */
     public Long getUserIdFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return claims.get("userId", Long.class);
+        return getUserId(getClaimsFromToken(token));
     }
 
     /**
@@ -99,13 +167,7 @@ public class JwtTokenService {
      * @return true if token is valid
      */
     public boolean validateToken(String token) {
-        try {
-            getClaimsFromToken(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            logger.warn("Invalid JWT token: {}", e.getMessage());
-            return false;
-        }
+        return parseToken(token).isPresent();
     }
 
     /**
@@ -132,21 +194,7 @@ public class JwtTokenService {
      * @throws JwtException if token is invalid
      */
     private Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    /**
-     * Get signing key for JWT token generation and validation.
-     * 
-     * @return SecretKey for signing
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
     /**
@@ -0,0 +1,193 @@
+package com.swnih.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Codec for compressing message bodies before they are written to the message_bodies table.
+ * Uses raw DEFLATE primed with a preset dictionary of common email phrases, which gives
+ * a useful ratio even on short notification emails where a cold compressor gains little.
+ *
+ * The codec ID is stored alongside each body so the format can evolve: existing rows
+ * keep decoding with the codec they were written with.
+ */
+@Component
+public class MessageBodyCodec {
+
+    /** Body stored as uncompressed UTF-8 (short bodies and migrated rows). */
+    public static final byte CODEC_RAW = 0;
+
+    /** Body stored as raw DEFLATE with {@link #DICTIONARY_V1} as preset dictionary. */
+    public static final byte CODEC_DEFLATE_DICT_V1 = 1;
+
+    private static final int MIN_COMPRESS_LENGTH = 64;
+
+    /** Idle compressors kept for reuse; extras are ended as soon as they are returned. */
+    private static final int POOL_SIZE = 16;
+
+    /**
+     * Shared dictionary for email text. DEFLATE prefers matches near the end of the
+     * dictionary, so the most frequent fragments are placed last. Never edit in place:
+     * add a new codec ID with a new dictionary instead.
+     */
+    private static final byte[] DICTIONARY_V1 = (
+            "privacy policy terms of service all rights reserved view in browser manage preferences " +
+            "this email was sent to you because you signed up update your preferences " +
+            "if you have any questions, please contact us at support " +
+            "do not reply to this email. this is an automated message " +
+            "click here to unsubscribe from these emails " +
+            "your order has been shipped tracking number delivery " +
+            "meeting invitation calendar reminder scheduled for tomorrow " +
+            "interview application position opportunity deadline " +
+            "please find attached the document for your review " +
+            "thank you for your message. best regards, kind regards, thanks, " +
+            "https://www. http://www. .com/ mailto: unsubscribe " +
+            "Hi, Hello, Dear Thank you Please let me know if you have any questions. "
+    ).getBytes(StandardCharsets.UTF_8);
+
+    // Deflater and Inflater hold native memory until end() is called, so they are
+    // pooled here and ended on shutdown rather than left to each thread
+    private final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<Inflater> inflaters = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /**
+     * Encoded body together with the codec it was written with.
+     */
+    public static final class EncodedBody {
+        private final byte codec;
+        private final byte[] data;
+        private final int originalLength;
+
+        public EncodedBody(byte codec, byte[] data, int originalLength) {
+            this.codec = codec;
+            this.data = data;
+            this.originalLength = originalLength;
+        }
+
+        public byte getCodec() {
+            return codec;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public int getOriginalLength() {
+            return originalLength;
+        }
+    }
+
+    /**
+     * Encode a message body, compressing it when that actually saves space.
+     *
+     * @param body the plain text body
+     * @return encoded body with codec ID and original UTF-8 length
+     */
+    public EncodedBody encode(String body) {
+        byte[] raw = (body != null ? body : "").getBytes(StandardCharsets.UTF_8);
+        if (raw.length < MIN_COMPRESS_LENGTH) {
+            return new EncodedBody(CODEC_RAW, raw, raw.length);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 2));
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.BEST_SPEED, true);
+        }
+        try {
+            deflater.setDictionary(DICTIONARY_V1);
+            deflater.setInput(raw);
+            deflater.finish();
+
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(buffer);
+                out.write(buffer, 0, written);
+            }
+        } finally {
+            deflater.reset();
+            if (!deflaters.offer(deflater)) {
+                deflater.end();
+            }
+        }
+
+        byte[] compressed = out.toByteArray();
+        if (compressed.length >= raw.length) {
+            return new EncodedBody(CODEC_RAW, raw, raw.length);
+        }
+        return new EncodedBody(CODEC_DEFLATE_DICT_V1, compressed, raw.length);
+    }
+
+    /**
+     * Decode a stored message body.
+     *
+     * @param codec the codec ID stored with the body
+     * @param data the stored bytes
+     * @param originalLength the original UTF-8 length
+     * @return the plain text body
+     * @throws IllegalStateException if the data is corrupt or the codec is unknown
+     */
+    public String decode(byte codec, byte[] data, int originalLength) {
+        if (codec == CODEC_RAW) {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+        if (codec != CODEC_DEFLATE_DICT_V1) {
+            throw new IllegalStateException("Unknown message body codec: " + codec);
+        }
+
+        Inflater inflater = inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+        try {
+            // Raw (nowrap) streams carry no dictionary marker, so it is set up front
+            inflater.setDictionary(DICTIONARY_V1);
+            inflater.setInput(data);
+
+            byte[] result = new byte[originalLength];
+            int offset = 0;
+            while (offset < originalLength && !inflater.finished()) {
+                int read = inflater.inflate(result, offset, originalLength - offset);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += read;
+            }
+            if (offset != originalLength) {
+                throw new IllegalStateException("Truncated message body: expected " + originalLength + " bytes, got " + offset);
+            }
+            return new String(result, StandardCharsets.UTF_8);
+
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt message body", e);
+        } finally {
+            inflater.reset();
+            if (!inflaters.offer(inflater)) {
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Release the native memory of all pooled compressors.
+     */
+    @PreDestroy
+    public void shutdown() {
+        Deflater deflater;
+        while ((deflater = deflaters.poll()) != null) {
+            deflater.end();
+        }
+        Inflater inflater;
+        while ((inflater = inflaters.poll()) != null) {
+            inflater.end();
+        }
+    }
+}
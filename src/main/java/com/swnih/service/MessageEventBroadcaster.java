@@ -0,0 +1,297 @@
+package com.swnih.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes message events to connected dashboards over Server-Sent Events.
+ * Each user has a channel holding their open emitters and a bounded buffer of recent events;
+ * an event is serialized once and written to every emitter of its user from a single fan-out
+ * thread, so a slow client never holds up ingestion. Event IDs come from one sequence seeded
+ * from the clock at startup, so they keep increasing across restarts: a client reconnecting
+ * with Last-Event-ID gets the buffered events it missed, or a "resync" event when they are no
+ * longer buffered and it should reload its list.
+ */
+@Component
+public class MessageEventBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageEventBroadcaster.class);
+
+    public static final String EVENT_MESSAGE = "message";
+    public static final String EVENT_RESYNC = "resync";
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final ExecutorService fanOut = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sse-fan-out");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${sse.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${sse.replay-buffer-size:200}")
+    private int replayBufferSize;
+
+    @Value("${sse.replay-retention-ms:600000}")
+    private long replayRetentionMillis;
+
+    @Value("${sse.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${sse.reconnect-delay-ms:3000}")
+    private long reconnectDelayMillis;
+
+    public MessageEventBroadcaster(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * An event as written to the stream.
+     */
+    static final class Event {
+        private final long id;
+        private final String name;
+        private final String data;
+
+        Event(long id, String name, String data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Open emitters and recent events of one user.
+     */
+    private static final class Channel {
+        private final CopyOnWriteArrayList<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        private final ArrayDeque<Event> recent = new ArrayDeque<>();
+        // Every event of this user with an ID above this is still in recent
+        private long bufferedAfter;
+        private volatile long lastActiveMillis = System.currentTimeMillis();
+
+        private Channel(long bufferedAfter) {
+            this.bufferedAfter = bufferedAfter;
+        }
+    }
+
+    /**
+     * Open a stream for a user, replaying the events missed since lastEventId.
+     *
+     * @param userId the authenticated user
+     * @param lastEventId the Last-Event-ID header sent on reconnect, may be null
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        Channel channel = channels.computeIfAbsent(userId, id -> new Channel(sequence.get()));
+        channel.lastActiveMillis = System.currentTimeMillis();
+
+        emitter.onCompletion(() -> channel.emitters.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> channel.emitters.remove(emitter));
+
+        synchronized (channel) {
+            boolean resuming = lastEventId != null && !lastEventId.isBlank();
+            long lastId = resuming ? parseId(lastEventId) : sequence.get();
+            // Gap if the ID is unknown, from the future, or older than what is buffered
+            boolean resync = resuming && (lastId < channel.bufferedAfter || lastId > sequence.get());
+            List<Event> missed = new ArrayList<>();
+            for (Event event : channel.recent) {
+                if (resuming && event.id > lastId) {
+                    missed.add(event);
+                }
+            }
+            channel.emitters.add(emitter);
+
+            // Queued under the channel lock so replayed events go out before any newer event
+            fanOut.execute(() -> {
+                try {
+                    emitter.send(SseEmitter.event().reconnectTime(reconnectDelayMillis).comment("connected"));
+                    if (resync) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(sequence.get()))
+                                .name(EVENT_RESYNC)
+                                .data("{}", MediaType.APPLICATION_JSON));
+                    } else {
+                        for (Event event : missed) {
+                            send(emitter, event);
+                        }
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    channel.emitters.remove(emitter);
+                }
+            });
+        }
+
+        // Over the limit, close the oldest stream of this user
+        while (channel.emitters.size() > maxConnectionsPerUser) {
+            SseEmitter oldest = channel.emitters.remove(0);
+            oldest.complete();
+        }
+
+        logger.debug("Opened event stream for user: {} ({} open)", userId, channel.emitters.size());
+        return emitter;
+    }
+
+    /**
+     * Publish a newly stored message to the user's dashboards.
+     * Inside a transaction the event is sent after commit, so clients never see a message
+     * that was rolled back; outside of one it is sent immediately.
+     *
+     * @param userId the user owning the message
+     * @param payload the event payload
+     */
+    public void publishAfterCommit(Long userId, Object payload) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(userId, EVENT_MESSAGE, payload);
+                }
+            });
+        } else {
+            publish(userId, EVENT_MESSAGE, payload);
+        }
+    }
+
+    /**
+     * Publish an event to all open streams of a user and buffer it for replay.
+     *
+     * @param userId the user to notify
+     * @param name the event name
+     * @param payload the event payload, serialized as JSON
+     */
+    public void publish(Long userId, String name, Object payload) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            logger.warn("Failed to serialize {} event for user {}: {}", name, userId, e.getMessage());
+            return;
+        }
+
+        Channel channel = channels.get(userId);
+        if (channel == null) {
+            // Nobody connected recently, nothing to deliver or replay
+            return;
+        }
+
+        synchronized (channel) {
+            Event event = new Event(sequence.incrementAndGet(), name, data);
+            channel.recent.addLast(event);
+            while (channel.recent.size() > replayBufferSize) {
+                channel.bufferedAfter = channel.recent.removeFirst().id;
+            }
+            if (channel.emitters.isEmpty()) {
+                return;
+            }
+            List<SseEmitter> targets = List.copyOf(channel.emitters);
+            fanOut.execute(() -> {
+                for (SseEmitter emitter : targets) {
+                    try {
+                        send(emitter, event);
+                    } catch (IOException | IllegalStateException e) {
+                        channel.emitters.remove(emitter);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Keep open streams alive through proxies and drop the ones whose client has gone,
+     * then forget channels that have had no stream for longer than the replay retention.
+     */
+    @Scheduled(fixedDelayString = "${sse.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        channels.forEach((userId, channel) -> {
+            if (channel.emitters.isEmpty()) {
+                if (now - channel.lastActiveMillis > replayRetentionMillis) {
+                    channels.remove(userId, channel);
+                }
+                return;
+            }
+            channel.lastActiveMillis = now;
+            List<SseEmitter> targets = List.copyOf(channel.emitters);
+            fanOut.execute(() -> {
+                for (SseEmitter emitter : targets) {
+                    try {
+                        emitter.send(SseEmitter.event().comment("hb"));
+                    } catch (IOException | IllegalStateException e) {
+                        channel.emitters.remove(emitter);
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * Number of open streams across all users.
+     *
+     * @return open stream count
+     */
+    public int getConnectionCount() {
+        int count = 0;
+        for (Channel channel : channels.values()) {
+            count += channel.emitters.size();
+        }
+        return count;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdown();
+        channels.values().forEach(channel -> channel.emitters.forEach(SseEmitter::complete));
+        channels.clear();
+        try {
+            fanOut.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    SseEmitter createEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    private void send(SseEmitter emitter, Event event) throws IOException {
+        emitter.send(SseEmitter.event()
+                .id(String.valueOf(event.id))
+                .name(event.name)
+                .data(event.data, MediaType.APPLICATION_JSON));
+    }
+
+    private long parseId(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
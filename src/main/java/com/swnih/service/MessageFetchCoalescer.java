@@ -0,0 +1,169 @@
+package com.swnih.service;
+
+import com.swnih.dto.MessageSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Registry of Gmail fetches in flight per user.
+ * A fetch requested while the same user's fetch is still running, or finished less than
+ * reuse-window-ms ago, gets that run's result instead of starting another one, so two tabs or
+ * a double-clicked Refresh cost one set of Gmail calls. Streamed fetches are shared with a
+ * replaying Flux: a late subscriber receives the messages already emitted, then the rest live.
+ * Failed runs are forgotten at once so the next request retries.
+ */
+@Component
+public class MessageFetchCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageFetchCoalescer.class);
+
+    private final ConcurrentHashMap<Long, ListRun> listRuns = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, StreamRun> streamRuns = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    @Value("${gmail.coalesce.reuse-window-ms:5000}")
+    private long reuseWindowMillis;
+
+    /**
+     * A fetch returning the whole list; finishedAtNanos is set before the result completes.
+     */
+    private final class ListRun {
+        private final CompletableFuture<List<MessageSummary>> result = new CompletableFuture<>();
+        private volatile long finishedAtNanos;
+
+        boolean reusable(long now) {
+            return !result.isDone()
+                    || (!result.isCompletedExceptionally() && now - finishedAtNanos <= reuseWindowMillis * 1_000_000L);
+        }
+    }
+
+    /**
+     * A streamed fetch, shared by every subscriber that joins it.
+     */
+    private final class StreamRun {
+        private final Flux<MessageSummary> messages;
+        private volatile long finishedAtNanos;
+        private volatile boolean finished;
+
+        StreamRun(String key, Flux<MessageSummary> source) {
+            // cache() keeps the fetch running to the end even if the first client goes away
+            this.messages = source
+                    .doOnComplete(() -> {
+                        finishedAtNanos = System.nanoTime();
+                        finished = true;
+                    })
+                    .doOnError(e -> streamRuns.remove(key, this))
+                    .cache();
+        }
+
+        boolean reusable(long now) {
+            return !finished || now - finishedAtNanos <= reuseWindowMillis * 1_000_000L;
+        }
+    }
+
+    /**
+     * Run a fetch for a user, or wait for the one already running.
+     *
+     * @param userId the user fetching messages
+     * @param fetch performs the fetch on the calling thread
+     * @return the fetched messages, shared between joined callers and not to be modified
+     */
+    public List<MessageSummary> fetch(Long userId, Supplier<List<MessageSummary>> fetch) {
+        ListRun created = new ListRun();
+        ListRun run = listRuns.compute(userId,
+                (id, current) -> current != null && current.reusable(System.nanoTime()) ? current : created);
+
+        if (run != created) {
+            coalescedCount.incrementAndGet();
+            logger.debug("Joining Gmail fetch in flight for user: {}", userId);
+            try {
+                return run.result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            List<MessageSummary> messages = List.copyOf(fetch.get());
+            run.finishedAtNanos = System.nanoTime();
+            run.result.complete(messages);
+            return messages;
+        } catch (RuntimeException e) {
+            listRuns.remove(userId, run);
+            run.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Stream a fetch for a user, or join the stream already running for the same start point.
+     *
+     * @param userId the user fetching messages
+     * @param startHistoryId the history ID the fetch starts from, may be null
+     * @param fetch creates the fetch; must be lazy, it is called while the registry is locked
+     * @return the shared stream of fetched messages
+     */
+    public Flux<MessageSummary> stream(Long userId, String startHistoryId, Supplier<Flux<MessageSummary>> fetch) {
+        String key = userId + ":" + (startHistoryId != null ? startHistoryId : "");
+        return Flux.defer(() -> {
+            StreamRun[] created = new StreamRun[1];
+            StreamRun run = streamRuns.compute(key, (k, current) -> {
+                if (current != null && current.reusable(System.nanoTime())) {
+                    return current;
+                }
+                created[0] = new StreamRun(key, fetch.get());
+                return created[0];
+            });
+            if (run != created[0]) {
+                coalescedCount.incrementAndGet();
+                logger.debug("Joining Gmail message stream in flight for user: {}", userId);
+            }
+            return run.messages;
+        });
+    }
+
+    /**
+     * Forget finished runs of a user, e.g. after their Gmail access is revoked.
+     * Runs still in flight are left for their callers.
+     *
+     * @param userId the user ID
+     */
+    public void invalidate(Long userId) {
+        listRuns.computeIfPresent(userId, (id, run) -> run.result.isDone() ? null : run);
+        String prefix = userId + ":";
+        streamRuns.entrySet().removeIf(entry -> entry.getKey().startsWith(prefix) && entry.getValue().finished);
+    }
+
+    /**
+     * Number of fetches served by joining another run since startup.
+     *
+     * @return coalesced fetch count
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Drop finished runs whose reuse window has passed.
+     */
+    @Scheduled(fixedDelayString = "${gmail.coalesce.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        listRuns.entrySet().removeIf(entry -> !entry.getValue().reusable(now));
+        streamRuns.entrySet().removeIf(entry -> !entry.getValue().reusable(now));
+    }
+}
@@ -0,0 +1,129 @@
+package com.swnih.service;
+
+import com.swnih.dto.MessageCounts;
+import com.swnih.dto.MessageSummary;
+import com.swnih.entity.Message;
+import com.swnih.entity.PriorityLevel;
+import com.swnih.entity.User;
+import com.swnih.entity.MessageChange;
+import com.swnih.repository.MessageBodyRepository;
+import com.swnih.repository.MessageChangeRepository;
+import com.swnih.repository.MessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Service for persisting classified messages.
+ * Deduplication is delegated to the database: each message is written with a single
+ * INSERT ... ON DUPLICATE KEY UPDATE against the (user_id, external_id) and (user_id, content_hash)
+ * unique keys, so re-ingesting an already stored message costs one index probe and no exception.
+ * Bodies are compressed and written to message_bodies only for newly inserted messages.
+ * Each newly inserted message is recorded in the change log for delta sync and pushed to the
+ * user's open dashboards once the insert commits.
+ */
+@Service
+@Transactional
+public class MessageIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageIngestionService.class);
+    private static final int MAX_SENDER_LENGTH = 255;
+    private static final int MAX_EXTERNAL_ID_LENGTH = 64;
+    private static final int SNIPPET_LENGTH = 255;
+    private static final int PREVIEW_LENGTH = 200;
+
+    private final MessageRepository messageRepository;
+    private final MessageBodyRepository messageBodyRepository;
+    private final MessageBodyCodec messageBodyCodec;
+    private final MessageRetentionService messageRetentionService;
+    private final MessageEventBroadcaster messageEventBroadcaster;
+    private final MessageChangeRepository messageChangeRepository;
+
+    public MessageIngestionService(MessageRepository messageRepository,
+                                   MessageBodyRepository messageBodyRepository,
+                                   MessageBodyCodec messageBodyCodec,
+                                   MessageRetentionService messageRetentionService,
+                                   MessageEventBroadcaster messageEventBroadcaster,
+                                   MessageChangeRepository messageChangeRepository) {
+        this.messageRepository = messageRepository;
+        this.messageBodyRepository = messageBodyRepository;
+        this.messageBodyCodec = messageBodyCodec;
+        this.messageRetentionService = messageRetentionService;
+        this.messageEventBroadcaster = messageEventBroadcaster;
+        this.messageChangeRepository = messageChangeRepository;
+    }
+
+    /**
+     * Store a classified message unless it is already present.
+     *
+     * @param user the user owning the message
+     * @param externalId source message ID (Gmail message ID), may be null
+     * @param sender the message sender
+     * @param subject the message subject
+     * @param body the full message body
+     * @param priority the classified priority
+     * @param mlConfidence ML confidence score, may be null
+     * @param timestamp the message timestamp
+     * @param source the message source (e.g., GMAIL)
+     * @return true if the message was inserted, false if it was a duplicate or beyond retention
+     */
+    public boolean ingest(User user, String externalId, String sender, String subject, String body,
+                          PriorityLevel priority, BigDecimal mlConfidence, LocalDateTime timestamp, String source) {
+        if (user == null || user.getId() == null) {
+            throw new IllegalArgumentException("User is required");
+        }
+        if (priority == null || timestamp == null) {
+            throw new IllegalArgumentException("Priority and timestamp are required");
+        }
+        if (messageRetentionService.isBeyondRetention(user, timestamp)) {
+            logger.debug("Skipped message {} beyond retention for user: {}", externalId, user.getId());
+            return false;
+        }
+
+        String normalizedSender = truncate(sender != null ? sender : "", MAX_SENDER_LENGTH);
+        String normalizedSubject = subject != null ? subject : "";
+        String normalizedExternalId = externalId != null ? truncate(externalId, MAX_EXTERNAL_ID_LENGTH) : null;
+        String normalizedBody = body != null ? body : "";
+        String contentHash = Message.computeContentHash(normalizedSender, normalizedSubject, timestamp);
+
+        Optional<Long> inserted = messageRepository.insertIfAbsent(
+                user.getId(),
+                normalizedExternalId,
+                contentHash,
+                normalizedSender,
+                normalizedSubject,
+                truncate(normalizedBody, SNIPPET_LENGTH),
+                priority.name(),
+                source != null ? source : "GMAIL",
+                mlConfidence,
+                timestamp);
+
+        if (inserted.isEmpty()) {
+            logger.debug("Skipped duplicate message {} for user: {}", normalizedExternalId, user.getId());
+            return false;
+        }
+
+        Long messageId = inserted.get();
+        MessageBodyCodec.EncodedBody encoded = messageBodyCodec.encode(normalizedBody);
+        messageBodyRepository.insertBody(messageId, encoded.getCodec(), encoded.getOriginalLength(), encoded.getData());
+        messageChangeRepository.recordChange(user.getId(), messageId, MessageChange.INSERT);
+
+        logger.debug("Stored message {} for user: {} (body {} -> {} bytes)",
+                normalizedExternalId, user.getId(), encoded.getOriginalLength(), encoded.getData().length);
+
+        MessageSummary event = new MessageSummary(String.valueOf(messageId), normalizedExternalId,
+                normalizedSender, normalizedSubject, truncate(normalizedBody, PREVIEW_LENGTH), priority.name(),
+                timestamp, source != null ? source : "GMAIL", MessageCounts.added(priority));
+        messageEventBroadcaster.publishAfterCommit(user.getId(), event);
+        return true;
+    }
+
+    private String truncate(String value, int maxLength) {
+        return value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
@@ -0,0 +1,272 @@
+package com.swnih.service;
+
+import com.swnih.entity.User;
+import com.swnih.repository.ArchivedMessageRepository;
+import com.swnih.repository.MessageChangeRepository;
+import com.swnih.repository.MessageRepository;
+import com.swnih.repository.UserRepository;
+import com.swnih.security.UserStateCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service enforcing per-user message retention.
+ * Messages older than the owner's retention period are moved from the hot messages table
+ * into messages_archive in small batches, each in its own short transaction, so the hot
+ * table and its indexes stay bounded without long locks or large undo logs. Archived messages
+ * are recorded as deletes in the change log, which is itself purged after change-log.retention-days.
+ */
+@Service
+public class MessageRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageRetentionService.class);
+    private static final int USER_PAGE_SIZE = 200;
+
+    private final MessageRepository messageRepository;
+    private final ArchivedMessageRepository archivedMessageRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UserStateCache userStateCache;
+    private final MessageChangeRepository messageChangeRepository;
+
+    @Value("${retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${retention.default-days:365}")
+    private int defaultDays;
+
+    @Value("${retention.min-days:7}")
+    private int minDays;
+
+    @Value("${retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${retention.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    @Value("${retention.pause-between-batches-ms:50}")
+    private long pauseBetweenBatchesMs;
+
+    @Value("${change-log.retention-days:30}")
+    private int changeLogRetentionDays;
+
+    public MessageRetentionService(MessageRepository messageRepository,
+                                   ArchivedMessageRepository archivedMessageRepository,
+                                   UserRepository userRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   UserStateCache userStateCache,
+                                   MessageChangeRepository messageChangeRepository) {
+        this.messageRepository = messageRepository;
+        this.archivedMessageRepository = archivedMessageRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.userStateCache = userStateCache;
+        this.messageChangeRepository = messageChangeRepository;
+    }
+
+    /**
+     * Periodic retention pass over all users.
+     * Stops after max-batches-per-run batches; the remainder is picked up on the next run.
+     */
+    @Scheduled(fixedDelayString = "${retention.run-interval-ms:3600000}",
+               initialDelayString = "${retention.initial-delay-ms:300000}")
+    public void runRetention() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int batchBudget = maxBatchesPerRun;
+        int archivedTotal = 0;
+        long lastUserId = 0L;
+
+        while (batchBudget > 0) {
+            List<Object[]> users = userRepository.findRetentionSettingsAfter(lastUserId, PageRequest.of(0, USER_PAGE_SIZE));
+            if (users.isEmpty()) {
+                break;
+            }
+
+            for (Object[] row : users) {
+                lastUserId = (Long) row[0];
+                LocalDateTime cutoff = getCutoff((Integer) row[1]);
+
+                while (batchBudget > 0) {
+                    int archived = archiveBatch(lastUserId, cutoff);
+                    if (archived == 0) {
+                        break;
+                    }
+                    archivedTotal += archived;
+                    batchBudget--;
+                    pause();
+                }
+                if (batchBudget == 0) {
+                    break;
+                }
+            }
+        }
+
+        if (archivedTotal > 0) {
+            logger.info("Retention archived {} messages in {}ms (batch budget left: {})",
+                       archivedTotal, System.currentTimeMillis() - start, batchBudget);
+        }
+    }
+
+    /**
+     * Move one batch of a user's expired messages to the archive.
+     *
+     * @param userId the user owning the messages
+     * @param cutoff messages older than this are archived
+     * @return number of archived messages, 0 when nothing is left to archive
+     */
+    public int archiveBatch(Long userId, LocalDateTime cutoff) {
+        Integer archived = transactionTemplate.execute(status -> {
+            List<Long> ids = messageRepository.findIdsOlderThan(userId, cutoff, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            archivedMessageRepository.archiveMessages(ids);
+            messageChangeRepository.recordDeletes(ids);
+            return messageRepository.deleteByIdIn(ids);
+        });
+        return archived != null ? archived : 0;
+    }
+
+    /**
+     * Purge change log entries older than change-log.retention-days.
+     * Deletes in batches like archival, bounded by max-batches-per-run; the remainder is picked
+     * up on the next run. Clients whose cursor falls in the purged range are told to reload their list.
+     */
+    @Scheduled(fixedDelayString = "${change-log.purge-interval-ms:3600000}",
+               initialDelayString = "${retention.initial-delay-ms:300000}")
+    public void purgeChangeLog() {
+        try {
+            Long maxId = messageChangeRepository.findMaxId();
+            if (maxId == null) {
+                return;
+            }
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(changeLogRetentionDays);
+            int deletedTotal = 0;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                int deleted = purgeChangeLogBatch(cutoff, maxId);
+                if (deleted == 0) {
+                    break;
+                }
+                deletedTotal += deleted;
+                pause();
+            }
+            if (deletedTotal > 0) {
+                logger.info("Purged {} message change log entries", deletedTotal);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to purge message change log: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Delete one batch of old change log entries.
+     *
+     * @param cutoff entries recorded before this are deleted
+     * @param maxId the latest change ID when the purge started, always kept
+     * @return number of deleted entries, 0 when nothing is left to purge
+     */
+    public int purgeChangeLogBatch(LocalDateTime cutoff, long maxId) {
+        Integer deleted = transactionTemplate.execute(status -> {
+            List<Long> ids = messageChangeRepository.findIdsChangedBefore(cutoff, maxId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            return messageChangeRepository.deleteByIdIn(ids);
+        });
+        return deleted != null ? deleted : 0;
+    }
+
+    /**
+     * Resolve the effective retention period for a user setting.
+     *
+     * @param retentionDays the user's setting, or null for the default
+     * @return retention period in days, never below min-days
+     */
+    public int resolveRetentionDays(Integer retentionDays) {
+        int days = retentionDays != null ? retentionDays : defaultDays;
+        return Math.max(days, minDays);
+    }
+
+    /**
+     * Compute the retention cutoff for a user setting.
+     *
+     * @param retentionDays the user's setting, or null for the default
+     * @return messages with a timestamp before this are beyond retention
+     */
+    public LocalDateTime getCutoff(Integer retentionDays) {
+        return LocalDateTime.now().minusDays(resolveRetentionDays(retentionDays));
+    }
+
+    /**
+     * Check whether a message timestamp is already beyond the user's retention period.
+     * Ingestion uses this so archived messages are not re-inserted into the hot table.
+     *
+     * @param user the user owning the message
+     * @param timestamp the message timestamp
+     * @return true if the message should not be stored in the hot table
+     */
+    public boolean isBeyondRetention(User user, LocalDateTime timestamp) {
+        return enabled && timestamp.isBefore(getCutoff(findRetentionDays(user.getId())));
+    }
+
+    /**
+     * Get a user's retention setting from the user state cache.
+     * Callers may hold only a lazy reference to the user, whose fields cannot be read.
+     *
+     * @param userId the user ID
+     * @return the user's setting, or null for the default
+     */
+    public Integer findRetentionDays(Long userId) {
+        return userStateCache.get(userId)
+                .map(UserStateCache.UserSnapshot::getRetentionDays)
+                .orElse(null);
+    }
+
+    /**
+     * Update a user's retention period.
+     *
+     * @param userId the user to update
+     * @param retentionDays retention in days, or null to use the default
+     * @return the effective retention period in days
+     * @throws IllegalArgumentException if the value is below min-days
+     */
+    public int updateRetentionDays(Long userId, Integer retentionDays) {
+        if (retentionDays != null && retentionDays < minDays) {
+            throw new IllegalArgumentException("Retention must be at least " + minDays + " days");
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId));
+            user.setRetentionDays(retentionDays);
+            userRepository.save(user);
+        });
+        userStateCache.invalidate(userId);
+
+        logger.info("Updated retention for user {} to {} days", userId, resolveRetentionDays(retentionDays));
+        return resolveRetentionDays(retentionDays);
+    }
+
+    private void pause() {
+        if (pauseBetweenBatchesMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseBetweenBatchesMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
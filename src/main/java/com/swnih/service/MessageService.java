@@ -0,0 +1,264 @@
+package com.swnih.service;
+
+import com.swnih.dto.MessageSummary;
+import com.swnih.entity.ArchivedMessage;
+import com.swnih.entity.Message;
+import com.swnih.entity.MessageChange;
+import com.swnih.entity.User;
+import com.swnih.repository.ArchivedMessageRepository;
+import com.swnih.repository.MessageBodyRepository;
+import com.swnih.repository.MessageChangeRepository;
+import com.swnih.repository.MessageRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for reading stored messages.
+ * Message rows and bodies are read separately: listing only touches the messages table,
+ * and bodies are decompressed on detail access. Archived messages are searched separately.
+ * Delta sync reads the per-user change log and only the message rows it references.
+ */
+@Service
+@Transactional(readOnly = true)
+public class MessageService {
+
+    private final MessageRepository messageRepository;
+    private final MessageBodyRepository messageBodyRepository;
+    private final MessageBodyCodec messageBodyCodec;
+    private final ArchivedMessageRepository archivedMessageRepository;
+    private final MessageChangeRepository messageChangeRepository;
+
+    @Value("${change-log.settle-ms:2000}")
+    private long changeLogSettleMillis;
+
+    public MessageService(MessageRepository messageRepository,
+                          MessageBodyRepository messageBodyRepository,
+                          MessageBodyCodec messageBodyCodec,
+                          ArchivedMessageRepository archivedMessageRepository,
+                          MessageChangeRepository messageChangeRepository) {
+        this.messageRepository = messageRepository;
+        this.messageBodyRepository = messageBodyRepository;
+        this.messageBodyCodec = messageBodyCodec;
+        this.archivedMessageRepository = archivedMessageRepository;
+        this.messageChangeRepository = messageChangeRepository;
+    }
+
+    /**
+     * Changes of a user's messages after a sync cursor.
+     */
+    public static final class ChangeSet {
+        private final boolean reset;
+        private final long cursor;
+        private final boolean hasMore;
+        private final List<Change> changes;
+
+        ChangeSet(boolean reset, long cursor, boolean hasMore, List<Change> changes) {
+            this.reset = reset;
+            this.cursor = cursor;
+            this.hasMore = hasMore;
+            this.changes = changes;
+        }
+
+        /**
+         * @return true if the cursor is too old or unknown and the client must reload its list
+         */
+        public boolean isReset() {
+            return reset;
+        }
+
+        /**
+         * @return the cursor to send with the next request
+         */
+        public long getCursor() {
+            return cursor;
+        }
+
+        /**
+         * @return true if more changes are available after the cursor
+         */
+        public boolean isHasMore() {
+            return hasMore;
+        }
+
+        public List<Change> getChanges() {
+            return changes;
+        }
+    }
+
+    /**
+     * The latest change of one message.
+     */
+    public static final class Change {
+        private final long sequence;
+        private final String type;
+        private final Long messageId;
+        private final Message message;
+
+        Change(long sequence, String type, Long messageId, Message message) {
+            this.sequence = sequence;
+            this.type = type;
+            this.messageId = messageId;
+            this.message = message;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public Long getMessageId() {
+            return messageId;
+        }
+
+        /**
+         * @return the current message row, null for deletes
+         */
+        public Message getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * Read the changes of a user's messages after a cursor.
+     * Several changes of the same message in one page are collapsed into the latest, and the
+     * referenced rows are loaded with a single query. A cursor of 0, one from before the oldest
+     * retained change, or one from beyond the end of the log returns a reset with the current
+     * cursor, from which the client should reload and continue. The end of the log is held back
+     * to the changes recorded more than settle-ms ago, see {@link #findSettledEnd()}.
+     *
+     * @param user the user owning the messages
+     * @param since the cursor from the previous response, 0 for none
+     * @param limit maximum number of change log entries to read
+     * @return the changes and the next cursor
+     */
+    public ChangeSet findChanges(User user, long since, int limit) {
+        long end = findSettledEnd();
+        if (since <= 0 || since > end) {
+            return new ChangeSet(true, end, false, List.of());
+        }
+        Long minId = messageChangeRepository.findMinId();
+        if (minId != null && since < minId - 1) {
+            return new ChangeSet(true, end, false, List.of());
+        }
+
+        List<Object[]> rows = messageChangeRepository.findChangesAfter(user.getId(), since, end, PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+        // Nothing for this user yet: jump to the end of the log so the next read starts there
+        long cursor = rows.isEmpty() ? end : (Long) rows.get(rows.size() - 1)[0];
+
+        // Keep the latest change per message, in log order
+        Map<Long, Object[]> latest = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            latest.remove((Long) row[1]);
+            latest.put((Long) row[1], row);
+        }
+
+        List<Long> liveIds = latest.values().stream()
+                .filter(row -> !MessageChange.DELETE.equals(row[2]))
+                .map(row -> (Long) row[1])
+                .toList();
+        Map<Long, Message> messages = liveIds.isEmpty() ? Map.of()
+                : messageRepository.findByUserIdAndIdIn(user.getId(), liveIds).stream()
+                        .collect(Collectors.toMap(Message::getId, Function.identity()));
+
+        List<Change> changes = new ArrayList<>(latest.size());
+        for (Object[] row : latest.values()) {
+            Long messageId = (Long) row[1];
+            String type = (String) row[2];
+            Message message = messages.get(messageId);
+            if (!MessageChange.DELETE.equals(type) && message == null) {
+                // Deleted since; its DELETE entry follows in the log
+                continue;
+            }
+            changes.add(new Change((Long) row[0], type, messageId, message));
+        }
+        return new ChangeSet(false, cursor, hasMore, changes);
+    }
+
+    /**
+     * Latest change ID that is safe to hand out as a cursor.
+     * Change IDs are allocated on insert but become visible on commit, so a newer change can be
+     * visible while an older one is still being written; a cursor past the older one would skip
+     * it for good. Only changes recorded at least settle-ms ago are served, which is safe as long
+     * as no transaction recording a change stays open that long.
+     *
+     * @return the change ID, or 0 if no change is old enough yet
+     */
+    private long findSettledEnd() {
+        List<Long> ids = messageChangeRepository.findLatestIdsChangedBefore(
+                LocalDateTime.now().minus(changeLogSettleMillis, ChronoUnit.MILLIS), PageRequest.of(0, 1));
+        return ids.isEmpty() ? 0L : ids.get(0);
+    }
+
+    /**
+     * Find a stored message owned by the user.
+     *
+     * @param user the user owning the message
+     * @param messageId the message ID
+     * @return Optional containing the message if found
+     */
+    public Optional<Message> findMessage(User user, Long messageId) {
+        return messageRepository.findByIdAndUser(messageId, user);
+    }
+
+    /**
+     * Load and decompress the full body of a message.
+     *
+     * @param messageId the message ID
+     * @return the body text, or empty if no body is stored
+     */
+    public Optional<String> loadBody(Long messageId) {
+        return messageBodyRepository.findById(messageId)
+                .map(body -> messageBodyCodec.decode(body.getCodec(), body.getBodyCompressed(), body.getOriginalLength()));
+    }
+
+    /**
+     * Latest stored Gmail messages of a user, shaped like Gmail fetch results.
+     * Served in place of a fetch while Gmail is unavailable.
+     *
+     * @param user the user owning the messages
+     * @param limit maximum number of messages
+     * @return summaries keyed by Gmail message ID, newest first
+     */
+    public List<MessageSummary> findStoredGmailMessages(User user, int limit) {
+        return messageRepository.findByUserAndSourceOrderByTimestampDesc(user, "GMAIL", PageRequest.of(0, limit))
+                .map(message -> MessageSummary.fetched(message.getExternalId(), message.getSender(),
+                        message.getSubject(), message.getSnippet(), message.getPriority().name(), message.getTimestamp()))
+                .getContent();
+    }
+
+    /**
+     * Search archived messages owned by the user.
+     *
+     * @param user the user owning the messages
+     * @param searchTerm term to match in subject or snippet, or null/blank to list all
+     * @param pageable pagination information
+     * @return page of archived messages, newest first
+     */
+    public Page<ArchivedMessage> searchArchive(User user, String searchTerm, Pageable pageable) {
+        if (searchTerm == null || searchTerm.isBlank()) {
+            return archivedMessageRepository.findByUserIdOrderByTimestampDesc(user.getId(), pageable);
+        }
+        return archivedMessageRepository.searchByContent(user.getId(), searchTerm.trim(), pageable);
+    }
+}
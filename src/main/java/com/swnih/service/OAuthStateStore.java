@@ -0,0 +1,27 @@
+package com.swnih.service;
+
+import java.util.Optional;
+
+/**
+ * Store for OAuth state parameters issued by {@link GmailIntegrationService#initiateOAuthFlow}.
+ * A state maps to the user who started the flow, expires after a short TTL and can be consumed
+ * only once. Implementations are selected with gmail.oauth.state-store (see OAuthStateStoreConfig).
+ */
+public interface OAuthStateStore {
+
+    /**
+     * Remember a newly issued state.
+     *
+     * @param state the state parameter sent to the OAuth provider
+     * @param userId the user who started the flow
+     */
+    void save(String state, Long userId);
+
+    /**
+     * Take a state out of the store.
+     *
+     * @param state the state parameter returned by the OAuth provider
+     * @return the user who started the flow, or empty if the state is unknown, expired or already used
+     */
+    Optional<Long> consume(String state);
+}
@@ -0,0 +1,164 @@
+package com.swnih.service;
+
+import com.swnih.exception.TooManyAttemptsException;
+import com.swnih.security.PasswordHashCalibrator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service running password hashing on a dedicated, bounded executor.
+ * BCrypt costs hundreds of milliseconds of CPU per call; running it on request threads lets a
+ * burst of logins occupy every Tomcat thread and every core. Here at most a fixed number of
+ * hashes run concurrently, a short queue absorbs spikes, and anything beyond that is rejected
+ * immediately instead of adding latency to unrelated requests.
+ *
+ * Requirements: 6.3
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+    private static final long SATURATED_RETRY_AFTER_SECONDS = 1;
+
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashCalibrator calibrator;
+    private final MeterRegistry meterRegistry;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    @Value("${security.password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${security.password-hashing.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${security.password-hashing.timeout-ms:5000}")
+    private long timeoutMs;
+
+    private ThreadPoolExecutor executor;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder, PasswordHashCalibrator calibrator,
+                                  MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.calibrator = calibrator;
+        this.meterRegistry = meterRegistry;
+        // Hashing time on the executor, without the wait for a thread
+        this.encodeTimer = Timer.builder("password.hashing")
+                .description("BCrypt hashing and verification")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing")
+                .description("BCrypt hashing and verification")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Create the hashing executor.
+     * A thread count of 0 uses half of the available processors, leaving the rest for request handling.
+     */
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        executor = new ThreadPoolExecutor(
+            poolSize, poolSize,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes running")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queued", executor, pool -> pool.getQueue().size())
+                .description("Password hashes waiting for a thread")
+                .register(meterRegistry);
+
+        logger.info("Password hashing executor started with {} threads and queue capacity {}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Hash a raw password.
+     * 
+     * @param rawPassword the password to hash
+     * @return encoded password hash
+     * @throws TooManyAttemptsException if the hashing executor is saturated
+     */
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> encodeTimer.recordCallable(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    /**
+     * Verify a raw password against a stored hash.
+     * 
+     * @param rawPassword the password to check
+     * @param encodedPassword the stored hash
+     * @return true if the password matches
+     * @throws TooManyAttemptsException if the hashing executor is saturated
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> matchesTimer.recordCallable(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Check whether a stored hash was created with a lower work factor than the current one.
+     * 
+     * @param encodedPassword the stored hash
+     * @return true if the hash should be replaced after the next successful verification
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return calibrator.needsRehash(encodedPassword);
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Password hashing saturated ({} active, {} queued), rejecting request",
+                       executor.getActiveCount(), executor.getQueue().size());
+            throw new TooManyAttemptsException("Server is busy, please retry shortly", SATURATED_RETRY_AFTER_SECONDS);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            logger.warn("Password hashing timed out after {}ms", timeoutMs);
+            throw new TooManyAttemptsException("Server is busy, please retry shortly", SATURATED_RETRY_AFTER_SECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+}
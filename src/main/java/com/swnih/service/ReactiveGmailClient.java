@@ -0,0 +1,291 @@
+package com.swnih.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.swnih.exception.OAuthException;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongFunction;
+
+/**
+ * Non-blocking client for the Gmail REST API (users.messages.list/get and users.history.list).
+ * Requests go through one WebClient on a bounded Reactor Netty connection pool, so waiting on
+ * Gmail occupies no thread: many users can sync at once on the few event-loop threads.
+ * Responses are returned as raw JSON for the caller to parse. Every request passes the Gmail
+ * circuit breaker and concurrency limit of {@link GoogleApiResilience}.
+ *
+ * A deadline (System.nanoTime() value) put in the subscriber context under {@link #DEADLINE_KEY}
+ * bounds every request: each one times out with the budget left, and none starts once it is
+ * spent. Message gets are idempotent, so a get still unanswered after the recent p95 latency
+ * is sent again and the slower of the two cancelled, within the budget of {@link RequestHedger}.
+ */
+@Component
+public class ReactiveGmailClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveGmailClient.class);
+
+    public static final String TOKEN_REJECTED = "TOKEN_REJECTED";
+    public static final String RATE_LIMITED = "GMAIL_RATE_LIMITED";
+    public static final String SERVER_ERROR = "GMAIL_SERVER_ERROR";
+    public static final String API_ERROR = "GMAIL_API_ERROR";
+    public static final String HISTORY_EXPIRED = "HISTORY_EXPIRED";
+    public static final String DEADLINE_EXCEEDED = "DEADLINE_EXCEEDED";
+    public static final String DEADLINE_KEY = "gmail.deadlineNanos";
+
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+    private final GoogleApiResilience resilience;
+    private final RequestHedger hedger;
+
+    @Value("${gmail.hedge.enabled:true}")
+    private boolean hedgingEnabled;
+
+    /**
+     * Message IDs added since a history ID, with the mailbox's current history ID.
+     *
+     * @param messageIds IDs of added messages, oldest first
+     * @param historyId history ID to continue from next time
+     */
+    public record HistoryChanges(List<String> messageIds, String historyId) {}
+
+    public ReactiveGmailClient(WebClient.Builder webClientBuilder,
+                               GoogleApiResilience resilience,
+                               @Value("${gmail.reactive.base-url:https://gmail.googleapis.com/gmail/v1/users/me}") String baseUrl,
+                               @Value("${gmail.reactive.max-connections:200}") int maxConnections,
+                               @Value("${gmail.reactive.pending-acquire-max:1000}") int pendingAcquireMax,
+                               @Value("${gmail.reactive.connect-timeout-ms:5000}") int connectTimeoutMs,
+                               @Value("${gmail.reactive.response-timeout-ms:10000}") long responseTimeoutMs,
+                               @Value("${gmail.reactive.max-idle-ms:30000}") long maxIdleMs,
+                               @Value("${gmail.reactive.max-response-bytes:4194304}") int maxResponseBytes,
+                               @Value("${gmail.hedge.min-delay-ms:50}") long hedgeMinDelayMs,
+                               @Value("${gmail.hedge.min-samples:100}") int hedgeMinSamples,
+                               @Value("${gmail.hedge.budget-ratio:0.05}") double hedgeBudgetRatio) {
+        this.resilience = resilience;
+        this.hedger = new RequestHedger(Duration.ofMillis(hedgeMinDelayMs).toNanos(), 512, hedgeMinSamples,
+                hedgeBudgetRatio, 10);
+        this.connectionProvider = ConnectionProvider.builder("gmail")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(responseTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleMs))
+                .evictInBackground(Duration.ofMillis(maxIdleMs))
+                // Pool gauges (reactor.netty.connection.provider.*), exported through the global registry
+                .metrics(true)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs))
+                .compress(true);
+
+        this.webClient = webClientBuilder
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxResponseBytes))
+                .build();
+    }
+
+    /**
+     * List message IDs matching a query, newest first.
+     *
+     * @param accessToken the user's access token
+     * @param query Gmail search query (e.g., "in:inbox")
+     * @param maxResults maximum number of IDs
+     * @return message IDs
+     */
+    public Flux<String> listMessageIds(String accessToken, String query, int maxResults) {
+        return withDeadline(remaining -> resilience.callGmail("list", webClient.get()
+                        .uri(uri -> uri.path("/messages")
+                                .queryParam("q", query)
+                                .queryParam("maxResults", maxResults)
+                                .build())
+                        .headers(headers -> headers.setBearerAuth(accessToken))
+                        .retrieve()
+                        .onStatus(HttpStatusCode::isError, this::toException)
+                        .bodyToMono(JsonNode.class)))
+                .flatMapMany(body -> Flux.fromIterable(body.path("messages")))
+                .map(message -> message.path("id").asText());
+    }
+
+    /**
+     * Get a full message, hedged when it is slower than usual.
+     * The hedge is only sent if the deadline leaves time for it; its errors are ignored so the
+     * original request alone decides failures.
+     *
+     * @param accessToken the user's access token
+     * @param messageId the Gmail message ID
+     * @return the message resource as JSON
+     */
+    public Mono<String> getMessage(String accessToken, String messageId) {
+        return withDeadline(remaining -> {
+            hedger.onRequest();
+            Mono<String> primary = fetchMessage(accessToken, messageId, true);
+            long hedgeDelay = hedger.getHedgeDelayNanos();
+            if (!hedgingEnabled || hedgeDelay == 0 || hedgeDelay >= remaining) {
+                return primary;
+            }
+            Mono<String> hedge = Mono.delay(Duration.ofNanos(hedgeDelay))
+                    .flatMap(tick -> hedger.tryHedge()
+                            ? fetchMessage(accessToken, messageId, false)
+                                    .doOnNext(json -> hedger.onHedgeWon())
+                                    .onErrorResume(e -> Mono.never())
+                            : Mono.never());
+            // The first to answer wins and the other is cancelled
+            return Mono.firstWithSignal(primary, hedge);
+        });
+    }
+
+    /**
+     * List inbox messages added since a history ID, following all result pages.
+     * Fails with error code HISTORY_EXPIRED when Gmail no longer has that history,
+     * in which case the caller should fall back to a full list.
+     *
+     * @param accessToken the user's access token
+     * @param startHistoryId history ID from a previous sync
+     * @return added message IDs and the history ID to continue from
+     */
+    public Mono<HistoryChanges> listHistory(String accessToken, String startHistoryId) {
+        return fetchHistoryPage(accessToken, startHistoryId, null)
+                .expand(page -> page.path("nextPageToken").isMissingNode()
+                        ? Mono.empty()
+                        : fetchHistoryPage(accessToken, startHistoryId, page.path("nextPageToken").asText()))
+                .reduceWith(() -> new HistoryChanges(new ArrayList<>(), startHistoryId), (changes, page) -> {
+                    for (JsonNode history : page.path("history")) {
+                        for (JsonNode added : history.path("messagesAdded")) {
+                            changes.messageIds().add(added.path("message").path("id").asText());
+                        }
+                    }
+                    String historyId = page.path("historyId").asText(null);
+                    return historyId != null ? new HistoryChanges(changes.messageIds(), historyId) : changes;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+    }
+
+    /**
+     * Hedging statistics.
+     *
+     * @return hedge delay and counts
+     */
+    public Map<String, Object> getHedgingStats() {
+        return hedger.getStats();
+    }
+
+    /**
+     * Get a full message, sampling its latency for the hedge delay.
+     * With sampleCancelled the time until cancellation is sampled too: a primary cancelled by
+     * its hedge or the deadline took at least that long, and leaving it out would hide the slow
+     * tail the hedge delay is taken from. A cancelled hedge is not sampled, as its time only
+     * shows how much sooner the primary answered.
+     */
+    private Mono<String> fetchMessage(String accessToken, String messageId, boolean sampleCancelled) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            AtomicBoolean answered = new AtomicBoolean();
+            return resilience.callGmail("get", webClient.get()
+                            .uri(uri -> uri.path("/messages/{id}").queryParam("format", "full").build(messageId))
+                            .headers(headers -> headers.setBearerAuth(accessToken))
+                            .retrieve()
+                            .onStatus(HttpStatusCode::isError, this::toException)
+                            .bodyToMono(String.class))
+                    .doOnNext(json -> {
+                        answered.set(true);
+                        hedger.recordLatency(System.nanoTime() - start);
+                    })
+                    .doOnCancel(() -> {
+                        if (sampleCancelled && !answered.get()) {
+                            hedger.recordLatency(System.nanoTime() - start);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Run a request with the budget left before the subscriber's deadline, if it has one.
+     */
+    private <T> Mono<T> withDeadline(LongFunction<Mono<T>> request) {
+        return Mono.deferContextual(context -> {
+            long remaining = remainingNanos(context);
+            if (remaining == Long.MAX_VALUE) {
+                return request.apply(remaining);
+            }
+            if (remaining <= 0) {
+                return Mono.error(deadlineExceeded());
+            }
+            return request.apply(remaining)
+                    .timeout(Duration.ofNanos(remaining), Mono.error(deadlineExceeded()));
+        });
+    }
+
+    private static long remainingNanos(ContextView context) {
+        if (!context.hasKey(DEADLINE_KEY)) {
+            return Long.MAX_VALUE;
+        }
+        long deadline = context.get(DEADLINE_KEY);
+        return deadline - System.nanoTime();
+    }
+
+    private static OAuthException deadlineExceeded() {
+        return new OAuthException("Gmail request deadline exceeded", DEADLINE_EXCEEDED);
+    }
+
+    private Mono<JsonNode> fetchHistoryPage(String accessToken, String startHistoryId, String pageToken) {
+        return withDeadline(remaining -> resilience.callGmail("history", webClient.get()
+                .uri(uri -> {
+                    uri.path("/history")
+                            .queryParam("startHistoryId", startHistoryId)
+                            .queryParam("historyTypes", "messageAdded")
+                            .queryParam("labelId", "INBOX");
+                    if (pageToken != null) {
+                        uri.queryParam("pageToken", pageToken);
+                    }
+                    return uri.build();
+                })
+                .headers(headers -> headers.setBearerAuth(accessToken))
+                .retrieve()
+                .onStatus(status -> status.value() == HttpStatus.NOT_FOUND.value(),
+                        response -> response.releaseBody().then(Mono.error(
+                                new OAuthException("Gmail history is no longer available", HISTORY_EXPIRED))))
+                .onStatus(HttpStatusCode::isError, this::toException)
+                .bodyToMono(JsonNode.class)));
+    }
+
+    private Mono<Throwable> toException(ClientResponse response) {
+        int status = response.statusCode().value();
+        return response.releaseBody().then(Mono.fromSupplier(() -> {
+            logger.warn("Gmail API request failed with status {}", status);
+            if (status == HttpStatus.UNAUTHORIZED.value()) {
+                return new OAuthException("Gmail rejected the access token", TOKEN_REJECTED);
+            }
+            if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                return new OAuthException("Gmail API rate limit exceeded", RATE_LIMITED);
+            }
+            if (status >= 500) {
+                return new OAuthException("Gmail API request failed with status " + status, SERVER_ERROR);
+            }
+            return new OAuthException("Gmail API request failed with status " + status, API_ERROR);
+        }));
+    }
+}
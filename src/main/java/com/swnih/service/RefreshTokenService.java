@@ -0,0 +1,225 @@
+package com.swnih.service;
+
+import com.swnih.entity.RefreshToken;
+import com.swnih.entity.User;
+import com.swnih.exception.AuthenticationException;
+import com.swnih.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service for opaque, rotating refresh tokens.
+ * A refresh costs one indexed lookup and two small writes instead of a BCrypt verification.
+ * Each token can be used once; presenting a used or revoked token revokes its whole family,
+ * so a stolen token stops working as soon as either party refreshes.
+ *
+ * Clients often refresh from several tabs or retry a refresh whose response was lost. A token
+ * presented again within refresh-grace-ms of its rotation therefore gets the same replacement
+ * instead of revoking the family. Replacements are only remembered by the instance that issued
+ * them, so behind a load balancer without sticky sessions a retry landing elsewhere still counts
+ * as reuse.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+    // Replacements issued within the grace period, by hash of the rotated token
+    private final ConcurrentHashMap<String, RecentRotation> recentRotations = new ConcurrentHashMap<>();
+
+    @Value("${jwt.refresh-expiration:2592000000}")
+    private long refreshExpirationMs;
+
+    @Value("${jwt.refresh-grace-ms:5000}")
+    private long refreshGraceMs;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    /**
+     * Result of a successful rotation.
+     */
+    public static final class Rotation {
+        private final User user;
+        private final String refreshToken;
+
+        private Rotation(User user, String refreshToken) {
+            this.user = user;
+            this.refreshToken = refreshToken;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+
+    private static final class RecentRotation {
+        private final Rotation rotation;
+        private final long expiresAtNanos;
+
+        private RecentRotation(Rotation rotation, long expiresAtNanos) {
+            this.rotation = rotation;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    /**
+     * Issue a refresh token starting a new family, e.g. after a password login.
+     * 
+     * @param user the authenticated user
+     * @return the opaque refresh token; only its hash is stored
+     */
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchange a refresh token for a new one in the same family.
+     * Runs without rollback on authentication failures so reuse revocation is committed.
+     * 
+     * @param rawToken the presented refresh token
+     * @return the owning user and the replacement refresh token
+     * @throws AuthenticationException if the token is unknown, expired, or was already used
+     *         outside the grace period
+     */
+    @Transactional(noRollbackFor = AuthenticationException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken token = find(rawToken)
+                .orElseThrow(() -> new AuthenticationException("Invalid refresh token"));
+
+        if (token.isExpired()) {
+            throw new AuthenticationException("Refresh token has expired");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (token.getUsedAt() != null || token.getRevokedAt() != null
+                || refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            RecentRotation recent = recentRotations.get(token.getTokenHash());
+            if (recent != null && token.getRevokedAt() == null && System.nanoTime() - recent.expiresAtNanos < 0) {
+                logger.debug("Refresh token of user {} presented again within the grace period", token.getUser().getId());
+                return recent.rotation;
+            }
+            int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+            logger.warn("Refresh token reuse detected for user {}, revoked {} tokens in family {}",
+                       token.getUser().getId(), revoked, token.getFamilyId());
+            throw new AuthenticationException("Refresh token is no longer valid");
+        }
+
+        Rotation rotation = new Rotation(token.getUser(), issue(token.getUser(), token.getFamilyId()));
+        if (refreshGraceMs > 0) {
+            recentRotations.put(token.getTokenHash(),
+                    new RecentRotation(rotation, System.nanoTime() + refreshGraceMs * 1_000_000L));
+        }
+        return rotation;
+    }
+
+    /**
+     * Revoke the family of a refresh token, e.g. on logout.
+     * Unknown tokens are ignored.
+     * 
+     * @param rawToken the refresh token to revoke
+     */
+    public void revoke(String rawToken) {
+        find(rawToken).ifPresent(token -> {
+            refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now());
+            logger.info("Revoked refresh token family {} for user {}", token.getFamilyId(), token.getUser().getId());
+        });
+    }
+
+    /**
+     * Revoke every refresh token of a user, e.g. on logout from all sessions.
+     * 
+     * @param userId the user whose sessions are ended
+     */
+    public void revokeAllForUser(Long userId) {
+        int revoked = refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+        logger.info("Revoked {} refresh tokens for user {}", revoked, userId);
+    }
+
+    /**
+     * Delete expired refresh tokens. Used and revoked tokens are kept until they expire so
+     * reuse can still be detected.
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    /**
+     * Forget replacements whose grace period has ended.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeRecentRotations() {
+        long now = System.nanoTime();
+        recentRotations.values().removeIf(recent -> now - recent.expiresAtNanos >= 0);
+    }
+
+    /**
+     * Get refresh token lifetime in milliseconds.
+     * 
+     * @return refresh token lifetime in milliseconds
+     */
+    public long getRefreshExpirationMs() {
+        return refreshExpirationMs;
+    }
+
+    private String issue(User user, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusNanos(refreshExpirationMs * 1_000_000L);
+        refreshTokenRepository.save(new RefreshToken(user, hash(rawToken), familyId, expiresAt));
+        return rawToken;
+    }
+
+    private Optional<RefreshToken> find(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return Optional.empty();
+        }
+        return refreshTokenRepository.findByTokenHash(hash(rawToken));
+    }
+
+    /**
+     * Hash an opaque refresh token for storage and lookup.
+     * The token has 256 bits of entropy, so an unsalted SHA-256 is sufficient.
+     * 
+     * @param rawToken the opaque token
+     * @return SHA-256 hex digest
+     */
+    static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
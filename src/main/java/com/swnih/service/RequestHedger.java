@@ -0,0 +1,110 @@
+package com.swnih.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * When and how often to send a duplicate of a slow idempotent request.
+ * The hedge delay is the p95 of the last latency samples (at least minDelay), so only the
+ * slowest few percent of requests get a duplicate. Each request earns budgetRatio of a hedge,
+ * up to maxBurst saved hedges, and each hedge spends one: hedges stay a bounded share of all
+ * requests even when the dependency is slow across the board, which is when duplicates would
+ * otherwise multiply the load.
+ */
+public class RequestHedger {
+
+    private static final int RECALCULATE_EVERY = 64;
+
+    private final long minDelayNanos;
+    private final int minSamples;
+    private final double budgetRatio;
+    private final double maxBurst;
+
+    private final long[] samples;
+    private int sampleCount;
+    private int nextSample;
+    private volatile long hedgeDelayNanos;
+
+    private double budget;
+    private long hedgesSent;
+    private long hedgesWon;
+    private long hedgesDenied;
+
+    public RequestHedger(long minDelayNanos, int windowSize, int minSamples, double budgetRatio, double maxBurst) {
+        this.minDelayNanos = minDelayNanos;
+        this.minSamples = Math.min(minSamples, windowSize);
+        this.budgetRatio = budgetRatio;
+        this.maxBurst = maxBurst;
+        this.samples = new long[windowSize];
+    }
+
+    /**
+     * Record the latency of a completed request.
+     *
+     * @param latencyNanos how long the request took
+     */
+    public synchronized void recordLatency(long latencyNanos) {
+        samples[nextSample] = latencyNanos;
+        nextSample = (nextSample + 1) % samples.length;
+        sampleCount++;
+        if (sampleCount >= minSamples && (hedgeDelayNanos == 0 || sampleCount % RECALCULATE_EVERY == 0)) {
+            int size = Math.min(sampleCount, samples.length);
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            hedgeDelayNanos = Math.max(minDelayNanos, sorted[(int) Math.ceil(size * 0.95) - 1]);
+        }
+    }
+
+    /**
+     * Delay after which a request should be hedged.
+     *
+     * @return the delay in nanoseconds, or 0 while there are too few samples to hedge
+     */
+    public long getHedgeDelayNanos() {
+        return hedgeDelayNanos;
+    }
+
+    /**
+     * Count a request towards the hedge budget.
+     */
+    public synchronized void onRequest() {
+        budget = Math.min(maxBurst, budget + budgetRatio);
+    }
+
+    /**
+     * Spend budget on a hedge.
+     *
+     * @return true if the hedge may be sent
+     */
+    public synchronized boolean tryHedge() {
+        if (budget < 1.0) {
+            hedgesDenied++;
+            return false;
+        }
+        budget -= 1.0;
+        hedgesSent++;
+        return true;
+    }
+
+    /**
+     * Record that a hedge answered before the original request.
+     */
+    public synchronized void onHedgeWon() {
+        hedgesWon++;
+    }
+
+    /**
+     * Hedge delay and counts.
+     *
+     * @return hedging statistics
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hedgeDelayMs", hedgeDelayNanos / 1_000_000.0);
+        stats.put("hedgesSent", hedgesSent);
+        stats.put("hedgesWon", hedgesWon);
+        stats.put("hedgesDenied", hedgesDenied);
+        return stats;
+    }
+}
@@ -0,0 +1,200 @@
+package com.swnih.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves the HTML pages kept in classpath:/pages.
+ * Each page is rendered once: references to /assets/** are rewritten to their content-versioned
+ * URLs (so the assets can be cached as immutable), then the result is hashed for the ETag and
+ * gzip-compressed. Requests get the stored bytes, or 304 when the ETag matches, with no per-request
+ * templating or compression. All pages are rendered once the application is ready, when the
+ * versioned asset URLs are known; a page added later is rendered on its first request.
+ */
+@Service
+public class StaticPageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaticPageService.class);
+    private static final Pattern ASSET_REFERENCE = Pattern.compile("(href|src)=\"(/assets/[^\"]+)\"");
+    private static final MediaType TEXT_HTML_UTF8 = new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8);
+
+    private final ResourceUrlProvider resourceUrlProvider;
+    private final ConcurrentHashMap<String, RenderedPage> pages = new ConcurrentHashMap<>();
+
+    public StaticPageService(ResourceUrlProvider resourceUrlProvider) {
+        this.resourceUrlProvider = resourceUrlProvider;
+    }
+
+    /**
+     * A page ready to be served, in identity and gzip encodings.
+     */
+    static final class RenderedPage {
+        private final byte[] body;
+        private final byte[] gzipBody;
+        private final String etag;
+
+        RenderedPage(byte[] body, byte[] gzipBody, String etag) {
+            this.body = body;
+            this.gzipBody = gzipBody;
+            this.etag = etag;
+        }
+    }
+
+    /**
+     * Render every page in classpath:/pages so no request pays for rendering.
+     * Runs after the context refresh, since asset URLs cannot be resolved before it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void renderAll() {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources("classpath:/pages/*.html");
+            for (Resource resource : resources) {
+                String filename = resource.getFilename();
+                if (filename != null) {
+                    pages.computeIfAbsent(filename.substring(0, filename.length() - ".html".length()), this::render);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to list pages, they will be rendered on first request: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Build the response for a page.
+     * Spring answers 304 itself when the request's If-None-Match matches the ETag.
+     *
+     * @param name page name, resolved to classpath:/pages/{name}.html
+     * @param acceptEncoding the request's Accept-Encoding header, may be null
+     * @return the page response
+     */
+    public ResponseEntity<byte[]> serve(String name, String acceptEncoding) {
+        RenderedPage page = pages.computeIfAbsent(name, this::render);
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(TEXT_HTML_UTF8)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response
+                    .eTag(page.etag + "-gzip")
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(page.gzipBody);
+        }
+        return response.eTag(page.etag).body(page.body);
+    }
+
+    private RenderedPage render(String name) {
+        String html = load(name);
+
+        // Point asset references at their content-versioned URLs
+        Matcher matcher = ASSET_REFERENCE.matcher(html);
+        StringBuilder rendered = new StringBuilder(html.length());
+        while (matcher.find()) {
+            String versioned = resourceUrlProvider.getForLookupPath(matcher.group(2));
+            String url = versioned != null ? versioned : matcher.group(2);
+            matcher.appendReplacement(rendered, Matcher.quoteReplacement(matcher.group(1) + "=\"" + url + "\""));
+        }
+        matcher.appendTail(rendered);
+
+        byte[] body = rendered.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] gzipBody = gzip(body);
+        String etag = sha256(body).substring(0, 32);
+
+        logger.info("Rendered page {}: {} bytes, {} gzipped", name, body.length, gzipBody.length);
+        return new RenderedPage(body, gzipBody, etag);
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip: listed as gzip (or x-gzip) with a non-zero
+     * q-value, or not listed and covered by a non-zero "*".
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = qValue(parts) > 0;
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                return accepted;
+            }
+            if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static double qValue(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private String load(String name) {
+        ClassPathResource resource = new ClassPathResource("pages/" + name + ".html");
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load page " + name, e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 3);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (Exception e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.swnih.service;
+
+import com.swnih.repository.OAuthTokenRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background job rewriting stored OAuth tokens under the active master key.
+ * Walks oauth_tokens by ID in small batches, re-encrypts legacy or old-key values on a small
+ * bounded pool and writes each row back only if it has not been updated since it was read, so
+ * it runs online next to normal token refreshes. Values that are already current are skipped,
+ * which makes each run cheap once a rotation has completed.
+ */
+@Component
+public class TokenReEncryptionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenReEncryptionJob.class);
+
+    private final OAuthTokenRepository oauthTokenRepository;
+    private final EncryptionService encryptionService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+
+    @Value("${encryption.reencrypt.enabled:true}")
+    private boolean enabled;
+
+    @Value("${encryption.reencrypt.batch-size:200}")
+    private int batchSize;
+
+    @Value("${encryption.reencrypt.pause-between-batches-ms:100}")
+    private long pauseBetweenBatchesMs;
+
+    public TokenReEncryptionJob(OAuthTokenRepository oauthTokenRepository,
+                                EncryptionService encryptionService,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${encryption.reencrypt.concurrency:2}") int concurrency) {
+        this.oauthTokenRepository = oauthTokenRepository;
+        this.encryptionService = encryptionService;
+        this.transactionTemplate = transactionTemplate;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "token-reencrypt-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Periodic re-encryption pass over all stored tokens.
+     */
+    @Scheduled(fixedDelayString = "${encryption.reencrypt.run-interval-ms:600000}",
+               initialDelayString = "${encryption.reencrypt.initial-delay-ms:60000}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int scanned = 0;
+        int rewritten = 0;
+        long lastId = 0L;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Object[]> rows = oauthTokenRepository.findEncryptedValuesAfter(lastId, PageRequest.of(0, batchSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            lastId = (Long) rows.get(rows.size() - 1)[0];
+            scanned += rows.size();
+
+            int batchRewritten = processBatch(rows);
+            rewritten += batchRewritten;
+            if (batchRewritten > 0) {
+                pause();
+            }
+        }
+
+        if (rewritten > 0) {
+            logger.info("Re-encrypted {} of {} OAuth tokens under key {} in {}ms",
+                       rewritten, scanned, encryptionService.getActiveKeyId(), System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Re-encrypt one batch of rows concurrently.
+     *
+     * @param rows rows of [id, accessTokenEncrypted, refreshTokenEncrypted, updatedAt]
+     * @return number of rows written back
+     */
+    int processBatch(List<Object[]> rows) {
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Object[] row : rows) {
+            if (encryptionService.needsReEncryption((String) row[1])
+                    || encryptionService.needsReEncryption((String) row[2])) {
+                results.add(executor.submit(() -> reEncrypt(row)));
+            }
+        }
+
+        int rewritten = 0;
+        for (Future<Boolean> result : results) {
+            try {
+                if (result.get()) {
+                    rewritten++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                logger.warn("Failed to re-encrypt OAuth token: {}", e.getCause().getMessage());
+            }
+        }
+        return rewritten;
+    }
+
+    private boolean reEncrypt(Object[] row) {
+        Long tokenId = (Long) row[0];
+        String accessToken = encryptionService.encrypt(encryptionService.decrypt((String) row[1]));
+        String refreshToken = encryptionService.encrypt(encryptionService.decrypt((String) row[2]));
+
+        Integer updated = transactionTemplate.execute(status -> oauthTokenRepository.updateEncryptedValues(
+                tokenId, (Long) row[3], accessToken, refreshToken));
+        if (updated == null || updated == 0) {
+            // Refreshed or deleted since it was read; a refresh already writes the current format
+            logger.debug("OAuth token {} changed during re-encryption, skipped", tokenId);
+            return false;
+        }
+        return true;
+    }
+
+    private void pause() {
+        if (pauseBetweenBatchesMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseBetweenBatchesMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
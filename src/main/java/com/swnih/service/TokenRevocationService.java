@@ -0,0 +1,145 @@
+package com.swnih.service;
+
+import com.swnih.entity.RevokedToken;
+import com.swnih.repository.RevokedTokenRepository;
+import com.swnih.security.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service for revoking JWTs before they expire.
+ * Revocations are persisted in revoked_tokens and mirrored in memory: a Bloom filter answers
+ * the common "not revoked" case without touching the exact set, and only filter hits consult
+ * the map of revoked jtis. Other nodes pick up new revocations on the periodic sync. Entries
+ * are dropped once the token's exp has passed, since the parser rejects such tokens anyway.
+ *
+ * Requirements: 1.5
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+    @Value("${security.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${security.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${security.revocation.sync-overlap-ms:60000}")
+    private long syncOverlapMs;
+
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime lastSync = EPOCH;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    /**
+     * Load all unexpired revocations into memory.
+     */
+    @PostConstruct
+    public void init() {
+        filter = new BloomFilter(expectedEntries, falsePositiveRate);
+        sync();
+        logger.info("Token revocation filter ready with {} entries ({} bits, {} hashes)",
+                   revoked.size(), filter.getBitCount(), filter.getHashCount());
+    }
+
+    /**
+     * Check whether a token has been revoked.
+     * 
+     * @param jti the token's jti claim, may be null for tokens issued without one
+     * @return true if the token is revoked
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * Revoke a token until its expiration.
+     * 
+     * @param jti the token's jti claim
+     * @param userId the token owner
+     * @param expiration the token's exp claim
+     */
+    public void revoke(String jti, Long userId, Date expiration) {
+        if (jti == null || expiration == null || expiration.before(new Date())) {
+            return;
+        }
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault());
+        revokedTokenRepository.save(new RevokedToken(jti, userId, expiresAt, LocalDateTime.now()));
+        add(jti, expiration.getTime());
+        logger.info("Revoked token {} for user {} until {}", jti, userId, expiresAt);
+    }
+
+    /**
+     * Pull revocations recorded by other nodes since the last sync.
+     * The window overlaps the previous one to tolerate clock skew; re-adding is harmless.
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.sync-interval-ms:30000}",
+               initialDelayString = "${security.revocation.sync-interval-ms:30000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastSync == EPOCH ? EPOCH : lastSync.minusNanos(syncOverlapMs * 1_000_000L);
+
+        List<RevokedToken> tokens = revokedTokenRepository.findRevokedSince(since, now);
+        for (RevokedToken token : tokens) {
+            add(token.getJti(), token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        lastSync = now;
+    }
+
+    /**
+     * Drop expired revocations from the database and memory, rebuilding the filter
+     * so it does not fill up with entries that can no longer match.
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        int deleted = revokedTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+
+        long nowMillis = System.currentTimeMillis();
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt < nowMillis);
+        int removed = before - revoked.size();
+
+        if (removed > 0) {
+            rebuildFilter();
+        }
+        if (deleted > 0 || removed > 0) {
+            logger.info("Purged expired revocations ({} rows, {} in memory)", deleted, removed);
+        }
+    }
+
+    private void add(String jti, long expiresAtMillis) {
+        // Map first, then filter: a concurrent rebuild re-reads the map after swapping filters
+        revoked.put(jti, expiresAtMillis);
+        filter.put(jti);
+    }
+
+    private void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+        // Catch revocations added to the old filter while rebuilding
+        revoked.keySet().forEach(rebuilt::put);
+    }
+}
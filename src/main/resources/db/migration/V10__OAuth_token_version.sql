@@ -0,0 +1,5 @@
+-- Optimistic lock version for OAuth tokens.
+-- The re-encryption job compares and bumps it so it never overwrites a token
+-- refreshed after the job read it; entity saves bump it through @Version.
+
+ALTER TABLE oauth_tokens ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- Drop the month partitioning of messages_archive.
+-- V4 only created partitions up to 2026, so every later month would land in pmax,
+-- and nothing adds or drops partitions. Archive reads go by user and timestamp
+-- through idx_archive_user_timestamp and never prune by month.
+-- Without partitioning the primary key no longer has to include archive_month.
+
+ALTER TABLE messages_archive REMOVE PARTITIONING;
+
+ALTER TABLE messages_archive
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id);
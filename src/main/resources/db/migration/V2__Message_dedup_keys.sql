@@ -0,0 +1,25 @@
+-- Replace the wide (user_id, sender, subject, timestamp) unique key on messages
+-- with narrow dedup keys: the source message ID and a 128-bit content hash.
+
+ALTER TABLE messages
+    ADD COLUMN external_id VARCHAR(64) NULL AFTER user_id,
+    ADD COLUMN content_hash CHAR(32) NULL AFTER external_id;
+
+-- Backfill must match Message.computeContentHash:
+-- first 32 hex chars of SHA-256(sender \n subject \n yyyy-MM-ddTHH:mm:ss)
+UPDATE messages
+SET content_hash = LEFT(SHA2(CONCAT_WS('\n', sender, subject, DATE_FORMAT(timestamp, '%Y-%m-%dT%H:%i:%s')), 256), 32);
+
+-- The hash truncates the timestamp to whole seconds and joins sender and subject with a
+-- newline, so rows the old key kept apart can share a hash. Keep the oldest of each group.
+DELETE duplicate FROM messages duplicate
+JOIN messages kept
+    ON kept.user_id = duplicate.user_id
+    AND kept.content_hash = duplicate.content_hash
+    AND kept.id < duplicate.id;
+
+ALTER TABLE messages
+    MODIFY content_hash CHAR(32) NOT NULL,
+    DROP INDEX unique_message,
+    ADD UNIQUE KEY uk_user_external_id (user_id, external_id),
+    ADD UNIQUE KEY uk_user_content_hash (user_id, content_hash);
@@ -0,0 +1,27 @@
+-- Move message bodies out of the hot messages table into message_bodies.
+-- Existing bodies are copied uncompressed (codec 0); new bodies are written
+-- compressed by the application (codec 1, DEFLATE with preset dictionary).
+
+CREATE TABLE message_bodies (
+    message_id BIGINT PRIMARY KEY,
+    codec TINYINT NOT NULL,
+    original_length INT NOT NULL,
+    body_compressed MEDIUMBLOB NOT NULL,
+
+    -- Foreign key constraint
+    FOREIGN KEY (message_id) REFERENCES messages(id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+INSERT INTO message_bodies (message_id, codec, original_length, body_compressed)
+SELECT id, 0, LENGTH(body), CAST(body AS BINARY)
+FROM messages;
+
+ALTER TABLE messages
+    ADD COLUMN snippet VARCHAR(255) NULL AFTER subject;
+
+UPDATE messages SET snippet = LEFT(body, 255);
+
+ALTER TABLE messages
+    DROP INDEX idx_fulltext_search,
+    DROP COLUMN body,
+    ADD FULLTEXT INDEX idx_fulltext_search (subject, snippet);
@@ -0,0 +1,39 @@
+-- Per-user retention and the archive table for messages past retention.
+-- The archive is range-partitioned by message month so whole months can be
+-- dropped or moved cheaply; it has no foreign keys (not allowed on
+-- partitioned InnoDB tables) and only the index archive search needs.
+
+ALTER TABLE users
+    ADD COLUMN retention_days INT NULL AFTER password_hash;
+
+CREATE TABLE messages_archive (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    external_id VARCHAR(64),
+    content_hash CHAR(32) NOT NULL,
+    sender VARCHAR(255) NOT NULL,
+    subject TEXT NOT NULL,
+    snippet VARCHAR(255),
+    priority ENUM('HIGH', 'MEDIUM', 'LOW') NOT NULL,
+    source VARCHAR(50),
+    ml_confidence DECIMAL(3,2),
+    timestamp TIMESTAMP NOT NULL,
+    archive_month INT NOT NULL,
+    body_codec TINYINT,
+    body_original_length INT,
+    body_compressed MEDIUMBLOB,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (id, archive_month),
+    INDEX idx_archive_user_timestamp (user_id, timestamp)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci ROW_FORMAT=COMPRESSED
+PARTITION BY RANGE (archive_month) (
+    PARTITION p2023 VALUES LESS THAN (202401),
+    PARTITION p2024h1 VALUES LESS THAN (202407),
+    PARTITION p2024h2 VALUES LESS THAN (202501),
+    PARTITION p2025h1 VALUES LESS THAN (202507),
+    PARTITION p2025h2 VALUES LESS THAN (202601),
+    PARTITION p2026h1 VALUES LESS THAN (202607),
+    PARTITION p2026h2 VALUES LESS THAN (202701),
+    PARTITION pmax VALUES LESS THAN MAXVALUE
+);
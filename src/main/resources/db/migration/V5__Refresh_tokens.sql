@@ -0,0 +1,23 @@
+-- Refresh tokens for session renewal without a password login.
+-- Only the SHA-256 hash of each opaque token is stored; tokens issued by
+-- rotation share a family_id so a reused token can revoke the whole chain.
+
+CREATE TABLE refresh_tokens (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    token_hash CHAR(64) NOT NULL,
+    family_id CHAR(36) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    used_at TIMESTAMP NULL,
+    revoked_at TIMESTAMP NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    -- Foreign key constraint
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+
+    -- Indexes for performance
+    UNIQUE INDEX idx_refresh_token_hash (token_hash),
+    INDEX idx_refresh_family (family_id),
+    INDEX idx_refresh_user (user_id),
+    INDEX idx_refresh_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
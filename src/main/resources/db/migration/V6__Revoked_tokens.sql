@@ -0,0 +1,14 @@
+-- JWTs revoked before their expiry (logout, session termination).
+-- Each row is needed only until the token's own exp; expired rows are purged.
+-- No foreign key to users: rows are short-lived and looked up only by jti.
+
+CREATE TABLE revoked_tokens (
+    jti CHAR(36) PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL,
+
+    -- Indexes for purge and cross-node sync
+    INDEX idx_revoked_expires_at (expires_at),
+    INDEX idx_revoked_at (revoked_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
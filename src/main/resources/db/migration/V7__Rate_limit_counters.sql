@@ -0,0 +1,11 @@
+-- Per-minute request counters used to share rate limits between application instances.
+-- bucket_key combines scope, bucket slot and window; rows are purged shortly after their window ends.
+
+CREATE TABLE rate_limit_counters (
+    bucket_key VARCHAR(40) PRIMARY KEY,
+    window_start BIGINT NOT NULL,
+    request_count BIGINT NOT NULL,
+
+    -- Index for purging ended windows
+    INDEX idx_rate_limit_window_start (window_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
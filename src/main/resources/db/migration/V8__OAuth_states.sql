@@ -0,0 +1,12 @@
+-- Pending OAuth authorization requests keyed by the state parameter.
+-- Used when gmail.oauth.state-store=database so any instance can handle the callback;
+-- a row is deleted when its callback consumes it or purged after expires_at.
+
+CREATE TABLE oauth_states (
+    state VARCHAR(64) PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+
+    -- Index for purging abandoned flows
+    INDEX idx_oauth_states_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,19 @@
+-- Per-user message change log backing GET /api/messages/changes.
+-- Every insert and delete of a message row appends an entry; the auto-increment ID
+-- is the cursor clients sync from. No foreign keys: entries must outlive the deleted
+-- messages they describe. Entries are purged after change-log.retention-days, always
+-- keeping the newest so MIN(id) marks the end of the purged range.
+
+CREATE TABLE message_changes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    message_id BIGINT NOT NULL,
+    change_type VARCHAR(10) NOT NULL,
+    changed_at TIMESTAMP NOT NULL,
+
+    -- Index for reading a user's changes after a cursor
+    INDEX idx_message_changes_user_id (user_id, id),
+
+    -- Index for purging old entries
+    INDEX idx_message_changes_changed_at (changed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -7,6 +7,7 @@ CREATE TABLE users (
     username VARCHAR(50) UNIQUE NOT NULL,
     email VARCHAR(100) UNIQUE NOT NULL,
     password_hash VARCHAR(255) NOT NULL,
+    retention_days INT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
@@ -24,6 +25,7 @@ CREATE TABLE oauth_tokens (
     expires_at TIMESTAMP NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
     
     -- Foreign key constraint
     CONSTRAINT fk_oauth_tokens_user_id FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
@@ -37,9 +39,11 @@ CREATE INDEX idx_oauth_expires_at ON oauth_tokens(expires_at);
 CREATE TABLE messages (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     user_id BIGINT NOT NULL,
+    external_id VARCHAR(64),
+    content_hash CHAR(32) NOT NULL,
     sender VARCHAR(255) NOT NULL,
     subject CLOB NOT NULL,
-    body CLOB NOT NULL,
+    snippet VARCHAR(255),
     priority VARCHAR(10) NOT NULL CHECK (priority IN ('HIGH', 'MEDIUM', 'LOW')),
     source VARCHAR(50) DEFAULT 'GMAIL',
     ml_confidence DECIMAL(3,2),
@@ -48,7 +52,9 @@ CREATE TABLE messages (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     
     -- Foreign key constraint
-    CONSTRAINT fk_messages_user_id FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+    CONSTRAINT fk_messages_user_id FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT uk_user_external_id UNIQUE (user_id, external_id),
+    CONSTRAINT uk_user_content_hash UNIQUE (user_id, content_hash)
 );
 
 -- Create indexes for messages table
@@ -58,6 +64,98 @@ CREATE INDEX idx_messages_sender ON messages(sender);
 CREATE INDEX idx_messages_priority ON messages(priority);
 CREATE INDEX idx_messages_timestamp ON messages(timestamp DESC);
 
+-- Message bodies table - compressed bodies, loaded only on detail access
+CREATE TABLE message_bodies (
+    message_id BIGINT PRIMARY KEY,
+    codec TINYINT NOT NULL,
+    original_length INT NOT NULL,
+    body_compressed BLOB NOT NULL,
+
+    CONSTRAINT fk_message_bodies_message_id FOREIGN KEY (message_id) REFERENCES messages(id) ON DELETE CASCADE
+);
+
+-- Archived messages table - messages past the owner's retention period
+CREATE TABLE messages_archive (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    external_id VARCHAR(64),
+    content_hash CHAR(32) NOT NULL,
+    sender VARCHAR(255) NOT NULL,
+    subject CLOB NOT NULL,
+    snippet VARCHAR(255),
+    priority VARCHAR(10) NOT NULL,
+    source VARCHAR(50),
+    ml_confidence DECIMAL(3,2),
+    timestamp TIMESTAMP NOT NULL,
+    archive_month INT NOT NULL,
+    body_codec TINYINT,
+    body_original_length INT,
+    body_compressed BLOB,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_archive_user_timestamp ON messages_archive(user_id, timestamp);
+
+-- Refresh tokens table - stores hashed, rotating session refresh tokens
+CREATE TABLE refresh_tokens (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    token_hash CHAR(64) NOT NULL,
+    family_id CHAR(36) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    used_at TIMESTAMP,
+    revoked_at TIMESTAMP,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_refresh_tokens_user_id FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE UNIQUE INDEX idx_refresh_token_hash ON refresh_tokens(token_hash);
+CREATE INDEX idx_refresh_family ON refresh_tokens(family_id);
+CREATE INDEX idx_refresh_user ON refresh_tokens(user_id);
+CREATE INDEX idx_refresh_expires_at ON refresh_tokens(expires_at);
+
+-- Revoked tokens table - JWTs revoked before expiry, kept until expires_at
+CREATE TABLE revoked_tokens (
+    jti CHAR(36) PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_revoked_expires_at ON revoked_tokens(expires_at);
+CREATE INDEX idx_revoked_at ON revoked_tokens(revoked_at);
+
+-- Pending OAuth authorization requests, consumed once by the callback
+CREATE TABLE oauth_states (
+    state VARCHAR(64) PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_oauth_states_expires_at ON oauth_states(expires_at);
+
+-- Per-minute request counters shared between instances for rate limiting
+CREATE TABLE rate_limit_counters (
+    bucket_key VARCHAR(40) PRIMARY KEY,
+    window_start BIGINT NOT NULL,
+    request_count BIGINT NOT NULL
+);
+
+CREATE INDEX idx_rate_limit_window_start ON rate_limit_counters(window_start);
+
+-- Per-user message change log; the ID is the delta sync cursor
+CREATE TABLE message_changes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    message_id BIGINT NOT NULL,
+    change_type VARCHAR(10) NOT NULL,
+    changed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_message_changes_user_id ON message_changes(user_id, id);
+CREATE INDEX idx_message_changes_changed_at ON message_changes(changed_at);
+
 -- Insert sample data for testing
 INSERT INTO users (username, email, password_hash) VALUES 
 ('testuser', 'test@example.com', '$2a$12$LQv3c1yqBWVHxkd0LHAkCOYz6TtxMQJqhN8/LewfBLzVernV1jDdW');
\ No newline at end of file
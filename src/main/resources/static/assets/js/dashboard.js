@@ -0,0 +1,467 @@
+console.log('Dashboard loaded');
+
+// Check authentication
+let token = localStorage.getItem('swnih_token');
+const user = localStorage.getItem('swnih_user');
+let refreshInFlight = null;
+let currentMessages = [];
+let showingDemo = false;
+let lastEventId = null;
+let changeCursor = 0;
+
+if (!token || !user) {
+    alert('Please login first');
+    window.location.href = '/login';
+} else {
+    const userData = JSON.parse(user);
+    document.getElementById('dashboard-username').textContent = userData.username;
+    document.getElementById('user-display-name').textContent = userData.username;
+    document.getElementById('user-initial').textContent = userData.username.charAt(0).toUpperCase();
+
+    // Check for OAuth callback parameters
+    handleOAuthCallback();
+
+    // Load messages on page load, then keep them current from the event stream
+    loadMessages();
+    syncChanges();
+    connectEventStream();
+}
+
+function handleOAuthCallback() {
+    const urlParams = new URLSearchParams(window.location.search);
+    const gmailCode = urlParams.get('gmail_code');
+    const gmailState = urlParams.get('gmail_state');
+    const gmailError = urlParams.get('gmail_error');
+
+    if (gmailError) {
+        alert('Gmail connection failed: ' + gmailError);
+        window.history.replaceState({}, document.title, '/dashboard');
+        return;
+    }
+
+    if (gmailCode) {
+        console.log('Processing Gmail OAuth callback...');
+        exchangeGmailCode(gmailCode, gmailState);
+    }
+}
+
+// Renew the short-lived JWT with the refresh token; concurrent callers share one request
+function refreshSession() {
+    if (!refreshInFlight) {
+        refreshInFlight = (async () => {
+            const refreshToken = localStorage.getItem('swnih_refresh_token');
+            if (!refreshToken) return false;
+            try {
+                const response = await fetch('/api/auth/refresh', {
+                    method: 'POST',
+                    headers: { 'Content-Type': 'application/json' },
+                    body: JSON.stringify({ refreshToken: refreshToken })
+                });
+                if (!response.ok) return false;
+                const data = await response.json();
+                token = data.token;
+                localStorage.setItem('swnih_token', data.token);
+                localStorage.setItem('swnih_refresh_token', data.refreshToken);
+                return true;
+            } catch (error) {
+                console.error('Error refreshing session:', error);
+                return false;
+            }
+        })().finally(() => { refreshInFlight = null; });
+    }
+    return refreshInFlight;
+}
+
+// fetch with the JWT attached, retried once after a refresh when it has expired
+async function authFetch(url, options = {}) {
+    const withAuth = () => fetch(url, {
+        ...options,
+        headers: { ...(options.headers || {}), 'Authorization': 'Bearer ' + token }
+    });
+    let response = await withAuth();
+    if (response.status === 401 && await refreshSession()) {
+        response = await withAuth();
+    }
+    return response;
+}
+
+async function exchangeGmailCode(code, state) {
+    try {
+        const response = await authFetch('/api/gmail/exchange-code', {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ code: code, state: state })
+        });
+
+        const data = await response.json();
+
+        if (data.success) {
+            alert('Gmail connected successfully! Loading your messages...');
+            window.history.replaceState({}, document.title, '/dashboard');
+            loadMessages();
+        } else {
+            alert('Failed to connect Gmail: ' + data.message);
+            window.history.replaceState({}, document.title, '/dashboard');
+        }
+    } catch (error) {
+        console.error('Error exchanging Gmail code:', error);
+        alert('Error connecting Gmail: ' + error.message);
+        window.history.replaceState({}, document.title, '/dashboard');
+    }
+}
+
+function logout() {
+    const refreshToken = localStorage.getItem('swnih_refresh_token');
+    if (refreshToken) {
+        fetch('/api/auth/logout', {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json', 'Authorization': 'Bearer ' + token },
+            body: JSON.stringify({ refreshToken: refreshToken }),
+            keepalive: true
+        }).catch(() => {});
+    }
+    localStorage.removeItem('swnih_token');
+    localStorage.removeItem('swnih_refresh_token');
+    localStorage.removeItem('swnih_user');
+    alert('Logged out successfully');
+    window.location.href = '/';
+}
+
+async function connectGmail() {
+    try {
+        const response = await authFetch('/api/gmail/connect');
+
+        if (response.status === 401) {
+            localStorage.removeItem('swnih_token');
+            localStorage.removeItem('swnih_refresh_token');
+            localStorage.removeItem('swnih_user');
+            alert('Session expired. Please login again.');
+            window.location.href = '/login';
+            return;
+        }
+
+        const data = await response.json();
+
+        if (data.success && data.authorizationUrl) {
+            window.location.href = data.authorizationUrl;
+        } else if (data.alreadyConnected) {
+            alert('Gmail is already connected!');
+            loadMessages();
+        } else {
+            alert('Error: ' + (data.message || 'Failed to connect Gmail'));
+        }
+    } catch (error) {
+        alert('Error connecting Gmail: ' + error.message);
+    }
+}
+
+async function refreshMessages() {
+    await loadMessages();
+    alert('Messages refreshed!');
+}
+
+async function loadMessages() {
+    try {
+        showLoadingState();
+
+        const statusResponse = await authFetch('/api/gmail/status');
+
+        if (statusResponse.status === 401) {
+            localStorage.removeItem('swnih_token');
+            localStorage.removeItem('swnih_refresh_token');
+            localStorage.removeItem('swnih_user');
+            alert('Session expired. Please login again.');
+            window.location.href = '/login';
+            return;
+        }
+
+        const statusData = await statusResponse.json();
+
+        if (statusData.connected) {
+            console.log('Gmail is connected, fetching real messages...');
+            const response = await authFetch('/api/gmail/messages', { headers: { 'Accept': 'application/x-ndjson' } });
+
+            if (response.status === 401) {
+                localStorage.removeItem('swnih_token');
+                localStorage.removeItem('swnih_refresh_token');
+                localStorage.removeItem('swnih_user');
+                alert('Session expired. Please login again.');
+                window.location.href = '/login';
+                return;
+            }
+
+            // Messages arrive one per line as they are classified; render at most once per frame
+            const messages = [];
+            let renderPending = false;
+            await readNdjson(response, item => {
+                if (item.error) {
+                    console.error('Gmail fetch failed:', item.message);
+                } else if (!item.done) {
+                    messages.push(item);
+                    if (!renderPending) {
+                        renderPending = true;
+                        requestAnimationFrame(() => { renderPending = false; displayMessages(messages); });
+                    }
+                }
+            });
+
+            if (messages.length > 0) {
+                console.log('Loaded', messages.length, 'Gmail messages');
+                displayMessages(messages);
+            } else {
+                console.log('No Gmail messages, showing demo data');
+                showDemoMessages();
+            }
+        } else {
+            console.log('Gmail not connected, showing demo data');
+            showDemoMessages();
+        }
+    } catch (error) {
+        console.error('Error loading messages:', error);
+        showDemoMessages();
+    }
+}
+
+async function readNdjson(response, onItem) {
+    if (!response.ok || !response.body) {
+        throw new Error('Message stream unavailable: ' + response.status);
+    }
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+    while (true) {
+        const { value, done } = await reader.read();
+        if (done) break;
+        buffer += decoder.decode(value, { stream: true });
+        let newline;
+        while ((newline = buffer.indexOf('\n')) >= 0) {
+            const line = buffer.slice(0, newline).trim();
+            buffer = buffer.slice(newline + 1);
+            if (line) onItem(JSON.parse(line));
+        }
+    }
+    if (buffer.trim()) onItem(JSON.parse(buffer));
+}
+
+function showLoadingState() {
+    ['high', 'medium', 'low'].forEach(priority => {
+        const container = document.getElementById(priority + '-messages');
+        container.innerHTML = '<div class="empty-state"><div class="empty-icon">⏳</div><div><h4>Loading Messages...</h4><p>Fetching your emails</p></div></div>';
+    });
+}
+
+function showDemoMessages() {
+    const now = Date.now();
+    const demoMessages = [
+        {
+            id: 1, priority: 'HIGH', sender: 'hr@techcorp.com',
+            subject: 'Interview Invitation - Senior Developer Position',
+            body: 'We would like to invite you for a technical interview tomorrow at 2 PM...',
+            timestamp: new Date(now - 2 * 60 * 60 * 1000)
+        },
+        {
+            id: 2, priority: 'MEDIUM', sender: 'team@company.com',
+            subject: 'Weekly Team Meeting Reminder',
+            body: 'Don\'t forget about our weekly standup meeting tomorrow at 10 AM...',
+            timestamp: new Date(now - 6 * 60 * 60 * 1000)
+        },
+        {
+            id: 3, priority: 'LOW', sender: 'newsletter@techblog.com',
+            subject: 'Weekly Tech Newsletter - Latest Trends',
+            body: 'Check out the latest trends in web development and AI...',
+            timestamp: new Date(now - 12 * 60 * 60 * 1000)
+        }
+    ];
+
+    displayMessages(demoMessages);
+    showingDemo = true;
+}
+
+// Read /api/messages/stream with fetch so the JWT goes in the Authorization header
+async function connectEventStream(retryDelay = 3000) {
+    let connected = false;
+    try {
+        const headers = { 'Authorization': 'Bearer ' + token, 'Accept': 'text/event-stream' };
+        if (lastEventId) headers['Last-Event-ID'] = lastEventId;
+
+        const response = await fetch('/api/messages/stream', { headers: headers });
+        if (response.status === 401) {
+            if (await refreshSession()) {
+                connectEventStream();
+            }
+            return;
+        }
+        if (!response.ok || !response.body) {
+            throw new Error('Event stream unavailable: ' + response.status);
+        }
+
+        connected = true;
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = '';
+        while (true) {
+            const { value, done } = await reader.read();
+            if (done) break;
+            buffer += decoder.decode(value, { stream: true });
+            let boundary;
+            while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+                const block = buffer.slice(0, boundary);
+                buffer = buffer.slice(boundary + 2);
+                retryDelay = handleStreamBlock(block, retryDelay);
+            }
+        }
+    } catch (error) {
+        console.log('Event stream closed:', error.message);
+    }
+    // Reconnect; back off while the server is unreachable
+    setTimeout(() => connectEventStream(connected ? retryDelay : Math.min(retryDelay * 2, 60000)), retryDelay);
+}
+
+function handleStreamBlock(block, retryDelay) {
+    let eventName = 'message';
+    let data = '';
+    block.split('\n').forEach(line => {
+        if (line.startsWith(':')) return;
+        const colon = line.indexOf(':');
+        const field = colon >= 0 ? line.slice(0, colon) : line;
+        const value = colon >= 0 ? line.slice(colon + 1).replace(/^ /, '') : '';
+        if (field === 'id') lastEventId = value;
+        else if (field === 'event') eventName = value;
+        else if (field === 'data') data += (data ? '\n' : '') + value;
+        else if (field === 'retry') retryDelay = parseInt(value, 10) || retryDelay;
+    });
+
+    if (!data) return retryDelay;
+    if (eventName === 'resync') {
+        syncChanges();
+    } else if (eventName === 'message') {
+        applyMessageEvent(JSON.parse(data));
+    }
+    return retryDelay;
+}
+
+// Catch up from the change log instead of reloading everything; reload only when the cursor is too old
+async function syncChanges() {
+    try {
+        let hasMore = true;
+        while (hasMore) {
+            const response = await authFetch('/api/messages/changes?since=' + changeCursor);
+            if (!response.ok) return;
+            const data = await response.json();
+
+            if (data.reset) {
+                const hadCursor = changeCursor > 0;
+                changeCursor = data.cursor;
+                if (hadCursor) loadMessages();
+                return;
+            }
+            if (data.changes.length > 0) {
+                if (showingDemo) {
+                    changeCursor = data.cursor;
+                    loadMessages();
+                    return;
+                }
+                applyChanges(data.changes);
+            }
+            changeCursor = data.cursor;
+            hasMore = data.hasMore;
+        }
+    } catch (error) {
+        console.error('Error syncing message changes:', error);
+    }
+}
+
+function applyChanges(changes) {
+    let messages = currentMessages;
+    changes.forEach(change => {
+        messages = messages.filter(m => !sameMessage(m, change));
+        if (change.type !== 'DELETE') {
+            messages.push(change);
+        }
+    });
+    messages.sort((a, b) => new Date(b.timestamp) - new Date(a.timestamp));
+    displayMessages(messages);
+}
+
+// Stored messages carry their Gmail ID as externalId, fetched ones use it as their ID
+function sameMessage(listed, incoming) {
+    return String(listed.id) === String(incoming.id)
+        || (incoming.externalId != null && String(listed.id) === String(incoming.externalId));
+}
+
+function applyMessageEvent(event) {
+    // Real messages are arriving, replace the demo data with the full list
+    if (showingDemo) {
+        loadMessages();
+        return;
+    }
+    // Already listed from a fetch of the same message
+    if (currentMessages.some(m => sameMessage(m, event))) {
+        return;
+    }
+    currentMessages.unshift(event);
+    const priority = event.priority.toLowerCase();
+    renderMessageList(priority, currentMessages.filter(m => m.priority === event.priority));
+
+    const counters = { high: 'high-priority-count', medium: 'medium-priority-count', low: 'low-priority-count', total: 'total-count' };
+    Object.entries(event.countDelta || {}).forEach(([key, delta]) => {
+        const element = document.getElementById(counters[key]);
+        if (element) element.textContent = (parseInt(element.textContent, 10) || 0) + delta;
+    });
+}
+
+function displayMessages(messages) {
+    currentMessages = messages.slice();
+    showingDemo = false;
+    const highMessages = messages.filter(m => m.priority === 'HIGH');
+    const mediumMessages = messages.filter(m => m.priority === 'MEDIUM');
+    const lowMessages = messages.filter(m => m.priority === 'LOW');
+
+    renderMessageList('high', highMessages);
+    renderMessageList('medium', mediumMessages);
+    renderMessageList('low', lowMessages);
+
+    document.getElementById('high-priority-count').textContent = highMessages.length;
+    document.getElementById('medium-priority-count').textContent = mediumMessages.length;
+    document.getElementById('low-priority-count').textContent = lowMessages.length;
+    document.getElementById('total-count').textContent = messages.length;
+}
+
+function renderMessageList(priority, messages) {
+    const container = document.getElementById(priority + '-messages');
+
+    if (messages.length === 0) {
+        container.innerHTML = '<div class="empty-state"><div class="empty-icon">📥</div><div><h4>No ' + priority.charAt(0).toUpperCase() + priority.slice(1) + ' Priority Messages</h4><p>You\'re all caught up!</p></div></div>';
+        return;
+    }
+
+    container.innerHTML = messages.map(message =>
+        '<div class="message-item" onclick="showMessageDetail(' + message.id + ')"><div class="message-header"><div class="message-sender">' + escapeHtml(message.sender) + '</div><div class="message-time">' + formatTime(message.timestamp) + '</div></div><div class="message-subject">' + escapeHtml(message.subject) + '</div><div class="message-preview">' + escapeHtml(message.body) + '</div></div>'
+    ).join('');
+}
+
+function showMessageDetail(messageId) {
+    alert('Message detail view - ID: ' + messageId);
+}
+
+function formatTime(timestamp) {
+    const now = new Date();
+    const date = new Date(timestamp);
+    const diff = now - date;
+    const minutes = Math.floor(diff / (1000 * 60));
+    const hours = Math.floor(diff / (1000 * 60 * 60));
+    const days = Math.floor(diff / (1000 * 60 * 60 * 24));
+
+    if (minutes < 1) return 'Just now';
+    if (minutes < 60) return minutes + 'm ago';
+    if (hours < 24) return hours + 'h ago';
+    if (days < 7) return days + 'd ago';
+
+    return date.toLocaleDateString();
+}
+
+function escapeHtml(text) {
+    const div = document.createElement('div');
+    div.textContent = text;
+    return div.innerHTML;
+}
@@ -0,0 +1,45 @@
+function showError(msg) {
+    document.getElementById('error-message').textContent = msg;
+    document.getElementById('error-message').style.display = 'block';
+    document.getElementById('success-message').style.display = 'none';
+}
+function showSuccess(msg) {
+    document.getElementById('success-message').textContent = msg;
+    document.getElementById('success-message').style.display = 'block';
+    document.getElementById('error-message').style.display = 'none';
+}
+async function handleLogin(event) {
+    event.preventDefault();
+    const email = document.getElementById('email').value;
+    const password = document.getElementById('password').value;
+    const btn = document.getElementById('login-btn');
+
+    btn.textContent = '⏳ Signing in...';
+    btn.disabled = true;
+
+    try {
+        const response = await fetch('/api/auth/login', {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ email, password })
+        });
+        const data = await response.json();
+
+        if (data.success) {
+            localStorage.setItem('swnih_token', data.token);
+            localStorage.setItem('swnih_refresh_token', data.refreshToken);
+            localStorage.setItem('swnih_user', JSON.stringify({
+                id: data.userId, username: data.username, email: data.email
+            }));
+            showSuccess('Login successful! Redirecting...');
+            setTimeout(() => window.location.href = '/dashboard', 1500);
+        } else {
+            showError(data.message || 'Login failed');
+        }
+    } catch (error) {
+        showError('Network error. Try again.');
+    } finally {
+        btn.textContent = '🚀 Sign In';
+        btn.disabled = false;
+    }
+}
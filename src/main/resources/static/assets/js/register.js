@@ -0,0 +1,46 @@
+function showError(msg) {
+    document.getElementById('error-message').textContent = msg;
+    document.getElementById('error-message').style.display = 'block';
+    document.getElementById('success-message').style.display = 'none';
+}
+function showSuccess(msg) {
+    document.getElementById('success-message').textContent = msg;
+    document.getElementById('success-message').style.display = 'block';
+    document.getElementById('error-message').style.display = 'none';
+}
+async function handleRegister(event) {
+    event.preventDefault();
+    const username = document.getElementById('username').value;
+    const email = document.getElementById('email').value;
+    const password = document.getElementById('password').value;
+    const btn = document.getElementById('register-btn');
+
+    if (password.length < 8) {
+        showError('Password must be at least 8 characters');
+        return;
+    }
+
+    btn.textContent = '⏳ Creating...';
+    btn.disabled = true;
+
+    try {
+        const response = await fetch('/api/auth/register', {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ username, email, password })
+        });
+        const data = await response.json();
+
+        if (data.success) {
+            showSuccess('Account created! Redirecting...');
+            setTimeout(() => window.location.href = '/login', 2000);
+        } else {
+            showError(data.message || 'Registration failed');
+        }
+    } catch (error) {
+        showError('Network error. Try again.');
+    } finally {
+        btn.textContent = '🎉 Create Account';
+        btn.disabled = false;
+    }
+}
@@ -334,6 +334,7 @@ async function handleLogin(event) {
             
             // Save to localStorage
             localStorage.setItem('swnih_token', authToken);
+            localStorage.setItem('swnih_refresh_token', data.refreshToken);
             localStorage.setItem('swnih_user', JSON.stringify(currentUser));
             
             showToast('Login successful!', 'success');
@@ -403,9 +404,23 @@ async function handleRegister(event) {
 }
 
 function logout() {
+    const refreshToken = localStorage.getItem('swnih_refresh_token');
+    if (refreshToken) {
+        fetch('/api/auth/logout', {
+            method: 'POST',
+            headers: {
+                'Content-Type': 'application/json',
+                ...(authToken && { 'Authorization': `Bearer ${authToken}` })
+            },
+            body: JSON.stringify({ refreshToken }),
+            keepalive: true
+        }).catch(() => {});
+    }
+    
     authToken = null;
     currentUser = null;
     localStorage.removeItem('swnih_token');
+    localStorage.removeItem('swnih_refresh_token');
     localStorage.removeItem('swnih_user');
     
     showToast('Logged out successfully', 'success');
@@ -709,19 +724,56 @@ function formatTime(timestamp) {
     }
 }
 
+// Renew the short-lived JWT with the refresh token; concurrent callers share one request
+let refreshInFlight = null;
+
+function refreshSession() {
+    if (!refreshInFlight) {
+        refreshInFlight = (async () => {
+            const refreshToken = localStorage.getItem('swnih_refresh_token');
+            if (!refreshToken) return false;
+            
+            try {
+                const response = await fetch('/api/auth/refresh', {
+                    method: 'POST',
+                    headers: { 'Content-Type': 'application/json' },
+                    body: JSON.stringify({ refreshToken })
+                });
+                if (!response.ok) return false;
+                
+                const data = await response.json();
+                authToken = data.token;
+                localStorage.setItem('swnih_token', data.token);
+                localStorage.setItem('swnih_refresh_token', data.refreshToken);
+                return true;
+            } catch (error) {
+                console.error('Session refresh failed:', error);
+                return false;
+            }
+        })().finally(() => { refreshInFlight = null; });
+    }
+    return refreshInFlight;
+}
+
 // API helper function
 async function apiCall(endpoint, options = {}) {
-    const defaultOptions = {
+    const buildOptions = () => ({
         headers: {
             'Content-Type': 'application/json',
             ...(authToken && { 'Authorization': `Bearer ${authToken}` })
-        }
-    };
+        },
+        ...options
+    });
     
     try {
         console.log(`Making API call to ${endpoint} with token:`, authToken ? 'present' : 'missing');
         
-        const response = await fetch(endpoint, { ...defaultOptions, ...options });
+        let response = await fetch(endpoint, buildOptions());
+        
+        // Expired JWT: renew once with the refresh token and retry
+        if (response.status === 401 && await refreshSession()) {
+            response = await fetch(endpoint, buildOptions());
+        }
         
         console.log(`API response status for ${endpoint}:`, response.status);
         
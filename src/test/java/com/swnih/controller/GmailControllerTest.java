@@ -0,0 +1,597 @@
+package com.swnih.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swnih.config.SecurityConfig;
+import com.swnih.dto.MessageSummary;
+import com.swnih.dto.OAuthAuthorizationRequest;
+import com.swnih.dto.OAuthCallbackRequest;
+import com.swnih.dto.OAuthTokenResponse;
+import com.swnih.entity.User;
+import com.swnih.exception.OAuthException;
+import com.swnih.security.JwtAuthenticationEntryPoint;
+import com.swnih.security.PasswordHashCalibrator;
+import com.swnih.security.RateLimiter;
+import com.swnih.security.UserStateCache;
+import com.swnih.service.AuthenticationService;
+import com.swnih.service.GmailIntegrationService;
+import com.swnih.service.GoogleApiResilience;
+import com.swnih.service.JwtTokenService;
+import com.swnih.service.MessageService;
+import com.swnih.service.ReactiveGmailClient;
+import com.swnih.service.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit tests for GmailController.
+ * Tests OAuth endpoints, error handling, and security integration.
+ */
+@WebMvcTest(controllers = GmailController.class, properties = "security.password-hashing.strength=4")
+@Import({SecurityConfig.class, JwtAuthenticationEntryPoint.class, PasswordHashCalibrator.class})
+class GmailControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private GmailController gmailController;
+
+    @MockBean
+    private GmailIntegrationService gmailIntegrationService;
+
+    @MockBean
+    private AuthenticationService authenticationService;
+
+    @MockBean
+    private MessageService messageService;
+
+    // Dependencies of the JWT and rate limit filters, which @WebMvcTest picks up
+    @MockBean
+    private JwtTokenService jwtTokenService;
+
+    @MockBean
+    private UserStateCache userStateCache;
+
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
+    @MockBean
+    private RateLimiter rateLimiter;
+
+    private User testUser;
+    private OAuthAuthorizationRequest authRequest;
+    private OAuthTokenResponse tokenResponse;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(gmailController, "reactiveEnabled", true);
+
+        testUser = new User("testuser", "test@example.com", "hashedpassword");
+        testUser.setId(1L);
+
+        authRequest = new OAuthAuthorizationRequest(
+                "https://accounts.google.com/o/oauth2/auth?client_id=test", 
+                "test-state-123");
+
+        tokenResponse = OAuthTokenResponse.success(
+                "Gmail integration successful", 
+                LocalDateTime.now().plusHours(1), 
+                LocalDateTime.now());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void initiateGmailConnection_ShouldReturnAuthorizationUrl_WhenUserNotConnected() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.hasValidAuthorization(testUser)).thenReturn(false);
+        when(gmailIntegrationService.initiateOAuthFlow(testUser)).thenReturn(authRequest);
+
+        // When & Then
+        mockMvc.perform(get("/api/gmail/connect")
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.authorizationUrl").value(authRequest.getAuthorizationUrl()))
+                .andExpect(jsonPath("$.state").value(authRequest.getState()));
+
+        verify(gmailIntegrationService).initiateOAuthFlow(testUser);
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void initiateGmailConnection_ShouldReturnAlreadyConnected_WhenUserHasValidAuth() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.hasValidAuthorization(testUser)).thenReturn(true);
+
+        // When & Then
+        mockMvc.perform(get("/api/gmail/connect")
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("Gmail is already connected!"))
+                .andExpect(jsonPath("$.alreadyConnected").value(true));
+
+        verify(gmailIntegrationService, never()).initiateOAuthFlow(any());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void initiateGmailConnection_ShouldReturnError_WhenOAuthExceptionThrown() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.hasValidAuthorization(testUser)).thenReturn(false);
+        when(gmailIntegrationService.initiateOAuthFlow(testUser))
+                .thenThrow(new OAuthException("OAuth initiation failed", "OAUTH_ERROR"));
+
+        // When & Then
+        mockMvc.perform(get("/api/gmail/connect")
+                .with(csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.error").value("OAUTH_ERROR"))
+                .andExpect(jsonPath("$.message").value("OAuth initiation failed"));
+    }
+
+    @Test
+    void initiateGmailConnection_ShouldReturnUnauthorized_WhenUserNotAuthenticated() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/gmail/connect"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void handleOAuthCallback_ShouldRedirectToDashboardWithCode_WhenCodeReceived() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/gmail/oauth/callback")
+                .param("code", "test-auth-code")
+                .param("state", "test-state"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/dashboard?gmail_code=test-auth-code&gmail_state=test-state"));
+
+        // The dashboard exchanges the code through the authenticated POST endpoint
+        verifyNoInteractions(gmailIntegrationService);
+    }
+
+    @Test
+    void handleOAuthCallback_ShouldRedirectWithError_WhenCodeMissing() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/gmail/oauth/callback")
+                .param("state", "test-state"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/dashboard?gmail_error=no_code"));
+    }
+
+    @Test
+    void handleOAuthCallback_ShouldRedirectWithError_WhenOAuthError() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/gmail/oauth/callback")
+                .param("error", "access_denied")
+                .param("error_description", "User denied access")
+                .param("state", "test-state"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/dashboard?gmail_error=access_denied"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void processOAuthCallback_ShouldReturnSuccess_WhenCallbackSuccessful() throws Exception {
+        // Given
+        OAuthCallbackRequest callbackRequest = new OAuthCallbackRequest("test-code", "test-state");
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.handleOAuthCallbackForUser(any(OAuthCallbackRequest.class), eq(testUser)))
+                .thenReturn(tokenResponse);
+
+        // When & Then
+        mockMvc.perform(post("/api/gmail/oauth/callback")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(callbackRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("Gmail integration successful"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void processOAuthCallback_ShouldReturnError_WhenCallbackFails() throws Exception {
+        // Given
+        OAuthCallbackRequest callbackRequest = new OAuthCallbackRequest("test-code", "test-state");
+        OAuthTokenResponse failureResponse = OAuthTokenResponse.failure("Invalid authorization code");
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.handleOAuthCallbackForUser(any(OAuthCallbackRequest.class), eq(testUser)))
+                .thenReturn(failureResponse);
+
+        // When & Then
+        mockMvc.perform(post("/api/gmail/oauth/callback")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(callbackRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Invalid authorization code"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    @SuppressWarnings("unchecked")
+    void streamGmailMessages_ShouldWriteOneLinePerMessage_WhenNdjsonAccepted() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(gmailController, "reactiveEnabled", false);
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.hasValidAuthorization(testUser)).thenReturn(true);
+        when(gmailIntegrationService.streamAndProcessMessages(eq(testUser), any(Duration.class), any())).thenAnswer(invocation -> {
+            Consumer<MessageSummary> consumer = invocation.getArgument(2);
+            consumer.accept(MessageSummary.fetched("m1", "a@example.com", "First", "", "HIGH", LocalDateTime.now()));
+            consumer.accept(MessageSummary.fetched("m2", "b@example.com", "Second", "", "LOW", LocalDateTime.now()));
+            return 2;
+        });
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/gmail/messages")
+                .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asText()).isEqualTo("m1");
+        assertThat(objectMapper.readTree(lines[2]).get("count").asInt()).isEqualTo(2);
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void streamGmailMessages_ShouldEndWithHistoryId_WhenReactive() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.hasValidAuthorization(testUser)).thenReturn(true);
+        when(gmailIntegrationService.streamMessagesReactive(eq(testUser), eq("100"), any(Duration.class))).thenReturn(Flux.just(
+                MessageSummary.fetched("m1", "a@example.com", "First", "", "HIGH", LocalDateTime.now())));
+        when(gmailIntegrationService.getLatestHistoryId(testUser)).thenReturn("120");
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/gmail/messages")
+                .param("historyId", "100")
+                .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asText()).isEqualTo("m1");
+        assertThat(objectMapper.readTree(lines[1]).get("count").asInt()).isEqualTo(1);
+        assertThat(objectMapper.readTree(lines[1]).get("historyId").asText()).isEqualTo("120");
+        verify(gmailIntegrationService, never()).streamAndProcessMessages(any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void streamGmailMessages_ShouldEndWithErrorLine_WhenReactiveFetchFails() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.hasValidAuthorization(testUser)).thenReturn(true);
+        when(gmailIntegrationService.streamMessagesReactive(eq(testUser), isNull(), any(Duration.class))).thenReturn(Flux.error(
+                new OAuthException("Gmail API rate limit exceeded", "GMAIL_RATE_LIMITED")));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/gmail/messages")
+                .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String content = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(content.trim()).get("error").asText()).isEqualTo("GMAIL_RATE_LIMITED");
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void streamGmailMessages_ShouldEndPartial_WhenDeadlineExceeded() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.hasValidAuthorization(testUser)).thenReturn(true);
+        when(gmailIntegrationService.streamMessagesReactive(eq(testUser), isNull(), eq(Duration.ofMillis(500))))
+                .thenReturn(Flux.concat(
+                        Flux.just(MessageSummary.fetched("m1", "a@example.com", "First", "", "HIGH", LocalDateTime.now())),
+                        Flux.error(new OAuthException("Gmail request deadline exceeded", ReactiveGmailClient.DEADLINE_EXCEEDED))));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/gmail/messages")
+                .header("X-Request-Timeout-Ms", "500")
+                .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[1]).get("partial").asBoolean()).isTrue();
+        assertThat(objectMapper.readTree(lines[1]).get("count").asInt()).isEqualTo(1);
+        assertThat(objectMapper.readTree(lines[1]).has("historyId")).isFalse();
+        verify(gmailIntegrationService, never()).getLatestHistoryId(any());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void streamGmailMessages_ShouldSendStoredMessages_WhenGmailUnavailable() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.hasValidAuthorization(testUser)).thenReturn(true);
+        when(gmailIntegrationService.streamMessagesReactive(eq(testUser), isNull(), any(Duration.class))).thenReturn(Flux.error(
+                new OAuthException("Gmail is temporarily unavailable", GoogleApiResilience.GMAIL_UNAVAILABLE)));
+        when(messageService.findStoredGmailMessages(eq(testUser), anyInt())).thenReturn(List.of(
+                MessageSummary.fetched("m1", "a@example.com", "Stored", "", "HIGH", LocalDateTime.now())));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/gmail/messages")
+                .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asText()).isEqualTo("m1");
+        assertThat(objectMapper.readTree(lines[1]).get("stale").asBoolean()).isTrue();
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void streamGmailMessages_ShouldEndWithErrorLine_WhenGmailRejectsBlockingFetchAfterFirstMessage() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(gmailController, "reactiveEnabled", false);
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.hasValidAuthorization(testUser)).thenReturn(true);
+        when(gmailIntegrationService.streamAndProcessMessages(eq(testUser), any(Duration.class), any())).thenAnswer(invocation -> {
+            Consumer<MessageSummary> consumer = invocation.getArgument(2);
+            consumer.accept(MessageSummary.fetched("m1", "a@example.com", "First", "", "HIGH", LocalDateTime.now()));
+            throw new OAuthException("Gmail is temporarily unavailable", GoogleApiResilience.GMAIL_UNAVAILABLE);
+        });
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/gmail/messages")
+                .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asText()).isEqualTo("m1");
+        assertThat(objectMapper.readTree(lines[1]).get("error").asText()).isEqualTo(GoogleApiResilience.GMAIL_UNAVAILABLE);
+        verify(messageService, never()).findStoredGmailMessages(any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void fetchGmailMessages_ShouldPassRequestTimeoutAsBudget() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.hasValidAuthorization(testUser)).thenReturn(true);
+        when(gmailIntegrationService.fetchAndProcessMessages(testUser, Duration.ofMillis(5000))).thenReturn(List.of(
+                MessageSummary.fetched("m1", "a@example.com", "First", "", "HIGH", LocalDateTime.now())));
+
+        // When & Then
+        mockMvc.perform(get("/api/gmail/messages").header("X-Request-Timeout-Ms", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1));
+        verify(gmailIntegrationService).fetchAndProcessMessages(testUser, Duration.ofMillis(5000));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void fetchGmailMessages_ShouldReturnStoredMessages_WhenGmailUnavailable() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.hasValidAuthorization(testUser)).thenReturn(true);
+        when(gmailIntegrationService.fetchAndProcessMessages(eq(testUser), any(Duration.class))).thenThrow(
+                new OAuthException("Too many Gmail requests in progress", GoogleApiResilience.GMAIL_OVERLOADED));
+        when(messageService.findStoredGmailMessages(eq(testUser), anyInt())).thenReturn(List.of(
+                MessageSummary.fetched("m1", "a@example.com", "Stored", "", "HIGH", LocalDateTime.now())));
+
+        // When & Then
+        mockMvc.perform(get("/api/gmail/messages"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Gmail-Fallback", "stored"))
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.messages[0].id").value("m1"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void streamGmailMessages_ShouldReturnJsonError_WhenGmailNotConnected() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.hasValidAuthorization(testUser)).thenReturn(false);
+
+        // When & Then
+        mockMvc.perform(get("/api/gmail/messages")
+                .accept("application/x-ndjson"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error").value("GMAIL_NOT_CONNECTED"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getConnectionStatus_ShouldReturnConnected_WhenUserHasValidAuth() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.hasValidAuthorization(testUser)).thenReturn(true);
+
+        // When & Then
+        mockMvc.perform(get("/api/gmail/status")
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.connected").value(true))
+                .andExpect(jsonPath("$.message").value("Gmail is connected"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void getConnectionStatus_ShouldReturnNotConnected_WhenUserHasNoValidAuth() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.hasValidAuthorization(testUser)).thenReturn(false);
+
+        // When & Then
+        mockMvc.perform(get("/api/gmail/status")
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.connected").value(false))
+                .andExpect(jsonPath("$.message").value("Gmail is not connected"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void disconnectGmail_ShouldReturnSuccess_WhenDisconnectionSuccessful() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        doNothing().when(gmailIntegrationService).revokeAuthorization(testUser);
+
+        // When & Then
+        mockMvc.perform(delete("/api/gmail/disconnect")
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("Gmail has been disconnected successfully"));
+
+        verify(gmailIntegrationService).revokeAuthorization(testUser);
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void disconnectGmail_ShouldReturnError_WhenOAuthExceptionThrown() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        doThrow(new OAuthException("Revocation failed", "REVOCATION_ERROR"))
+                .when(gmailIntegrationService).revokeAuthorization(testUser);
+
+        // When & Then
+        mockMvc.perform(delete("/api/gmail/disconnect")
+                .with(csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.error").value("REVOCATION_ERROR"))
+                .andExpect(jsonPath("$.message").value("Revocation failed"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void refreshToken_ShouldReturnSuccess_WhenRefreshSuccessful() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.getValidAccessToken(testUser)).thenReturn("new-access-token");
+
+        // When & Then
+        mockMvc.perform(post("/api/gmail/refresh-token")
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("Token refreshed successfully"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void refreshToken_ShouldReturnError_WhenRefreshFails() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(gmailIntegrationService.getValidAccessToken(testUser))
+                .thenThrow(new OAuthException("Token refresh failed", "TOKEN_REFRESH_ERROR"));
+
+        // When & Then
+        mockMvc.perform(post("/api/gmail/refresh-token")
+                .with(csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.error").value("TOKEN_REFRESH_ERROR"))
+                .andExpect(jsonPath("$.message").value("Token refresh failed"));
+    }
+
+    @Test
+    @WithMockUser(username = "nonexistentuser")
+    void getCurrentUser_ShouldThrowException_WhenUserNotFound() throws Exception {
+        // Given
+        when(authenticationService.findByUsername("nonexistentuser")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/gmail/status")
+                .with(csrf()))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.error").value("INTERNAL_ERROR"));
+    }
+
+    // Validation tests
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void processOAuthCallback_ShouldReturnBadRequest_WhenRequestInvalid() throws Exception {
+        // Given - invalid request with missing required fields
+        OAuthCallbackRequest invalidRequest = new OAuthCallbackRequest();
+        // code and state are null
+
+        // When & Then
+        mockMvc.perform(post("/api/gmail/oauth/callback")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(invalidRequest)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void handleOAuthCallback_ShouldEncodeCodeInRedirect() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/gmail/oauth/callback")
+                .param("code", "4/0Ab+c=")
+                .param("state", "test-state"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/dashboard?gmail_code=4%2F0Ab%2Bc%3D&gmail_state=test-state"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.swnih.controller;
+
+import com.swnih.config.SecurityConfig;
+import com.swnih.entity.User;
+import com.swnih.security.JwtAuthenticationEntryPoint;
+import com.swnih.security.PasswordHashCalibrator;
+import com.swnih.security.RateLimiter;
+import com.swnih.security.UserStateCache;
+import com.swnih.service.AuthenticationService;
+import com.swnih.service.JwtTokenService;
+import com.swnih.service.MessageEventBroadcaster;
+import com.swnih.service.MessageRetentionService;
+import com.swnih.service.MessageService;
+import com.swnih.service.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit tests for MessageController.
+ * Tests the event stream endpoint.
+ */
+@WebMvcTest(controllers = MessageController.class, properties = "security.password-hashing.strength=4")
+@Import({SecurityConfig.class, JwtAuthenticationEntryPoint.class, PasswordHashCalibrator.class})
+class MessageControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private MessageService messageService;
+
+    @MockBean
+    private MessageRetentionService messageRetentionService;
+
+    @MockBean
+    private AuthenticationService authenticationService;
+
+    @MockBean
+    private MessageEventBroadcaster messageEventBroadcaster;
+
+    // Dependencies of the JWT and rate limit filters, which @WebMvcTest picks up
+    @MockBean
+    private JwtTokenService jwtTokenService;
+
+    @MockBean
+    private UserStateCache userStateCache;
+
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
+    @MockBean
+    private RateLimiter rateLimiter;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User("testuser", "test@example.com", "hashedpassword");
+        testUser.setId(1L);
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void streamEvents_ShouldOpenEventStream() throws Exception {
+        // Given
+        when(authenticationService.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(messageEventBroadcaster.subscribe(1L, "7")).thenReturn(new SseEmitter());
+
+        // When & Then
+        mockMvc.perform(get("/api/messages/stream")
+                .header("Last-Event-ID", "7"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("X-Accel-Buffering", "no"));
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void streamEvents_ShouldReturnJsonError_WhenSubscribeFails() throws Exception {
+        // Given
+        when(authenticationService.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(messageEventBroadcaster.subscribe(1L, null)).thenThrow(new IllegalStateException("closed"));
+
+        // When & Then
+        mockMvc.perform(get("/api/messages/stream"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.error").value("INTERNAL_ERROR"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.swnih.entity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for Message entity.
+ * Tests the content hash used for deduplication.
+ */
+@DisplayName("Message Entity Tests")
+class MessageTest {
+
+    private final LocalDateTime timestamp = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+
+    @Test
+    @DisplayName("Should produce a 32-character lowercase hex content hash")
+    void shouldProduceCompactContentHash() {
+        String hash = Message.computeContentHash("alice@example.com", "Interview tomorrow", timestamp);
+
+        assertThat(hash).hasSize(32);
+        assertThat(hash).matches("[0-9a-f]{32}");
+    }
+
+    @Test
+    @DisplayName("Should produce the same hash for the same sender, subject and second")
+    void shouldBeStableForSameContent() {
+        String first = Message.computeContentHash("alice@example.com", "Interview tomorrow", timestamp);
+        String second = Message.computeContentHash("alice@example.com", "Interview tomorrow", timestamp.plusNanos(500_000));
+
+        assertThat(first).isEqualTo(second);
+    }
+
+    @Test
+    @DisplayName("Should produce different hashes for different content")
+    void shouldDifferForDifferentContent() {
+        String first = Message.computeContentHash("alice@example.com", "Interview tomorrow", timestamp);
+        String otherSubject = Message.computeContentHash("alice@example.com", "Interview today", timestamp);
+        String otherTime = Message.computeContentHash("alice@example.com", "Interview tomorrow", timestamp.plusSeconds(1));
+
+        assertThat(first).isNotEqualTo(otherSubject);
+        assertThat(first).isNotEqualTo(otherTime);
+    }
+
+    @Test
+    @DisplayName("Should fill content hash before persisting")
+    void shouldFillContentHashOnPersist() {
+        Message message = new Message(new User(), "alice@example.com", "Interview tomorrow", "Snippet",
+                PriorityLevel.HIGH, timestamp);
+
+        message.ensureContentHash();
+
+        assertThat(message.getContentHash())
+                .isEqualTo(Message.computeContentHash("alice@example.com", "Interview tomorrow", timestamp));
+    }
+}
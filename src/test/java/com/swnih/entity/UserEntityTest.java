@@ -155,7 +155,7 @@ class UserEntityTest {
         Message message = new Message();
         message.setSender("sender@example.com");
         message.setSubject("Test Subject");
-        message.setBody("Test Body");
+        message.setSnippet("Test Body");
 
         // When
         user.addMessage(message);
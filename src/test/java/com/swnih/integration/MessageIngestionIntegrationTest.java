@@ -0,0 +1,129 @@
+package com.swnih.integration;
+
+import com.swnih.entity.PriorityLevel;
+import com.swnih.entity.User;
+import com.swnih.repository.MessageBodyRepository;
+import com.swnih.repository.MessageChangeRepository;
+import com.swnih.repository.MessageRepository;
+import com.swnih.repository.UserRepository;
+import com.swnih.service.MessageIngestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Integration tests for MessageIngestionService against the database.
+ * Tests that the dedup keys on external_id and content_hash skip duplicates on insert.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Message Ingestion Integration Tests")
+class MessageIngestionIntegrationTest {
+
+    @Autowired
+    private MessageIngestionService ingestionService;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private MessageBodyRepository messageBodyRepository;
+
+    @Autowired
+    private MessageChangeRepository messageChangeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private LocalDateTime timestamp;
+
+    @BeforeEach
+    void setUp() {
+        user = createUser();
+        timestamp = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should skip a message whose external ID is already stored")
+    void shouldSkipDuplicateExternalId() {
+        boolean first = ingest(user, "gmail-1", "alice@example.com", "Quarterly report", timestamp);
+        boolean second = ingest(user, "gmail-1", "bob@example.com", "Different subject", timestamp.plusHours(1));
+
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(messageCount(user)).isEqualTo(1);
+        assertThat(changeCount(user)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should skip a message whose content hash is already stored")
+    void shouldSkipDuplicateContentHash() {
+        boolean first = ingest(user, "gmail-1", "alice@example.com", "Quarterly report", timestamp);
+        boolean sameContentNewId = ingest(user, "gmail-2", "alice@example.com", "Quarterly report", timestamp);
+        boolean sameContentNoId = ingest(user, null, "alice@example.com", "Quarterly report", timestamp);
+
+        assertThat(first).isTrue();
+        assertThat(sameContentNewId).isFalse();
+        assertThat(sameContentNoId).isFalse();
+        assertThat(messageCount(user)).isEqualTo(1);
+        assertThat(changeCount(user)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should store distinct messages without external IDs, each with its body")
+    void shouldStoreDistinctMessagesWithoutExternalIds() {
+        assertThat(ingest(user, null, "alice@example.com", "First", timestamp)).isTrue();
+        assertThat(ingest(user, null, "alice@example.com", "Second", timestamp)).isTrue();
+
+        assertThat(messageCount(user)).isEqualTo(2);
+        assertThat(changeCount(user)).isEqualTo(2);
+        // Bodies are keyed by the generated message ID
+        assertThat(messageIds(user)).allSatisfy(id -> assertThat(messageBodyRepository.existsById(id)).isTrue());
+    }
+
+    @Test
+    @DisplayName("Should scope the dedup keys to the user")
+    void shouldScopeDedupKeysToUser() {
+        User otherUser = createUser();
+
+        assertThat(ingest(user, "gmail-1", "alice@example.com", "Quarterly report", timestamp)).isTrue();
+        assertThat(ingest(otherUser, "gmail-1", "alice@example.com", "Quarterly report", timestamp)).isTrue();
+
+        assertThat(messageCount(user)).isEqualTo(1);
+        assertThat(messageCount(otherUser)).isEqualTo(1);
+    }
+
+    private boolean ingest(User owner, String externalId, String sender, String subject, LocalDateTime time) {
+        return ingestionService.ingest(owner, externalId, sender, subject, "Body of " + subject,
+                PriorityLevel.MEDIUM, null, time, "GMAIL");
+    }
+
+    private User createUser() {
+        String name = "ingest-" + UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(new User(name, name + "@example.com", "hashedPassword"));
+    }
+
+    private List<Long> messageIds(User owner) {
+        return messageRepository.findIdsOlderThan(owner.getId(), LocalDateTime.now().plusDays(1), PageRequest.of(0, 100));
+    }
+
+    private int messageCount(User owner) {
+        return messageIds(owner).size();
+    }
+
+    private int changeCount(User owner) {
+        return messageChangeRepository.findChangesAfter(owner.getId(), 0L, Long.MAX_VALUE, PageRequest.of(0, 100)).size();
+    }
+}
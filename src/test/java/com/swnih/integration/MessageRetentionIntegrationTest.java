@@ -0,0 +1,140 @@
+package com.swnih.integration;
+
+import com.swnih.entity.Message;
+import com.swnih.entity.PriorityLevel;
+import com.swnih.entity.User;
+import com.swnih.repository.ArchivedMessageRepository;
+import com.swnih.repository.MessageChangeRepository;
+import com.swnih.repository.MessageRepository;
+import com.swnih.repository.UserRepository;
+import com.swnih.service.MessageRetentionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Integration tests for MessageRetentionService against the database.
+ * Tests batch boundaries, per-user retention and re-running a completed pass.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Message Retention Integration Tests")
+class MessageRetentionIntegrationTest {
+
+    @Autowired
+    private MessageRetentionService retentionService;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ArchivedMessageRepository archivedMessageRepository;
+
+    @Autowired
+    private MessageChangeRepository messageChangeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User defaultUser;
+    private User shortRetentionUser;
+    private Object originalBatchSize;
+    private Object originalPause;
+
+    @BeforeEach
+    void setUp() {
+        // The service is shared with the other tests of this context
+        originalBatchSize = ReflectionTestUtils.getField(retentionService, "batchSize");
+        originalPause = ReflectionTestUtils.getField(retentionService, "pauseBetweenBatchesMs");
+        ReflectionTestUtils.setField(retentionService, "batchSize", 2);
+        ReflectionTestUtils.setField(retentionService, "pauseBetweenBatchesMs", 0L);
+
+        defaultUser = createUser(null);
+        shortRetentionUser = createUser(10);
+    }
+
+    @AfterEach
+    void restoreSettings() {
+        ReflectionTestUtils.setField(retentionService, "batchSize", originalBatchSize);
+        ReflectionTestUtils.setField(retentionService, "pauseBetweenBatchesMs", originalPause);
+    }
+
+    @Test
+    @DisplayName("Should archive across batch boundaries")
+    void shouldArchiveAcrossBatchBoundaries() {
+        // Five expired messages with a batch size of two take three batches
+        for (int i = 0; i < 5; i++) {
+            createMessage(defaultUser, "old-" + i, LocalDateTime.now().minusDays(400 + i));
+        }
+        createMessage(defaultUser, "recent", LocalDateTime.now().minusDays(1));
+
+        retentionService.runRetention();
+
+        assertThat(archivedMessageRepository.countByUserId(defaultUser.getId())).isEqualTo(5);
+        assertThat(hotMessageCount(defaultUser)).isEqualTo(1);
+        assertThat(changeCount(defaultUser)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should apply each user's retention period")
+    void shouldApplyPerUserRetention() {
+        createMessage(defaultUser, "default-30d", LocalDateTime.now().minusDays(30));
+        createMessage(shortRetentionUser, "short-30d", LocalDateTime.now().minusDays(30));
+        createMessage(shortRetentionUser, "short-5d", LocalDateTime.now().minusDays(5));
+
+        retentionService.runRetention();
+
+        assertThat(archivedMessageRepository.countByUserId(defaultUser.getId())).isZero();
+        assertThat(hotMessageCount(defaultUser)).isEqualTo(1);
+        assertThat(archivedMessageRepository.countByUserId(shortRetentionUser.getId())).isEqualTo(1);
+        assertThat(hotMessageCount(shortRetentionUser)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not archive twice when re-run")
+    void shouldBeIdempotentWhenReRun() {
+        for (int i = 0; i < 3; i++) {
+            createMessage(shortRetentionUser, "old-" + i, LocalDateTime.now().minusDays(20 + i));
+        }
+
+        retentionService.runRetention();
+        retentionService.runRetention();
+
+        assertThat(archivedMessageRepository.countByUserId(shortRetentionUser.getId())).isEqualTo(3);
+        assertThat(hotMessageCount(shortRetentionUser)).isZero();
+        assertThat(changeCount(shortRetentionUser)).isEqualTo(3);
+        assertThat(retentionService.archiveBatch(shortRetentionUser.getId(), LocalDateTime.now())).isZero();
+    }
+
+    private User createUser(Integer retentionDays) {
+        String name = "retention-" + UUID.randomUUID().toString().substring(0, 8);
+        User user = new User(name, name + "@example.com", "hashedPassword");
+        user.setRetentionDays(retentionDays);
+        return userRepository.save(user);
+    }
+
+    private void createMessage(User user, String subject, LocalDateTime timestamp) {
+        Message message = new Message(user, "sender@example.com", subject, "Snippet", PriorityLevel.LOW, timestamp);
+        message.setContentHash(UUID.randomUUID().toString().replace("-", ""));
+        messageRepository.save(message);
+    }
+
+    private int hotMessageCount(User user) {
+        return messageRepository.findIdsOlderThan(user.getId(), LocalDateTime.now().plusDays(1), PageRequest.of(0, 100)).size();
+    }
+
+    private int changeCount(User user) {
+        return messageChangeRepository.findChangesAfter(user.getId(), 0L, Long.MAX_VALUE, PageRequest.of(0, 100)).size();
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -238,6 +239,48 @@ class OAuthTokenRepositoryTest {
         assertThat(updatedToken.getExpiresAt()).isEqualToIgnoringNanos(newExpiration);
     }
 
+    @Test
+    @DisplayName("Should replace encrypted values only when the version still matches")
+    void shouldReplaceEncryptedValuesOnlyWhenVersionMatches() {
+        Object[] row = oauthTokenRepository.findEncryptedValuesAfter(validToken.getId() - 1, PageRequest.of(0, 1)).get(0);
+        Long version = (Long) row[3];
+
+        // A refresh between the read and the write bumps the version
+        oauthTokenRepository.updateTokenExpiration(validToken.getId(), LocalDateTime.now().plusDays(1));
+        int stale = oauthTokenRepository.updateEncryptedValues(validToken.getId(), version, "reEncryptedAccess", "reEncryptedRefresh");
+
+        Long current = (Long) oauthTokenRepository.findEncryptedValuesAfter(validToken.getId() - 1, PageRequest.of(0, 1)).get(0)[3];
+        int fresh = oauthTokenRepository.updateEncryptedValues(validToken.getId(), current, "reEncryptedAccess", "reEncryptedRefresh");
+
+        assertThat(stale).isZero();
+        assertThat(current).isEqualTo(version + 1);
+        assertThat(fresh).isEqualTo(1);
+        Object[] updated = oauthTokenRepository.findEncryptedValuesAfter(validToken.getId() - 1, PageRequest.of(0, 1)).get(0);
+        assertThat(updated[1]).isEqualTo("reEncryptedAccess");
+        assertThat(updated[2]).isEqualTo("reEncryptedRefresh");
+        assertThat(updated[3]).isEqualTo(version + 2);
+    }
+
+    @Test
+    @DisplayName("Should store refreshed values even after a re-encryption bumped the version")
+    void shouldStoreRefreshedValuesRegardlessOfVersion() {
+        Long version = (Long) oauthTokenRepository.findEncryptedValuesAfter(validToken.getId() - 1, PageRequest.of(0, 1)).get(0)[3];
+        oauthTokenRepository.updateEncryptedValues(validToken.getId(), version, "reEncryptedAccess", "reEncryptedRefresh");
+        LocalDateTime newExpiration = LocalDateTime.now().plusHours(1);
+
+        int updated = oauthTokenRepository.updateRefreshedValues(validToken.getId(), "refreshedAccess", null, newExpiration);
+
+        assertThat(updated).isEqualTo(1);
+        OAuthToken refreshed = oauthTokenRepository.findById(validToken.getId()).orElseThrow();
+        assertThat(refreshed.getAccessTokenEncrypted()).isEqualTo("refreshedAccess");
+        assertThat(refreshed.getRefreshTokenEncrypted()).isEqualTo("reEncryptedRefresh");
+        assertThat(refreshed.getExpiresAt()).isEqualToIgnoringNanos(newExpiration);
+        assertThat(refreshed.getVersion()).isEqualTo(version + 2);
+
+        // A re-encryption that read the token before the refresh no longer matches
+        assertThat(oauthTokenRepository.updateEncryptedValues(validToken.getId(), version + 1, "a", "b")).isZero();
+    }
+
     @Test
     @DisplayName("Should handle empty results gracefully")
     void shouldHandleEmptyResultsGracefully() {
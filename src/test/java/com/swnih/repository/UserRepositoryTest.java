@@ -224,7 +224,7 @@ class UserRepositoryTest {
 
         // When
         user.setEmail("updated@example.com");
-        User updatedUser = userRepository.save(user);
+        User updatedUser = userRepository.saveAndFlush(user);
 
         // Then
         assertThat(updatedUser.getEmail()).isEqualTo("updated@example.com");
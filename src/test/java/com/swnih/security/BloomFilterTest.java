@@ -0,0 +1,53 @@
+package com.swnih.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for BloomFilter.
+ * Tests membership and the false-positive rate at the configured capacity.
+ */
+class BloomFilterTest {
+
+    @Test
+    void mightContain_ShouldReturnTrueForAddedElements() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+
+        for (int i = 0; i < 1000; i++) {
+            filter.put("jti-" + i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(filter.mightContain("jti-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void mightContain_ShouldStayNearTargetFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        int probes = 100000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        assertThat((double) falsePositives / probes).isLessThan(0.02);
+    }
+
+    @Test
+    void constructor_ShouldSizeFromCapacityAndRate() {
+        BloomFilter filter = new BloomFilter(100000, 0.01);
+
+        assertThat(filter.getBitCount()).isBetween(950000L, 970000L);
+        assertThat(filter.getHashCount()).isEqualTo(7);
+    }
+}
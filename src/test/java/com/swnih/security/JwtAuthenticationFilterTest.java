@@ -1,6 +1,9 @@
 package com.swnih.security;
 
 import com.swnih.service.JwtTokenService;
+import com.swnih.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,13 +14,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -32,7 +34,10 @@ class JwtAuthenticationFilterTest {
     private JwtTokenService jwtTokenService;
 
     @Mock
-    private UserDetailsService userDetailsService;
+    private UserStateCache userStateCache;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
 
     @Mock
     private HttpServletRequest request;
@@ -43,14 +48,11 @@ class JwtAuthenticationFilterTest {
     @Mock
     private FilterChain filterChain;
 
-    @Mock
-    private UserDetails userDetails;
-
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @BeforeEach
     void setUp() {
-        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtTokenService, userDetailsService);
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtTokenService, userStateCache, tokenRevocationService);
         SecurityContextHolder.clearContext();
     }
 
@@ -61,17 +63,74 @@ class JwtAuthenticationFilterTest {
         String email = "test@example.com";
         
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenService.validateToken(token)).thenReturn(true);
-        when(jwtTokenService.getEmailFromToken(token)).thenReturn(email);
-        when(userDetailsService.loadUserByUsername(email)).thenReturn(userDetails);
-        when(userDetails.getAuthorities()).thenReturn(new ArrayList<>());
+        when(jwtTokenService.parseToken(token)).thenReturn(Optional.of(claims(1L, email)));
+        when(userStateCache.get(1L)).thenReturn(Optional.of(new UserStateCache.UserSnapshot(1L, email, "testuser", null)));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
-        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isEqualTo(userDetails);
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo(email);
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+                .isInstanceOfSatisfying(JwtUserPrincipal.class, principal -> {
+                    assertThat(principal.getUserId()).isEqualTo(1L);
+                    assertThat(principal.getUsername()).isEqualTo("testuser");
+                });
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_WithRevokedToken_ShouldNotSetAuthentication() throws ServletException, IOException {
+        // Given
+        String token = "revoked-jwt-token";
+        Claims claims = claims(1L, "test@example.com");
+        claims.setId("revoked-jti");
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtTokenService.parseToken(token)).thenReturn(Optional.of(claims));
+        when(tokenRevocationService.isRevoked("revoked-jti")).thenReturn(true);
+
+        // When
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(userStateCache, never()).get(any());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_WithDeletedUser_ShouldNotSetAuthentication() throws ServletException, IOException {
+        // Given
+        String token = "valid-jwt-token";
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtTokenService.parseToken(token)).thenReturn(Optional.of(claims(1L, "test@example.com")));
+        when(userStateCache.get(1L)).thenReturn(Optional.empty());
+
+        // When
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_WithChangedEmail_ShouldNotSetAuthentication() throws ServletException, IOException {
+        // Given
+        String token = "valid-jwt-token";
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtTokenService.parseToken(token)).thenReturn(Optional.of(claims(1L, "old@example.com")));
+        when(userStateCache.get(1L)).thenReturn(Optional.of(new UserStateCache.UserSnapshot(1L, "new@example.com", "testuser", null)));
+
+        // When
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
         verify(filterChain).doFilter(request, response);
     }
 
@@ -81,15 +140,14 @@ class JwtAuthenticationFilterTest {
         String token = "invalid-jwt-token";
         
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenService.validateToken(token)).thenReturn(false);
+        when(jwtTokenService.parseToken(token)).thenReturn(Optional.empty());
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
-        verify(jwtTokenService, never()).getEmailFromToken(anyString());
-        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        verify(userStateCache, never()).get(any());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -103,7 +161,7 @@ class JwtAuthenticationFilterTest {
 
         // Then
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
-        verify(jwtTokenService, never()).validateToken(anyString());
+        verify(jwtTokenService, never()).parseToken(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -117,7 +175,7 @@ class JwtAuthenticationFilterTest {
 
         // Then
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
-        verify(jwtTokenService, never()).validateToken(anyString());
+        verify(jwtTokenService, never()).parseToken(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -127,7 +185,7 @@ class JwtAuthenticationFilterTest {
         String token = "valid-jwt-token";
         
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenService.validateToken(token)).thenThrow(new RuntimeException("Token processing error"));
+        when(jwtTokenService.parseToken(token)).thenThrow(new RuntimeException("Token processing error"));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -136,4 +194,10 @@ class JwtAuthenticationFilterTest {
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
         verify(filterChain).doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private static Claims claims(Long userId, String email) {
+        Claims claims = Jwts.claims().setSubject(email);
+        claims.put("userId", userId);
+        return claims;
+    }
+}
@@ -0,0 +1,97 @@
+package com.swnih.security;
+
+import com.swnih.exception.TooManyAttemptsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for LoginAttemptThrottler.
+ * Tests per-account and per-IP failure limits.
+ */
+class LoginAttemptThrottlerTest {
+
+    private LoginAttemptThrottler throttler;
+
+    @BeforeEach
+    void setUp() {
+        throttler = new LoginAttemptThrottler();
+        ReflectionTestUtils.setField(throttler, "enabled", true);
+        ReflectionTestUtils.setField(throttler, "maxAccountFailures", 3);
+        ReflectionTestUtils.setField(throttler, "maxIpFailures", 5);
+        ReflectionTestUtils.setField(throttler, "windowSeconds", 900L);
+        ReflectionTestUtils.setField(throttler, "maxKeys", 1000);
+    }
+
+    @Test
+    void checkAllowed_AfterAccountLimit_ShouldThrowWithRetryAfter() {
+        for (int i = 0; i < 3; i++) {
+            throttler.recordFailure("test@example.com", "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> throttler.checkAllowed("Test@Example.com", "10.0.0.2"))
+            .isInstanceOf(TooManyAttemptsException.class)
+            .satisfies(e -> assertThat(((TooManyAttemptsException) e).getRetryAfterSeconds()).isPositive());
+    }
+
+    @Test
+    void checkAllowed_AfterIpLimit_ShouldThrowForOtherAccounts() {
+        for (int i = 0; i < 5; i++) {
+            throttler.recordFailure("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> throttler.checkAllowed("fresh@example.com", "10.0.0.1"))
+            .isInstanceOf(TooManyAttemptsException.class);
+        assertThatCode(() -> throttler.checkAllowed("fresh@example.com", "10.0.0.2"))
+            .doesNotThrowAnyException();
+    }
+
+    @Test
+    void recordSuccess_ShouldClearAccountButNotIp() {
+        for (int i = 0; i < 3; i++) {
+            throttler.recordFailure("test@example.com", "10.0.0.1");
+        }
+        throttler.recordSuccess("test@example.com");
+
+        assertThatCode(() -> throttler.checkAllowed("test@example.com", "10.0.0.1"))
+            .doesNotThrowAnyException();
+
+        throttler.recordFailure("other@example.com", "10.0.0.1");
+        throttler.recordFailure("other@example.com", "10.0.0.1");
+        assertThatThrownBy(() -> throttler.checkAllowed("new@example.com", "10.0.0.1"))
+            .isInstanceOf(TooManyAttemptsException.class);
+    }
+
+    @Test
+    void purgeExpired_ShouldDropEndedWindows() {
+        ReflectionTestUtils.setField(throttler, "windowSeconds", 0L);
+        throttler.recordFailure("test@example.com", "10.0.0.1");
+
+        throttler.purgeExpired();
+
+        assertThatCode(() -> throttler.checkAllowed("test@example.com", "10.0.0.1"))
+            .doesNotThrowAnyException();
+    }
+
+    @Test
+    void recordFailure_WhenFull_ShouldKeepThrottledKeysAndDropOthers() {
+        ReflectionTestUtils.setField(throttler, "maxKeys", 4);
+        for (int i = 0; i < 3; i++) {
+            throttler.recordFailure("victim@example.com", null);
+        }
+
+        // Spraying new accounts fills the map, but never pushes out the throttled account
+        for (int i = 0; i < 50; i++) {
+            throttler.recordFailure("spray" + i + "@example.com", null);
+        }
+
+        Map<?, ?> windows = (Map<?, ?>) ReflectionTestUtils.getField(throttler, "windows");
+        assertThat(windows.size()).isLessThanOrEqualTo(4);
+        assertThatThrownBy(() -> throttler.checkAllowed("victim@example.com", null))
+            .isInstanceOf(TooManyAttemptsException.class);
+    }
+}
@@ -0,0 +1,78 @@
+package com.swnih.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for PasswordHashCalibrator.
+ * Tests strength selection and detection of hashes needing an upgrade.
+ */
+class PasswordHashCalibratorTest {
+
+    @Test
+    void calibrate_WithFixedStrength_ShouldUseIt() {
+        PasswordHashCalibrator calibrator = calibrator(11, 250, 4, 16);
+
+        calibrator.calibrate();
+
+        assertThat(calibrator.getStrength()).isEqualTo(11);
+    }
+
+    @Test
+    void calibrate_ShouldStayWithinBounds() {
+        PasswordHashCalibrator calibrator = calibrator(0, 60000, 4, 6);
+
+        calibrator.calibrate();
+
+        assertThat(calibrator.getStrength()).isEqualTo(6);
+    }
+
+    @Test
+    void calibrate_WithTinyBudget_ShouldUseMinStrength() {
+        PasswordHashCalibrator calibrator = calibrator(0, 0, 4, 16);
+
+        calibrator.calibrate();
+
+        assertThat(calibrator.getStrength()).isEqualTo(4);
+    }
+
+    @Test
+    void needsRehash_ShouldOnlyUpgradeWeakerHashes() {
+        PasswordHashCalibrator calibrator = calibrator(5, 250, 4, 16);
+        calibrator.calibrate();
+
+        assertThat(calibrator.needsRehash(new BCryptPasswordEncoder(4).encode("Password123"))).isTrue();
+        assertThat(calibrator.needsRehash(new BCryptPasswordEncoder(5).encode("Password123"))).isFalse();
+        assertThat(calibrator.needsRehash(new BCryptPasswordEncoder(6).encode("Password123"))).isFalse();
+        assertThat(calibrator.needsRehash("not-a-bcrypt-hash")).isFalse();
+    }
+
+    @Test
+    void calibrate_WithOutOfRangeFixedStrength_ShouldFail() {
+        assertThatThrownBy(() -> calibrator(3, 250, 4, 16).calibrate())
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("security.password-hashing.strength");
+        assertThatThrownBy(() -> calibrator(32, 250, 4, 16).calibrate())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void extractStrength_ShouldParseBcryptHashes() {
+        assertThat(PasswordHashCalibrator.extractStrength("$2a$12$abcdefghijklmnopqrstuv")).isEqualTo(12);
+        assertThat(PasswordHashCalibrator.extractStrength("$2b$04$abcdefghijklmnopqrstuv")).isEqualTo(4);
+        assertThat(PasswordHashCalibrator.extractStrength(null)).isEqualTo(-1);
+        assertThat(PasswordHashCalibrator.extractStrength("plain")).isEqualTo(-1);
+    }
+
+    private static PasswordHashCalibrator calibrator(int fixedStrength, long targetMs, int minStrength, int maxStrength) {
+        PasswordHashCalibrator calibrator = new PasswordHashCalibrator();
+        ReflectionTestUtils.setField(calibrator, "fixedStrength", fixedStrength);
+        ReflectionTestUtils.setField(calibrator, "targetMs", targetMs);
+        ReflectionTestUtils.setField(calibrator, "minStrength", minStrength);
+        ReflectionTestUtils.setField(calibrator, "maxStrength", maxStrength);
+        return calibrator;
+    }
+}
@@ -0,0 +1,87 @@
+package com.swnih.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for RateLimiter.
+ * Tests burst capacity, per-key isolation and shared-backend blocking.
+ */
+class RateLimiterTest {
+
+    @Test
+    void tryAcquireUser_ShouldAllowBurstThenReject() {
+        RateLimiter limiter = new RateLimiter(10, 100, 0, 1024);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquireUser(1L)).isZero();
+        }
+
+        long waitNanos = limiter.tryAcquireUser(1L);
+        assertThat(waitNanos).isPositive();
+        assertThat(waitNanos).isLessThanOrEqualTo(6_000_000_000L); // one emission interval at 10/minute
+    }
+
+    @Test
+    void tryAcquireUser_ShouldKeepUsersIndependent() {
+        RateLimiter limiter = new RateLimiter(5, 100, 0, 65536);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquireUser(1L);
+        }
+
+        assertThat(limiter.tryAcquireUser(1L)).isPositive();
+        assertThat(limiter.tryAcquireUser(2L)).isZero();
+    }
+
+    @Test
+    void tryAcquireIp_ShouldUseIpLimit() {
+        RateLimiter limiter = new RateLimiter(100, 3, 0, 1024);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquireIp("10.0.0.1")).isZero();
+        }
+
+        assertThat(limiter.tryAcquireIp("10.0.0.1")).isPositive();
+    }
+
+    @Test
+    void drainPending_ShouldCountAllowedRequestsOnlyWhenEnabled() {
+        RateLimiter limiter = new RateLimiter(100, 100, 0, 16);
+        limiter.tryAcquireUser(1L);
+
+        int before = 0;
+        for (int slot = 0; slot < limiter.getTableSize(); slot++) {
+            before += limiter.drainPending(RateLimiter.SCOPE_USER, slot);
+        }
+        assertThat(before).isZero();
+
+        limiter.enableCounting();
+        limiter.tryAcquireUser(1L);
+        limiter.tryAcquireUser(1L);
+
+        int counted = 0;
+        for (int slot = 0; slot < limiter.getTableSize(); slot++) {
+            counted += limiter.drainPending(RateLimiter.SCOPE_USER, slot);
+        }
+        assertThat(counted).isEqualTo(2);
+    }
+
+    @Test
+    void blockUntil_ShouldRejectUntilWindowEnds() {
+        RateLimiter limiter = new RateLimiter(100, 100, 0, 16);
+        for (int slot = 0; slot < limiter.getTableSize(); slot++) {
+            limiter.blockUntil(RateLimiter.SCOPE_USER, slot, System.currentTimeMillis() + 30_000);
+        }
+
+        assertThat(limiter.tryAcquireUser(1L)).isPositive();
+        assertThat(limiter.tryAcquireIp("10.0.0.1")).isZero();
+    }
+
+    @Test
+    void constructor_ShouldRejectNonPositiveLimits() {
+        assertThatThrownBy(() -> new RateLimiter(0, 100, 0, 1024))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -5,15 +5,19 @@ import com.swnih.dto.UserLoginRequest;
 import com.swnih.dto.UserRegistrationRequest;
 import com.swnih.entity.User;
 import com.swnih.exception.AuthenticationException;
+import com.swnih.exception.TooManyAttemptsException;
 import com.swnih.exception.UserAlreadyExistsException;
 import com.swnih.repository.UserRepository;
+import com.swnih.security.LoginAttemptThrottler;
+import com.swnih.security.UserStateCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
 
@@ -32,11 +36,23 @@ class AuthenticationServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private LoginAttemptThrottler loginAttemptThrottler;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
 
     @Mock
     private JwtTokenService jwtTokenService;
 
+    @Mock
+    private UserStateCache userStateCache;
+
     @InjectMocks
     private AuthenticationService authenticationService;
 
@@ -65,7 +81,7 @@ class AuthenticationServiceTest {
     void registerUser_WithValidData_ShouldCreateUser() {
         // Given
         when(userRepository.existsByEmailOrUsername(anyString(), anyString())).thenReturn(false);
-        when(passwordEncoder.encode(anyString())).thenReturn("hashedPassword");
+        when(passwordHashingService.encode(anyString())).thenReturn("hashedPassword");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
 
         // When
@@ -75,7 +91,7 @@ class AuthenticationServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getEmail()).isEqualTo("test@example.com");
         assertThat(result.getUsername()).isEqualTo("testuser");
-        verify(passwordEncoder).encode("Password123");
+        verify(passwordHashingService).encode("Password123");
         verify(userRepository).save(any(User.class));
     }
 
@@ -160,8 +176,9 @@ class AuthenticationServiceTest {
     void authenticateUser_WithValidCredentials_ShouldReturnToken() {
         // Given
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(passwordEncoder.matches("Password123", "hashedPassword")).thenReturn(true);
+        when(passwordHashingService.matches("Password123", "hashedPassword")).thenReturn(true);
         when(jwtTokenService.generateToken(1L, "test@example.com", "testuser")).thenReturn("jwt-token");
+        when(refreshTokenService.issue(testUser)).thenReturn("refresh-token");
 
         // When
         AuthenticationResponse result = authenticationService.authenticateUser(validLoginRequest);
@@ -169,12 +186,32 @@ class AuthenticationServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getToken()).isEqualTo("jwt-token");
+        assertThat(result.getRefreshToken()).isEqualTo("refresh-token");
         assertThat(result.getUserId()).isEqualTo(1L);
         assertThat(result.getUsername()).isEqualTo("testuser");
         assertThat(result.getEmail()).isEqualTo("test@example.com");
         assertThat(result.getTokenType()).isEqualTo("Bearer");
     }
 
+    @Test
+    void authenticateUser_WithOutdatedHashStrength_ShouldRehashPassword() {
+        // Given
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(passwordHashingService.matches("Password123", "hashedPassword")).thenReturn(true);
+        when(passwordHashingService.needsRehash("hashedPassword")).thenReturn(true);
+        when(passwordHashingService.encode("Password123")).thenReturn("rehashedPassword");
+        when(userRepository.updatePasswordHash(1L, "hashedPassword", "rehashedPassword")).thenReturn(1);
+        when(jwtTokenService.generateToken(1L, "test@example.com", "testuser")).thenReturn("jwt-token");
+
+        // When
+        AuthenticationResponse result = authenticationService.authenticateUser(validLoginRequest);
+
+        // Then
+        assertThat(result.getToken()).isEqualTo("jwt-token");
+        verify(userRepository).updatePasswordHash(1L, "hashedPassword", "rehashedPassword");
+        verify(userStateCache).invalidate(1L);
+    }
+
     @Test
     void authenticateUser_WithInvalidEmail_ShouldThrowException() {
         // Given
@@ -185,7 +222,7 @@ class AuthenticationServiceTest {
             .isInstanceOf(AuthenticationException.class)
             .hasMessageContaining("Invalid email or password");
 
-        verify(passwordEncoder, never()).matches(anyString(), anyString());
+        verify(passwordHashingService, never()).matches(anyString(), anyString());
         verify(jwtTokenService, never()).generateToken(anyLong(), anyString(), anyString());
     }
 
@@ -193,23 +230,94 @@ class AuthenticationServiceTest {
     void authenticateUser_WithInvalidPassword_ShouldThrowException() {
         // Given
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(passwordEncoder.matches("Password123", "hashedPassword")).thenReturn(false);
+        when(passwordHashingService.matches("Password123", "hashedPassword")).thenReturn(false);
 
         // When & Then
         assertThatThrownBy(() -> authenticationService.authenticateUser(validLoginRequest))
             .isInstanceOf(AuthenticationException.class)
             .hasMessageContaining("Invalid email or password");
 
+        verify(loginAttemptThrottler).recordFailure("test@example.com", null);
+        verify(jwtTokenService, never()).generateToken(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void authenticateUser_WhenThrottled_ShouldRejectBeforeHashing() {
+        // Given
+        doThrow(new TooManyAttemptsException("Too many failed login attempts", 60))
+            .when(loginAttemptThrottler).checkAllowed("test@example.com", "10.0.0.1");
+
+        // When & Then
+        assertThatThrownBy(() -> authenticationService.authenticateUser(validLoginRequest, "10.0.0.1"))
+            .isInstanceOf(TooManyAttemptsException.class);
+
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(passwordHashingService, never()).matches(anyString(), anyString());
+    }
+
+    @Test
+    void refreshSession_WithValidRefreshToken_ShouldIssueNewTokensWithoutHashing() {
+        // Given
+        RefreshTokenService.Rotation rotation = mock(RefreshTokenService.Rotation.class);
+        when(rotation.getUser()).thenReturn(testUser);
+        when(rotation.getRefreshToken()).thenReturn("rotated-refresh-token");
+        when(refreshTokenService.rotate("refresh-token")).thenReturn(rotation);
+        when(jwtTokenService.generateToken(1L, "test@example.com", "testuser")).thenReturn("new-jwt-token");
+
+        // When
+        AuthenticationResponse result = authenticationService.refreshSession("refresh-token");
+
+        // Then
+        assertThat(result.getToken()).isEqualTo("new-jwt-token");
+        assertThat(result.getRefreshToken()).isEqualTo("rotated-refresh-token");
+        verifyNoInteractions(passwordHashingService);
+    }
+
+    @Test
+    void refreshSession_WithReusedRefreshToken_ShouldThrowException() {
+        // Given
+        when(refreshTokenService.rotate("used-token"))
+            .thenThrow(new AuthenticationException("Refresh token is no longer valid"));
+
+        // When & Then
+        assertThatThrownBy(() -> authenticationService.refreshSession("used-token"))
+            .isInstanceOf(AuthenticationException.class);
         verify(jwtTokenService, never()).generateToken(anyLong(), anyString(), anyString());
     }
 
+    @Test
+    void logoutAllSessions_WithValidToken_ShouldRevokeAllRefreshTokensAndTheJwt() {
+        // Given
+        String token = "valid-jwt-token";
+        Claims claims = Jwts.claims().setSubject("test@example.com").setId("current-jti");
+        claims.put("userId", 1L);
+        when(jwtTokenService.parseToken(token)).thenReturn(Optional.of(claims));
+
+        // When
+        authenticationService.logoutAllSessions(token);
+
+        // Then
+        verify(refreshTokenService).revokeAllForUser(1L);
+        verify(tokenRevocationService).revoke(eq("current-jti"), eq(1L), any());
+    }
+
+    @Test
+    void logoutAllSessions_WithInvalidToken_ShouldThrowException() {
+        // Given
+        when(jwtTokenService.parseToken("invalid-jwt-token")).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> authenticationService.logoutAllSessions("invalid-jwt-token"))
+            .isInstanceOf(AuthenticationException.class);
+        verifyNoInteractions(refreshTokenService);
+    }
+
     @Test
     void validateToken_WithValidToken_ShouldReturnUser() {
         // Given
         String token = "valid-jwt-token";
-        when(jwtTokenService.validateToken(token)).thenReturn(true);
-        when(jwtTokenService.isTokenExpired(token)).thenReturn(false);
-        when(jwtTokenService.getEmailFromToken(token)).thenReturn("test@example.com");
+        Claims claims = Jwts.claims().setSubject("test@example.com");
+        when(jwtTokenService.parseToken(token)).thenReturn(Optional.of(claims));
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
 
         // When
@@ -220,11 +328,26 @@ class AuthenticationServiceTest {
         assertThat(result.getEmail()).isEqualTo("test@example.com");
     }
 
+    @Test
+    void validateToken_WithRevokedToken_ShouldThrowException() {
+        // Given
+        String token = "revoked-jwt-token";
+        Claims claims = Jwts.claims().setSubject("test@example.com").setId("revoked-jti");
+        when(jwtTokenService.parseToken(token)).thenReturn(Optional.of(claims));
+        when(tokenRevocationService.isRevoked("revoked-jti")).thenReturn(true);
+
+        // When & Then
+        assertThatThrownBy(() -> authenticationService.validateToken(token))
+            .isInstanceOf(AuthenticationException.class)
+            .hasMessageContaining("revoked");
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
     @Test
     void validateToken_WithInvalidToken_ShouldThrowException() {
         // Given
         String token = "invalid-jwt-token";
-        when(jwtTokenService.validateToken(token)).thenReturn(false);
+        when(jwtTokenService.parseToken(token)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> authenticationService.validateToken(token))
@@ -236,13 +359,12 @@ class AuthenticationServiceTest {
     void validateToken_WithExpiredToken_ShouldThrowException() {
         // Given
         String token = "expired-jwt-token";
-        when(jwtTokenService.validateToken(token)).thenReturn(true);
-        when(jwtTokenService.isTokenExpired(token)).thenReturn(true);
+        when(jwtTokenService.parseToken(token)).thenReturn(Optional.empty());
 
         // When & Then
         assertThatThrownBy(() -> authenticationService.validateToken(token))
             .isInstanceOf(AuthenticationException.class)
-            .hasMessageContaining("Token has expired");
+            .hasMessageContaining("Invalid or expired token");
     }
 
     @Test
@@ -0,0 +1,134 @@
+package com.swnih.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for CircuitBreaker and AdaptiveConcurrencyLimiter.
+ * Tests opening on failures and slow calls, half-open probing and latency-driven limits.
+ */
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    @Test
+    void shouldOpenWhenFailureRateReachesThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 0.5, 0.8, 1000, 4, 10, 60000, 1);
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onSuccess(FAST);
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure(FAST);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.isCallPermitted()).isFalse();
+    }
+
+    @Test
+    void shouldNotOpenBelowMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 0.5, 0.8, 1000, 4, 10, 60000, 1);
+
+        for (int i = 0; i < 3; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure(FAST);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void shouldOpenWhenCallsAreSlow() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 0.5, 0.8, 1000, 4, 10, 60000, 1);
+
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquire();
+            breaker.onSuccess(SLOW);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void shouldCloseAfterSuccessfulProbes() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 0.5, 0.8, 1000, 1, 10, 0, 2);
+        breaker.tryAcquire();
+        breaker.onFailure(FAST);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        // Open time has passed: two probes allowed, a third waits
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.getStats()).containsEntry("windowCalls", 0);
+    }
+
+    @Test
+    void shouldReopenWhenProbeFails() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 0.5, 0.8, 1000, 1, 10, 0, 1);
+        breaker.tryAcquire();
+        breaker.onFailure(FAST);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure(FAST);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.getStats()).containsEntry("opened", 2L);
+    }
+
+    @Test
+    void limiterShouldShedCallsOverTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 2.0, 0.5, 100);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void limiterShouldShrinkWhenLatencyRisesAndGrowWhenItRecovers() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 8, 1, 10, 2.0, 0.5, 100);
+        limiter.tryAcquire();
+        limiter.onComplete(FAST, false);
+
+        limiter.tryAcquire();
+        limiter.onComplete(SLOW, false);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+
+        for (int round = 0; round < 20; round++) {
+            // The limit only grows while at least half of it is in use
+            int calls = limiter.getLimit() / 2 + 1;
+            for (int i = 0; i < calls; i++) {
+                assertThat(limiter.tryAcquire()).isTrue();
+            }
+            for (int i = 0; i < calls; i++) {
+                limiter.onComplete(FAST, false);
+            }
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(4);
+    }
+
+    @Test
+    void limiterShouldNotGoBelowMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 4, 2, 10, 2.0, 0.5, 100);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.onComplete(FAST, true);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+}
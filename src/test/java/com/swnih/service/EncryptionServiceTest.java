@@ -1,15 +1,21 @@
 package com.swnih.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
 import static org.assertj.core.api.Assertions.*;
 
 /**
  * Unit tests for EncryptionService.
- * Tests AES-256 encryption and decryption functionality.
+ * Tests AES-256 envelope encryption, legacy decryption and key rotation.
  */
 @DisplayName("EncryptionService Tests")
 class EncryptionServiceTest {
@@ -18,7 +24,7 @@ class EncryptionServiceTest {
 
     @BeforeEach
     void setUp() {
-        encryptionService = new EncryptionService();
+        encryptionService = new EncryptionService(new SimpleMeterRegistry());
         // Set a test secret key
         ReflectionTestUtils.setField(encryptionService, "secretKeyString", "test-secret-key-32-characters-long");
     }
@@ -44,9 +50,78 @@ class EncryptionServiceTest {
         String encrypted1 = encryptionService.encrypt(text);
         String encrypted2 = encryptionService.encrypt(text);
         
-        // Note: With ECB mode, same input produces same output
-        // This is expected behavior for this implementation
-        assertThat(encrypted1).isEqualTo(encrypted2);
+        // Every value gets its own data key and nonce
+        assertThat(encrypted1).isNotEqualTo(encrypted2);
+        assertThat(encryptionService.decrypt(encrypted1)).isEqualTo(text);
+        assertThat(encryptionService.decrypt(encrypted2)).isEqualTo(text);
+    }
+
+    @Test
+    @DisplayName("Should decrypt values in the legacy ECB format")
+    void shouldDecryptLegacyValues() throws Exception {
+        Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(
+                "test-secret-key-32-characters-lo".getBytes(StandardCharsets.UTF_8), "AES"));
+        String legacy = Base64.getEncoder().encodeToString(
+                cipher.doFinal("legacy OAuth token".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(encryptionService.decrypt(legacy)).isEqualTo("legacy OAuth token");
+        assertThat(encryptionService.needsReEncryption(legacy)).isTrue();
+        assertThat(encryptionService.needsReEncryption(encryptionService.encrypt("token"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should read values under a previous master key after rotation")
+    void shouldReadValuesAfterKeyRotation() {
+        String oldKey = encryptionService.generateSecretKey();
+        String newKey = encryptionService.generateSecretKey();
+
+        EncryptionService before = new EncryptionService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(before, "masterKeysConfig", "k1:" + oldKey);
+        String encrypted = before.encrypt("OAuth access token");
+
+        EncryptionService after = new EncryptionService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(after, "masterKeysConfig", "k1:" + oldKey + ",k2:" + newKey);
+        ReflectionTestUtils.setField(after, "activeKeyIdConfig", "k2");
+
+        assertThat(after.decrypt(encrypted)).isEqualTo("OAuth access token");
+        assertThat(after.needsReEncryption(encrypted)).isTrue();
+
+        String reEncrypted = after.encrypt(after.decrypt(encrypted));
+        assertThat(after.needsReEncryption(reEncrypted)).isFalse();
+        assertThatThrownBy(() -> before.decrypt(reEncrypted))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessageContaining("Failed to decrypt data");
+    }
+
+    @Test
+    @DisplayName("Should read values under the derived key after master keys are configured")
+    void shouldReadDerivedKeyValuesAfterMasterKeysAreConfigured() {
+        String encrypted = encryptionService.encrypt("OAuth access token");
+        assertThat(encryptionService.getActiveKeyId()).isEqualTo("derived");
+
+        EncryptionService migrated = new EncryptionService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(migrated, "secretKeyString", "test-secret-key-32-characters-long");
+        ReflectionTestUtils.setField(migrated, "masterKeysConfig", "k1:" + encryptionService.generateSecretKey());
+
+        assertThat(migrated.getActiveKeyId()).isEqualTo("k1");
+        assertThat(migrated.decrypt(encrypted)).isEqualTo("OAuth access token");
+        assertThat(migrated.needsReEncryption(encrypted)).isTrue();
+
+        String reEncrypted = migrated.encrypt(migrated.decrypt(encrypted));
+        assertThat(migrated.needsReEncryption(reEncrypted)).isFalse();
+        assertThat(migrated.decrypt(reEncrypted)).isEqualTo("OAuth access token");
+    }
+
+    @Test
+    @DisplayName("Should reject tampered ciphertext")
+    void shouldRejectTamperedCiphertext() {
+        byte[] envelope = encryptionService.encrypt("OAuth access token".getBytes(StandardCharsets.UTF_8));
+        envelope[envelope.length - 1] ^= 1;
+
+        assertThatThrownBy(() -> encryptionService.decrypt(envelope))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessageContaining("Failed to decrypt data");
     }
 
     @Test
@@ -82,6 +157,29 @@ class EncryptionServiceTest {
         assertThat(decrypted).isEqualTo(unicodeText);
     }
 
+    @Test
+    @DisplayName("Should encrypt and decrypt bytes without Base64")
+    void shouldEncryptAndDecryptBytes() {
+        byte[] original = {0, 1, 2, (byte) 0xff, 42};
+
+        byte[] encrypted = encryptionService.encrypt(original);
+
+        assertThat(encrypted).isNotEqualTo(original);
+        assertThat(encryptionService.decrypt(encrypted)).isEqualTo(original);
+    }
+
+    @Test
+    @DisplayName("Should keep working after a failed decryption")
+    void shouldRecoverAfterFailedDecryption() {
+        String encrypted = encryptionService.encrypt("OAuth access token");
+
+        assertThatThrownBy(() -> encryptionService.decrypt(new byte[] {1, 2, 3}))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessageContaining("Failed to decrypt data");
+
+        assertThat(encryptionService.decrypt(encrypted)).isEqualTo("OAuth access token");
+    }
+
     @Test
     @DisplayName("Should handle long text encryption")
     void shouldHandleLongTextEncryption() {
@@ -100,7 +198,7 @@ class EncryptionServiceTest {
     @Test
     @DisplayName("Should throw exception for null input in encrypt")
     void shouldThrowExceptionForNullInputInEncrypt() {
-        assertThatThrownBy(() -> encryptionService.encrypt(null))
+        assertThatThrownBy(() -> encryptionService.encrypt((String) null))
             .isInstanceOf(RuntimeException.class)
             .hasMessageContaining("Failed to encrypt data");
     }
@@ -108,7 +206,7 @@ class EncryptionServiceTest {
     @Test
     @DisplayName("Should throw exception for null input in decrypt")
     void shouldThrowExceptionForNullInputInDecrypt() {
-        assertThatThrownBy(() -> encryptionService.decrypt(null))
+        assertThatThrownBy(() -> encryptionService.decrypt((String) null))
             .isInstanceOf(RuntimeException.class)
             .hasMessageContaining("Failed to decrypt data");
     }
@@ -144,7 +242,7 @@ class EncryptionServiceTest {
     @Test
     @DisplayName("Should handle short secret key by padding")
     void shouldHandleShortSecretKeyByPadding() {
-        EncryptionService shortKeyService = new EncryptionService();
+        EncryptionService shortKeyService = new EncryptionService(new SimpleMeterRegistry());
         ReflectionTestUtils.setField(shortKeyService, "secretKeyString", "short");
         
         String text = "Test encryption with short key";
@@ -158,7 +256,7 @@ class EncryptionServiceTest {
     @Test
     @DisplayName("Should handle long secret key by truncating")
     void shouldHandleLongSecretKeyByTruncating() {
-        EncryptionService longKeyService = new EncryptionService();
+        EncryptionService longKeyService = new EncryptionService(new SimpleMeterRegistry());
         String longKey = "this-is-a-very-long-secret-key-that-exceeds-32-characters-and-should-be-truncated";
         ReflectionTestUtils.setField(longKeyService, "secretKeyString", longKey);
         
@@ -173,7 +271,7 @@ class EncryptionServiceTest {
     @Test
     @DisplayName("Should throw exception for null secret key")
     void shouldThrowExceptionForNullSecretKey() {
-        EncryptionService nullKeyService = new EncryptionService();
+        EncryptionService nullKeyService = new EncryptionService(new SimpleMeterRegistry());
         ReflectionTestUtils.setField(nullKeyService, "secretKeyString", null);
         
         assertThatThrownBy(() -> nullKeyService.encrypt("test"))
@@ -185,7 +283,7 @@ class EncryptionServiceTest {
     @Test
     @DisplayName("Should throw exception for empty secret key")
     void shouldThrowExceptionForEmptySecretKey() {
-        EncryptionService emptyKeyService = new EncryptionService();
+        EncryptionService emptyKeyService = new EncryptionService(new SimpleMeterRegistry());
         ReflectionTestUtils.setField(emptyKeyService, "secretKeyString", "");
         
         assertThatThrownBy(() -> emptyKeyService.encrypt("test"))
@@ -197,7 +295,7 @@ class EncryptionServiceTest {
     @Test
     @DisplayName("Should return false for validation with invalid configuration")
     void shouldReturnFalseForValidationWithInvalidConfiguration() {
-        EncryptionService invalidService = new EncryptionService();
+        EncryptionService invalidService = new EncryptionService(new SimpleMeterRegistry());
         ReflectionTestUtils.setField(invalidService, "secretKeyString", null);
         
         boolean isValid = invalidService.validateConfiguration();
@@ -212,8 +310,8 @@ class EncryptionServiceTest {
         
         String encrypted = encryptionService.encrypt(text);
         
-        // Base64 pattern: contains only A-Z, a-z, 0-9, +, /, and = for padding
-        assertThat(encrypted).matches("^[A-Za-z0-9+/]+=*$");
+        // Version prefix followed by Base64: only A-Z, a-z, 0-9, +, /, and = for padding
+        assertThat(encrypted).matches("^v2:[A-Za-z0-9+/]+=*$");
     }
 
     @Test
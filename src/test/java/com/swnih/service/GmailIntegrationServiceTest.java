@@ -1,5 +1,6 @@
 package com.swnih.service;
 
+import com.swnih.dto.MessageSummary;
 import com.swnih.dto.OAuthAuthorizationRequest;
 import com.swnih.dto.OAuthCallbackRequest;
 import com.swnih.dto.OAuthTokenResponse;
@@ -8,16 +9,20 @@ import com.swnih.entity.User;
 import com.swnih.exception.OAuthException;
 import com.swnih.exception.TokenRefreshException;
 import com.swnih.repository.OAuthTokenRepository;
-import com.swnih.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -37,21 +42,38 @@ class GmailIntegrationServiceTest {
     private EncryptionService encryptionService;
 
     @Mock
-    private UserRepository userRepository;
+    private MessageIngestionService messageIngestionService;
 
+    @Mock
+    private ReactiveGmailClient reactiveGmailClient;
+
+    private AccessTokenCache accessTokenCache;
+    private SimpleMeterRegistry meterRegistry;
     private GmailIntegrationService gmailIntegrationService;
     private User testUser;
     private OAuthToken testToken;
 
     @BeforeEach
     void setUp() throws Exception {
+        accessTokenCache = new AccessTokenCache();
+        ReflectionTestUtils.setField(accessTokenCache, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(accessTokenCache, "expiryMarginSeconds", 300L);
+        ReflectionTestUtils.setField(accessTokenCache, "maxSize", 100);
+
+        meterRegistry = new SimpleMeterRegistry();
         gmailIntegrationService = new GmailIntegrationService(
-                oauthTokenRepository, encryptionService, userRepository);
+                oauthTokenRepository, encryptionService, messageIngestionService, accessTokenCache,
+                new InMemoryOAuthStateStore(600, 10000, 100), reactiveGmailClient,
+                new GoogleApiHttpTransport(4, 1000, 1000, 1000, 1), new MessageFetchCoalescer(),
+                new GoogleApiResilience(meterRegistry, 0.5, 0.8, 20, 30, 30000, 3, 5000, 3000, 20, 2, 200, 2.0),
+                meterRegistry);
 
         // Set up test configuration using reflection
         ReflectionTestUtils.setField(gmailIntegrationService, "clientId", "test-client-id");
         ReflectionTestUtils.setField(gmailIntegrationService, "clientSecret", "test-client-secret");
         ReflectionTestUtils.setField(gmailIntegrationService, "redirectUri", "http://localhost:8080/api/gmail/oauth/callback");
+        ReflectionTestUtils.setField(gmailIntegrationService, "maxMessages", 50);
+        ReflectionTestUtils.setField(gmailIntegrationService, "reactiveConcurrency", 4);
 
         // Create test user
         testUser = new User("testuser", "test@example.com", "hashedpassword");
@@ -85,7 +107,7 @@ class GmailIntegrationServiceTest {
     }
 
     @Test
-    void handleOAuthCallback_ShouldReturnFailure_WhenCallbackHasError() {
+    void handleOAuthCallbackForUser_ShouldReturnFailure_WhenCallbackHasError() {
         // Given
         OAuthCallbackRequest callbackRequest = new OAuthCallbackRequest();
         callbackRequest.setError("access_denied");
@@ -93,7 +115,7 @@ class GmailIntegrationServiceTest {
         callbackRequest.setState("test-state");
 
         // When
-        OAuthTokenResponse result = gmailIntegrationService.handleOAuthCallback(callbackRequest);
+        OAuthTokenResponse result = gmailIntegrationService.handleOAuthCallbackForUser(callbackRequest, testUser);
 
         // Then
         assertThat(result).isNotNull();
@@ -102,14 +124,14 @@ class GmailIntegrationServiceTest {
     }
 
     @Test
-    void handleOAuthCallback_ShouldReturnFailure_WhenStateIsInvalid() {
+    void handleOAuthCallbackForUser_ShouldReturnFailure_WhenStateIsInvalid() {
         // Given
         OAuthCallbackRequest callbackRequest = new OAuthCallbackRequest();
         callbackRequest.setCode("test-auth-code");
         callbackRequest.setState("invalid-state");
 
         // When
-        OAuthTokenResponse result = gmailIntegrationService.handleOAuthCallback(callbackRequest);
+        OAuthTokenResponse result = gmailIntegrationService.handleOAuthCallbackForUser(callbackRequest, testUser);
 
         // Then
         assertThat(result).isNotNull();
@@ -117,6 +139,24 @@ class GmailIntegrationServiceTest {
         assertThat(result.getMessage()).contains("Invalid or expired authorization request");
     }
 
+    @Test
+    void handleOAuthCallbackForUser_ShouldReturnFailure_WhenStateBelongsToAnotherUser() {
+        // Given
+        User otherUser = new User("otheruser", "other@example.com", "hashedpassword");
+        otherUser.setId(2L);
+        String state = gmailIntegrationService.initiateOAuthFlow(otherUser).getState();
+
+        OAuthCallbackRequest callbackRequest = new OAuthCallbackRequest("test-auth-code", state);
+
+        // When
+        OAuthTokenResponse result = gmailIntegrationService.handleOAuthCallbackForUser(callbackRequest, testUser);
+
+        // Then
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getMessage()).contains("Invalid or expired authorization request");
+        verify(oauthTokenRepository, never()).save(any(OAuthToken.class));
+    }
+
     @Test
     void getValidAccessToken_ShouldReturnDecryptedToken_WhenValidTokenExists() {
         // Given
@@ -133,6 +173,36 @@ class GmailIntegrationServiceTest {
         verify(encryptionService).decrypt("encrypted-access-token");
     }
 
+    @Test
+    void getValidAccessToken_ShouldServeRepeatedCallsFromCache() {
+        // Given
+        when(oauthTokenRepository.findValidTokenByUser(eq(testUser), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(testToken));
+        when(encryptionService.decrypt("encrypted-access-token"))
+                .thenReturn("decrypted-access-token");
+
+        // When
+        gmailIntegrationService.getValidAccessToken(testUser);
+        String result = gmailIntegrationService.getValidAccessToken(testUser);
+
+        // Then
+        assertThat(result).isEqualTo("decrypted-access-token");
+        verify(oauthTokenRepository, times(1)).findValidTokenByUser(eq(testUser), any(LocalDateTime.class));
+        verify(encryptionService, times(1)).decrypt("encrypted-access-token");
+    }
+
+    @Test
+    void revokeAuthorization_ShouldInvalidateCachedToken() {
+        // Given
+        accessTokenCache.put(testUser.getId(), "decrypted-access-token", LocalDateTime.now().plusHours(1));
+
+        // When
+        gmailIntegrationService.revokeAuthorization(testUser);
+
+        // Then
+        assertThat(accessTokenCache.get(testUser.getId())).isNull();
+    }
+
     @Test
     void getValidAccessToken_ShouldThrowException_WhenNoValidTokenExists() {
         // Given
@@ -269,6 +339,7 @@ class GmailIntegrationServiceTest {
         assertThatThrownBy(() -> gmailIntegrationService.refreshAccessToken(testToken))
                 .isInstanceOf(TokenRefreshException.class)
                 .hasMessageContaining("Failed to refresh access token");
+        assertThat(meterRegistry.get("oauth.token.refresh").tag("outcome", "failure").timer().count()).isEqualTo(1);
     }
 
     // Edge case tests
@@ -305,18 +376,108 @@ class GmailIntegrationServiceTest {
     }
 
     @Test
-    void handleOAuthCallback_ShouldReturnFailure_WhenNullParameters() {
+    void handleOAuthCallbackForUser_ShouldReturnFailure_WhenNullParameters() {
         // Given
         OAuthCallbackRequest callbackRequest = new OAuthCallbackRequest();
         callbackRequest.setCode(null);
         callbackRequest.setState(null);
 
         // When
-        OAuthTokenResponse result = gmailIntegrationService.handleOAuthCallback(callbackRequest);
+        OAuthTokenResponse result = gmailIntegrationService.handleOAuthCallbackForUser(callbackRequest, testUser);
 
         // Then
         assertThat(result).isNotNull();
         assertThat(result.isSuccess()).isFalse();
         assertThat(result.getMessage()).contains("Invalid or expired authorization request");
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamMessagesReactive_ShouldClassifyInInboxOrderAndSkipFailedMessages() {
+        // Given
+        accessTokenCache.put(testUser.getId(), "decrypted-access-token", LocalDateTime.now().plusHours(1));
+        when(reactiveGmailClient.listMessageIds("decrypted-access-token", "in:inbox", 50))
+                .thenReturn(Flux.just("m1", "m2", "m3"));
+        when(reactiveGmailClient.getMessage("decrypted-access-token", "m1"))
+                .thenReturn(Mono.just(gmailJson("m1", "120", "Interview invitation for tomorrow")));
+        when(reactiveGmailClient.getMessage("decrypted-access-token", "m2"))
+                .thenReturn(Mono.error(new OAuthException("Gmail API request failed with status 500", "GMAIL_API_ERROR")));
+        when(reactiveGmailClient.getMessage("decrypted-access-token", "m3"))
+                .thenReturn(Mono.just(gmailJson("m3", "110", "Weekly newsletter")));
+        // Registered up front rather than on first use
+        assertThat(meterRegistry.get("message.classification").timers()).hasSize(3);
+        assertThat(meterRegistry.get("gmail.sync.messages").summaries()).hasSize(3);
+
+        // When
+        List<MessageSummary> messages = gmailIntegrationService.streamMessagesReactive(testUser, null)
+                .collectList().block();
+
+        // Then
+        assertThat(messages).extracting(MessageSummary::id).containsExactly("m1", "m3");
+        assertThat(gmailIntegrationService.getLatestHistoryId(testUser)).isEqualTo("120");
+        verify(messageIngestionService, times(2)).ingest(eq(testUser), anyString(), anyString(), anyString(),
+                any(), any(), isNull(), any(), eq("GMAIL"));
+        assertThat(meterRegistry.get("gmail.sync.messages").tag("path", "reactive").tag("mode", "full").summary().totalAmount()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("message.classification").tag("priority", "HIGH").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void streamMessagesReactive_ShouldFallBackToInboxWhenHistoryExpired() {
+        // Given
+        accessTokenCache.put(testUser.getId(), "decrypted-access-token", LocalDateTime.now().plusHours(1));
+        when(reactiveGmailClient.listHistory("decrypted-access-token", "5"))
+                .thenReturn(Mono.error(new OAuthException("Gmail history is no longer available", "HISTORY_EXPIRED")));
+        when(reactiveGmailClient.listMessageIds("decrypted-access-token", "in:inbox", 50))
+                .thenReturn(Flux.just("m1"));
+        when(reactiveGmailClient.getMessage("decrypted-access-token", "m1"))
+                .thenReturn(Mono.just(gmailJson("m1", "120", "Meeting reminder")));
+
+        // When
+        List<MessageSummary> messages = gmailIntegrationService.streamMessagesReactive(testUser, "5")
+                .collectList().block();
+
+        // Then
+        assertThat(messages).extracting(MessageSummary::id).containsExactly("m1");
+    }
+
+    @Test
+    void streamMessagesReactive_ShouldFailAndDropCachedTokenWhenTokenRejected() {
+        // Given
+        accessTokenCache.put(testUser.getId(), "decrypted-access-token", LocalDateTime.now().plusHours(1));
+        when(reactiveGmailClient.listMessageIds("decrypted-access-token", "in:inbox", 50))
+                .thenReturn(Flux.error(new OAuthException("Gmail rejected the access token", "TOKEN_REJECTED")));
+
+        // When & Then
+        assertThatThrownBy(() -> gmailIntegrationService.streamMessagesReactive(testUser, null).collectList().block())
+                .isInstanceOf(OAuthException.class);
+        assertThat(accessTokenCache.get(testUser.getId())).isNull();
+    }
+
+    @Test
+    void streamMessagesReactive_ShouldRetryAndThenSkipMessagesRejectedByConcurrencyLimit() {
+        // Given
+        accessTokenCache.put(testUser.getId(), "decrypted-access-token", LocalDateTime.now().plusHours(1));
+        AtomicInteger attempts = new AtomicInteger();
+        when(reactiveGmailClient.listMessageIds("decrypted-access-token", "in:inbox", 50))
+                .thenReturn(Flux.just("m1", "m2"));
+        when(reactiveGmailClient.getMessage("decrypted-access-token", "m1"))
+                .thenReturn(Mono.defer(() -> attempts.incrementAndGet() == 1
+                        ? Mono.error(new OAuthException("Too many Gmail requests in progress", "GMAIL_OVERLOADED"))
+                        : Mono.just(gmailJson("m1", "120", "Meeting reminder"))));
+        when(reactiveGmailClient.getMessage("decrypted-access-token", "m2"))
+                .thenReturn(Mono.error(new OAuthException("Too many Gmail requests in progress", "GMAIL_OVERLOADED")));
+
+        // When
+        List<MessageSummary> messages = gmailIntegrationService.streamMessagesReactive(testUser, null)
+                .collectList().block();
+
+        // Then
+        assertThat(messages).extracting(MessageSummary::id).containsExactly("m1");
+        assertThat(attempts.get()).isEqualTo(2);
+    }
+
+    private String gmailJson(String id, String historyId, String subject) {
+        return "{\"id\":\"" + id + "\",\"historyId\":\"" + historyId + "\",\"payload\":{\"headers\":["
+                + "{\"name\":\"From\",\"value\":\"HR <hr@example.com>\"},"
+                + "{\"name\":\"Subject\",\"value\":\"" + subject + "\"}]}}";
+    }
+}
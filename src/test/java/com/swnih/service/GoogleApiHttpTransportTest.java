@@ -0,0 +1,113 @@
+package com.swnih.service;
+
+import com.google.api.client.http.ByteArrayContent;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for GoogleApiHttpTransport.
+ * Tests request and response mapping through the Google client against a local server.
+ */
+class GoogleApiHttpTransportTest {
+
+    private HttpServer server;
+    private GoogleApiHttpTransport transport;
+    private HttpRequestFactory requestFactory;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/echo", exchange -> {
+            byte[] requestBody = exchange.getRequestBody().readAllBytes();
+            String reply = exchange.getRequestMethod() + " "
+                    + exchange.getRequestHeaders().getFirst("Authorization") + " "
+                    + new String(requestBody, StandardCharsets.UTF_8);
+            byte[] bytes = reply.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/plain");
+            exchange.getResponseHeaders().add("X-Test", "value");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        transport = new GoogleApiHttpTransport(4, 1000, 1000, 5000, 2);
+        requestFactory = transport.createRequestFactory();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transport.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void execute_WithGet_ShouldReturnStatusHeadersAndBody() throws IOException {
+        // Given
+        HttpRequest request = requestFactory.buildGetRequest(new GenericUrl(baseUrl + "/echo"));
+        request.getHeaders().setAuthorization("Bearer token");
+
+        // When
+        HttpResponse response = request.execute();
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getHeaders().getFirstHeaderStringValue("X-Test")).isEqualTo("value");
+        assertThat(response.parseAsString()).isEqualTo("GET Bearer token ");
+        assertThat(transport.getStats()).containsEntry("requests", 1L).containsEntry("failures", 0L)
+                .containsEntry("inFlight", 0);
+    }
+
+    @Test
+    void execute_WithPost_ShouldSendContent() throws IOException {
+        // Given
+        HttpRequest request = requestFactory.buildPostRequest(new GenericUrl(baseUrl + "/echo"),
+                ByteArrayContent.fromString("application/json", "{\"a\":1}"));
+
+        // When
+        HttpResponse response = request.execute();
+
+        // Then
+        assertThat(response.parseAsString()).isEqualTo("POST null {\"a\":1}");
+    }
+
+    @Test
+    void execute_WithErrorStatus_ShouldThrowHttpResponseException() {
+        // When & Then
+        assertThatThrownBy(() -> requestFactory.buildGetRequest(new GenericUrl(baseUrl + "/missing")).execute())
+                .isInstanceOf(HttpResponseException.class)
+                .satisfies(e -> assertThat(((HttpResponseException) e).getStatusCode()).isEqualTo(404));
+    }
+
+    @Test
+    void execute_WhenServerUnreachable_ShouldCountFailure() throws IOException {
+        // Given
+        server.stop(0);
+        HttpRequest request = requestFactory.buildGetRequest(new GenericUrl(baseUrl + "/echo"));
+
+        // When & Then
+        assertThatThrownBy(request::execute).isInstanceOf(IOException.class);
+        assertThat(transport.getStats()).containsEntry("failures", 1L).containsEntry("inFlight", 0);
+    }
+}
@@ -0,0 +1,97 @@
+package com.swnih.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for InMemoryOAuthStateStore.
+ * Tests one-time consumption, expiry and the size bound.
+ */
+@DisplayName("InMemoryOAuthStateStore Tests")
+class InMemoryOAuthStateStoreTest {
+
+    @Test
+    @DisplayName("Should consume a state only once")
+    void shouldConsumeStateOnce() {
+        InMemoryOAuthStateStore store = new InMemoryOAuthStateStore(600, 1000, 100);
+        store.save("state-1", 42L);
+
+        assertThat(store.consume("state-1")).contains(42L);
+        assertThat(store.consume("state-1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject unknown and null states")
+    void shouldRejectUnknownStates() {
+        InMemoryOAuthStateStore store = new InMemoryOAuthStateStore(600, 1000, 100);
+
+        assertThat(store.consume("unknown")).isEmpty();
+        assertThat(store.consume(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should expire states after the TTL")
+    void shouldExpireStates() throws InterruptedException {
+        InMemoryOAuthStateStore store = new InMemoryOAuthStateStore(0, 10, 100);
+        store.save("state-1", 42L);
+
+        Thread.sleep(30);
+        store.expire();
+
+        assertThat(store.size()).isZero();
+        assertThat(store.consume("state-1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should stay within the size bound")
+    void shouldStayWithinSizeBound() {
+        InMemoryOAuthStateStore store = new InMemoryOAuthStateStore(600, 1000, 50);
+
+        for (int i = 0; i < 500; i++) {
+            store.save("state-" + i, (long) i);
+        }
+
+        assertThat(store.size()).isLessThanOrEqualTo(50);
+        assertThat(store.consume("state-499")).contains(499L);
+    }
+
+    @Test
+    @DisplayName("Should stay within the size bound when saving while expiring")
+    void shouldStayWithinSizeBoundUnderConcurrentSaves() throws Exception {
+        InMemoryOAuthStateStore store = new InMemoryOAuthStateStore(600, 1000, 50);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        store.save("state-" + thread + "-" + i, (long) i);
+                        if (i % 100 == 0) {
+                            store.expire();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Each thread may add one state after another made room
+        assertThat(store.size()).isLessThanOrEqualTo(50 + 4);
+        store.save("state-after", 7L);
+        assertThat(store.consume("state-after")).contains(7L);
+    }
+}
@@ -1,11 +1,14 @@
 package com.swnih.service;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -19,10 +22,11 @@ class JwtTokenServiceTest {
 
     @BeforeEach
     void setUp() {
-        jwtTokenService = new JwtTokenService();
+        jwtTokenService = new JwtTokenService(new SimpleMeterRegistry());
         // Set test values using reflection
         ReflectionTestUtils.setField(jwtTokenService, "jwtSecret", "test-jwt-secret-key-should-be-at-least-256-bits-long-for-security");
         ReflectionTestUtils.setField(jwtTokenService, "jwtExpirationMs", 86400000L); // 24 hours
+        jwtTokenService.init();
     }
 
     @Test
@@ -41,6 +45,34 @@ class JwtTokenServiceTest {
         assertThat(jwtTokenService.validateToken(token)).isTrue();
     }
 
+    @Test
+    void parseToken_WithValidToken_ShouldReturnAllClaims() {
+        // Given
+        String token = jwtTokenService.generateToken(1L, "test@example.com", "testuser");
+
+        // When
+        Optional<Claims> claims = jwtTokenService.parseToken(token);
+
+        // Then
+        assertThat(claims).isPresent();
+        assertThat(claims.get().getSubject()).isEqualTo("test@example.com");
+        assertThat(JwtTokenService.getUserId(claims.get())).isEqualTo(1L);
+        assertThat(claims.get().get("username", String.class)).isEqualTo("testuser");
+    }
+
+    @Test
+    void parseToken_WithTokenSignedByOtherKey_ShouldReturnEmpty() {
+        // Given
+        JwtTokenService otherService = new JwtTokenService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(otherService, "jwtSecret", "another-jwt-secret-key-that-is-also-at-least-256-bits-long");
+        ReflectionTestUtils.setField(otherService, "jwtExpirationMs", 86400000L);
+        otherService.init();
+        String token = otherService.generateToken(1L, "test@example.com", "testuser");
+
+        // When & Then
+        assertThat(jwtTokenService.parseToken(token)).isEmpty();
+    }
+
     @Test
     void getEmailFromToken_WithValidToken_ShouldReturnEmail() {
         // Given
@@ -164,9 +196,10 @@ class JwtTokenServiceTest {
     @Test
     void isTokenExpired_WithExpiredToken_ShouldReturnTrue() {
         // Given - Create service with very short expiration
-        JwtTokenService shortExpirationService = new JwtTokenService();
+        JwtTokenService shortExpirationService = new JwtTokenService(new SimpleMeterRegistry());
         ReflectionTestUtils.setField(shortExpirationService, "jwtSecret", "test-jwt-secret-key-should-be-at-least-256-bits-long-for-security");
         ReflectionTestUtils.setField(shortExpirationService, "jwtExpirationMs", 1L); // 1 millisecond
+        shortExpirationService.init();
 
         String token = shortExpirationService.generateToken(1L, "test@example.com", "testuser");
 
@@ -0,0 +1,94 @@
+package com.swnih.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for MessageBodyCodec.
+ * Tests round trips and codec selection for stored message bodies.
+ */
+@DisplayName("MessageBodyCodec Tests")
+class MessageBodyCodecTest {
+
+    private MessageBodyCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        codec = new MessageBodyCodec();
+    }
+
+    @Test
+    @DisplayName("Should store short bodies uncompressed")
+    void shouldStoreShortBodiesRaw() {
+        MessageBodyCodec.EncodedBody encoded = codec.encode("Hi there");
+
+        assertThat(encoded.getCodec()).isEqualTo(MessageBodyCodec.CODEC_RAW);
+        assertThat(codec.decode(encoded.getCodec(), encoded.getData(), encoded.getOriginalLength()))
+                .isEqualTo("Hi there");
+    }
+
+    @Test
+    @DisplayName("Should compress and restore typical email text")
+    void shouldCompressTypicalEmail() {
+        String body = "Hello, Thank you for your application. Your interview is scheduled for tomorrow at 10am. " +
+                "Please let me know if you have any questions. Best regards, The Hiring Team. " +
+                "This email was sent to you because you signed up. Click here to unsubscribe from these emails. " +
+                "Privacy policy terms of service all rights reserved.";
+
+        MessageBodyCodec.EncodedBody encoded = codec.encode(body);
+
+        assertThat(encoded.getCodec()).isEqualTo(MessageBodyCodec.CODEC_DEFLATE_DICT_V1);
+        assertThat(encoded.getData().length).isLessThan(encoded.getOriginalLength());
+        assertThat(codec.decode(encoded.getCodec(), encoded.getData(), encoded.getOriginalLength()))
+                .isEqualTo(body);
+    }
+
+    @Test
+    @DisplayName("Should round trip Unicode bodies")
+    void shouldRoundTripUnicode() {
+        String body = "Meeting reminder 会议提醒 🔔 ".repeat(20);
+
+        MessageBodyCodec.EncodedBody encoded = codec.encode(body);
+
+        assertThat(codec.decode(encoded.getCodec(), encoded.getData(), encoded.getOriginalLength()))
+                .isEqualTo(body);
+    }
+
+    @Test
+    @DisplayName("Should treat null body as empty")
+    void shouldTreatNullAsEmpty() {
+        MessageBodyCodec.EncodedBody encoded = codec.encode(null);
+
+        assertThat(encoded.getOriginalLength()).isZero();
+        assertThat(codec.decode(encoded.getCodec(), encoded.getData(), 0)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject unknown codec IDs")
+    void shouldRejectUnknownCodec() {
+        assertThatThrownBy(() -> codec.decode((byte) 42, new byte[0], 0))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Unknown message body codec");
+    }
+
+    @Test
+    @DisplayName("Should keep working after the compressor pool is released")
+    void shouldReuseAndReleaseCompressors() {
+        String body = "Your order has been shipped. Tracking number 1Z999AA10123456784. ".repeat(10);
+
+        for (int i = 0; i < 50; i++) {
+            MessageBodyCodec.EncodedBody encoded = codec.encode(body);
+            assertThat(codec.decode(encoded.getCodec(), encoded.getData(), encoded.getOriginalLength()))
+                    .isEqualTo(body);
+        }
+        codec.shutdown();
+
+        MessageBodyCodec.EncodedBody encoded = codec.encode(body);
+        assertThat(encoded.getCodec()).isEqualTo(MessageBodyCodec.CODEC_DEFLATE_DICT_V1);
+        assertThat(codec.decode(encoded.getCodec(), encoded.getData(), encoded.getOriginalLength()))
+                .isEqualTo(body);
+    }
+}
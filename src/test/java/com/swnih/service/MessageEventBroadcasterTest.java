@@ -0,0 +1,151 @@
+package com.swnih.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for MessageEventBroadcaster.
+ * Tests per-user fan-out, Last-Event-ID replay and resync on gaps.
+ */
+@DisplayName("MessageEventBroadcaster Tests")
+class MessageEventBroadcasterTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\d+)");
+
+    private final List<CapturingEmitter> emitters = new ArrayList<>();
+    private MessageEventBroadcaster broadcaster;
+
+    /**
+     * Emitter recording the raw text of every event sent to it.
+     */
+    static final class CapturingEmitter extends SseEmitter {
+        private final LinkedBlockingQueue<String> sent = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                text.append(part.getData());
+            }
+            sent.add(text.toString());
+        }
+
+        String nextEvent() throws InterruptedException {
+            // Skip anything without an event line: the retry/connected preamble and heartbeats
+            while (true) {
+                String event = sent.poll(2, TimeUnit.SECONDS);
+                if (event == null || event.startsWith("event:") || event.contains("\nevent:")) {
+                    return event;
+                }
+            }
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new MessageEventBroadcaster(new ObjectMapper()) {
+            @Override
+            SseEmitter createEmitter(long timeout) {
+                CapturingEmitter emitter = new CapturingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(broadcaster, "timeoutMillis", 60000L);
+        ReflectionTestUtils.setField(broadcaster, "replayBufferSize", 3);
+        ReflectionTestUtils.setField(broadcaster, "replayRetentionMillis", 60000L);
+        ReflectionTestUtils.setField(broadcaster, "maxConnectionsPerUser", 5);
+        ReflectionTestUtils.setField(broadcaster, "reconnectDelayMillis", 3000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should deliver events only to the owning user's streams")
+    void shouldFanOutPerUser() throws InterruptedException {
+        broadcaster.subscribe(1L, null);
+        broadcaster.subscribe(1L, null);
+        broadcaster.subscribe(2L, null);
+
+        broadcaster.publishAfterCommit(1L, Map.of("subject", "Interview"));
+
+        assertThat(emitters.get(0).nextEvent()).contains("event:message").contains("Interview");
+        assertThat(emitters.get(1).nextEvent()).contains("event:message").contains("Interview");
+        assertThat(emitters.get(2).nextEvent()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should replay events missed since Last-Event-ID")
+    void shouldReplayMissedEvents() throws InterruptedException {
+        broadcaster.subscribe(1L, null);
+        broadcaster.publish(1L, MessageEventBroadcaster.EVENT_MESSAGE, Map.of("subject", "first"));
+        String first = emitters.get(0).nextEvent();
+        broadcaster.publish(1L, MessageEventBroadcaster.EVENT_MESSAGE, Map.of("subject", "second"));
+
+        broadcaster.subscribe(1L, eventId(first));
+
+        String replayed = emitters.get(1).nextEvent();
+        assertThat(replayed).contains("second");
+        assertThat(emitters.get(1).nextEvent()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should ask for a resync when missed events are no longer buffered")
+    void shouldResyncOnGap() throws InterruptedException {
+        broadcaster.subscribe(1L, null);
+        broadcaster.publish(1L, MessageEventBroadcaster.EVENT_MESSAGE, Map.of("subject", "first"));
+        String first = emitters.get(0).nextEvent();
+        for (int i = 0; i < 5; i++) {
+            broadcaster.publish(1L, MessageEventBroadcaster.EVENT_MESSAGE, Map.of("subject", "later-" + i));
+        }
+
+        broadcaster.subscribe(1L, eventId(first));
+
+        assertThat(emitters.get(1).nextEvent()).contains("event:" + MessageEventBroadcaster.EVENT_RESYNC);
+    }
+
+    @Test
+    @DisplayName("Should ask for a resync on an unknown Last-Event-ID")
+    void shouldResyncOnUnknownId() throws InterruptedException {
+        broadcaster.subscribe(1L, "not-a-number");
+
+        assertThat(emitters.get(0).nextEvent()).contains("event:" + MessageEventBroadcaster.EVENT_RESYNC);
+    }
+
+    @Test
+    @DisplayName("Should close the oldest stream over the per-user connection limit")
+    void shouldLimitConnectionsPerUser() {
+        ReflectionTestUtils.setField(broadcaster, "maxConnectionsPerUser", 2);
+
+        broadcaster.subscribe(1L, null);
+        broadcaster.subscribe(1L, null);
+        broadcaster.subscribe(1L, null);
+
+        assertThat(broadcaster.getConnectionCount()).isEqualTo(2);
+    }
+
+    private String eventId(String event) {
+        Matcher matcher = EVENT_ID.matcher(event);
+        assertThat(matcher.find()).isTrue();
+        return matcher.group(1);
+    }
+}
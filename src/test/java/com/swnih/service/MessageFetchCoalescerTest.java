@@ -0,0 +1,167 @@
+package com.swnih.service;
+
+import com.swnih.dto.MessageSummary;
+import com.swnih.exception.OAuthException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for MessageFetchCoalescer.
+ * Tests joining running fetches, the reuse window and retry after failures.
+ */
+class MessageFetchCoalescerTest {
+
+    private MessageFetchCoalescer coalescer;
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new MessageFetchCoalescer();
+        ReflectionTestUtils.setField(coalescer, "reuseWindowMillis", 60000L);
+    }
+
+    @Test
+    void fetch_WhileRunning_ShouldJoinRunningFetch() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<MessageSummary>> first = CompletableFuture.supplyAsync(() ->
+                coalescer.fetch(1L, () -> {
+                    fetches.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return List.of(message("m1"));
+                }));
+        assertThat(started.await(2, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        CompletableFuture<List<MessageSummary>> second = CompletableFuture.supplyAsync(() ->
+                coalescer.fetch(1L, () -> {
+                    fetches.incrementAndGet();
+                    return List.of();
+                }));
+        release.countDown();
+
+        // Then
+        assertThat(second.get(2, TimeUnit.SECONDS)).extracting(MessageSummary::id).containsExactly("m1");
+        assertThat(first.get(2, TimeUnit.SECONDS)).extracting(MessageSummary::id).containsExactly("m1");
+        assertThat(fetches).hasValue(1);
+        assertThat(coalescer.getCoalescedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void fetch_AfterReuseWindow_ShouldFetchAgain() {
+        // Given
+        ReflectionTestUtils.setField(coalescer, "reuseWindowMillis", -1L);
+        coalescer.fetch(1L, () -> List.of(message("m1")));
+
+        // When
+        List<MessageSummary> messages = coalescer.fetch(1L, () -> List.of(message("m2")));
+
+        // Then
+        assertThat(messages).extracting(MessageSummary::id).containsExactly("m2");
+    }
+
+    @Test
+    void fetch_AfterFailure_ShouldRetry() {
+        // Given
+        assertThatThrownBy(() -> coalescer.fetch(1L, () -> {
+            throw new OAuthException("Failed to fetch Gmail messages", "MESSAGE_FETCH_FAILED");
+        })).isInstanceOf(OAuthException.class);
+
+        // When
+        List<MessageSummary> messages = coalescer.fetch(1L, () -> List.of(message("m1")));
+
+        // Then
+        assertThat(messages).hasSize(1);
+    }
+
+    @Test
+    void fetch_ForDifferentUsers_ShouldNotShareResults() {
+        // When
+        coalescer.fetch(1L, () -> List.of(message("m1")));
+        List<MessageSummary> messages = coalescer.fetch(2L, () -> List.of(message("m2")));
+
+        // Then
+        assertThat(messages).extracting(MessageSummary::id).containsExactly("m2");
+    }
+
+    @Test
+    void stream_LateSubscriber_ShouldReceiveEmittedAndLiveMessages() {
+        // Given
+        Sinks.Many<MessageSummary> source = Sinks.many().unicast().onBackpressureBuffer();
+        Flux<MessageSummary> first = coalescer.stream(1L, null, () -> {
+            fetches.incrementAndGet();
+            return source.asFlux();
+        });
+        List<String> firstIds = new ArrayList<>();
+        first.subscribe(message -> firstIds.add(message.id()));
+        source.tryEmitNext(message("m1"));
+
+        // When
+        Flux<MessageSummary> second = coalescer.stream(1L, null, () -> {
+            fetches.incrementAndGet();
+            return Flux.empty();
+        });
+        List<String> secondIds = new ArrayList<>();
+        second.subscribe(message -> secondIds.add(message.id()));
+        source.tryEmitNext(message("m2"));
+        source.tryEmitComplete();
+
+        // Then
+        assertThat(firstIds).containsExactly("m1", "m2");
+        assertThat(secondIds).containsExactly("m1", "m2");
+        assertThat(fetches).hasValue(1);
+    }
+
+    @Test
+    void stream_WithOtherHistoryId_ShouldStartNewFetch() {
+        // When
+        coalescer.stream(1L, null, () -> Flux.just(message("m1"))).blockLast();
+        List<MessageSummary> messages = coalescer.stream(1L, "100", () -> Flux.just(message("m2")))
+                .collectList().block();
+
+        // Then
+        assertThat(messages).extracting(MessageSummary::id).containsExactly("m2");
+    }
+
+    @Test
+    void stream_AfterFailure_ShouldRetry() {
+        // Given
+        assertThatThrownBy(() -> coalescer.stream(1L, null,
+                () -> Flux.<MessageSummary>error(new OAuthException("Gmail API rate limit exceeded", "GMAIL_RATE_LIMITED")))
+                .blockLast()).isInstanceOf(OAuthException.class);
+
+        // When
+        List<MessageSummary> messages = coalescer.stream(1L, null, () -> Flux.just(message("m1")))
+                .collectList().block();
+
+        // Then
+        assertThat(messages).hasSize(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static MessageSummary message(String id) {
+        return MessageSummary.fetched(id, "sender@example.com", "Subject", "", "LOW", LocalDateTime.now());
+    }
+}
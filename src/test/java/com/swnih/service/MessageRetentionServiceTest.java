@@ -0,0 +1,129 @@
+package com.swnih.service;
+
+import com.swnih.repository.ArchivedMessageRepository;
+import com.swnih.repository.MessageChangeRepository;
+import com.swnih.repository.MessageRepository;
+import com.swnih.repository.UserRepository;
+import com.swnih.security.UserStateCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MessageRetentionService.
+ * Tests the archival batch budget, retention floor and batched purging of the change log.
+ */
+@ExtendWith(MockitoExtension.class)
+class MessageRetentionServiceTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private ArchivedMessageRepository archivedMessageRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserStateCache userStateCache;
+
+    @Mock
+    private MessageChangeRepository messageChangeRepository;
+
+    private MessageRetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        retentionService = new MessageRetentionService(messageRepository, archivedMessageRepository, userRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), userStateCache, messageChangeRepository);
+        ReflectionTestUtils.setField(retentionService, "enabled", true);
+        ReflectionTestUtils.setField(retentionService, "defaultDays", 365);
+        ReflectionTestUtils.setField(retentionService, "minDays", 7);
+        ReflectionTestUtils.setField(retentionService, "batchSize", 2);
+        ReflectionTestUtils.setField(retentionService, "maxBatchesPerRun", 100);
+        ReflectionTestUtils.setField(retentionService, "pauseBetweenBatchesMs", 0L);
+        ReflectionTestUtils.setField(retentionService, "changeLogRetentionDays", 30);
+    }
+
+    @Test
+    void runRetention_ShouldStopAtBatchBudgetAndLeaveTheRestForTheNextRun() {
+        // Given
+        ReflectionTestUtils.setField(retentionService, "maxBatchesPerRun", 2);
+        when(userRepository.findRetentionSettingsAfter(eq(0L), any()))
+                .thenReturn(List.<Object[]>of(new Object[] {1L, null}, new Object[] {2L, 30}));
+        when(messageRepository.findIdsOlderThan(eq(1L), any(), any())).thenReturn(List.of(10L, 11L));
+        when(messageRepository.deleteByIdIn(anyList())).thenReturn(2);
+
+        // When
+        retentionService.runRetention();
+
+        // Then
+        verify(archivedMessageRepository, times(2)).archiveMessages(List.of(10L, 11L));
+        verify(messageChangeRepository, times(2)).recordDeletes(List.of(10L, 11L));
+        verify(messageRepository, never()).findIdsOlderThan(eq(2L), any(), any());
+    }
+
+    @Test
+    void resolveRetentionDays_ShouldNotGoBelowMinimum() {
+        assertThat(retentionService.resolveRetentionDays(null)).isEqualTo(365);
+        assertThat(retentionService.resolveRetentionDays(30)).isEqualTo(30);
+        assertThat(retentionService.resolveRetentionDays(1)).isEqualTo(7);
+    }
+
+    @Test
+    void purgeChangeLog_ShouldDeleteInBatchesAndKeepNewestEntry() {
+        // Given
+        when(messageChangeRepository.findMaxId()).thenReturn(1000L);
+        when(messageChangeRepository.findIdsChangedBefore(any(), eq(1000L), any()))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+        when(messageChangeRepository.deleteByIdIn(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        // When
+        retentionService.purgeChangeLog();
+
+        // Then
+        verify(messageChangeRepository).deleteByIdIn(List.of(1L, 2L));
+        verify(messageChangeRepository).deleteByIdIn(List.of(3L));
+        verify(messageChangeRepository, times(3)).findIdsChangedBefore(any(), eq(1000L), any());
+    }
+
+    @Test
+    void purgeChangeLog_ShouldStopAtBatchBudget() {
+        // Given
+        ReflectionTestUtils.setField(retentionService, "maxBatchesPerRun", 2);
+        when(messageChangeRepository.findMaxId()).thenReturn(1000L);
+        when(messageChangeRepository.findIdsChangedBefore(any(), eq(1000L), any())).thenReturn(List.of(1L, 2L));
+        when(messageChangeRepository.deleteByIdIn(anyList())).thenReturn(2);
+
+        // When
+        retentionService.purgeChangeLog();
+
+        // Then
+        verify(messageChangeRepository, times(2)).deleteByIdIn(anyList());
+    }
+
+    @Test
+    void purgeChangeLog_WithEmptyLog_ShouldDoNothing() {
+        // Given
+        when(messageChangeRepository.findMaxId()).thenReturn(null);
+
+        // When
+        retentionService.purgeChangeLog();
+
+        // Then
+        verify(messageChangeRepository, never()).findIdsChangedBefore(any(), anyLong(), any());
+        verify(messageChangeRepository, never()).deleteByIdIn(anyList());
+    }
+}
@@ -0,0 +1,194 @@
+package com.swnih.service;
+
+import com.swnih.entity.Message;
+import com.swnih.entity.MessageChange;
+import com.swnih.entity.PriorityLevel;
+import com.swnih.entity.User;
+import com.swnih.repository.ArchivedMessageRepository;
+import com.swnih.repository.MessageBodyRepository;
+import com.swnih.repository.MessageChangeRepository;
+import com.swnih.repository.MessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MessageService delta sync.
+ * Tests cursor validation, collapsing of changes and paging.
+ */
+@ExtendWith(MockitoExtension.class)
+class MessageServiceTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private MessageBodyRepository messageBodyRepository;
+
+    @Mock
+    private MessageBodyCodec messageBodyCodec;
+
+    @Mock
+    private ArchivedMessageRepository archivedMessageRepository;
+
+    @Mock
+    private MessageChangeRepository messageChangeRepository;
+
+    private MessageService messageService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        messageService = new MessageService(messageRepository, messageBodyRepository, messageBodyCodec,
+                archivedMessageRepository, messageChangeRepository);
+
+        testUser = new User("testuser", "test@example.com", "hashedPassword");
+        testUser.setId(1L);
+    }
+
+    @Test
+    void findChanges_WithoutCursor_ShouldReturnResetAtEndOfLog() {
+        // Given
+        when(messageChangeRepository.findLatestIdsChangedBefore(any(), any())).thenReturn(List.of(42L));
+
+        // When
+        MessageService.ChangeSet changeSet = messageService.findChanges(testUser, 0, 100);
+
+        // Then
+        assertThat(changeSet.isReset()).isTrue();
+        assertThat(changeSet.getCursor()).isEqualTo(42L);
+        verify(messageChangeRepository, never()).findChangesAfter(anyLong(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void findChanges_WithPurgedCursor_ShouldReturnReset() {
+        // Given
+        when(messageChangeRepository.findLatestIdsChangedBefore(any(), any())).thenReturn(List.of(500L));
+        when(messageChangeRepository.findMinId()).thenReturn(300L);
+
+        // When
+        MessageService.ChangeSet changeSet = messageService.findChanges(testUser, 100, 100);
+
+        // Then
+        assertThat(changeSet.isReset()).isTrue();
+        assertThat(changeSet.getCursor()).isEqualTo(500L);
+    }
+
+    @Test
+    void findChanges_WithCursorBeyondLog_ShouldReturnReset() {
+        // Given
+        when(messageChangeRepository.findLatestIdsChangedBefore(any(), any())).thenReturn(List.of());
+
+        // When
+        MessageService.ChangeSet changeSet = messageService.findChanges(testUser, 10, 100);
+
+        // Then
+        assertThat(changeSet.isReset()).isTrue();
+        assertThat(changeSet.getCursor()).isZero();
+    }
+
+    @Test
+    void findChanges_ShouldCollapseChangesPerMessage() {
+        // Given
+        when(messageChangeRepository.findLatestIdsChangedBefore(any(), any())).thenReturn(List.of(20L));
+        when(messageChangeRepository.findMinId()).thenReturn(1L);
+        when(messageChangeRepository.findChangesAfter(eq(1L), eq(10L), eq(20L), any())).thenReturn(rows(
+                new Object[] {11L, 100L, MessageChange.INSERT},
+                new Object[] {12L, 101L, MessageChange.INSERT},
+                new Object[] {13L, 100L, MessageChange.DELETE}));
+        when(messageRepository.findByUserIdAndIdIn(eq(1L), anyCollection())).thenReturn(List.of(message(101L)));
+
+        // When
+        MessageService.ChangeSet changeSet = messageService.findChanges(testUser, 10, 100);
+
+        // Then
+        assertThat(changeSet.isReset()).isFalse();
+        assertThat(changeSet.getCursor()).isEqualTo(13L);
+        assertThat(changeSet.isHasMore()).isFalse();
+        assertThat(changeSet.getChanges()).extracting(MessageService.Change::getMessageId)
+                .containsExactly(101L, 100L);
+        assertThat(changeSet.getChanges().get(0).getMessage().getId()).isEqualTo(101L);
+        assertThat(changeSet.getChanges().get(1).getType()).isEqualTo(MessageChange.DELETE);
+        assertThat(changeSet.getChanges().get(1).getMessage()).isNull();
+    }
+
+    @Test
+    void findChanges_WithMoreThanLimit_ShouldPage() {
+        // Given
+        when(messageChangeRepository.findLatestIdsChangedBefore(any(), any())).thenReturn(List.of(20L));
+        when(messageChangeRepository.findMinId()).thenReturn(1L);
+        when(messageChangeRepository.findChangesAfter(eq(1L), eq(10L), eq(20L), any())).thenReturn(rows(
+                new Object[] {11L, 100L, MessageChange.DELETE},
+                new Object[] {12L, 101L, MessageChange.DELETE},
+                new Object[] {13L, 102L, MessageChange.DELETE}));
+
+        // When
+        MessageService.ChangeSet changeSet = messageService.findChanges(testUser, 10, 2);
+
+        // Then
+        assertThat(changeSet.isHasMore()).isTrue();
+        assertThat(changeSet.getCursor()).isEqualTo(12L);
+        assertThat(changeSet.getChanges()).hasSize(2);
+        verify(messageRepository, never()).findByUserIdAndIdIn(anyLong(), anyCollection());
+    }
+
+    @Test
+    void findChanges_WithNoChangesForUser_ShouldMoveCursorToEndOfLog() {
+        // Given
+        when(messageChangeRepository.findLatestIdsChangedBefore(any(), any())).thenReturn(List.of(20L));
+        when(messageChangeRepository.findMinId()).thenReturn(1L);
+        when(messageChangeRepository.findChangesAfter(eq(1L), eq(10L), eq(20L), any())).thenReturn(List.of());
+
+        // When
+        MessageService.ChangeSet changeSet = messageService.findChanges(testUser, 10, 100);
+
+        // Then
+        assertThat(changeSet.isReset()).isFalse();
+        assertThat(changeSet.getCursor()).isEqualTo(20L);
+        assertThat(changeSet.getChanges()).isEmpty();
+    }
+
+    @Test
+    void findChanges_ShouldHoldCursorBackToSettledChanges() {
+        // Given
+        ReflectionTestUtils.setField(messageService, "changeLogSettleMillis", 2000L);
+        when(messageChangeRepository.findLatestIdsChangedBefore(any(), any())).thenReturn(List.of(15L));
+        when(messageChangeRepository.findMinId()).thenReturn(1L);
+        when(messageChangeRepository.findChangesAfter(eq(1L), eq(10L), eq(15L), any())).thenReturn(List.of());
+        LocalDateTime before = LocalDateTime.now();
+
+        // When
+        MessageService.ChangeSet changeSet = messageService.findChanges(testUser, 10, 100);
+
+        // Then
+        ArgumentCaptor<LocalDateTime> settledBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(messageChangeRepository).findLatestIdsChangedBefore(settledBefore.capture(), any());
+        assertThat(settledBefore.getValue()).isBeforeOrEqualTo(before.minusSeconds(1));
+        assertThat(changeSet.isReset()).isFalse();
+        assertThat(changeSet.getCursor()).isEqualTo(15L);
+        verify(messageChangeRepository, never()).findMaxId();
+    }
+
+    private List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private Message message(Long id) {
+        Message message = new Message(testUser, "sender@example.com", "Subject", "Snippet",
+                PriorityLevel.HIGH, LocalDateTime.now());
+        message.setId(id);
+        return message;
+    }
+}
@@ -0,0 +1,165 @@
+package com.swnih.service;
+
+import com.swnih.entity.RefreshToken;
+import com.swnih.entity.User;
+import com.swnih.exception.AuthenticationException;
+import com.swnih.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RefreshTokenService.
+ * Tests issuing, rotation, and reuse detection of refresh tokens.
+ */
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository);
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpirationMs", 2592000000L);
+        ReflectionTestUtils.setField(refreshTokenService, "refreshGraceMs", 5000L);
+
+        testUser = new User("testuser", "test@example.com", "hashedPassword");
+        testUser.setId(1L);
+    }
+
+    @Test
+    void issue_ShouldStoreOnlyTheHash() {
+        // When
+        String rawToken = refreshTokenService.issue(testUser);
+
+        // Then
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        assertThat(captor.getValue().getTokenHash()).isEqualTo(RefreshTokenService.hash(rawToken));
+        assertThat(captor.getValue().getTokenHash()).isNotEqualTo(rawToken);
+        assertThat(captor.getValue().getFamilyId()).isNotBlank();
+    }
+
+    @Test
+    void rotate_WithUnusedToken_ShouldIssueReplacementInSameFamily() {
+        // Given
+        RefreshToken stored = storedToken("raw-token", null);
+        when(refreshTokenRepository.markUsed(eq(10L), any())).thenReturn(1);
+
+        // When
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("raw-token");
+
+        // Then
+        assertThat(rotation.getUser()).isEqualTo(testUser);
+        assertThat(rotation.getRefreshToken()).isNotEqualTo("raw-token");
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        assertThat(captor.getValue().getFamilyId()).isEqualTo(stored.getFamilyId());
+    }
+
+    @Test
+    void rotate_WithUsedToken_ShouldRevokeFamily() {
+        // Given
+        storedToken("raw-token", LocalDateTime.now().minusMinutes(1));
+
+        // When & Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("raw-token"))
+            .isInstanceOf(AuthenticationException.class);
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void rotate_WhenConcurrentRefreshWins_ShouldRevokeFamily() {
+        // Given
+        storedToken("raw-token", null);
+        when(refreshTokenRepository.markUsed(eq(10L), any())).thenReturn(0);
+
+        // When & Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("raw-token"))
+            .isInstanceOf(AuthenticationException.class);
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any());
+    }
+
+    @Test
+    void rotate_WithinGracePeriod_ShouldReturnSameReplacement() {
+        // Given
+        RefreshToken stored = storedToken("raw-token", null);
+        when(refreshTokenRepository.markUsed(eq(10L), any())).thenReturn(1);
+        RefreshTokenService.Rotation first = refreshTokenService.rotate("raw-token");
+        stored.setUsedAt(LocalDateTime.now());
+
+        // When
+        RefreshTokenService.Rotation retried = refreshTokenService.rotate("raw-token");
+
+        // Then
+        assertThat(retried.getRefreshToken()).isEqualTo(first.getRefreshToken());
+        assertThat(retried.getUser()).isEqualTo(testUser);
+        verify(refreshTokenRepository, times(1)).save(any());
+        verify(refreshTokenRepository, never()).revokeFamily(anyString(), any());
+    }
+
+    @Test
+    void rotate_AfterGracePeriod_ShouldRevokeFamily() {
+        // Given
+        ReflectionTestUtils.setField(refreshTokenService, "refreshGraceMs", 0L);
+        RefreshToken stored = storedToken("raw-token", null);
+        when(refreshTokenRepository.markUsed(eq(10L), any())).thenReturn(1);
+        refreshTokenService.rotate("raw-token");
+        stored.setUsedAt(LocalDateTime.now());
+
+        // When & Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("raw-token"))
+            .isInstanceOf(AuthenticationException.class);
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any());
+    }
+
+    @Test
+    void rotate_WithinGracePeriodOfRevokedFamily_ShouldThrowException() {
+        // Given
+        RefreshToken stored = storedToken("raw-token", null);
+        when(refreshTokenRepository.markUsed(eq(10L), any())).thenReturn(1);
+        refreshTokenService.rotate("raw-token");
+        stored.setUsedAt(LocalDateTime.now());
+        stored.setRevokedAt(LocalDateTime.now());
+
+        // When & Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("raw-token"))
+            .isInstanceOf(AuthenticationException.class);
+    }
+
+    @Test
+    void rotate_WithUnknownToken_ShouldThrowException() {
+        // Given
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> refreshTokenService.rotate("unknown"))
+            .isInstanceOf(AuthenticationException.class)
+            .hasMessageContaining("Invalid refresh token");
+    }
+
+    private RefreshToken storedToken(String rawToken, LocalDateTime usedAt) {
+        RefreshToken token = new RefreshToken(testUser, RefreshTokenService.hash(rawToken), "family-1",
+                                              LocalDateTime.now().plusDays(1));
+        token.setId(10L);
+        token.setUsedAt(usedAt);
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash(rawToken))).thenReturn(Optional.of(token));
+        return token;
+    }
+}
@@ -0,0 +1,82 @@
+package com.swnih.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for RequestHedger.
+ * Tests the p95 hedge delay, its floor and the hedge budget.
+ */
+class RequestHedgerTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void shouldNotHedgeBeforeMinimumSamples() {
+        RequestHedger hedger = new RequestHedger(MS, 100, 10, 0.05, 10);
+
+        for (int i = 0; i < 9; i++) {
+            hedger.recordLatency(20 * MS);
+        }
+
+        assertThat(hedger.getHedgeDelayNanos()).isZero();
+    }
+
+    @Test
+    void shouldUseP95LatencyAsHedgeDelay() {
+        RequestHedger hedger = new RequestHedger(MS, 100, 100, 0.05, 10);
+
+        for (int i = 1; i <= 100; i++) {
+            hedger.recordLatency(i * MS);
+        }
+
+        assertThat(hedger.getHedgeDelayNanos()).isEqualTo(95 * MS);
+    }
+
+    @Test
+    void shouldNotHedgeSoonerThanMinimumDelay() {
+        RequestHedger hedger = new RequestHedger(50 * MS, 100, 10, 0.05, 10);
+
+        for (int i = 0; i < 10; i++) {
+            hedger.recordLatency(5 * MS);
+        }
+
+        assertThat(hedger.getHedgeDelayNanos()).isEqualTo(50 * MS);
+    }
+
+    @Test
+    void shouldLimitHedgesToBudgetShareOfRequests() {
+        RequestHedger hedger = new RequestHedger(MS, 100, 10, 0.1, 10);
+
+        assertThat(hedger.tryHedge()).isFalse();
+
+        int hedges = 0;
+        for (int i = 0; i < 100; i++) {
+            hedger.onRequest();
+            if (hedger.tryHedge()) {
+                hedges++;
+            }
+        }
+
+        assertThat(hedges).isBetween(9, 10);
+        assertThat(hedger.getStats()).containsEntry("hedgesSent", (long) hedges);
+    }
+
+    @Test
+    void shouldCapSavedHedgesAtMaxBurst() {
+        RequestHedger hedger = new RequestHedger(MS, 100, 10, 0.5, 3);
+
+        for (int i = 0; i < 100; i++) {
+            hedger.onRequest();
+        }
+
+        int hedges = 0;
+        while (hedger.tryHedge()) {
+            hedges++;
+        }
+        assertThat(hedges).isEqualTo(3);
+    }
+}
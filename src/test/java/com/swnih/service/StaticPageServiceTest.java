@@ -0,0 +1,97 @@
+package com.swnih.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StaticPageService.
+ * Tests asset URL rewriting, ETags and gzip delivery of the pages.
+ */
+@DisplayName("StaticPageService Tests")
+class StaticPageServiceTest {
+
+    private StaticPageService staticPageService;
+
+    @BeforeEach
+    void setUp() {
+        ResourceUrlProvider resourceUrlProvider = mock(ResourceUrlProvider.class);
+        when(resourceUrlProvider.getForLookupPath(anyString()))
+                .thenAnswer(invocation -> invocation.<String>getArgument(0).replace(".css", "-abc123.css"));
+        staticPageService = new StaticPageService(resourceUrlProvider);
+    }
+
+    @Test
+    @DisplayName("Should rewrite asset references to versioned URLs")
+    void shouldRewriteAssetReferences() {
+        ResponseEntity<byte[]> response = staticPageService.serve("login", null);
+
+        String html = new String(response.getBody(), StandardCharsets.UTF_8);
+        assertThat(html).contains("href=\"/assets/css/auth-abc123.css\"");
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-cache");
+        assertThat(response.getHeaders().getETag()).isNotBlank();
+    }
+
+    @Test
+    @DisplayName("Should serve gzip to clients that accept it")
+    void shouldServeGzip() throws Exception {
+        ResponseEntity<byte[]> plain = staticPageService.serve("dashboard", null);
+        ResponseEntity<byte[]> gzip = staticPageService.serve("dashboard", "gzip, deflate, br");
+
+        assertThat(gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzip.getHeaders().getETag()).isNotEqualTo(plain.getHeaders().getETag());
+        assertThat(gzip.getBody().length).isLessThan(plain.getBody().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.getBody()))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain.getBody());
+        }
+    }
+
+    @Test
+    @DisplayName("Should honour q-values in Accept-Encoding")
+    void shouldHonourQValues() {
+        assertThat(StaticPageService.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(StaticPageService.acceptsGzip("br, gzip; q=0.0")).isFalse();
+        assertThat(StaticPageService.acceptsGzip("gzip;q=0.5, deflate")).isTrue();
+        assertThat(StaticPageService.acceptsGzip("GZIP")).isTrue();
+        assertThat(StaticPageService.acceptsGzip("*")).isTrue();
+        assertThat(StaticPageService.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(StaticPageService.acceptsGzip("deflate, *;q=0")).isFalse();
+        assertThat(StaticPageService.acceptsGzip("identity")).isFalse();
+        assertThat(staticPageService.serve("dashboard", "gzip;q=0").getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should return the same ETag for repeated requests")
+    void shouldKeepStableETag() {
+        String first = staticPageService.serve("home", null).getHeaders().getETag();
+        String second = staticPageService.serve("home", null).getHeaders().getETag();
+
+        assertThat(first).isEqualTo(second);
+    }
+
+    @Test
+    @DisplayName("Should render all pages when the application is ready")
+    void shouldRenderAllPagesUpFront() {
+        ResourceUrlProvider resourceUrlProvider = mock(ResourceUrlProvider.class);
+        StaticPageService service = new StaticPageService(resourceUrlProvider);
+
+        service.renderAll();
+        int lookupsAfterWarmUp = mockingDetails(resourceUrlProvider).getInvocations().size();
+        service.serve("login", null);
+        service.serve("dashboard", null);
+
+        assertThat(lookupsAfterWarmUp).isPositive();
+        assertThat(mockingDetails(resourceUrlProvider).getInvocations()).hasSize(lookupsAfterWarmUp);
+    }
+}